@@ -0,0 +1,42 @@
+package pl.edu.agh.kis.pz1;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks. It accepts the usual JMH command line, always attaches the GC profiler
+ * so that every result reports the allocation rate next to ops/s, and writes the results to
+ * {@code jmh-result.json} to be kept as the baseline for the next evaluator change.
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Private constructor to prevent instantiation of the utility class.
+     */
+    private BenchmarkRunner() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args JMH options, e.g. a regular expression selecting the benchmarks.
+     * @throws CommandLineOptionException if the options are invalid.
+     * @throws RunnerException if a benchmark fails.
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("jmh-result.json")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,189 @@
+package pl.edu.agh.kis.pz1;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link Deck}: shuffling a full deck, and preparing the deck and dealing the hands of a table,
+ * which is what every game does once, either with a new deck or by resetting the deck of the table.
+ * The deck of the table is shuffled with each kind of {@link ShuffleSource}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeckBenchmark {
+
+    /** The number of players dealt five cards each. */
+    @Param({"2", "6"})
+    private int players;
+
+    /** The kind of {@link ShuffleSource} of the reused deck. */
+    @Param({"splittable", "secure", "seeded"})
+    private String source;
+
+    /** The deck shuffled over and over. */
+    private Deck deck;
+
+    /** The pool of pre-shuffled orders of {@link #pooledDeck}. */
+    private DeckPool pool;
+
+    /** A deck of its own stream taking its orders from {@link #pool}. */
+    private Deck pooledDeck;
+
+    /** The lane of {@link #pooledDeck} in the pool. */
+    private DeckPool.Lane lane;
+
+    /**
+     * Creates the reused deck with the selected source.
+     */
+    @Setup
+    public void setUp() {
+        switch (source) {
+            case "secure":
+                deck = new Deck(new SecureShuffleSource());
+                break;
+            case "seeded":
+                deck = new Deck(new SeededShuffleSource(42L));
+                break;
+            default:
+                deck = new Deck(new SplittableShuffleSource());
+        }
+        pool = new DeckPool(64);
+        pool.start();
+        pooledDeck = new Deck(new SplittableShuffleSource());
+        lane = pool.register(pooledDeck);
+    }
+
+    /**
+     * Stops the producer thread of the pool.
+     */
+    @TearDown
+    public void tearDown() {
+        pool.close();
+    }
+
+    /**
+     * The shuffles of {@link #pooledShuffleAndDeal} served from the pool and done inline, and the refills of the pool
+     * with their summed lag, reported by JMH next to the score of the benchmark. The hit rate is hits over hits plus
+     * misses, the average refill lag is the lag over the refills.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PoolCounters {
+
+        /** The shuffles of the iteration served from the pool. */
+        public long hits;
+
+        /** The shuffles of the iteration done inline because the lane was empty. */
+        public long misses;
+
+        /** The refills of the pool completed during the iteration. */
+        public long refills;
+
+        /** The summed lag of the refills of the iteration, in nanoseconds. */
+        public long refillLagNanos;
+
+        /** The counts of the pool when the iteration started, in the order of the public counters. */
+        private final long[] before = new long[4];
+
+        /**
+         * Records the counts of the pool when the iteration starts.
+         *
+         * @param benchmark The benchmark owning the pool.
+         */
+        @Setup(Level.Iteration)
+        public void start(DeckBenchmark benchmark) {
+            DeckPool pool = benchmark.pool;
+            before[0] = pool.getHits();
+            before[1] = pool.getMisses();
+            before[2] = pool.getRefills();
+            before[3] = pool.getTotalRefillLagNanos();
+        }
+
+        /**
+         * Sets the counters from the pool. JMH reads them before the iteration tear-down, so this runs after every
+         * pooled shuffle.
+         *
+         * @param pool The pool of the benchmark.
+         */
+        void update(DeckPool pool) {
+            hits = pool.getHits() - before[0];
+            misses = pool.getMisses() - before[1];
+            refills = pool.getRefills() - before[2];
+            refillLagNanos = pool.getTotalRefillLagNanos() - before[3];
+        }
+    }
+
+    /**
+     * Shuffles the full deck.
+     *
+     * @return The shuffled deck.
+     */
+    @Benchmark
+    public Deck shuffle() {
+        deck.shuffle();
+        return deck;
+    }
+
+    /**
+     * Creates and shuffles a deck, then deals five cards to every player.
+     *
+     * @param blackhole The sink of the dealt cards.
+     */
+    @Benchmark
+    public void shuffleAndDeal(Blackhole blackhole) {
+        Deck table = new Deck();
+        table.shuffle();
+        for (int card = 0; card < 5 * players; card++) {
+            blackhole.consume(table.getCard());
+        }
+    }
+
+    /**
+     * Resets and shuffles the deck of the table, then deals five cards to every player.
+     *
+     * @param blackhole The sink of the dealt cards.
+     */
+    @Benchmark
+    public void resetShuffleAndDeal(Blackhole blackhole) {
+        deck.reset();
+        deck.shuffle();
+        for (int card = 0; card < 5 * players; card++) {
+            blackhole.consume(deck.getCard());
+        }
+    }
+
+    /**
+     * Takes a pre-shuffled order from the pool, then deals five cards to every player.
+     * On one core the producer competes with the benchmark thread for the CPU, so part of the shuffles still run inline.
+     *
+     * @param blackhole The sink of the dealt cards.
+     * @param counters The hits, misses and refills of the pool.
+     */
+    @Benchmark
+    public void pooledShuffleAndDeal(Blackhole blackhole, PoolCounters counters) {
+        lane.shuffle(pooledDeck);
+        counters.update(pool);
+        for (int card = 0; card < 5 * players; card++) {
+            blackhole.consume(pooledDeck.getCard());
+        }
+    }
+}
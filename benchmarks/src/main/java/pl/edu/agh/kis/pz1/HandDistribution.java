@@ -0,0 +1,152 @@
+package pl.edu.agh.kis.pz1;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Distributions of five-card hands fed to the benchmarks.
+ * <p>
+ * Hands are generated as {@link CardSet} values from a fixed seed, so every run measures the same inputs.
+ * Consecutive hands {@code 2i} and {@code 2i + 1} form the pairs compared by the judging benchmarks.
+ */
+public enum HandDistribution {
+
+    /** Hands dealt from a shuffled deck, as at a real table: half of them are high card. */
+    RANDOM,
+
+    /** Every category equally likely, so rare branches (straights, flushes, full houses) are hit as often as common ones. */
+    UNIFORM_CATEGORY,
+
+    /**
+     * Pairs of hands of the same category, so every comparison has to walk the kickers,
+     * and a quarter of the pairs are exact ties.
+     */
+    CLOSE_CALLS;
+
+    /** All five-card hands grouped by category, built on first use. */
+    private static long[][] handsByCategory;
+
+    /**
+     * Generates hands of this distribution.
+     *
+     * @param count The number of hands, an even number.
+     * @param seed The seed of the generator.
+     * @return The {@link CardSet} of each hand.
+     */
+    public long[] hands(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] hands = new long[count];
+        for (int i = 0; i < count; i += 2) {
+            switch (this) {
+                case RANDOM:
+                    hands[i] = dealt(random);
+                    hands[i + 1] = dealt(random);
+                    break;
+                case UNIFORM_CATEGORY:
+                    hands[i] = ofCategory(random.nextInt(HandCategory.values().length), random);
+                    hands[i + 1] = ofCategory(random.nextInt(HandCategory.values().length), random);
+                    break;
+                default:
+                    int category = random.nextInt(HandCategory.values().length);
+                    hands[i] = ofCategory(category, random);
+                    hands[i + 1] = random.nextInt(4) == 0 ? suitSwapped(hands[i]) : ofCategory(category, random);
+            }
+        }
+        return hands;
+    }
+
+    /**
+     * Generates hands of this distribution as card lists.
+     *
+     * @param count The number of hands, an even number.
+     * @param seed The seed of the generator.
+     * @return The list of cards of each hand.
+     */
+    public List<List<Card>> cardLists(int count, long seed) {
+        List<List<Card>> lists = new ArrayList<>(count);
+        for (long hand : hands(count, seed)) {
+            lists.add(CardSet.toList(hand));
+        }
+        return lists;
+    }
+
+    /**
+     * Deals five random cards.
+     *
+     * @param random The generator.
+     * @return The {@link CardSet} of the hand.
+     */
+    private static long dealt(SplittableRandom random) {
+        long hand = CardSet.EMPTY;
+        while (CardSet.size(hand) < 5) {
+            hand = CardSet.add(hand, random.nextInt(52));
+        }
+        return hand;
+    }
+
+    /**
+     * Picks a random hand of a category.
+     *
+     * @param category The ordinal of the {@link HandCategory}.
+     * @param random The generator.
+     * @return The {@link CardSet} of the hand.
+     */
+    private static long ofCategory(int category, SplittableRandom random) {
+        long[] hands = handsByCategory()[category];
+        return hands[random.nextInt(hands.length)];
+    }
+
+    /**
+     * Returns a hand with the same ranks as the given one and the suits renamed, which ties with it.
+     *
+     * @param hand The {@link CardSet} of the hand.
+     * @return The tying hand, or the hand itself if a flush cannot change suits without changing the set.
+     */
+    private static long suitSwapped(long hand) {
+        for (int permutation = 1; permutation < SuitIsomorphism.PERMUTATIONS; permutation++) {
+            long swapped = SuitIsomorphism.permute(hand, permutation);
+            if (swapped != hand) {
+                return swapped;
+            }
+        }
+        return hand;
+    }
+
+    /**
+     * Enumerates all five-card hands once and groups them by category.
+     *
+     * @return The hands of each category, indexed by the ordinal of the category.
+     */
+    private static synchronized long[][] handsByCategory() {
+        if (handsByCategory == null) {
+            long[] all = new long[RankTable.HANDS];
+            int[] categories = new int[RankTable.HANDS];
+            int[] counts = new int[HandCategory.values().length];
+            int n = 0;
+            for (int e = 4; e < 52; e++) {
+                for (int d = 3; d < e; d++) {
+                    for (int c = 2; c < d; c++) {
+                        for (int b = 1; b < c; b++) {
+                            for (int a = 0; a < b; a++) {
+                                all[n] = 1L << a | 1L << b | 1L << c | 1L << d | 1L << e;
+                                categories[n] = HandScore.category(FiveCardEvaluator.evaluate(a, b, c, d, e)).ordinal();
+                                counts[categories[n++]]++;
+                            }
+                        }
+                    }
+                }
+            }
+            long[][] byCategory = new long[counts.length][];
+            for (int category = 0; category < counts.length; category++) {
+                byCategory[category] = new long[counts[category]];
+                counts[category] = 0;
+            }
+            for (int i = 0; i < n; i++) {
+                byCategory[categories[i]][counts[categories[i]]++] = all[i];
+            }
+            handsByCategory = byCategory;
+        }
+        return handsByCategory;
+    }
+}
@@ -0,0 +1,77 @@
+package pl.edu.agh.kis.pz1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link HandEvaluator}: scoring a hand under the high-hand and the two lowball rankings,
+ * which should all run at the speed of {@link FiveCardEvaluator}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandEvaluatorBenchmark {
+
+    /** The number of prepared hands, a power of two. */
+    private static final int HANDS = 1 << 12;
+
+    /** The distribution of the evaluated hands. */
+    @Param({"RANDOM", "UNIFORM_CATEGORY"})
+    private HandDistribution distribution;
+
+    /** The ranking under test. */
+    @Param({"HIGH", "DEUCE_TO_SEVEN", "ACE_TO_FIVE"})
+    private String variant;
+
+    /** The evaluator of {@link #variant}. */
+    private HandEvaluator evaluator;
+
+    /** The prepared hands. */
+    private List<List<Card>> hands;
+
+    /** The position of the next hand. */
+    private int next;
+
+    /**
+     * Prepares the hands and picks the evaluator.
+     */
+    @Setup
+    public void setUp() {
+        hands = distribution.cardLists(HANDS, 42L);
+        switch (variant) {
+            case "DEUCE_TO_SEVEN":
+                evaluator = HandEvaluator.DEUCE_TO_SEVEN;
+                break;
+            case "ACE_TO_FIVE":
+                evaluator = HandEvaluator.ACE_TO_FIVE;
+                break;
+            default:
+                evaluator = HandEvaluator.HIGH;
+        }
+    }
+
+    /**
+     * Scores the next hand.
+     *
+     * @return The score of the hand.
+     */
+    @Benchmark
+    public int evaluate() {
+        return evaluator.evaluate(hands.get(next++ & (HANDS - 1)));
+    }
+}
@@ -0,0 +1,92 @@
+package pl.edu.agh.kis.pz1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link HandRanker}: the category name used by the game, the kickers used to break ties
+ * and the integer score the other two are derived from.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandRankerBenchmark {
+
+    /** The number of prepared hands, a power of two. */
+    private static final int HANDS = 1 << 12;
+
+    /** The distribution of the evaluated hands. */
+    @Param({"RANDOM", "UNIFORM_CATEGORY"})
+    private HandDistribution distribution;
+
+    /** The ranker under test. */
+    private final HandRanker ranker = new HandRanker();
+
+    /** The prepared hands. */
+    private List<List<Card>> hands;
+
+    /** The position of the next hand. */
+    private int next;
+
+    /**
+     * Prepares the hands.
+     */
+    @Setup
+    public void setUp() {
+        hands = distribution.cardLists(HANDS, 42L);
+    }
+
+    /**
+     * Returns the next prepared hand.
+     *
+     * @return The cards of the hand.
+     */
+    private List<Card> nextHand() {
+        return hands.get(next++ & (HANDS - 1));
+    }
+
+    /**
+     * Names the category of a hand.
+     *
+     * @return The name of the category.
+     */
+    @Benchmark
+    public String rank() {
+        return ranker.rank(nextHand());
+    }
+
+    /**
+     * Lists the cards that break ties between hands of the same category.
+     *
+     * @return The ranks of the cards.
+     */
+    @Benchmark
+    public List<Integer> distinguishmentCards() {
+        return ranker.distinguishmentCards(nextHand());
+    }
+
+    /**
+     * Scores a hand.
+     *
+     * @return The score of the hand.
+     */
+    @Benchmark
+    public int score() {
+        return ranker.score(nextHand());
+    }
+}
@@ -0,0 +1,95 @@
+package pl.edu.agh.kis.pz1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link OmahaEvaluator} against the brute-force path that scores all 60 combinations
+ * of two hole cards and three board cards with {@link HandRanker}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OmahaBenchmark {
+
+    /** The number of prepared deals, a power of two. */
+    private static final int DEALS = 1 << 12;
+
+    /** The ranker of the brute-force path. */
+    private final HandRanker ranker = new HandRanker();
+
+    /** The hole cards of every deal. */
+    private final List<List<Card>> holes = new ArrayList<>();
+
+    /** The board of every deal. */
+    private final List<List<Card>> boards = new ArrayList<>();
+
+    /** The position of the next deal. */
+    private int next;
+
+    /**
+     * Deals the hole cards and boards.
+     */
+    @Setup
+    public void setUp() {
+        Deck deck = new Deck(new SeededShuffleSource(42L));
+        for (int i = 0; i < DEALS; i++) {
+            deck.shuffle();
+            holes.add(new ArrayList<>(deck.getGameDeck().subList(0, OmahaEvaluator.HOLE_CARDS)));
+            boards.add(new ArrayList<>(deck.getGameDeck().subList(OmahaEvaluator.HOLE_CARDS,
+                    OmahaEvaluator.HOLE_CARDS + OmahaEvaluator.BOARD_CARDS)));
+        }
+    }
+
+    /**
+     * Scores the next deal with the pruned search.
+     *
+     * @return The score of the best hand.
+     */
+    @Benchmark
+    public int pruned() {
+        int deal = next++ & (DEALS - 1);
+        return OmahaEvaluator.evaluate(holes.get(deal), boards.get(deal));
+    }
+
+    /**
+     * Scores the next deal by ranking the 60 five-card lists.
+     *
+     * @return The score of the best hand.
+     */
+    @Benchmark
+    public int bruteForce() {
+        int deal = next++ & (DEALS - 1);
+        List<Card> hole = holes.get(deal);
+        List<Card> board = boards.get(deal);
+        int best = 0;
+        for (int a = 0; a < OmahaEvaluator.HOLE_CARDS; a++) {
+            for (int b = a + 1; b < OmahaEvaluator.HOLE_CARDS; b++) {
+                for (int c = 0; c < OmahaEvaluator.BOARD_CARDS; c++) {
+                    for (int d = c + 1; d < OmahaEvaluator.BOARD_CARDS; d++) {
+                        for (int e = d + 1; e < OmahaEvaluator.BOARD_CARDS; e++) {
+                            best = Math.max(best, ranker.score(List.of(hole.get(a), hole.get(b),
+                                    board.get(c), board.get(d), board.get(e))));
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+}
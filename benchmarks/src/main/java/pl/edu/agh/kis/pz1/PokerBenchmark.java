@@ -0,0 +1,76 @@
+package pl.edu.agh.kis.pz1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the showdown, {@link Poker#decideWinner()}, on tables with prepared hands.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PokerBenchmark {
+
+    /** The number of prepared tables, a power of two. */
+    private static final int TABLES = 1 << 8;
+
+    /** The number of players at each table. */
+    @Param({"2", "6"})
+    private int players;
+
+    /** The distribution of the hands of the players. */
+    @Param({"RANDOM", "CLOSE_CALLS"})
+    private HandDistribution distribution;
+
+    /** The prepared tables. */
+    private final List<Poker> tables = new ArrayList<>();
+
+    /** The position of the next table. */
+    private int next;
+
+    /**
+     * Prepares the tables. Hands come from the distribution, so with close calls the players
+     * of a table share categories and the winner is decided by kickers. Hands are drawn independently,
+     * so two players may hold the same card, which does not matter to the ranking.
+     */
+    @Setup
+    public void setUp() {
+        long[] hands = distribution.hands(TABLES * players, 3L);
+        for (int table = 0; table < TABLES; table++) {
+            Poker poker = new Poker();
+            for (int seat = 0; seat < players; seat++) {
+                Player player = new Player(null, seat);
+                player.setCardSet(hands[table * players + seat]);
+                poker.getPlayers().add(player);
+            }
+            poker.setPot(players * 10);
+            tables.add(poker);
+        }
+    }
+
+    /**
+     * Decides the winner of the next table.
+     *
+     * @return The announcement of the winner.
+     */
+    @Benchmark
+    public String decideWinner() {
+        return tables.get(next++ & (TABLES - 1)).decideWinner();
+    }
+}
@@ -0,0 +1,115 @@
+package pl.edu.agh.kis.pz1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.edu.agh.kis.pz1.util.PokerJudge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link PokerJudge#decideWinnerBetweenTwoPlayers(List, List)} on the kicker lists of pairs of hands,
+ * alone and together with the ranking needed to produce the lists.
+ * <p>
+ * The comparison alone is measured on {@link HandDistribution#CLOSE_CALLS} only: hands of different categories are
+ * told apart by their first kicker, so other pairs would not measure the kicker walk the benchmark is about.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PokerJudgeBenchmark {
+
+    /** The number of prepared pairs of hands, a power of two. */
+    private static final int PAIRS = 1 << 11;
+
+    /**
+     * Pairs of hands of the same category and their kicker lists.
+     */
+    @State(Scope.Thread)
+    public static class ClosePairs {
+
+        /** The kicker lists of the prepared hands, pair {@code i} being lists {@code 2i} and {@code 2i + 1}. */
+        private List<List<Integer>> kickers;
+
+        /** The position of the next pair. */
+        private int next;
+
+        /**
+         * Prepares the kicker lists.
+         */
+        @Setup
+        public void setUp() {
+            HandRanker ranker = new HandRanker();
+            kickers = new ArrayList<>(2 * PAIRS);
+            for (List<Card> hand : HandDistribution.CLOSE_CALLS.cardLists(2 * PAIRS, 7L)) {
+                kickers.add(ranker.distinguishmentCards(hand));
+            }
+        }
+    }
+
+    /**
+     * Pairs of hands of a distribution, ranked by the benchmark.
+     */
+    @State(Scope.Thread)
+    public static class Showdowns {
+
+        /** The distribution of the compared hands. */
+        @Param({"RANDOM", "CLOSE_CALLS"})
+        private HandDistribution distribution;
+
+        /** The ranker producing the kicker lists. */
+        private final HandRanker ranker = new HandRanker();
+
+        /** The prepared hands, pair {@code i} being hands {@code 2i} and {@code 2i + 1}. */
+        private List<List<Card>> hands;
+
+        /** The position of the next pair. */
+        private int next;
+
+        /**
+         * Prepares the hands.
+         */
+        @Setup
+        public void setUp() {
+            hands = distribution.cardLists(2 * PAIRS, 7L);
+        }
+    }
+
+    /**
+     * Compares the prepared kicker lists of a pair of the same category.
+     *
+     * @param pairs The prepared pairs.
+     * @return The result of the comparison.
+     */
+    @Benchmark
+    public int decideWinnerBetweenTwoPlayers(ClosePairs pairs) {
+        int pair = 2 * (pairs.next++ & (PAIRS - 1));
+        return PokerJudge.decideWinnerBetweenTwoPlayers(pairs.kickers.get(pair), pairs.kickers.get(pair + 1));
+    }
+
+    /**
+     * Ranks both hands of a pair and compares them, as a showdown does.
+     *
+     * @param showdowns The prepared pairs.
+     * @return The result of the comparison.
+     */
+    @Benchmark
+    public int rankAndDecide(Showdowns showdowns) {
+        int pair = 2 * (showdowns.next++ & (PAIRS - 1));
+        HandRanker ranker = showdowns.ranker;
+        return PokerJudge.decideWinnerBetweenTwoPlayers(ranker.distinguishmentCards(showdowns.hands.get(pair)),
+                ranker.distinguishmentCards(showdowns.hands.get(pair + 1)));
+    }
+}
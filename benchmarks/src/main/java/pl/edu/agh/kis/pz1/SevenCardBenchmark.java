@@ -0,0 +1,92 @@
+package pl.edu.agh.kis.pz1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link SevenCardEvaluator} against the brute-force path that scores all 21 five-card subsets
+ * of the seven cards with {@link HandRanker}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SevenCardBenchmark {
+
+    /** The number of prepared hands, a power of two. */
+    private static final int HANDS = 1 << 12;
+
+    /** The number of cards of a hand. */
+    private static final int CARDS = 7;
+
+    /** The ranker of the brute-force path. */
+    private final HandRanker ranker = new HandRanker();
+
+    /** The seven cards of every hand. */
+    private final List<List<Card>> hands = new ArrayList<>();
+
+    /** The five cards of the subset being ranked by the brute-force path. */
+    private final List<Card> subset = new ArrayList<>(5);
+
+    /** The position of the next hand. */
+    private int next;
+
+    /**
+     * Deals the hands.
+     */
+    @Setup
+    public void setUp() {
+        Deck deck = new Deck(new SeededShuffleSource(42L));
+        for (int i = 0; i < HANDS; i++) {
+            deck.shuffle();
+            hands.add(new ArrayList<>(deck.getGameDeck().subList(0, CARDS)));
+        }
+    }
+
+    /**
+     * Scores the next hand with the lookup tables.
+     *
+     * @return The score of the best hand.
+     */
+    @Benchmark
+    public int table() {
+        return SevenCardEvaluator.evaluate(hands.get(next++ & (HANDS - 1)));
+    }
+
+    /**
+     * Scores the next hand by ranking the 21 five-card subsets.
+     *
+     * @return The score of the best hand.
+     */
+    @Benchmark
+    public int bruteForce() {
+        List<Card> hand = hands.get(next++ & (HANDS - 1));
+        int best = 0;
+        for (int skip1 = 0; skip1 < CARDS; skip1++) {
+            for (int skip2 = skip1 + 1; skip2 < CARDS; skip2++) {
+                subset.clear();
+                for (int i = 0; i < CARDS; i++) {
+                    if (i != skip1 && i != skip2) {
+                        subset.add(hand.get(i));
+                    }
+                }
+                best = Math.max(best, ranker.score(subset));
+            }
+        }
+        return best;
+    }
+}
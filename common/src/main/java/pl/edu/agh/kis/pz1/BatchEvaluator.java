@@ -0,0 +1,60 @@
+package pl.edu.agh.kis.pz1;
+
+/**
+ * Evaluator of five-card hands in batches, for analytics and simulations that score
+ * thousands of hands at a time.
+ * <p>
+ * Hands are passed in a struct-of-arrays layout, either as five columns of card indexes or as
+ * {@link CardSet} masks, and every implementation produces exactly the scores of {@link FiveCardEvaluator}.
+ * {@link #create()} returns the scalar {@link ScalarBatchEvaluator}, which measures faster. The optional
+ * {@code simd} module provides an implementation based on the incubating Vector API, which {@link #create()}
+ * returns instead when the system property {@value #VECTOR_PROPERTY} is {@code true}, the module is on the
+ * class path and the JVM runs with {@code --add-modules jdk.incubator.vector}.
+ */
+public interface BatchEvaluator {
+
+    /** The name of the class of the vectorized implementation in the {@code simd} module. */
+    String VECTOR_IMPLEMENTATION = "pl.edu.agh.kis.pz1.VectorBatchEvaluator";
+
+    /** The system property that opts in to the vectorized implementation. */
+    String VECTOR_PROPERTY = "poker.batch.vector";
+
+    /**
+     * Evaluates a batch of hands stored column by column: hand {@code i} consists of the cards
+     * {@code c0[i]}, {@code c1[i]}, {@code c2[i]}, {@code c3[i]} and {@code c4[i]}.
+     *
+     * @param c0 The indexes of the first cards.
+     * @param c1 The indexes of the second cards.
+     * @param c2 The indexes of the third cards.
+     * @param c3 The indexes of the fourth cards.
+     * @param c4 The indexes of the fifth cards.
+     * @param scores The array receiving the score of each hand.
+     * @param count The number of hands to evaluate.
+     */
+    void evaluate(int[] c0, int[] c1, int[] c2, int[] c3, int[] c4, int[] scores, int count);
+
+    /**
+     * Evaluates a batch of hands, each given as a set of exactly five cards.
+     *
+     * @param cardSets The {@link CardSet} of each hand.
+     * @param scores The array receiving the score of each hand.
+     * @param count The number of hands to evaluate.
+     */
+    void evaluate(long[] cardSets, int[] scores, int count);
+
+    /**
+     * Returns the scalar evaluator, or the vectorized one if {@value #VECTOR_PROPERTY} opts in to it.
+     *
+     * @return The vectorized evaluator if it is opted in to and can be loaded, otherwise the scalar one.
+     */
+    static BatchEvaluator create() {
+        if (!Boolean.getBoolean(VECTOR_PROPERTY)) {
+            return new ScalarBatchEvaluator();
+        }
+        try {
+            return (BatchEvaluator) Class.forName(VECTOR_IMPLEMENTATION).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarBatchEvaluator();
+        }
+    }
+}
@@ -1,14 +1,23 @@
 package pl.edu.agh.kis.pz1;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Represents a single card in a card game.
  * Each card consists of a rank and a suit.
  * This class provides methods for representing a card as a string, comparing cards, and calculating the rank value.
+ * <p>
+ * The 52 cards exist as shared immutable instances, looked up with {@link #of(int)} or {@link #of(Rank, Suit)},
+ * so dealing and parsing never allocate cards. Each card carries its text form, its UTF-8 bytes and a two-byte
+ * ASCII code (e.g. {@code As}, {@code Td}) computed once, so cards can be written to the network without
+ * building strings.
  *
  * @see Rank
  * @see Suit
@@ -37,8 +46,45 @@ public class Card {
         suiEmojiMap.put(Suit.HEARTS, "♥");
     }
 
+    /** The first character of the code of each rank, indexed by ordinal. */
+    private static final byte[] RANK_CODES = "23456789TJQKA".getBytes(StandardCharsets.US_ASCII);
+
+    /** The second character of the code of each suit, indexed by ordinal. */
+    private static final byte[] SUIT_CODES = "shdc".getBytes(StandardCharsets.US_ASCII);
+
+    /** The bytes written before the cards of a list. */
+    private static final byte[] LIST_OPEN = {'['};
+
+    /** The bytes written between the cards of a list. */
+    private static final byte[] LIST_SEPARATOR = {',', ' '};
+
+    /** The bytes written after the cards of a list. */
+    private static final byte[] LIST_CLOSE = {']'};
+
+    /** The shared instance of every card, indexed by {@link #getIndex()}. */
+    private static final Card[] UNIVERSE = new Card[52];
+
+    static {
+        for (int index = 0; index < UNIVERSE.length; index++) {
+            UNIVERSE[index] = new Card(Rank.values()[index % 13], Suit.values()[index / 13]);
+        }
+    }
+
+    /** The text form of the card, as returned by {@link #toString()}. */
+    @Getter(AccessLevel.NONE)
+    private final String text;
+
+    /** The text form encoded in UTF-8. */
+    @Getter(AccessLevel.NONE)
+    private final byte[] utf8;
+
+    /** The two-byte ASCII code of the card: rank, then suit. */
+    @Getter(AccessLevel.NONE)
+    private final byte[] code;
+
     /**
      * Constructs a card with the specified rank and suit.
+     * Prefer {@link #of(Rank, Suit)}, which returns the shared instance instead of allocating.
      *
      * @param rank The rank of the card.
      * @param suit The suit of the card.
@@ -46,6 +92,16 @@ public class Card {
     public Card(Rank rank, Suit suit) {
         this.rank = rank;
         this.suit = suit;
+        Card shared = UNIVERSE[suit.ordinal() * 13 + rank.ordinal()];
+        if (shared != null) {
+            text = shared.text;
+            utf8 = shared.utf8;
+            code = shared.code;
+        } else {
+            text = rank + " of " + suiEmojiMap.get(suit);
+            utf8 = text.getBytes(StandardCharsets.UTF_8);
+            code = new byte[]{RANK_CODES[rank.ordinal()], SUIT_CODES[suit.ordinal()]};
+        }
     }
 
     /**
@@ -56,6 +112,30 @@ public class Card {
     public Card(Card other) {
         this.rank = other.rank;
         this.suit = other.suit;
+        this.text = other.text;
+        this.utf8 = other.utf8;
+        this.code = other.code;
+    }
+
+    /**
+     * Returns the shared instance of a card.
+     *
+     * @param index A value from 0 to 51, as returned by {@link #getIndex()}.
+     * @return The card with that index.
+     */
+    public static Card of(int index) {
+        return UNIVERSE[index];
+    }
+
+    /**
+     * Returns the shared instance of a card.
+     *
+     * @param rank The rank of the card.
+     * @param suit The suit of the card.
+     * @return The card of that rank and suit.
+     */
+    public static Card of(Rank rank, Suit suit) {
+        return UNIVERSE[suit.ordinal() * 13 + rank.ordinal()];
     }
 
     /**
@@ -68,6 +148,97 @@ public class Card {
         return rank.getCardRank();
     }
 
+    /**
+     * Returns the position of the card in a standard 52-card ordering:
+     * suits in declaration order, each holding 13 ranks from 2 to Ace.
+     * This index is the card code used by the hand evaluators.
+     *
+     * @return A value from 0 to 51.
+     */
+    public int getIndex() {
+        return suit.ordinal() * 13 + rank.ordinal();
+    }
+
+    /**
+     * Returns the set containing only this card.
+     *
+     * @return The {@link CardSet} bit of this card.
+     */
+    public long getMask() {
+        return 1L << getIndex();
+    }
+
+    /**
+     * Returns the number of bytes of the UTF-8 text form of the card.
+     *
+     * @return The length written by {@link #putUtf8(ByteBuffer)}.
+     */
+    public int getUtf8Length() {
+        return utf8.length;
+    }
+
+    /**
+     * Writes the UTF-8 text form of the card, the same text as {@link #toString()}.
+     *
+     * @param buffer The buffer to write to.
+     */
+    public void putUtf8(ByteBuffer buffer) {
+        buffer.put(utf8);
+    }
+
+    /**
+     * Writes the two-byte ASCII code of the card, e.g. {@code Kh} for the King of hearts.
+     *
+     * @param buffer The buffer to write to.
+     */
+    public void putCode(ByteBuffer buffer) {
+        buffer.put(code);
+    }
+
+    /**
+     * Returns the number of bytes of the UTF-8 text form of a list of cards.
+     *
+     * @param cards The cards.
+     * @return The length written by {@link #putUtf8(List, ByteBuffer)}.
+     */
+    public static int utf8Length(List<Card> cards) {
+        int length = LIST_OPEN.length + LIST_CLOSE.length;
+        for (int i = 0; i < cards.size(); i++) {
+            length += cards.get(i).utf8.length + (i > 0 ? LIST_SEPARATOR.length : 0);
+        }
+        return length;
+    }
+
+    /**
+     * Writes the UTF-8 text form of a list of cards, the same text as {@code cards.toString()}, e.g.
+     * {@code [TWO of ♣, KING of ♠]}.
+     *
+     * @param cards The cards.
+     * @param buffer The buffer to write to.
+     */
+    public static void putUtf8(List<Card> cards, ByteBuffer buffer) {
+        buffer.put(LIST_OPEN);
+        for (int i = 0; i < cards.size(); i++) {
+            if (i > 0) {
+                buffer.put(LIST_SEPARATOR);
+            }
+            buffer.put(cards.get(i).utf8);
+        }
+        buffer.put(LIST_CLOSE);
+    }
+
+    /**
+     * Writes the codes of a list of cards back to back, two bytes per card.
+     *
+     * @param cards The cards.
+     * @param buffer The buffer to write to.
+     */
+    public static void putCodes(List<Card> cards, ByteBuffer buffer) {
+        for (int i = 0; i < cards.size(); i++) {
+            buffer.put(cards.get(i).code);
+        }
+    }
+
     /**
      * Returns a string representation of the card.
      * For example: "King of ♠".
@@ -76,7 +247,7 @@ public class Card {
      */
     @Override
     public String toString() {
-        return this.rank + " of " + suiEmojiMap.get(this.suit);
+        return text;
     }
 
     /**
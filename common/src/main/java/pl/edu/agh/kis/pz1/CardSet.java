@@ -0,0 +1,241 @@
+package pl.edu.agh.kis.pz1;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code CardSet} class provides operations on sets of cards stored as a single {@code long}.
+ * <p>
+ * Bit {@code i} of the value is set when the card with {@link Card#getIndex() index} {@code i} belongs to the set,
+ * so the 52 cards use the lowest 52 bits and each suit occupies a contiguous block of 13 bits.
+ * Union, intersection, membership and size are single arithmetic operations and never allocate,
+ * which makes the representation suitable for the evaluators and the equity code.
+ * A set is iterated without allocation like this:
+ * <pre>{@code
+ * for (long rest = set; rest != 0; rest &= rest - 1) {
+ *     int index = Long.numberOfTrailingZeros(rest);
+ * }
+ * }</pre>
+ * <p>
+ * This class cannot be instantiated, as it is a utility class containing only static methods.
+ */
+public final class CardSet {
+
+    /** The set without any cards. */
+    public static final long EMPTY = 0L;
+
+    /** The set of all 52 cards. */
+    public static final long FULL_DECK = (1L << 52) - 1;
+
+    /** The mask of the 13 bits used by one suit. */
+    static final long SUIT_BITS = (1L << 13) - 1;
+
+    /** The mask of the four cards of the lowest rank (2), one in each suit. */
+    static final long RANK_BITS = 1L | 1L << 13 | 1L << 26 | 1L << 39;
+
+    /**
+     * Private constructor to prevent instantiation of the utility class.
+     */
+    private CardSet() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Returns the set containing only the given card.
+     *
+     * @param card The card.
+     * @return A set with one card.
+     */
+    public static long of(Card card) {
+        return 1L << card.getIndex();
+    }
+
+    /**
+     * Returns the set containing the given cards.
+     *
+     * @param cards The cards, duplicates are counted once.
+     * @return The set of the cards.
+     */
+    public static long of(List<Card> cards) {
+        long set = EMPTY;
+        for (int i = 0; i < cards.size(); i++) {
+            set |= 1L << cards.get(i).getIndex();
+        }
+        return set;
+    }
+
+    /**
+     * Adds a card to a set.
+     *
+     * @param set The set of cards.
+     * @param index The index of the card to add.
+     * @return The set with the card added.
+     */
+    public static long add(long set, int index) {
+        return set | 1L << index;
+    }
+
+    /**
+     * Removes a card from a set.
+     *
+     * @param set The set of cards.
+     * @param index The index of the card to remove.
+     * @return The set without the card.
+     */
+    public static long remove(long set, int index) {
+        return set & ~(1L << index);
+    }
+
+    /**
+     * Returns the cards present in at least one of the sets.
+     *
+     * @param a The first set.
+     * @param b The second set.
+     * @return The union of the sets.
+     */
+    public static long union(long a, long b) {
+        return a | b;
+    }
+
+    /**
+     * Returns the cards present in both sets.
+     *
+     * @param a The first set.
+     * @param b The second set.
+     * @return The intersection of the sets.
+     */
+    public static long intersection(long a, long b) {
+        return a & b;
+    }
+
+    /**
+     * Returns the cards of the first set that are not in the second set.
+     *
+     * @param a The first set.
+     * @param b The set of cards to remove.
+     * @return The difference of the sets.
+     */
+    public static long difference(long a, long b) {
+        return a & ~b;
+    }
+
+    /**
+     * Checks whether a set contains a card.
+     *
+     * @param set The set of cards.
+     * @param index The index of the card.
+     * @return True if the card belongs to the set, otherwise false.
+     */
+    public static boolean contains(long set, int index) {
+        return (set & 1L << index) != 0;
+    }
+
+    /**
+     * Checks whether a set contains a card.
+     *
+     * @param set The set of cards.
+     * @param card The card.
+     * @return True if the card belongs to the set, otherwise false.
+     */
+    public static boolean contains(long set, Card card) {
+        return contains(set, card.getIndex());
+    }
+
+    /**
+     * Checks whether two sets have no card in common.
+     *
+     * @param a The first set.
+     * @param b The second set.
+     * @return True if the sets are disjoint, otherwise false.
+     */
+    public static boolean disjoint(long a, long b) {
+        return (a & b) == 0;
+    }
+
+    /**
+     * Returns the number of cards in a set.
+     *
+     * @param set The set of cards.
+     * @return The number of cards.
+     */
+    public static int size(long set) {
+        return Long.bitCount(set);
+    }
+
+    /**
+     * Returns the cards of a set that have the given suit.
+     *
+     * @param set The set of cards.
+     * @param suit The suit.
+     * @return The subset of cards of that suit.
+     */
+    public static long suitMask(long set, Suit suit) {
+        return set & SUIT_BITS << (13 * suit.ordinal());
+    }
+
+    /**
+     * Returns the cards of a set that have the given rank.
+     *
+     * @param set The set of cards.
+     * @param rank The rank.
+     * @return The subset of cards of that rank.
+     */
+    public static long rankMask(long set, Rank rank) {
+        return set & RANK_BITS << rank.ordinal();
+    }
+
+    /**
+     * Returns the ranks of the cards of one suit as a 13-bit mask, bit 0 being 2 and bit 12 being Ace.
+     *
+     * @param set The set of cards.
+     * @param suit The suit.
+     * @return The mask of ranks held in that suit.
+     */
+    public static int ranksOfSuit(long set, Suit suit) {
+        return (int) (set >>> (13 * suit.ordinal()) & SUIT_BITS);
+    }
+
+    /**
+     * Returns the ranks present in a set, regardless of suit, as a 13-bit mask.
+     *
+     * @param set The set of cards.
+     * @return The mask of ranks, bit 0 being 2 and bit 12 being Ace.
+     */
+    public static int ranks(long set) {
+        return (int) ((set | set >>> 13 | set >>> 26 | set >>> 39) & SUIT_BITS);
+    }
+
+    /**
+     * Returns the index of the lowest card of a set.
+     *
+     * @param set A non-empty set of cards.
+     * @return The index of the card, or 64 if the set is empty.
+     */
+    public static int first(long set) {
+        return Long.numberOfTrailingZeros(set);
+    }
+
+    /**
+     * Converts a set into a list of cards, ordered by card index.
+     *
+     * @param set The set of cards.
+     * @return A new list containing the cards of the set.
+     */
+    public static List<Card> toList(long set) {
+        List<Card> cards = new ArrayList<>(size(set));
+        for (long rest = set; rest != 0; rest &= rest - 1) {
+            cards.add(Card.of(Long.numberOfTrailingZeros(rest)));
+        }
+        return cards;
+    }
+
+    /**
+     * Returns a string representation of a set, in the same format as a list of cards.
+     *
+     * @param set The set of cards.
+     * @return A string representation of the cards of the set.
+     */
+    public static String toString(long set) {
+        return toList(set).toString();
+    }
+}
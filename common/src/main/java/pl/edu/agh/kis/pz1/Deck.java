@@ -1,56 +1,113 @@
 package pl.edu.agh.kis.pz1;
 
 import lombok.Getter;
+import lombok.Setter;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
  * Represents a deck of cards used in the game.
  * This class allows creating a standard deck of 52 cards, shuffling the deck,
  * and drawing cards from it.
+ * <p>
+ * The cards are kept as their indexes in a {@code byte[]} with a cursor pointing at the top card,
+ * so dealing a card is O(1). Shuffling is lazy: {@link #shuffle()} only marks the remaining cards
+ * as unordered, and each deal then swaps a uniformly chosen remaining card to the top
+ * (one step of a Fisher-Yates shuffle). A hand that deals 25 cards therefore does 25 swaps
+ * instead of permuting the whole deck. {@link #reset()} puts all cards back without allocating,
+ * so one deck can be reused for every hand played at a table.
+ * <p>
+ * The random choices come from the deck's own {@link ShuffleSource}. By default every deck starts
+ * an independent {@link SplittableShuffleSource} stream, so decks of parallel tables never share random state.
  *
  * @see Card
  * @see Suit
  * @see Rank
  */
-@Getter
 public class Deck {
+
     /**
-     * The list representing the deck of cards.
-     * Contains a collection of all 52 cards (13 ranks for each of the 4 suits).
+     * The indexes of the cards, in the order they are dealt.
+     * Positions before {@link #top} were already dealt.
      */
-    private final List<Card> gameDeck;
+    private final byte[] cards;
+
+    /** The indexes of the cards in their initial order, restored by {@link #reset()}. */
+    private final byte[] initialOrder;
+
+    /** The position of the next card to deal. */
+    private int top;
+
+    /**
+     * The end of the part of the deck whose order is already fixed. Positions from here on still have
+     * to be shuffled, which happens one card at a time as they are dealt.
+     */
+    private int orderedUpTo;
+
+    /** The source of the random choices made while shuffling. */
+    @Getter
+    @Setter
+    private ShuffleSource shuffleSource;
 
     /**
      * Constructs a new deck of cards.
      * Initializes the deck by creating a standard set of 52 cards.
      */
     public Deck(){
-        gameDeck = new ArrayList<>();
-        createGameDeck(gameDeck);
+        this(CardSet.FULL_DECK);
+    }
+
+    /**
+     * Constructs a new deck of 52 cards shuffled with a given source.
+     *
+     * @param shuffleSource The {@link ShuffleSource} of the deck, e.g. a {@link SeededShuffleSource} to replay a hand.
+     */
+    public Deck(ShuffleSource shuffleSource){
+        this(CardSet.FULL_DECK, shuffleSource);
     }
 
     /**
-     * Creates a standard deck of 52 cards, consisting of 13 ranks for each of the 4 suits.
+     * Constructs a deck holding exactly the cards of a set, ordered by card index.
      *
-     * @param deck The list in which the cards will be stored.
+     * @param cardSet The {@link CardSet} of cards to put in the deck.
      */
-    private void createGameDeck(List<Card> deck){
-        for(Suit suit : Suit.values()){
-            for(Rank rank : Rank.values()){
-                deck.add(new Card(rank, suit));
-            }
+    public Deck(long cardSet){
+        this(cardSet, new SplittableShuffleSource());
+    }
+
+    /**
+     * Constructs a deck holding exactly the cards of a set, ordered by card index, shuffled with a given source.
+     *
+     * @param cardSet The {@link CardSet} of cards to put in the deck.
+     * @param shuffleSource The {@link ShuffleSource} of the deck.
+     */
+    public Deck(long cardSet, ShuffleSource shuffleSource){
+        this.shuffleSource = shuffleSource;
+        initialOrder = new byte[CardSet.size(cardSet)];
+        int i = 0;
+        for (long rest = cardSet; rest != 0; rest &= rest - 1) {
+            initialOrder[i++] = (byte) Long.numberOfTrailingZeros(rest);
         }
+        cards = initialOrder.clone();
+        orderedUpTo = cards.length;
     }
 
     /**
-     * Shuffles the deck of cards.
-     * Uses the `Collections.shuffle()` method to randomize the order of the cards.
+     * Shuffles the cards remaining in the deck.
+     * The work is deferred: each card is picked at random when it is dealt.
      */
     public void shuffle(){
-        Collections.shuffle(gameDeck);
+        orderedUpTo = top;
+    }
+
+    /**
+     * Puts all cards back into the deck in their initial order, without allocating.
+     */
+    public void reset(){
+        System.arraycopy(initialOrder, 0, cards, 0, cards.length);
+        top = 0;
+        orderedUpTo = cards.length;
     }
 
     /**
@@ -60,9 +117,121 @@ public class Deck {
      * @return The top card of the deck.
      */
     Card getCard(){
-        Card value = gameDeck.get(0);
-        gameDeck.remove(0);
-        return value;
+        return Card.of(dealIndex());
+    }
+
+    /**
+     * Draws (removes) the top card from the deck and returns its index.
+     *
+     * @return The index of the top card of the deck.
+     * @throws IllegalStateException if the deck is empty.
+     */
+    public int dealIndex(){
+        if (top == cards.length) {
+            throw new IllegalStateException("The deck is empty");
+        }
+        if (top >= orderedUpTo) {
+            fixNextPosition();
+        }
+        return cards[top++];
+    }
+
+    /**
+     * Returns the number of cards remaining in the deck.
+     *
+     * @return The number of cards that can still be dealt.
+     */
+    public int size(){
+        return cards.length - top;
+    }
+
+    /**
+     * Returns the cards remaining in the deck, in the order they will be dealt.
+     * A pending shuffle is completed first, so the order does not change afterwards.
+     *
+     * @return A new list of the remaining cards.
+     */
+    public List<Card> getGameDeck(){
+        completeShuffle();
+        List<Card> remaining = new ArrayList<>(size());
+        for (int i = top; i < cards.length; i++) {
+            remaining.add(Card.of(cards[i]));
+        }
+        return remaining;
+    }
+
+    /**
+     * Returns the cards remaining in the deck as a set.
+     *
+     * @return The {@link CardSet} of the remaining cards.
+     */
+    public long toCardSet(){
+        long set = CardSet.EMPTY;
+        for (int i = top; i < cards.length; i++) {
+            set |= 1L << cards[i];
+        }
+        return set;
+    }
+
+    /**
+     * Puts all cards back and shuffles the whole deck with its source, then copies the resulting order.
+     * The order is exactly the one in which the deck would deal after {@link #reset()} and {@link #shuffle()}.
+     *
+     * @param order The array to copy the order into, as long as the deck.
+     */
+    void shuffleInto(byte[] order){
+        reset();
+        shuffle();
+        completeShuffle();
+        System.arraycopy(cards, 0, order, 0, cards.length);
+    }
+
+    /**
+     * Puts all cards back into the deck in an order shuffled in advance, e.g. by {@link DeckPool}.
+     *
+     * @param order The indexes of the cards in the order they are to be dealt, a permutation of the cards of the deck.
+     * @throws IllegalArgumentException if the order does not have as many cards as the deck.
+     */
+    void load(byte[] order){
+        if (order.length != cards.length) {
+            throw new IllegalArgumentException("The order has " + order.length + " cards, the deck has " + cards.length);
+        }
+        System.arraycopy(order, 0, cards, 0, cards.length);
+        top = 0;
+        orderedUpTo = cards.length;
+    }
+
+    /**
+     * Returns the cards the deck holds when full.
+     *
+     * @return The {@link CardSet} of the cards put back by {@link #reset()}.
+     */
+    long getInitialCardSet(){
+        long set = CardSet.EMPTY;
+        for (byte card : initialOrder) {
+            set |= 1L << card;
+        }
+        return set;
+    }
+
+    /**
+     * Fixes the order of all cards left to shuffle.
+     */
+    private void completeShuffle(){
+        while (orderedUpTo < cards.length) {
+            fixNextPosition();
+        }
+    }
+
+    /**
+     * Performs one step of the Fisher-Yates shuffle: swaps a uniformly chosen card
+     * of the unordered part into the first unordered position.
+     */
+    private void fixNextPosition(){
+        int j = orderedUpTo + shuffleSource.nextInt(cards.length - orderedUpTo);
+        byte card = cards[j];
+        cards[j] = cards[orderedUpTo];
+        cards[orderedUpTo++] = card;
     }
 
     /**
@@ -74,7 +243,7 @@ public class Deck {
     @Override
     public String toString(){
         StringBuilder sb = new StringBuilder();
-        for(Card card : gameDeck){
+        for(Card card : getGameDeck()){
             sb.append(card.toString()).append("\n");
         }
         return sb.toString();
@@ -0,0 +1,334 @@
+package pl.edu.agh.kis.pz1;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of pre-shuffled card orders, filled ahead of demand by a background producer thread.
+ * <p>
+ * When many tables start a hand at the same moment, shuffling on the event-loop thread delays all of them.
+ * With the pool, every table {@link #register(Deck) registers} its deck and gets a {@link Lane} holding up to
+ * {@code ordersPerTable} orders shuffled in advance. {@link Lane#shuffle(Deck)} then just copies the next
+ * order into the deck, and only shuffles inline when the lane is empty.
+ * <p>
+ * Orders are never shared between tables: each lane shuffles with the {@link ShuffleSource} of its own deck,
+ * one order after another, and hands them out first in, first out. The deals of a table are therefore exactly
+ * the sequence of its own stream, whether they came from the pool or were shuffled inline, so a table with a
+ * {@link SeededShuffleSource} can be replayed and audited from its seed alone.
+ * <p>
+ * The pool counts hits (orders taken from the pool), misses (inline shuffles), and the refill lag,
+ * the time from a lane asking for more orders (when it is half empty) until it is full again.
+ */
+public class DeckPool implements AutoCloseable {
+
+    /** The default number of orders prepared for each table. */
+    public static final int DEFAULT_ORDERS_PER_TABLE = 4;
+
+    /** The number of orders prepared for each table. */
+    private final int ordersPerTable;
+
+    /** The lanes waiting to be refilled, in the order they asked. */
+    private final BlockingQueue<Lane> refills = new LinkedBlockingQueue<>();
+
+    /** The number of shuffles served from the pool. */
+    private final LongAdder hits = new LongAdder();
+
+    /** The number of shuffles done inline because the lane was empty. */
+    private final LongAdder misses = new LongAdder();
+
+    /** The number of completed refills. */
+    private final LongAdder completedRefills = new LongAdder();
+
+    /** The sum of the lags of all completed refills, in nanoseconds. */
+    private final LongAdder totalRefillLag = new LongAdder();
+
+    /** The longest lag of a completed refill, in nanoseconds. */
+    private final LongAccumulator maxRefillLag = new LongAccumulator(Math::max, 0);
+
+    /** The producer thread, or {@code null} before {@link #start()}. */
+    private Thread producer;
+
+    /** Whether the pool was closed. */
+    private volatile boolean closed;
+
+    /**
+     * Constructs a pool preparing {@link #DEFAULT_ORDERS_PER_TABLE} orders for each table.
+     */
+    public DeckPool() {
+        this(DEFAULT_ORDERS_PER_TABLE);
+    }
+
+    /**
+     * Constructs a pool.
+     *
+     * @param ordersPerTable The number of orders prepared for each table, at least 1.
+     * @throws IllegalArgumentException if the number is not positive.
+     */
+    public DeckPool(int ordersPerTable) {
+        if (ordersPerTable < 1) {
+            throw new IllegalArgumentException("A table needs at least one pooled order, got " + ordersPerTable);
+        }
+        this.ordersPerTable = ordersPerTable;
+    }
+
+    /**
+     * Starts the producer thread. Until then, every shuffle is done inline.
+     */
+    public synchronized void start() {
+        if (producer == null && !closed) {
+            producer = new Thread(this::produce, "deck-pool");
+            producer.setDaemon(true);
+            producer.start();
+        }
+    }
+
+    /**
+     * Registers the deck of a table. From now on the deck's {@link ShuffleSource} is used by the lane,
+     * so the table must shuffle the deck only through {@link Lane#shuffle(Deck)}.
+     *
+     * @param deck The deck of the table.
+     * @return The lane of the table.
+     */
+    public Lane register(Deck deck) {
+        Lane lane = new Lane(deck);
+        lane.requestRefill();
+        return lane;
+    }
+
+    /**
+     * Stops the producer thread. Registered lanes keep working, shuffling inline.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (producer != null) {
+            producer.interrupt();
+        }
+    }
+
+    /**
+     * Returns the number of shuffles served from the pool.
+     *
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of shuffles done inline because the lane was empty.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the share of shuffles served from the pool.
+     *
+     * @return The hit rate from 0 to 1, or 0 if nothing was shuffled yet.
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Returns the number of completed refills.
+     *
+     * @return The number of times a lane was topped up to its capacity.
+     */
+    public long getRefills() {
+        return completedRefills.sum();
+    }
+
+    /**
+     * Returns the summed time from a lane asking for more orders until it was full again, over all completed refills.
+     *
+     * @return The total refill lag in nanoseconds.
+     */
+    public long getTotalRefillLagNanos() {
+        return totalRefillLag.sum();
+    }
+
+    /**
+     * Returns the average time from a lane asking for more orders until it was full again.
+     *
+     * @return The average refill lag in nanoseconds, or 0 if no refill completed yet.
+     */
+    public long getAverageRefillLagNanos() {
+        long count = completedRefills.sum();
+        return count == 0 ? 0 : totalRefillLag.sum() / count;
+    }
+
+    /**
+     * Returns the longest time from a lane asking for more orders until it was full again.
+     *
+     * @return The longest refill lag in nanoseconds.
+     */
+    public long getMaxRefillLagNanos() {
+        return maxRefillLag.get();
+    }
+
+    /**
+     * Refills the lanes waiting for it on the calling thread, e.g. to drive a pool whose producer is not started.
+     *
+     * @return The number of lanes refilled.
+     */
+    int refillPending() {
+        int count = 0;
+        Lane lane;
+        while (!closed && (lane = refills.poll()) != null) {
+            lane.refill();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * The loop of the producer thread: refills lanes in the order they asked, until the pool is closed.
+     */
+    private void produce() {
+        try {
+            while (!closed) {
+                refills.take().refill();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The pre-shuffled orders of one table. Thread-safe: the table takes orders while the producer adds them.
+     */
+    public final class Lane {
+
+        /**
+         * A deck with the cards and the {@link ShuffleSource} of the table's deck, shuffled to produce the orders.
+         * It is only used while holding the lock of the lane, so the stream is consumed one order at a time.
+         */
+        private final Deck generator;
+
+        /** A ring of prepared orders; {@link #count} of them starting at {@link #head} are ready. */
+        private final byte[][] orders;
+
+        /** The position of the next ready order. */
+        private int head;
+
+        /** The number of ready orders. */
+        private int count;
+
+        /** The number of orders shuffled from the table's stream so far. */
+        private long shuffled;
+
+        /** Whether the lane is waiting in the refill queue. */
+        private final AtomicBoolean refillRequested = new AtomicBoolean();
+
+        /** When the lane last asked for a refill, from {@link System#nanoTime()}. */
+        private volatile long refillRequestedAt;
+
+        /** Whether the lane was closed. */
+        private volatile boolean laneClosed;
+
+        /**
+         * Constructs the lane of a table.
+         *
+         * @param deck The deck of the table.
+         */
+        private Lane(Deck deck) {
+            long cards = deck.getInitialCardSet();
+            generator = new Deck(cards, deck.getShuffleSource());
+            orders = new byte[ordersPerTable][CardSet.size(cards)];
+        }
+
+        /**
+         * Puts all cards back into the deck of the table in the next order of its stream:
+         * a pre-shuffled one if available, otherwise shuffled inline.
+         * The producer is woken only once the lane is half empty, so it refills in batches.
+         *
+         * @param deck The deck of the table, the one the lane was registered with.
+         */
+        public void shuffle(Deck deck) {
+            synchronized (this) {
+                if (count > 0) {
+                    hits.increment();
+                } else {
+                    generator.shuffleInto(orders[head]);
+                    shuffled++;
+                    count++;
+                    misses.increment();
+                }
+                deck.load(orders[head]);
+                head = (head + 1) % orders.length;
+                count--;
+                if (count > orders.length / 2) {
+                    return;
+                }
+            }
+            requestRefill();
+        }
+
+        /**
+         * Returns the number of orders ready to be taken.
+         *
+         * @return The number of pre-shuffled orders.
+         */
+        public synchronized int getAvailable() {
+            return count;
+        }
+
+        /**
+         * Returns the number of orders shuffled from the table's stream, the ones taken and the ones still ready.
+         * Replaying the stream from the start reproduces all of them in the same order.
+         *
+         * @return The number of shuffled orders.
+         */
+        public synchronized long getShuffled() {
+            return shuffled;
+        }
+
+        /**
+         * Stops refilling the lane, e.g. when its table is closed. Later shuffles are done inline.
+         */
+        public void close() {
+            laneClosed = true;
+        }
+
+        /**
+         * Queues the lane for the producer, unless it is queued already.
+         */
+        private void requestRefill() {
+            if (!laneClosed && !closed && refillRequested.compareAndSet(false, true)) {
+                refillRequestedAt = System.nanoTime();
+                refills.add(this);
+            }
+        }
+
+        /**
+         * Tops the lane up to its capacity and records the lag. Called by the producer thread.
+         */
+        private void refill() {
+            long requestedAt = refillRequestedAt;
+            refillRequested.set(false);
+            while (!laneClosed && !closed) {
+                synchronized (this) {
+                    if (count == orders.length) {
+                        break;
+                    }
+                    generator.shuffleInto(orders[(head + count) % orders.length]);
+                    shuffled++;
+                    count++;
+                }
+            }
+            long lag = System.nanoTime() - requestedAt;
+            completedRefills.increment();
+            totalRefillLag.add(lag);
+            maxRefillLag.accumulate(lag);
+        }
+    }
+}
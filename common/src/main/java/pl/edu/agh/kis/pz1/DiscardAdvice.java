@@ -0,0 +1,126 @@
+package pl.edu.agh.kis.pz1;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The expected value of every one of the 32 ways to exchange cards of a five-card hand,
+ * as computed by {@link DiscardAdvisor}.
+ * <p>
+ * A discard is a 5-bit mask over the positions of the hand: bit {@code i} is set when the card at position
+ * {@code i} is thrown away. Mask 0 stands pat and mask 31 draws five new cards.
+ * <p>
+ * Instances are immutable.
+ */
+public final class DiscardAdvice {
+
+    /** The hand the advice is for. */
+    private final List<Card> hand;
+
+    /** The expected value of each discard. */
+    private final double[] values;
+
+    /** The discard with the highest expected value. */
+    private final int bestDiscard;
+
+    /**
+     * Constructs the advice and picks the best discard, preferring fewer cards on equal values.
+     *
+     * @param hand The hand the advice is for.
+     * @param values The expected value of each of the 32 discards.
+     */
+    DiscardAdvice(List<Card> hand, double[] values) {
+        this.hand = Collections.unmodifiableList(new ArrayList<>(hand));
+        this.values = values.clone();
+        int best = 0;
+        for (int discard = 1; discard < values.length; discard++) {
+            if (values[discard] > values[best]
+                    || values[discard] == values[best] && Integer.bitCount(discard) < Integer.bitCount(best)) {
+                best = discard;
+            }
+        }
+        this.bestDiscard = best;
+    }
+
+    /**
+     * Returns the hand the advice is for.
+     *
+     * @return An unmodifiable list of the five cards.
+     */
+    public List<Card> getHand() {
+        return hand;
+    }
+
+    /**
+     * Returns the discard with the highest expected value.
+     *
+     * @return The mask of the positions to throw away.
+     */
+    public int getBestDiscard() {
+        return bestDiscard;
+    }
+
+    /**
+     * Returns the expected value of the best discard.
+     *
+     * @return A value from 0 to 1.
+     */
+    public double getBestValue() {
+        return values[bestDiscard];
+    }
+
+    /**
+     * Returns the expected value of a discard.
+     *
+     * @param discard The mask of the positions to throw away.
+     * @return A value from 0 to 1.
+     */
+    public double getValue(int discard) {
+        return values[discard];
+    }
+
+    /**
+     * Returns the cards thrown away by the best discard.
+     *
+     * @return The cards to exchange.
+     */
+    public List<Card> getDiscards() {
+        List<Card> discards = new ArrayList<>();
+        for (int i = 0; i < hand.size(); i++) {
+            if ((bestDiscard >>> i & 1) != 0) {
+                discards.add(hand.get(i));
+            }
+        }
+        return discards;
+    }
+
+    /**
+     * Returns the numbers of the cards thrown away by the best discard, counted from 1,
+     * in the form accepted by the exchange command of the game.
+     *
+     * @return A modifiable list of card numbers.
+     */
+    public List<Integer> getCardNumbers() {
+        List<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < hand.size(); i++) {
+            if ((bestDiscard >>> i & 1) != 0) {
+                numbers.add(i + 1);
+            }
+        }
+        return numbers;
+    }
+
+    /**
+     * Returns a string representation of the best discard.
+     *
+     * @return A string representation of the advice.
+     */
+    @Override
+    public String toString() {
+        if (bestDiscard == 0) {
+            return String.format("Stand pat (expected value %.4f)", getBestValue());
+        }
+        return String.format("Exchange cards %s (expected value %.4f)", getCardNumbers(), getBestValue());
+    }
+}
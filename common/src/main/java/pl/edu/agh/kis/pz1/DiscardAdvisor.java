@@ -0,0 +1,419 @@
+package pl.edu.agh.kis.pz1;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Advisor computing the expected value of every one of the 32 ways to exchange cards in five-card draw.
+ * <p>
+ * The value of a final hand is the probability that it beats {@code opponents} hands taken at random
+ * from all 2,598,960 hands, i.e. its strength raised to the power of the number of opponents
+ * (a split counts as half). The value of a discard is the average over all draws that can replace it.
+ * <p>
+ * The 32 discards are evaluated in parallel on a {@link ForkJoinPool}. A discard whose draws number
+ * at most the sample budget is enumerated exactly, larger ones are estimated from a fixed number
+ * of random draws seeded by the hand, so the advice is always the same for the same hand.
+ * Results are cached in an {@link EquityCache} under the {@link SuitIsomorphism suit-canonical} form
+ * of the hand, so all hands that differ only by suits share one computation. Advice that takes dead cards
+ * into account is not cached.
+ */
+public class DiscardAdvisor {
+
+    /** The number of ways to exchange cards of a five-card hand. */
+    public static final int SUBSETS = 32;
+
+    /** The default number of draws per discard, above which draws are sampled instead of enumerated. */
+    static final int DEFAULT_SAMPLES = 2048;
+
+    /** The memory budget of the cache, enough for about 40,000 situations. */
+    static final long CACHE_BYTES = 12L << 20;
+
+    /** The per-thread copy of the stub used while sampling. */
+    private static final ThreadLocal<int[]> SCRATCH = ThreadLocal.withInitial(() -> new int[52]);
+
+    /** The pool evaluating the discards. */
+    private final ForkJoinPool pool;
+
+    /** The number of draws per discard above which draws are sampled. */
+    private final int samples;
+
+    /** The values of the discards, indexed by the canonical hand and the number of opponents. */
+    private final EquityCache cache = new EquityCache(CACHE_BYTES, SUBSETS);
+
+    /**
+     * Constructs an advisor running on the common fork/join pool with the default sample budget.
+     */
+    public DiscardAdvisor() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SAMPLES);
+    }
+
+    /**
+     * Constructs an advisor running on the given pool.
+     *
+     * @param pool The pool evaluating the discards.
+     * @param samples The number of draws per discard above which draws are sampled instead of enumerated.
+     */
+    public DiscardAdvisor(ForkJoinPool pool, int samples) {
+        this.pool = pool;
+        this.samples = samples;
+    }
+
+    /**
+     * Computes the value of every discard against opponents holding random hands.
+     *
+     * @param hand The five cards of the player.
+     * @param opponents The number of opponents, at least 1.
+     * @return The advice for the hand.
+     */
+    public DiscardAdvice advise(List<Card> hand, int opponents) {
+        return advise(hand, CardSet.EMPTY, opponents);
+    }
+
+    /**
+     * Computes the value of every discard against opponents holding random hands,
+     * excluding cards known to be out of the deck from the draws.
+     *
+     * @param hand The five cards of the player.
+     * @param dead Cards that cannot be drawn.
+     * @param opponents The number of opponents, at least 1.
+     * @return The advice for the hand.
+     * @throws IllegalArgumentException if the hand does not hold five distinct cards or overlaps the dead cards.
+     */
+    public DiscardAdvice advise(List<Card> hand, long dead, int opponents) {
+        long set = CardSet.of(hand);
+        if (hand.size() != 5 || CardSet.size(set) != 5 || !CardSet.disjoint(set, dead) || opponents < 1) {
+            throw new IllegalArgumentException("Cannot advise on hand " + hand + " against " + opponents + " opponents");
+        }
+        int permutation = SuitIsomorphism.canonicalPermutation(set);
+        long canonical = SuitIsomorphism.permute(set, permutation);
+        double[] canonicalValues;
+        if (dead == CardSet.EMPTY) {
+            canonicalValues = new double[SUBSETS];
+            if (!cache.get(canonical, CardSet.EMPTY, opponents, canonicalValues)) {
+                canonicalValues = compute(canonical, CardSet.EMPTY, opponents);
+                cache.put(canonical, CardSet.EMPTY, opponents, canonicalValues);
+            }
+        } else {
+            canonicalValues = compute(canonical, SuitIsomorphism.permute(dead, permutation), opponents);
+        }
+
+        int[] position = new int[5];
+        for (int i = 0; i < 5; i++) {
+            int card = SuitIsomorphism.permute(hand.get(i).getIndex(), permutation);
+            position[i] = Long.bitCount(canonical & ((1L << card) - 1));
+        }
+        double[] values = new double[SUBSETS];
+        for (int discard = 0; discard < SUBSETS; discard++) {
+            int canonicalDiscard = 0;
+            for (int i = 0; i < 5; i++) {
+                if ((discard >>> i & 1) != 0) {
+                    canonicalDiscard |= 1 << position[i];
+                }
+            }
+            values[discard] = canonicalValues[canonicalDiscard];
+        }
+        return new DiscardAdvice(hand, values);
+    }
+
+    /**
+     * Returns the number of hands currently cached.
+     *
+     * @return The number of cached hands.
+     */
+    public int getCacheSize() {
+        return (int) cache.getSize();
+    }
+
+    /**
+     * Returns the cache of the advisor, e.g. to monitor its hit rate.
+     *
+     * @return The cache of the discard values.
+     */
+    public EquityCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Evaluates all discards of a hand.
+     *
+     * @param hand The {@link CardSet} of the hand.
+     * @param dead Cards that cannot be drawn.
+     * @param opponents The number of opponents.
+     * @return The values of the discards, with bit {@code i} of a discard standing for the {@code i}-th lowest card.
+     */
+    private double[] compute(long hand, long dead, int opponents) {
+        int[] cards = new int[5];
+        int i = 0;
+        for (long rest = hand; rest != 0; rest &= rest - 1) {
+            cards[i++] = Long.numberOfTrailingZeros(rest);
+        }
+        long stubSet = CardSet.FULL_DECK & ~hand & ~dead;
+        int[] stub = new int[CardSet.size(stubSet)];
+        i = 0;
+        for (long rest = stubSet; rest != 0; rest &= rest - 1) {
+            stub[i++] = Long.numberOfTrailingZeros(rest);
+        }
+        double[] values = new double[SUBSETS];
+        pool.invoke(new DiscardTask(new Situation(hand, cards, stub, opponents, samples), values, 0, SUBSETS));
+        return values;
+    }
+
+    /**
+     * Returns the value of a final hand.
+     *
+     * @param situation The hand and the stub.
+     * @param score The score of the hand.
+     * @return The probability of beating all opponents.
+     */
+    private static double value(Situation situation, int score) {
+        return situation.values[Strengths.indexOf(score)];
+    }
+
+    /**
+     * Returns the number of ways to choose {@code k} cards out of {@code n}.
+     *
+     * @param n The number of cards.
+     * @param k The number of chosen cards.
+     * @return The binomial coefficient.
+     */
+    private static long binomial(int n, int k) {
+        long result = 1;
+        for (int i = 0; i < k; i++) {
+            result = result * (n - i) / (i + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Evaluates one discard.
+     *
+     * @param situation The hand and the stub.
+     * @param discard The mask of the positions to throw away.
+     * @return The expected value of the discard.
+     */
+    private static double evaluate(Situation situation, int discard) {
+        int[] hand = new int[5];
+        int kept = 0;
+        for (int i = 0; i < 5; i++) {
+            if ((discard >>> i & 1) == 0) {
+                hand[kept++] = situation.cards[i];
+            }
+        }
+        int drawn = 5 - kept;
+        long draws = binomial(situation.stub.length, drawn);
+        if (draws <= situation.samples) {
+            return enumerate(situation, hand, kept, 0) / draws;
+        }
+
+        int[] stub = SCRATCH.get();
+        int stubSize = situation.stub.length;
+        System.arraycopy(situation.stub, 0, stub, 0, stubSize);
+        SplittableRandom random = new SplittableRandom(situation.hand * SUBSETS + discard);
+        double sum = 0;
+        for (int s = 0; s < situation.samples; s++) {
+            for (int k = 0; k < drawn; k++) {
+                int j = k + random.nextInt(stubSize - k);
+                int card = stub[j];
+                stub[j] = stub[k];
+                stub[k] = card;
+                hand[kept + k] = card;
+            }
+            sum += value(situation, FiveCardEvaluator.evaluate(hand[0], hand[1], hand[2], hand[3], hand[4]));
+        }
+        return sum / situation.samples;
+    }
+
+    /**
+     * Sums the values of all completions of a partially filled hand.
+     *
+     * @param situation The hand and the stub.
+     * @param hand The cards of the hand, filled up to {@code filled}.
+     * @param filled The number of cards already in the hand.
+     * @param from The first position of the stub that can still be drawn.
+     * @return The sum of the values of all completions.
+     */
+    private static double enumerate(Situation situation, int[] hand, int filled, int from) {
+        if (filled == 5) {
+            return value(situation, FiveCardEvaluator.evaluate(hand[0], hand[1], hand[2], hand[3], hand[4]));
+        }
+        double sum = 0;
+        for (int i = from; i < situation.stub.length; i++) {
+            hand[filled] = situation.stub[i];
+            sum += enumerate(situation, hand, filled + 1, i + 1);
+        }
+        return sum;
+    }
+
+    /**
+     * The immutable description of the hand shared by all tasks.
+     */
+    private static final class Situation {
+
+        /** The {@link CardSet} of the hand, also the seed of the sampled discards. */
+        private final long hand;
+
+        /** The cards of the hand in ascending index order. */
+        private final int[] cards;
+
+        /** The cards that can be drawn. */
+        private final int[] stub;
+
+        /** The value of every distinct score against the opponents. */
+        private final double[] values;
+
+        /** The number of draws per discard above which draws are sampled. */
+        private final int samples;
+
+        /**
+         * Constructs the description of the hand.
+         *
+         * @param hand The {@link CardSet} of the hand.
+         * @param cards The cards of the hand in ascending index order.
+         * @param stub The cards that can be drawn.
+         * @param opponents The number of opponents.
+         * @param samples The number of draws per discard above which draws are sampled.
+         */
+        Situation(long hand, int[] cards, int[] stub, int opponents, int samples) {
+            this.hand = hand;
+            this.cards = cards;
+            this.stub = stub;
+            this.values = new double[Strengths.STRENGTH.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = Math.pow(Strengths.STRENGTH[i], opponents);
+            }
+            this.samples = samples;
+        }
+    }
+
+    /**
+     * Fork/join task evaluating a range of discards, split in halves down to single discards.
+     */
+    private static final class DiscardTask extends RecursiveAction {
+
+        /** The hand and the stub. */
+        private final transient Situation situation;
+
+        /** The values of the discards. */
+        private final double[] values;
+
+        /** The first discard of the range. */
+        private final int from;
+
+        /** The end of the range (exclusive). */
+        private final int to;
+
+        /**
+         * Constructs a task for a range of discards.
+         *
+         * @param situation The hand and the stub.
+         * @param values The values of the discards.
+         * @param from The first discard of the range.
+         * @param to The end of the range (exclusive).
+         */
+        DiscardTask(Situation situation, double[] values, int from, int to) {
+            this.situation = situation;
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Evaluates the discards of the range, splitting it while it holds more than one discard.
+         */
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new DiscardTask(situation, values, from, middle), new DiscardTask(situation, values, middle, to));
+            } else {
+                values[from] = evaluate(situation, from);
+            }
+        }
+    }
+
+    /**
+     * The strength of every score among all five-card hands, computed on first use.
+     */
+    private static final class Strengths {
+
+        /** The number of slots of the open-addressing table of scores. */
+        private static final int SLOTS = 1 << 14;
+
+        /** The distinct scores, placed by their hash with linear probing. */
+        private static final int[] SLOT_SCORE = new int[SLOTS];
+
+        /** The position of the score of each slot in {@link #STRENGTH}. */
+        private static final short[] SLOT_INDEX = new short[SLOTS];
+
+        /** The fraction of all hands beaten by each distinct score in ascending order, counting equal hands as half. */
+        private static final double[] STRENGTH;
+
+        static {
+            int[] all = new int[RankTable.HANDS];
+            int n = 0;
+            for (int e = 4; e < 52; e++) {
+                for (int d = 3; d < e; d++) {
+                    for (int c = 2; c < d; c++) {
+                        for (int b = 1; b < c; b++) {
+                            for (int a = 0; a < b; a++) {
+                                all[n++] = FiveCardEvaluator.evaluate(a, b, c, d, e);
+                            }
+                        }
+                    }
+                }
+            }
+            Arrays.sort(all);
+            int[] scores = Arrays.stream(all).distinct().toArray();
+            STRENGTH = new double[scores.length];
+            int below = 0;
+            for (int i = 0; i < scores.length; i++) {
+                int equal = 0;
+                while (below + equal < all.length && all[below + equal] == scores[i]) {
+                    equal++;
+                }
+                STRENGTH[i] = (below + equal / 2.0) / all.length;
+                below += equal;
+                int slot = slot(scores[i]);
+                while (SLOT_SCORE[slot] != 0) {
+                    slot = (slot + 1) & (SLOTS - 1);
+                }
+                SLOT_SCORE[slot] = scores[i];
+                SLOT_INDEX[slot] = (short) i;
+            }
+        }
+
+        /**
+         * Private constructor to prevent instantiation of the utility class.
+         */
+        private Strengths() {
+            throw new IllegalStateException("Utility class");
+        }
+
+        /**
+         * Returns the position of a score among the distinct scores.
+         *
+         * @param score The score of a five-card hand.
+         * @return The position of the score in {@link #STRENGTH}.
+         */
+        static int indexOf(int score) {
+            int slot = slot(score);
+            while (SLOT_SCORE[slot] != score) {
+                slot = (slot + 1) & (SLOTS - 1);
+            }
+            return SLOT_INDEX[slot];
+        }
+
+        /**
+         * Returns the home slot of a score.
+         *
+         * @param score The score of a five-card hand.
+         * @return The slot from which probing starts.
+         */
+        private static int slot(int score) {
+            return (score * 0x9E3779B9) >>> 18;
+        }
+    }
+}
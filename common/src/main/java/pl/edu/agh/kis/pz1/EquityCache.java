@@ -0,0 +1,678 @@
+package pl.edu.agh.kis.pz1;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A concurrent cache of equity results, bounded by a memory budget.
+ * <p>
+ * A key is a situation: the cards of a hand, the dead cards and the number of opponents, usually with the hand
+ * in its {@link SuitIsomorphism suit-canonical} form so that isomorphic situations share one entry. A value is a
+ * fixed number of {@code double}s chosen at construction, e.g. the equity of every player or the values of the
+ * 32 discards of {@link DiscardAdvisor}. Keys and values live in primitive arrays allocated up front, so the
+ * cache holds millions of entries without creating an object per entry, and never grows past its budget.
+ * <p>
+ * The cache is split into segments by the hash of the key. Each segment is guarded by a {@link StampedLock}:
+ * lookups run as optimistic reads without taking the lock, and only fall back to the read lock when a write
+ * raced with them. Writes take the write lock of their segment only.
+ * <p>
+ * Eviction follows W-TinyLFU: new entries go to a small window (1% of the segment); an entry leaving the
+ * window is admitted to the main region only if it was asked for more often than the entry it would evict,
+ * as estimated by a compact frequency sketch of all lookups, hits and misses alike, which is halved periodically
+ * so that old popularity fades. Both regions pick their victim with a CLOCK hand that spares recently read entries.
+ * A burst of one-off situations therefore cannot flush the situations that come up at every table.
+ * <p>
+ * The cache counts hits, misses, evictions and rejected admissions.
+ */
+public final class EquityCache {
+
+    /** The share of the entries of a segment held by the admission window, in percent. */
+    static final int WINDOW_PERCENT = 1;
+
+    /** The smallest number of entries planned for a segment, before the budget is checked exactly. */
+    static final int MIN_SEGMENT_ENTRIES = 64;
+
+    /** The largest number of opponents of a key, so that it fits above the 52 bits of the hand. */
+    public static final int MAX_OPPONENTS = (1 << 12) - 1;
+
+    /** The position of the number of opponents in the first word of a key. */
+    private static final int OPPONENTS_SHIFT = 52;
+
+    /** The number of values of every entry. */
+    private final int valueWidth;
+
+    /** The segments, selected by the high word of the hash of a key. */
+    private final Segment[] segments;
+
+    /** The mask of the bits of the hash selecting a segment. */
+    private final int segmentMask;
+
+    /** The number of lookups that found their key. */
+    private final LongAdder hits = new LongAdder();
+
+    /** The number of lookups that did not find their key. */
+    private final LongAdder misses = new LongAdder();
+
+    /** The number of entries removed to make room, including rejected candidates. */
+    private final LongAdder evictions = new LongAdder();
+
+    /** The number of entries dropped when leaving the window because they were less popular than the main victim. */
+    private final LongAdder rejections = new LongAdder();
+
+    /**
+     * Constructs a cache with one segment per expected concurrent writer.
+     *
+     * @param maxBytes The memory budget of the keys, values and bookkeeping of all entries.
+     * @param valueWidth The number of values of every entry.
+     * @throws IllegalArgumentException if the width is not positive or the budget is too small for a single segment.
+     */
+    public EquityCache(long maxBytes, int valueWidth) {
+        this(maxBytes, valueWidth, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4));
+    }
+
+    /**
+     * Constructs a cache.
+     *
+     * @param maxBytes The memory budget of the keys, values and bookkeeping of all entries.
+     * @param valueWidth The number of values of every entry.
+     * @param segments The number of segments, a power of two; fewer are used if the budget is too small for them.
+     * @throws IllegalArgumentException if an argument is invalid or the budget is too small for a single segment.
+     */
+    public EquityCache(long maxBytes, int valueWidth, int segments) {
+        if (valueWidth < 1) {
+            throw new IllegalArgumentException("Entries need at least one value, got " + valueWidth);
+        }
+        if (segments < 1 || Integer.bitCount(segments) != 1) {
+            throw new IllegalArgumentException("The number of segments must be a power of two, got " + segments);
+        }
+        this.valueWidth = valueWidth;
+        long entries = maxBytes / entryBytes(valueWidth);
+        if (entries < MIN_SEGMENT_ENTRIES) {
+            throw new IllegalArgumentException("A budget of " + maxBytes + " bytes holds fewer than "
+                    + MIN_SEGMENT_ENTRIES + " entries of " + valueWidth + " values");
+        }
+        while (entries / segments < MIN_SEGMENT_ENTRIES) {
+            segments >>>= 1;
+        }
+        int perSegment = (int) Math.min(entries / segments, Integer.MAX_VALUE / Math.max(valueWidth, 4) / 2);
+        // the hash table and the sketch are rounded to powers of two, so the estimate may exceed the budget
+        while (perSegment > 1 && segmentBytes(perSegment, valueWidth) * segments > maxBytes) {
+            perSegment -= perSegment / 16 + 1;
+        }
+        this.segments = new Segment[segments];
+        for (int s = 0; s < segments; s++) {
+            this.segments[s] = new Segment(perSegment);
+        }
+        segmentMask = segments - 1;
+    }
+
+    /**
+     * Returns the number of bytes used by an entry, including its share of the hash table and the frequency sketch.
+     *
+     * @param valueWidth The number of values of the entry.
+     * @return The bytes per entry.
+     */
+    static long entryBytes(int valueWidth) {
+        // two key words, the values, the reference flag, two hash table slots and a word of the sketch
+        return 2L * Long.BYTES + (long) valueWidth * Double.BYTES + 1 + 2L * Integer.BYTES + Long.BYTES;
+    }
+
+    /**
+     * Returns the number of bytes allocated by a segment.
+     *
+     * @param capacity The number of entries of the segment.
+     * @param valueWidth The number of values of every entry.
+     * @return The bytes of all arrays of the segment.
+     */
+    static long segmentBytes(int capacity, int valueWidth) {
+        return (long) capacity * (2L * Long.BYTES + (long) valueWidth * Double.BYTES + 1)
+                + (long) tableLength(capacity) * Integer.BYTES + (long) sketchLength(capacity) * Long.BYTES;
+    }
+
+    /**
+     * Returns the length of the hash table of a segment, a power of two at least twice its capacity.
+     *
+     * @param capacity The number of entries of the segment.
+     * @return The number of positions of the table.
+     */
+    private static int tableLength(int capacity) {
+        return Integer.highestOneBit(capacity * 2 - 1) * 2;
+    }
+
+    /**
+     * Returns the number of words of the frequency sketch of a segment, a power of two at most its capacity.
+     *
+     * @param capacity The number of entries of the segment.
+     * @return The number of words of the sketch.
+     */
+    private static int sketchLength(int capacity) {
+        return Math.max(8, Integer.highestOneBit(capacity));
+    }
+
+    /**
+     * Looks up the values of a situation.
+     *
+     * @param hand The {@link CardSet} of the hand.
+     * @param dead The {@link CardSet} of the dead cards.
+     * @param opponents The number of opponents, from 0 to {@link #MAX_OPPONENTS}.
+     * @param values The array receiving the values, at least {@link #getValueWidth()} long.
+     * @return {@code true} if the situation was cached and the values were copied, {@code false} otherwise.
+     * @throws IllegalArgumentException if the number of opponents is out of range.
+     */
+    public boolean get(long hand, long dead, int opponents, double[] values) {
+        long high = keyHigh(hand, opponents);
+        long hash = hash(high, dead);
+        Segment segment = segments[(int) (hash >>> 32) & segmentMask];
+        boolean found = segment.get(high, dead, hash, values);
+        if (found) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return found;
+    }
+
+    /**
+     * Stores the values of a situation, replacing the values cached before.
+     * A new situation may evict another one, or be dropped later if it turns out to be rarely asked for.
+     *
+     * @param hand The {@link CardSet} of the hand.
+     * @param dead The {@link CardSet} of the dead cards.
+     * @param opponents The number of opponents, from 0 to {@link #MAX_OPPONENTS}.
+     * @param values The values, of which the first {@link #getValueWidth()} are stored.
+     * @throws IllegalArgumentException if the number of opponents is out of range.
+     */
+    public void put(long hand, long dead, int opponents, double[] values) {
+        long high = keyHigh(hand, opponents);
+        long hash = hash(high, dead);
+        segments[(int) (hash >>> 32) & segmentMask].put(high, dead, hash, values);
+    }
+
+    /**
+     * Returns the number of values of every entry.
+     *
+     * @return The width of the values.
+     */
+    public int getValueWidth() {
+        return valueWidth;
+    }
+
+    /**
+     * Returns the largest number of entries the cache can hold.
+     *
+     * @return The capacity of all segments.
+     */
+    public long getCapacity() {
+        long capacity = 0;
+        for (Segment segment : segments) {
+            capacity += segment.capacity;
+        }
+        return capacity;
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return The number of entries, read without locking.
+     */
+    public long getSize() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the number of bytes allocated for the entries, within the budget given at construction.
+     *
+     * @return The memory used by the keys, values and bookkeeping of all segments.
+     */
+    public long getMemoryBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.memoryBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the number of lookups that found their key.
+     *
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that did not find their key.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the share of lookups that found their key.
+     *
+     * @return The hit rate from 0 to 1, or 0 if nothing was looked up yet.
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Returns the number of entries removed to make room for others.
+     *
+     * @return The number of evictions, including {@link #getRejections() rejections}.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of new entries dropped by the admission policy instead of evicting a more popular entry.
+     *
+     * @return The number of rejected admissions.
+     */
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    /**
+     * Returns the first word of a key: the hand with the number of opponents above it.
+     *
+     * @param hand The {@link CardSet} of the hand.
+     * @param opponents The number of opponents.
+     * @return The first word of the key.
+     */
+    private static long keyHigh(long hand, int opponents) {
+        if (opponents < 0 || opponents > MAX_OPPONENTS) {
+            throw new IllegalArgumentException("Cannot cache situations with " + opponents + " opponents");
+        }
+        return hand & CardSet.FULL_DECK | (long) opponents << OPPONENTS_SHIFT;
+    }
+
+    /**
+     * Mixes the two words of a key into a hash whose bits are all well distributed.
+     *
+     * @param high The first word of the key.
+     * @param low The second word of the key.
+     * @return The hash of the key.
+     */
+    private static long hash(long high, long low) {
+        long h = high * 0x9E3779B97F4A7C15L ^ low;
+        h = (h ^ h >>> 30) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ h >>> 27) * 0x94D049BB133111EBL;
+        return h ^ h >>> 31;
+    }
+
+    /**
+     * A part of the cache with its own lock, hash table, regions and frequency sketch.
+     * <p>
+     * Entries occupy slots of the primitive arrays: slots below {@link #windowCapacity} form the window,
+     * the others the main region. The hash table maps keys to slots by linear probing.
+     */
+    private final class Segment {
+
+        /** The lock of the segment, read optimistically by lookups. */
+        private final StampedLock lock = new StampedLock();
+
+        /** The number of entries of the segment. */
+        private final int capacity;
+
+        /** The number of slots of the window. */
+        private final int windowCapacity;
+
+        /** The first words of the keys, by slot. */
+        private final long[] keyHighs;
+
+        /** The second words of the keys, by slot. */
+        private final long[] keyLows;
+
+        /** The values, {@link #valueWidth} per slot. */
+        private final double[] values;
+
+        /** Whether each slot was read since the CLOCK hand last passed it. Set by readers without locking. */
+        private final boolean[] referenced;
+
+        /** The hash table holding the slot of each key plus one, or 0 for a free position. */
+        private final int[] table;
+
+        /** The frequency sketch of the keys looked up in the segment. */
+        private final FrequencySketch sketch;
+
+        /** The number of occupied slots of the window. */
+        private int windowSize;
+
+        /** The number of occupied slots of the main region. */
+        private int mainSize;
+
+        /** The number of entries, for monitoring. */
+        private volatile int size;
+
+        /** The CLOCK hand of the window. */
+        private int windowHand;
+
+        /** The CLOCK hand of the main region, relative to its first slot. */
+        private int mainHand;
+
+        /**
+         * Constructs an empty segment.
+         *
+         * @param capacity The number of entries of the segment.
+         */
+        Segment(int capacity) {
+            this.capacity = capacity;
+            windowCapacity = Math.max(1, capacity * WINDOW_PERCENT / 100);
+            keyHighs = new long[capacity];
+            keyLows = new long[capacity];
+            values = new double[capacity * valueWidth];
+            referenced = new boolean[capacity];
+            table = new int[tableLength(capacity)];
+            sketch = new FrequencySketch(capacity);
+        }
+
+        /**
+         * Returns the number of bytes allocated by the segment.
+         *
+         * @return The bytes of all arrays of the segment.
+         */
+        long memoryBytes() {
+            return segmentBytes(capacity, valueWidth);
+        }
+
+        /**
+         * Looks up a key optimistically, falling back to the read lock if a write raced with the lookup.
+         *
+         * @param high The first word of the key.
+         * @param low The second word of the key.
+         * @param hash The hash of the key.
+         * @param out The array receiving the values.
+         * @return Whether the key was found.
+         */
+        boolean get(long high, long low, long hash, double[] out) {
+            long stamp = lock.tryOptimisticRead();
+            int slot = copy(high, low, hash, out);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    slot = copy(high, low, hash, out);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            // lost updates between racing readers only make the estimates slightly less precise
+            sketch.increment(hash);
+            if (slot < 0) {
+                return false;
+            }
+            referenced[slot] = true;
+            return true;
+        }
+
+        /**
+         * Finds a key and copies its values. May see a torn state when called without a lock.
+         *
+         * @param high The first word of the key.
+         * @param low The second word of the key.
+         * @param hash The hash of the key.
+         * @param out The array receiving the values.
+         * @return The slot of the key, or -1 if it was not found.
+         */
+        private int copy(long high, long low, long hash, double[] out) {
+            int slot = find(high, low, hash);
+            if (slot >= 0) {
+                System.arraycopy(values, slot * valueWidth, out, 0, valueWidth);
+            }
+            return slot;
+        }
+
+        /**
+         * Stores the values of a key under the write lock.
+         *
+         * @param high The first word of the key.
+         * @param low The second word of the key.
+         * @param hash The hash of the key.
+         * @param in The values.
+         */
+        void put(long high, long low, long hash, double[] in) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = find(high, low, hash);
+                if (slot < 0) {
+                    slot = freeWindowSlot();
+                    keyHighs[slot] = high;
+                    keyLows[slot] = low;
+                    referenced[slot] = false;
+                    link(slot, hash);
+                }
+                System.arraycopy(in, 0, values, slot * valueWidth, valueWidth);
+                size = windowSize + mainSize;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Frees a slot of the window for a new entry. When the window is full, its CLOCK victim moves to the main
+         * region if there is room, or if it is more popular than the main victim, which is then evicted;
+         * otherwise the window victim is dropped.
+         *
+         * @return The free slot of the window.
+         */
+        private int freeWindowSlot() {
+            if (windowSize < windowCapacity) {
+                return windowSize++;
+            }
+            int candidate = windowHand = sweep(0, windowCapacity, windowHand);
+            long candidateHash = hash(keyHighs[candidate], keyLows[candidate]);
+            int target;
+            if (mainSize < capacity - windowCapacity) {
+                target = windowCapacity + mainSize++;
+            } else {
+                int hand = sweep(windowCapacity, capacity - windowCapacity, mainHand);
+                int victim = windowCapacity + hand;
+                // past the victim whether it stays or the candidate takes its place, or the candidate would be next
+                mainHand = (hand + 1) % (capacity - windowCapacity);
+                long victimHash = hash(keyHighs[victim], keyLows[victim]);
+                evictions.increment();
+                if (sketch.frequency(candidateHash) <= sketch.frequency(victimHash)) {
+                    rejections.increment();
+                    unlink(candidate, candidateHash);
+                    windowHand = (windowHand + 1) % windowCapacity;
+                    return candidate;
+                }
+                unlink(victim, victimHash);
+                target = victim;
+            }
+            keyHighs[target] = keyHighs[candidate];
+            keyLows[target] = keyLows[candidate];
+            System.arraycopy(values, candidate * valueWidth, values, target * valueWidth, valueWidth);
+            referenced[target] = referenced[candidate];
+            unlink(candidate, candidateHash);
+            link(target, candidateHash);
+            windowHand = (windowHand + 1) % windowCapacity;
+            return candidate;
+        }
+
+        /**
+         * Advances a CLOCK hand over a region to the first slot not read since the hand last passed it,
+         * clearing the reference flags on the way.
+         *
+         * @param first The first slot of the region.
+         * @param length The number of slots of the region.
+         * @param hand The position of the hand, relative to the first slot.
+         * @return The position of the victim, relative to the first slot.
+         */
+        private int sweep(int first, int length, int hand) {
+            while (referenced[first + hand]) {
+                referenced[first + hand] = false;
+                hand = (hand + 1) % length;
+            }
+            return hand;
+        }
+
+        /**
+         * Finds the slot of a key in the hash table.
+         *
+         * @param high The first word of the key.
+         * @param low The second word of the key.
+         * @param hash The hash of the key.
+         * @return The slot of the key, or -1 if it is not in the table.
+         */
+        private int find(long high, long low, long hash) {
+            int mask = table.length - 1;
+            int position = (int) hash & mask;
+            // bounded, so that a lookup seeing a torn table during an optimistic read always ends
+            for (int probe = 0; probe <= mask; probe++) {
+                int entry = table[position];
+                if (entry == 0) {
+                    return -1;
+                }
+                int slot = entry - 1;
+                if (keyHighs[slot] == high && keyLows[slot] == low) {
+                    return slot;
+                }
+                position = (position + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Adds a slot to the hash table.
+         *
+         * @param slot The slot.
+         * @param hash The hash of its key.
+         */
+        private void link(int slot, long hash) {
+            int mask = table.length - 1;
+            int position = (int) hash & mask;
+            while (table[position] != 0) {
+                position = (position + 1) & mask;
+            }
+            table[position] = slot + 1;
+        }
+
+        /**
+         * Removes a slot from the hash table, shifting later entries of its probe sequence back.
+         *
+         * @param slot The slot.
+         * @param hash The hash of its key.
+         */
+        private void unlink(int slot, long hash) {
+            int mask = table.length - 1;
+            int hole = (int) hash & mask;
+            while (table[hole] != slot + 1) {
+                hole = (hole + 1) & mask;
+            }
+            int position = hole;
+            while (true) {
+                position = (position + 1) & mask;
+                int entry = table[position];
+                if (entry == 0) {
+                    break;
+                }
+                int home = (int) hash(keyHighs[entry - 1], keyLows[entry - 1]) & mask;
+                // the entry may fill the hole unless its home lies cyclically between the hole and its position
+                boolean stays = hole <= position ? hole < home && home <= position : hole < home || home <= position;
+                if (!stays) {
+                    table[hole] = entry;
+                    hole = position;
+                }
+            }
+            table[hole] = 0;
+        }
+    }
+
+    /**
+     * A count-min sketch of 4-bit counters estimating how often keys were looked up,
+     * four counters per key packed in one array of words. All counters are halved once the number of
+     * increments reaches ten times the capacity of the segment, so the estimates follow recent popularity.
+     */
+    private static final class FrequencySketch {
+
+        /** The seeds of the four hash functions. */
+        private static final long[] SEEDS = {
+            0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L};
+
+        /** The mask keeping the low three bits of every counter when halving. */
+        private static final long HALF_MASK = 0x7777777777777777L;
+
+        /** The counters, sixteen per word. */
+        private final long[] counters;
+
+        /** The number of increments after which all counters are halved. */
+        private final int sampleSize;
+
+        /** The number of increments since the last halving. */
+        private int additions;
+
+        /**
+         * Constructs a sketch with a word per entry.
+         *
+         * @param capacity The number of entries of the segment.
+         */
+        FrequencySketch(int capacity) {
+            counters = new long[sketchLength(capacity)];
+            sampleSize = 10 * capacity;
+        }
+
+        /**
+         * Returns the estimated number of recent lookups of a key.
+         *
+         * @param hash The hash of the key.
+         * @return The smallest of its four counters, from 0 to 15.
+         */
+        int frequency(long hash) {
+            int start = (int) (hash & 3) << 2;
+            int frequency = 15;
+            for (int i = 0; i < 4; i++) {
+                int shift = (start + i) << 2;
+                frequency = Math.min(frequency, (int) (counters[index(hash, i)] >>> shift) & 15);
+            }
+            return frequency;
+        }
+
+        /**
+         * Counts a lookup of a key, halving all counters when the sample is complete.
+         *
+         * @param hash The hash of the key.
+         */
+        void increment(long hash) {
+            int start = (int) (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = index(hash, i);
+                int shift = (start + i) << 2;
+                if ((counters[index] >>> shift & 15) != 15) {
+                    counters[index] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i] = counters[i] >>> 1 & HALF_MASK;
+                }
+                additions /= 2;
+            }
+        }
+
+        /**
+         * Returns the word holding a counter of a key.
+         *
+         * @param hash The hash of the key.
+         * @param i The number of the hash function.
+         * @return The index of the word.
+         */
+        private int index(long hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return (int) h & (counters.length - 1);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package pl.edu.agh.kis.pz1;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Monte Carlo estimator of the win and tie probabilities of five-card draw hands after the draw.
+ * <p>
+ * Every player is described by the cards they keep ({@link CardSet}); the missing cards are drawn
+ * from the stub, i.e. the remaining deck contents without dead cards. A player about whom nothing
+ * is known simply keeps no cards.
+ * <p>
+ * Deals are simulated in batches of {@link #BATCH_SAMPLES} on a {@link ForkJoinPool}. Each batch draws
+ * from its own {@link SplittableRandom} stream split from the seed before the batch is submitted,
+ * so the result for a given seed does not depend on the number of threads or on scheduling.
+ * Batches run in rounds of {@link #BATCHES_PER_ROUND}; after each round the calculator stops
+ * once the 95% confidence interval of every player's equity is narrower than requested.
+ * Workers reuse per-thread scratch buffers, so the simulation itself does not allocate.
+ */
+public class EquityCalculator {
+
+    /** The number of deals simulated by one task. */
+    static final int BATCH_SAMPLES = 1024;
+
+    /** The number of batches simulated between two checks of the confidence interval. */
+    static final int BATCHES_PER_ROUND = 128;
+
+    /** The per-thread scratch buffers of the workers. */
+    private static final ThreadLocal<int[][]> SCRATCH = ThreadLocal.withInitial(() -> new int[3][52]);
+
+    /** The pool running the simulation. */
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a calculator running on the common fork/join pool.
+     */
+    public EquityCalculator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a calculator running on the given pool.
+     *
+     * @param pool The pool running the simulation, e.g. one thread per core.
+     */
+    public EquityCalculator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Estimates the equity of the players using the cards remaining in a deck as the stub.
+     *
+     * @param hands The cards kept by each player.
+     * @param dead Cards that cannot be drawn, e.g. known discards.
+     * @param deck The deck with the remaining cards.
+     * @param seed The seed of the simulation.
+     * @param maxSamples The maximum number of deals to simulate.
+     * @param halfWidth The target half-width of the 95% confidence interval of every equity, or 0 to run all deals.
+     * @return The estimated equities.
+     */
+    public EquityResult calculate(long[] hands, long dead, Deck deck, long seed, long maxSamples, double halfWidth) {
+        long stub = deck.toCardSet();
+        for (long hand : hands) {
+            stub &= ~hand;
+        }
+        return calculate(hands, stub & ~dead, seed, maxSamples, halfWidth);
+    }
+
+    /**
+     * Estimates the equity of the players.
+     *
+     * @param hands The cards kept by each player, at most five each and disjoint from the stub and each other.
+     * @param stub The cards that can be drawn.
+     * @param seed The seed of the simulation.
+     * @param maxSamples The maximum number of deals to simulate.
+     * @param halfWidth The target half-width of the 95% confidence interval of every equity, or 0 to run all deals.
+     * @return The estimated equities.
+     * @throws IllegalArgumentException if the hands overlap, hold too many cards or the stub is too small.
+     */
+    public EquityResult calculate(long[] hands, long stub, long seed, long maxSamples, double halfWidth) {
+        Deal deal = new Deal(hands, stub);
+        SplittableRandom root = new SplittableRandom(seed);
+        int players = hands.length;
+        long[] wins = new long[players];
+        long[] ties = new long[players];
+        double[] shares = new double[players];
+        long samples = 0;
+        while (samples < maxSamples) {
+            int batches = (int) Math.min(BATCHES_PER_ROUND, (maxSamples - samples + BATCH_SAMPLES - 1) / BATCH_SAMPLES);
+            BatchResult[] results = new BatchResult[batches];
+            for (int i = 0; i < batches; i++) {
+                int size = (int) Math.min(BATCH_SAMPLES, maxSamples - samples - (long) i * BATCH_SAMPLES);
+                results[i] = new BatchResult(root.split(), size, players);
+            }
+            pool.invoke(new BatchTask(deal, results, 0, batches));
+            for (BatchResult result : results) {
+                for (int p = 0; p < players; p++) {
+                    wins[p] += result.wins[p];
+                    ties[p] += result.ties[p];
+                    shares[p] += result.shares[p];
+                }
+                samples += result.samples;
+            }
+            if (halfWidth > 0 && new EquityResult(wins, ties, shares, samples).getHalfWidth(widest(shares, samples)) <= halfWidth) {
+                break;
+            }
+        }
+        return new EquityResult(wins, ties, shares, samples);
+    }
+
+    /**
+     * Returns the player whose equity is closest to 1/2, i.e. has the widest confidence interval.
+     *
+     * @param shares The shares of the pot summed over all deals.
+     * @param samples The number of deals.
+     * @return The position of the player.
+     */
+    private static int widest(double[] shares, long samples) {
+        int widest = 0;
+        for (int p = 1; p < shares.length; p++) {
+            if (Math.abs(shares[p] / samples - 0.5) < Math.abs(shares[widest] / samples - 0.5)) {
+                widest = p;
+            }
+        }
+        return widest;
+    }
+
+    /**
+     * The immutable description of the situation shared by all tasks.
+     */
+    private static final class Deal {
+
+        /** The kept cards of every player, five slots per player. */
+        private final int[] kept;
+
+        /** The number of cards kept by every player. */
+        private final int[] keptCount;
+
+        /** The cards that can be drawn. */
+        private final int[] stub;
+
+        /**
+         * Validates the situation and converts it into arrays of card indexes.
+         *
+         * @param hands The cards kept by each player.
+         * @param stub The cards that can be drawn.
+         */
+        Deal(long[] hands, long stub) {
+            kept = new int[hands.length * 5];
+            keptCount = new int[hands.length];
+            long seen = stub;
+            int needed = 0;
+            for (int p = 0; p < hands.length; p++) {
+                if (CardSet.size(hands[p]) > 5 || !CardSet.disjoint(seen, hands[p])) {
+                    throw new IllegalArgumentException("Player " + p + " holds an invalid hand: " + CardSet.toString(hands[p]));
+                }
+                seen |= hands[p];
+                for (long rest = hands[p]; rest != 0; rest &= rest - 1) {
+                    kept[p * 5 + keptCount[p]++] = Long.numberOfTrailingZeros(rest);
+                }
+                needed += 5 - keptCount[p];
+            }
+            if (needed > CardSet.size(stub)) {
+                throw new IllegalArgumentException("Not enough cards to draw: " + needed + " needed");
+            }
+            this.stub = new int[CardSet.size(stub)];
+            int i = 0;
+            for (long rest = stub; rest != 0; rest &= rest - 1) {
+                this.stub[i++] = Long.numberOfTrailingZeros(rest);
+            }
+        }
+    }
+
+    /**
+     * The random stream and the counts of one batch.
+     */
+    private static final class BatchResult {
+
+        /** The random stream of the batch. */
+        private final SplittableRandom random;
+
+        /** The number of deals to simulate. */
+        private final int samples;
+
+        /** The number of deals each player won alone. */
+        private final long[] wins;
+
+        /** The number of deals each player split. */
+        private final long[] ties;
+
+        /** The share of the pot won by each player. */
+        private final double[] shares;
+
+        /**
+         * Constructs an empty batch.
+         *
+         * @param random The random stream of the batch.
+         * @param samples The number of deals to simulate.
+         * @param players The number of players.
+         */
+        BatchResult(SplittableRandom random, int samples, int players) {
+            this.random = random;
+            this.samples = samples;
+            this.wins = new long[players];
+            this.ties = new long[players];
+            this.shares = new double[players];
+        }
+    }
+
+    /**
+     * Fork/join task simulating a range of batches, split in halves down to single batches.
+     */
+    private static final class BatchTask extends RecursiveAction {
+
+        /** The situation to simulate. */
+        private final transient Deal deal;
+
+        /** The batches of the round. */
+        private final transient BatchResult[] results;
+
+        /** The first batch of the range. */
+        private final int from;
+
+        /** The end of the range (exclusive). */
+        private final int to;
+
+        /**
+         * Constructs a task for a range of batches.
+         *
+         * @param deal The situation to simulate.
+         * @param results The batches of the round.
+         * @param from The first batch of the range.
+         * @param to The end of the range (exclusive).
+         */
+        BatchTask(Deal deal, BatchResult[] results, int from, int to) {
+            this.deal = deal;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Simulates the batches of the range, splitting it while it holds more than one batch.
+         */
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BatchTask(deal, results, from, middle), new BatchTask(deal, results, middle, to));
+            } else {
+                simulate(deal, results[from]);
+            }
+        }
+    }
+
+    /**
+     * Simulates the deals of one batch with the scratch buffers of the current thread.
+     *
+     * @param deal The situation to simulate.
+     * @param batch The batch receiving the counts.
+     */
+    private static void simulate(Deal deal, BatchResult batch) {
+        int[][] scratch = SCRATCH.get();
+        int[] stub = scratch[0];
+        int[] scores = scratch[1];
+        int[] hand = scratch[2];
+        int stubSize = deal.stub.length;
+        System.arraycopy(deal.stub, 0, stub, 0, stubSize);
+        int players = deal.keptCount.length;
+        int[] kept = deal.kept;
+        SplittableRandom random = batch.random;
+        for (int s = 0; s < batch.samples; s++) {
+            int top = 0;
+            int best = 0;
+            int bestCount = 0;
+            for (int p = 0; p < players; p++) {
+                System.arraycopy(kept, p * 5, hand, 0, 5);
+                for (int k = deal.keptCount[p]; k < 5; k++) {
+                    // partial Fisher-Yates: only the drawn cards are moved to the front of the stub
+                    int j = top + random.nextInt(stubSize - top);
+                    hand[k] = stub[j];
+                    stub[j] = stub[top];
+                    stub[top++] = hand[k];
+                }
+                int score = FiveCardEvaluator.evaluate(hand[0], hand[1], hand[2], hand[3], hand[4]);
+                scores[p] = score;
+                if (score > best) {
+                    best = score;
+                    bestCount = 1;
+                } else if (score == best) {
+                    bestCount++;
+                }
+            }
+            double share = 1.0 / bestCount;
+            for (int p = 0; p < players; p++) {
+                if (scores[p] == best) {
+                    if (bestCount == 1) {
+                        batch.wins[p]++;
+                    } else {
+                        batch.ties[p]++;
+                    }
+                    batch.shares[p] += share;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package pl.edu.agh.kis.pz1;
+
+/**
+ * The result of an equity calculation: for every player the probability of winning the pot alone
+ * and the probability of splitting it, estimated from a number of simulated deals.
+ * <p>
+ * Instances are immutable.
+ *
+ * @see EquityCalculator
+ */
+public final class EquityResult {
+
+    /** The number of deals each player won alone. */
+    private final long[] wins;
+
+    /** The number of deals each player split with at least one other player. */
+    private final long[] ties;
+
+    /** The expected share of the pot won by each player, summed over all deals. */
+    private final double[] shares;
+
+    /** The number of simulated deals. */
+    private final long samples;
+
+    /**
+     * Constructs a result from the counts collected by the calculator.
+     *
+     * @param wins The number of deals each player won alone.
+     * @param ties The number of deals each player split.
+     * @param shares The share of the pot won by each player, summed over all deals.
+     * @param samples The number of simulated deals.
+     */
+    EquityResult(long[] wins, long[] ties, double[] shares, long samples) {
+        this.wins = wins.clone();
+        this.ties = ties.clone();
+        this.shares = shares.clone();
+        this.samples = samples;
+    }
+
+    /**
+     * Returns the number of players.
+     *
+     * @return The number of players.
+     */
+    public int getPlayers() {
+        return wins.length;
+    }
+
+    /**
+     * Returns the number of simulated deals.
+     *
+     * @return The number of deals.
+     */
+    public long getSamples() {
+        return samples;
+    }
+
+    /**
+     * Returns the probability that a player wins the pot alone.
+     *
+     * @param player The position of the player.
+     * @return A value from 0 to 1.
+     */
+    public double getWin(int player) {
+        return (double) wins[player] / samples;
+    }
+
+    /**
+     * Returns the probability that a player splits the pot.
+     *
+     * @param player The position of the player.
+     * @return A value from 0 to 1.
+     */
+    public double getTie(int player) {
+        return (double) ties[player] / samples;
+    }
+
+    /**
+     * Returns the expected share of the pot of a player, counting a split between k players as 1/k.
+     *
+     * @param player The position of the player.
+     * @return A value from 0 to 1. The equities of all players sum to 1.
+     */
+    public double getEquity(int player) {
+        return shares[player] / samples;
+    }
+
+    /**
+     * Returns the half-width of the 95% confidence interval of a player's equity.
+     *
+     * @param player The position of the player.
+     * @return The half-width of the interval.
+     */
+    public double getHalfWidth(int player) {
+        double equity = getEquity(player);
+        return 1.96 * Math.sqrt(equity * (1 - equity) / samples);
+    }
+
+    /**
+     * Returns a string representation of the result with the equity of every player.
+     *
+     * @return A string representation of the result.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Equity after ").append(samples).append(" deals:");
+        for (int player = 0; player < wins.length; player++) {
+            sb.append(String.format("%n-Player %d: win %.4f, tie %.4f, equity %.4f",
+                    player, getWin(player), getTie(player), getEquity(player)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,274 @@
+package pl.edu.agh.kis.pz1;
+
+import java.util.List;
+
+/**
+ * Table-driven evaluator of five-card poker hands.
+ * <p>
+ * Cards are passed as their {@link Card#getIndex() index} (0-51) and every hand is reduced to
+ * a single {@code int} score in the {@link HandScore} format, so comparing two scores settles the hand.
+ * The evaluation itself allocates nothing and uses two lookup tables built once when the class is loaded:
+ * <ul>
+ *     <li>a flush table indexed by the 13-bit mask of ranks present in the hand,</li>
+ *     <li>a rank-pattern table indexed by the sum of per-rank keys. The keys are chosen so that
+ *     every multiset of five ranks has a different sum, which turns the sum into a perfect hash.</li>
+ * </ul>
+ * <p>
+ * This class cannot be instantiated, as it is a utility class containing only static methods.
+ */
+public final class FiveCardEvaluator {
+
+    /** The number of distinct ranks. */
+    static final int RANKS = 13;
+
+    /**
+     * Per-rank keys of the rank-pattern hash, from 2 to Ace.
+     * Sums of five keys, with every rank used at most four times, are unique.
+     */
+    static final int[] RANK_KEYS = {0, 1, 5, 22, 94, 312, 992, 2422, 5624, 12522, 19998, 43258, 79415};
+
+    /** The largest possible sum of five rank keys (four Aces and a King). */
+    static final int MAX_KEY = 4 * RANK_KEYS[12] + RANK_KEYS[11];
+
+    /** The rank key of each card, indexed by card index. */
+    static final int[] CARD_KEY = new int[52];
+
+    /** The rank bit ({@code 1 << rank}) of each card, indexed by card index. */
+    static final int[] CARD_RANK_BIT = new int[52];
+
+    /** The suit bit ({@code 1 << suit}) of each card, indexed by card index. */
+    static final int[] CARD_SUIT_BIT = new int[52];
+
+    /** Scores of flushes and straight flushes, indexed by the mask of ranks. Zero for masks without five ranks. */
+    static final int[] FLUSH = new int[1 << RANKS];
+
+    /** Scores of hands that are not flushes, indexed by the sum of rank keys. */
+    static final int[] PATTERN = new int[MAX_KEY + 1];
+
+    static {
+        for (int card = 0; card < 52; card++) {
+            int rank = card % RANKS;
+            CARD_KEY[card] = RANK_KEYS[rank];
+            CARD_RANK_BIT[card] = 1 << rank;
+            CARD_SUIT_BIT[card] = 1 << (card / RANKS);
+        }
+        int[] counts = new int[RANKS];
+        fillPatterns(counts, 0, 5);
+        for (int mask = 0; mask < FLUSH.length; mask++) {
+            if (Integer.bitCount(mask) == 5) {
+                for (int rank = 0; rank < RANKS; rank++) {
+                    counts[rank] = (mask >>> rank) & 1;
+                }
+                FLUSH[mask] = scoreOf(counts, true);
+            }
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation of the utility class.
+     */
+    private FiveCardEvaluator() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Evaluates a hand of five cards given by their indexes.
+     *
+     * @param c0 The index of the first card.
+     * @param c1 The index of the second card.
+     * @param c2 The index of the third card.
+     * @param c3 The index of the fourth card.
+     * @param c4 The index of the fifth card.
+     * @return The score of the hand.
+     */
+    public static int evaluate(int c0, int c1, int c2, int c3, int c4) {
+        if ((CARD_SUIT_BIT[c0] & CARD_SUIT_BIT[c1] & CARD_SUIT_BIT[c2] & CARD_SUIT_BIT[c3] & CARD_SUIT_BIT[c4]) != 0) {
+            int flush = FLUSH[CARD_RANK_BIT[c0] | CARD_RANK_BIT[c1] | CARD_RANK_BIT[c2]
+                    | CARD_RANK_BIT[c3] | CARD_RANK_BIT[c4]];
+            if (flush != 0) {
+                return flush;
+            }
+        }
+        return PATTERN[CARD_KEY[c0] + CARD_KEY[c1] + CARD_KEY[c2] + CARD_KEY[c3] + CARD_KEY[c4]];
+    }
+
+    /**
+     * Evaluates a hand of five cards.
+     *
+     * @param cards A list of 5 cards to evaluate. The list is not modified.
+     * @return The score of the hand.
+     */
+    public static int evaluate(List<Card> cards) {
+        return evaluate(cards.get(0).getIndex(), cards.get(1).getIndex(), cards.get(2).getIndex(),
+                cards.get(3).getIndex(), cards.get(4).getIndex());
+    }
+
+    /**
+     * Evaluates a hand given as a set of exactly five cards.
+     *
+     * @param cardSet The {@link CardSet} of the hand.
+     * @return The score of the hand.
+     */
+    public static int evaluate(long cardSet) {
+        long rest = cardSet;
+        int c0 = Long.numberOfTrailingZeros(rest);
+        rest &= rest - 1;
+        int c1 = Long.numberOfTrailingZeros(rest);
+        rest &= rest - 1;
+        int c2 = Long.numberOfTrailingZeros(rest);
+        rest &= rest - 1;
+        int c3 = Long.numberOfTrailingZeros(rest);
+        rest &= rest - 1;
+        return evaluate(c0, c1, c2, c3, Long.numberOfTrailingZeros(rest));
+    }
+
+    /**
+     * Evaluates a batch of hands stored column by column: hand {@code i} consists of the cards
+     * {@code c0[i]}, {@code c1[i]}, {@code c2[i]}, {@code c3[i]} and {@code c4[i]}.
+     *
+     * @param c0 The indexes of the first cards.
+     * @param c1 The indexes of the second cards.
+     * @param c2 The indexes of the third cards.
+     * @param c3 The indexes of the fourth cards.
+     * @param c4 The indexes of the fifth cards.
+     * @param scores The array receiving the score of each hand.
+     * @param count The number of hands to evaluate.
+     */
+    public static void evaluateBatch(int[] c0, int[] c1, int[] c2, int[] c3, int[] c4, int[] scores, int count) {
+        for (int i = 0; i < count; i++) {
+            scores[i] = evaluate(c0[i], c1[i], c2[i], c3[i], c4[i]);
+        }
+    }
+
+    /**
+     * Evaluates a batch of hands, each given as a set of exactly five cards.
+     *
+     * @param cardSets The {@link CardSet} of each hand.
+     * @param scores The array receiving the score of each hand.
+     * @param count The number of hands to evaluate.
+     */
+    public static void evaluateBatch(long[] cardSets, int[] scores, int count) {
+        for (int i = 0; i < count; i++) {
+            scores[i] = evaluate(cardSets[i]);
+        }
+    }
+
+    /**
+     * Returns the score of a flush made of the given ranks.
+     *
+     * @param rankMask The mask of ranks, bit 0 being 2 and bit 12 being Ace.
+     * @return The score of the flush or straight flush, or 0 if the mask does not hold exactly five ranks.
+     */
+    static int flushScore(int rankMask) {
+        return FLUSH[rankMask];
+    }
+
+    /**
+     * Returns the score of a hand that is not a flush.
+     *
+     * @param key The sum of the {@link #RANK_KEYS} of the five cards.
+     * @return The score of the hand.
+     */
+    static int patternScore(int key) {
+        return PATTERN[key];
+    }
+
+    /**
+     * Fills the rank-pattern table with every multiset of five ranks, each rank used at most four times.
+     *
+     * @param counts The number of cards of each rank chosen so far.
+     * @param rank The lowest rank that can still be added.
+     * @param left The number of cards still to add.
+     */
+    private static void fillPatterns(int[] counts, int rank, int left) {
+        if (left == 0) {
+            int key = 0;
+            for (int r = 0; r < RANKS; r++) {
+                key += counts[r] * RANK_KEYS[r];
+            }
+            PATTERN[key] = scoreOf(counts, false);
+            return;
+        }
+        for (int r = rank; r < RANKS; r++) {
+            if (counts[r] < 4) {
+                counts[r]++;
+                fillPatterns(counts, r, left - 1);
+                counts[r]--;
+            }
+        }
+    }
+
+    /**
+     * Computes the score of a five-card hand from the number of cards of each rank.
+     * This is the reference evaluation used to build the lookup tables, it is not used on the hot path.
+     *
+     * @param counts The number of cards of each rank, from 2 to Ace, summing to 5.
+     * @param flush Whether all five cards have the same suit.
+     * @return The score of the hand.
+     */
+    static int scoreOf(int[] counts, boolean flush) {
+        int mask = 0;
+        for (int rank = 0; rank < RANKS; rank++) {
+            if (counts[rank] > 0) {
+                mask |= 1 << rank;
+            }
+        }
+        if (Integer.bitCount(mask) == 5) {
+            int straightHigh = straightHigh(mask);
+            if (straightHigh == 14 && flush) {
+                return HandScore.of(HandCategory.ROYAL_FLUSH, 14);
+            }
+            if (straightHigh > 0) {
+                return HandScore.of(flush ? HandCategory.STRAIGHT_FLUSH : HandCategory.STRAIGHT, straightHigh);
+            }
+            return HandScore.of(flush ? HandCategory.FLUSH : HandCategory.HIGH_CARD, ranksByCount(counts, 5));
+        }
+        int[] kickers = ranksByCount(counts, Integer.bitCount(mask));
+        int top = counts[kickers[0] - 2];
+        int second = counts[kickers[1] - 2];
+        if (top == 4) {
+            return HandScore.of(HandCategory.FOUR_OF_A_KIND, kickers);
+        }
+        if (top == 3) {
+            return HandScore.of(second == 2 ? HandCategory.FULL_HOUSE : HandCategory.THREE_OF_A_KIND, kickers);
+        }
+        return HandScore.of(second == 2 ? HandCategory.TWO_PAIR : HandCategory.PAIR, kickers);
+    }
+
+    /**
+     * Returns the value of the highest card of a straight made of the given ranks.
+     *
+     * @param mask The mask of ranks, bit 0 being 2 and bit 12 being Ace.
+     * @return The value of the highest card (5 for A-2-3-4-5), or 0 if the ranks do not form a straight.
+     */
+    static int straightHigh(int mask) {
+        for (int high = 12; high >= 4; high--) {
+            int straight = 0x1F << (high - 4);
+            if ((mask & straight) == straight) {
+                return high + 2;
+            }
+        }
+        int wheel = 0x100F; // A, 2, 3, 4, 5
+        return (mask & wheel) == wheel ? 5 : 0;
+    }
+
+    /**
+     * Lists the distinct rank values of a hand, the most repeated first and the highest first among equals.
+     *
+     * @param counts The number of cards of each rank.
+     * @param distinct The number of distinct ranks in the hand.
+     * @return The rank values (2-14) in order of significance.
+     */
+    private static int[] ranksByCount(int[] counts, int distinct) {
+        int[] res = new int[distinct];
+        int i = 0;
+        for (int count = 4; count >= 1; count--) {
+            for (int rank = RANKS - 1; rank >= 0; rank--) {
+                if (counts[rank] == count) {
+                    res[i++] = rank + 2;
+                }
+            }
+        }
+        return res;
+    }
+}
@@ -0,0 +1,79 @@
+package pl.edu.agh.kis.pz1;
+
+import lombok.Getter;
+
+/**
+ * The {@code HandCategory} enum represents the categories of a five-card poker hand,
+ * ordered from the weakest ({@link #HIGH_CARD}) to the strongest ({@link #ROYAL_FLUSH}).
+ * <p>
+ * Each category carries the display name used in messages sent to players and the numeric
+ * value stored in the upper bits of a hand score (see {@link HandScore}).
+ */
+@Getter
+public enum HandCategory {
+
+    /** No combination, only the highest cards count. */
+    HIGH_CARD("High Card", 1, 5),
+
+    /** Two cards of the same rank. */
+    PAIR("Pair", 2, 4),
+
+    /** Two pairs of cards of the same rank. */
+    TWO_PAIR("Two Pair", 3, 3),
+
+    /** Three cards of the same rank. */
+    THREE_OF_A_KIND("Three Of A Kind", 4, 3),
+
+    /** Five consecutive cards, not of the same suit. */
+    STRAIGHT("Straight", 5, 1),
+
+    /** Five cards of the same suit, not in order. */
+    FLUSH("Flush", 6, 5),
+
+    /** Three of a kind and a pair. */
+    FULL_HOUSE("Full House", 7, 2),
+
+    /** Four cards of the same rank. */
+    FOUR_OF_A_KIND("Four Of A Kind", 8, 2),
+
+    /** Five consecutive cards of the same suit. */
+    STRAIGHT_FLUSH("Straight Flush", 9, 1),
+
+    /** A, K, Q, J, 10, all of the same suit. */
+    ROYAL_FLUSH("Royal Flush", 10, 1);
+
+    /** The categories in order of value, so lookups do not copy the array returned by {@code values()}. */
+    private static final HandCategory[] VALUES = values();
+
+    /** The name of the category shown to players, e.g. "Full House". */
+    private final String displayName;
+
+    /** The numeric value of the category, 1 for High Card up to 10 for Royal Flush. */
+    private final int value;
+
+    /** The number of rank values needed to break a tie between two hands of this category. */
+    private final int kickerCount;
+
+    /**
+     * Constructor that associates a display name, a value and a kicker count with each category.
+     *
+     * @param displayName The name of the category shown to players.
+     * @param value The numeric value of the category.
+     * @param kickerCount The number of rank values that distinguish hands of this category.
+     */
+    HandCategory(String displayName, int value, int kickerCount) {
+        this.displayName = displayName;
+        this.value = value;
+        this.kickerCount = kickerCount;
+    }
+
+    /**
+     * Returns the category with the given numeric value.
+     *
+     * @param value The numeric value, from 1 to 10.
+     * @return The matching category.
+     */
+    public static HandCategory fromValue(int value) {
+        return VALUES[value - 1];
+    }
+}
@@ -0,0 +1,250 @@
+package pl.edu.agh.kis.pz1;
+
+import java.util.List;
+
+/**
+ * Table-driven evaluator of five-card hands under the rules of one poker variant: high hands,
+ * 2-7 lowball or ace-to-five lowball.
+ * <p>
+ * Every variant returns an {@code int} score where a higher score is a better hand, so the game compares
+ * scores the same way whatever it plays. The three evaluators run the same code, the one of
+ * {@link FiveCardEvaluator}, on their own tables: a flush table indexed by the mask of ranks and a
+ * rank-pattern table indexed by the sum of the rank keys. A table picks its evaluator once and then
+ * scores every hand with two lookups at most, without sorting the cards or branching on the variant.
+ * <ul>
+ *     <li>{@link #HIGH}: the usual ranking, scores in the {@link HandScore} format.</li>
+ *     <li>{@link #DEUCE_TO_SEVEN}: the lowest hand wins, aces are high only, straights and flushes count
+ *     against the hand. The best hand is 7-5-4-3-2 of mixed suits.</li>
+ *     <li>{@link #ACE_TO_FIVE}: the lowest hand wins, aces are low, straights and flushes are ignored.
+ *     The best hand is 5-4-3-2-A.</li>
+ * </ul>
+ * A lowball score is {@link #LOW_BASE} minus a {@link HandScore} of the hand ranked as a high hand under the
+ * variant's rules (with aces counted as 1 in ace-to-five), so that the worst high hand is the best low one.
+ * <p>
+ * Instances are immutable and thread-safe.
+ */
+public final class HandEvaluator {
+
+    /** The value lowball scores are subtracted from, above every {@link HandScore}. */
+    static final int LOW_BASE = (HandCategory.ROYAL_FLUSH.getValue() + 1) << HandScore.CATEGORY_SHIFT;
+
+    /** The names of rank values, from 1 (an ace in ace-to-five) to 14. */
+    private static final String[] RANK_NAMES = {"", "Ace", "Two", "Three", "Four", "Five", "Six", "Seven",
+        "Eight", "Nine", "Ten", "Jack", "Queen", "King", "Ace"};
+
+    /** The mask of the ranks of A-2-3-4-5. */
+    private static final int WHEEL = 0x100F;
+
+    /** The usual high-hand ranking. */
+    public static final HandEvaluator HIGH = new HandEvaluator("High",
+            FiveCardEvaluator.FLUSH, FiveCardEvaluator.PATTERN, false);
+
+    /** The 2-7 (Kansas City) lowball ranking. */
+    public static final HandEvaluator DEUCE_TO_SEVEN = new HandEvaluator("2-7 Lowball",
+            deuceToSevenFlushes(), lowPatterns(false), true);
+
+    /** The ace-to-five (California) lowball ranking. */
+    public static final HandEvaluator ACE_TO_FIVE = new HandEvaluator("A-5 Lowball",
+            new int[1 << FiveCardEvaluator.RANKS], lowPatterns(true), true);
+
+    /** The name of the variant. */
+    private final String name;
+
+    /** Scores of flushes, indexed by the mask of ranks. Zero where the suits do not matter. */
+    private final int[] flush;
+
+    /** Scores of the other hands, indexed by the sum of rank keys. */
+    private final int[] pattern;
+
+    /** Whether the lowest hand wins. */
+    private final boolean low;
+
+    /**
+     * Constructs an evaluator from its tables.
+     *
+     * @param name The name of the variant.
+     * @param flush The flush table.
+     * @param pattern The rank-pattern table.
+     * @param low Whether the lowest hand wins.
+     */
+    private HandEvaluator(String name, int[] flush, int[] pattern, boolean low) {
+        this.name = name;
+        this.flush = flush;
+        this.pattern = pattern;
+        this.low = low;
+    }
+
+    /**
+     * Evaluates a hand of five cards given by their indexes.
+     *
+     * @param c0 The index of the first card.
+     * @param c1 The index of the second card.
+     * @param c2 The index of the third card.
+     * @param c3 The index of the fourth card.
+     * @param c4 The index of the fifth card.
+     * @return The score of the hand, higher being better.
+     */
+    public int evaluate(int c0, int c1, int c2, int c3, int c4) {
+        int[] suitBits = FiveCardEvaluator.CARD_SUIT_BIT;
+        if ((suitBits[c0] & suitBits[c1] & suitBits[c2] & suitBits[c3] & suitBits[c4]) != 0) {
+            int[] rankBits = FiveCardEvaluator.CARD_RANK_BIT;
+            int score = flush[rankBits[c0] | rankBits[c1] | rankBits[c2] | rankBits[c3] | rankBits[c4]];
+            if (score != 0) {
+                return score;
+            }
+        }
+        int[] keys = FiveCardEvaluator.CARD_KEY;
+        return pattern[keys[c0] + keys[c1] + keys[c2] + keys[c3] + keys[c4]];
+    }
+
+    /**
+     * Evaluates a hand of five cards.
+     *
+     * @param cards A list of 5 cards to evaluate. The list is not modified.
+     * @return The score of the hand, higher being better.
+     */
+    public int evaluate(List<Card> cards) {
+        return evaluate(cards.get(0).getIndex(), cards.get(1).getIndex(), cards.get(2).getIndex(),
+                cards.get(3).getIndex(), cards.get(4).getIndex());
+    }
+
+    /**
+     * Names the hand of a score for the players, e.g. "Full House", or "Seven-Five Low" for a lowball hand without pairs.
+     *
+     * @param score A score returned by this evaluator.
+     * @return The description of the hand.
+     */
+    public String describe(int score) {
+        if (!low) {
+            return HandScore.category(score).getDisplayName();
+        }
+        int high = LOW_BASE - score;
+        HandCategory category = HandScore.category(high);
+        if (category != HandCategory.HIGH_CARD) {
+            return category.getDisplayName();
+        }
+        return RANK_NAMES[HandScore.kicker(high, 0)] + "-" + RANK_NAMES[HandScore.kicker(high, 1)] + " Low";
+    }
+
+    /**
+     * Returns the name of the variant.
+     *
+     * @return The name of the variant, e.g. "2-7 Lowball".
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Builds the flush table of 2-7 lowball, where A-2-3-4-5 of one suit is an ace-high flush rather than a straight flush.
+     *
+     * @return The flush table.
+     */
+    private static int[] deuceToSevenFlushes() {
+        int[] table = new int[1 << FiveCardEvaluator.RANKS];
+        int[] counts = new int[FiveCardEvaluator.RANKS];
+        for (int mask = 0; mask < table.length; mask++) {
+            if (Integer.bitCount(mask) == 5) {
+                for (int rank = 0; rank < FiveCardEvaluator.RANKS; rank++) {
+                    counts[rank] = (mask >>> rank) & 1;
+                }
+                table[mask] = LOW_BASE - deuceToSevenScore(counts, true);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Builds the rank-pattern table of a lowball variant with the same keys as {@link FiveCardEvaluator}.
+     *
+     * @param acesLow Whether aces count as 1 and straights and flushes are ignored (ace-to-five).
+     * @return The rank-pattern table.
+     */
+    private static int[] lowPatterns(boolean acesLow) {
+        int[] table = new int[FiveCardEvaluator.MAX_KEY + 1];
+        fillLowPatterns(table, new int[FiveCardEvaluator.RANKS], 0, 5, acesLow);
+        return table;
+    }
+
+    /**
+     * Fills a lowball rank-pattern table with every multiset of five ranks, each rank used at most four times.
+     *
+     * @param table The table to fill.
+     * @param counts The number of cards of each rank chosen so far.
+     * @param rank The lowest rank that can still be added.
+     * @param left The number of cards still to add.
+     * @param acesLow Whether aces count as 1 and straights and flushes are ignored.
+     */
+    private static void fillLowPatterns(int[] table, int[] counts, int rank, int left, boolean acesLow) {
+        if (left == 0) {
+            int key = 0;
+            for (int r = 0; r < FiveCardEvaluator.RANKS; r++) {
+                key += counts[r] * FiveCardEvaluator.RANK_KEYS[r];
+            }
+            table[key] = LOW_BASE - (acesLow ? aceToFiveScore(counts) : deuceToSevenScore(counts, false));
+            return;
+        }
+        for (int r = rank; r < FiveCardEvaluator.RANKS; r++) {
+            if (counts[r] < 4) {
+                counts[r]++;
+                fillLowPatterns(table, counts, r, left - 1, acesLow);
+                counts[r]--;
+            }
+        }
+    }
+
+    /**
+     * Computes the high-hand score of a hand under 2-7 rules, where an ace is always high, so A-2-3-4-5 is no straight.
+     *
+     * @param counts The number of cards of each rank, from 2 to Ace, summing to 5.
+     * @param flush Whether all five cards have the same suit.
+     * @return The score of the hand as a high hand.
+     */
+    private static int deuceToSevenScore(int[] counts, boolean flush) {
+        int mask = 0;
+        for (int rank = 0; rank < FiveCardEvaluator.RANKS; rank++) {
+            if (counts[rank] > 0) {
+                mask |= 1 << rank;
+            }
+        }
+        if (mask == WHEEL) {
+            return HandScore.of(flush ? HandCategory.FLUSH : HandCategory.HIGH_CARD, 14, 5, 4, 3, 2);
+        }
+        return FiveCardEvaluator.scoreOf(counts, flush);
+    }
+
+    /**
+     * Computes the high-hand score of a hand with aces counted as 1 and without straights or flushes.
+     *
+     * @param counts The number of cards of each rank, from 2 to Ace, summing to 5.
+     * @return The score of the hand as a high hand, with rank values from 1 to 13.
+     */
+    private static int aceToFiveScore(int[] counts) {
+        // rank values 1 (ace) to 13 (king), listed the most repeated first and the highest first among equals
+        int[] kickers = new int[5];
+        int distinct = 0;
+        for (int count = 4; count >= 1; count--) {
+            for (int value = 13; value >= 1; value--) {
+                if (counts[value == 1 ? FiveCardEvaluator.RANKS - 1 : value - 2] == count) {
+                    kickers[distinct++] = value;
+                }
+            }
+        }
+        int top = counts[kickers[0] == 1 ? FiveCardEvaluator.RANKS - 1 : kickers[0] - 2];
+        int second = distinct > 1 ? counts[kickers[1] == 1 ? FiveCardEvaluator.RANKS - 1 : kickers[1] - 2] : 0;
+        HandCategory category;
+        if (top == 4) {
+            category = HandCategory.FOUR_OF_A_KIND;
+        } else if (top == 3) {
+            category = second == 2 ? HandCategory.FULL_HOUSE : HandCategory.THREE_OF_A_KIND;
+        } else if (top == 2) {
+            category = second == 2 ? HandCategory.TWO_PAIR : HandCategory.PAIR;
+        } else {
+            category = HandCategory.HIGH_CARD;
+        }
+        int[] distinguishing = new int[distinct];
+        System.arraycopy(kickers, 0, distinguishing, 0, distinct);
+        return HandScore.of(category, distinguishing);
+    }
+}
@@ -0,0 +1,570 @@
+package pl.edu.agh.kis.pz1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps sets of cards to a dense index of their suit-isomorphism classes, and back.
+ * <p>
+ * Two situations that differ only by a renaming of suits have the same strength and the same equity
+ * (see {@link SuitIsomorphism}), so tables and caches only need one entry per class. This indexer numbers
+ * the classes densely from 0 to {@link #getSize()} - 1: the 2,598,960 five-card hands fall into 134,459
+ * classes. A situation can consist of several disjoint groups of cards, e.g. a hand and the dead cards seen
+ * so far; suits are then only interchangeable if they match in every group.
+ * <p>
+ * The index is computed without trying the 24 permutations and without lookups in large tables.
+ * The cards of each suit are ranked on their own, which gives the suit a configuration (how many cards
+ * of each group it holds) and an index among the suits of that configuration. Suits are sorted by
+ * configuration, suits of equal configuration form a multiset of indexes, and the class index combines the
+ * number of the configuration with the ranks of these multisets (after K. Waugh, "A Fast and Optimal Hand
+ * Isomorphism Algorithm", 2013). Indexing a five-card hand takes well under a microsecond.
+ * <p>
+ * Instances are immutable and thread-safe.
+ */
+public final class HandIndexer {
+
+    /** The number of ranks in a suit. */
+    private static final int RANKS = 13;
+
+    /** The number of suits. */
+    private static final int SUITS = 4;
+
+    /** The largest number of groups, so that a configuration fits in 16 bits. */
+    public static final int MAX_GROUPS = 4;
+
+    /** The bits of a suit configuration holding the number of cards of one group. */
+    private static final int COUNT_BITS = 4;
+
+    /** The bits of a suit key below the configuration, holding the index of the suit. */
+    private static final int SUIT_INDEX_BITS = 32;
+
+    /** Binomial coefficients {@code C(n, k)} for n up to the number of ranks. */
+    private static final long[][] RANK_BINOMIAL = new long[RANKS + 1][RANKS + 1];
+
+    static {
+        for (int n = 0; n <= RANKS; n++) {
+            RANK_BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                RANK_BINOMIAL[n][k] = RANK_BINOMIAL[n - 1][k - 1] + RANK_BINOMIAL[n - 1][k];
+            }
+        }
+    }
+
+    /** The number of cards of each group. */
+    private final int[] groupSizes;
+
+    /** The key of every configuration of the four suits (sorted suit configurations), in ascending order. */
+    private final long[] configurationKeys;
+
+    /** The configurations of the four suits, in descending order, for each configuration number. */
+    private final int[][] configurations;
+
+    /** The first class index of each configuration, and the total number of classes at the end. */
+    private final long[] offsets;
+
+    /** The total number of classes. */
+    private final long size;
+
+    /**
+     * Constructs an indexer for situations made of groups of cards of the given sizes,
+     * e.g. {@code new HandIndexer(5)} for five-card hands or {@code new HandIndexer(5, 3)} for a hand and three dead cards.
+     *
+     * @param groupSizes The number of cards of each group, at most {@link #MAX_GROUPS} groups, 52 cards in total.
+     * @throws IllegalArgumentException if the sizes are invalid or the classes cannot be numbered with a {@code long}.
+     */
+    public HandIndexer(int... groupSizes) {
+        if (groupSizes.length == 0 || groupSizes.length > MAX_GROUPS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_GROUPS + " groups are supported, got " + groupSizes.length);
+        }
+        int total = 0;
+        for (int groupSize : groupSizes) {
+            if (groupSize < 0) {
+                throw new IllegalArgumentException("Group sizes cannot be negative");
+            }
+            total += groupSize;
+        }
+        if (total > RANKS * SUITS) {
+            throw new IllegalArgumentException("The groups hold " + total + " cards, a deck has 52");
+        }
+        this.groupSizes = groupSizes.clone();
+
+        List<int[]> found = new ArrayList<>();
+        enumerateConfigurations(new int[SUITS], 0, this.groupSizes.clone(), Integer.MAX_VALUE, found);
+        found.sort((a, b) -> Long.compare(key(a), key(b)));
+        configurations = found.toArray(new int[0][]);
+        configurationKeys = new long[configurations.length];
+        offsets = new long[configurations.length + 1];
+        try {
+            for (int c = 0; c < configurations.length; c++) {
+                configurationKeys[c] = key(configurations[c]);
+                offsets[c + 1] = Math.addExact(offsets[c], configurationSize(configurations[c]));
+            }
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Too many classes to number for groups " + Arrays.toString(groupSizes), e);
+        }
+        size = offsets[configurations.length];
+    }
+
+    /**
+     * Returns the number of classes.
+     *
+     * @return The number of suit-isomorphism classes, one more than the largest index.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of groups of a situation.
+     *
+     * @return The number of groups given at construction.
+     */
+    public int getGroups() {
+        return groupSizes.length;
+    }
+
+    /**
+     * Returns the index of the class of a hand, for an indexer of a single group.
+     *
+     * @param hand The {@link CardSet} of the hand.
+     * @return The index of its class.
+     * @throws IllegalArgumentException if the hand does not match the size of the group.
+     */
+    public long index(long hand) {
+        checkGroups(1);
+        return indexOf(hand, 0, 0, 0);
+    }
+
+    /**
+     * Returns the index of the class of a hand with dead cards, for an indexer of two groups.
+     *
+     * @param hand The {@link CardSet} of the hand.
+     * @param dead The {@link CardSet} of the dead cards, disjoint from the hand.
+     * @return The index of the class of the situation.
+     * @throws IllegalArgumentException if the sets do not match the sizes of the groups or overlap.
+     */
+    public long index(long hand, long dead) {
+        checkGroups(2);
+        return indexOf(hand, dead, 0, 0);
+    }
+
+    /**
+     * Returns the index of the class of a situation.
+     *
+     * @param groups The {@link CardSet} of each group, pairwise disjoint.
+     * @return The index of the class of the situation.
+     * @throws IllegalArgumentException if the sets do not match the sizes of the groups or overlap.
+     */
+    public long index(long[] groups) {
+        checkGroups(groups.length);
+        return indexOf(groups[0], groups.length > 1 ? groups[1] : 0,
+                groups.length > 2 ? groups[2] : 0, groups.length > 3 ? groups[3] : 0);
+    }
+
+    /**
+     * Returns the canonical representative of the class of a hand, equal for all hands that differ only by suits.
+     *
+     * @param hand The {@link CardSet} of the hand, for an indexer of a single group.
+     * @return The representative of its class.
+     */
+    public long canonical(long hand) {
+        long[] groups = new long[1];
+        unindex(index(hand), groups);
+        return groups[0];
+    }
+
+    /**
+     * Returns the canonical representative of a class.
+     *
+     * @param index The index of the class, from 0 to {@link #getSize()} - 1.
+     * @param groups The array receiving the {@link CardSet} of each group of the representative.
+     * @throws IllegalArgumentException if the index is out of range or the array does not match the groups.
+     */
+    public void unindex(long index, long[] groups) {
+        checkGroups(groups.length);
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Index " + index + " is not in [0, " + size + ")");
+        }
+        int configuration = Arrays.binarySearch(offsets, index);
+        if (configuration < 0) {
+            configuration = -configuration - 2;
+        }
+        int[] suits = configurations[configuration];
+        long rest = index - offsets[configuration];
+        long[] suitIndexes = new long[SUITS];
+        for (int end = SUITS; end > 0; ) {
+            int start = end - 1;
+            while (start > 0 && suits[start - 1] == suits[end - 1]) {
+                start--;
+            }
+            int count = end - start;
+            long suitSize = suitSize(suits[start]);
+            long multisets = multichoose(suitSize, count);
+            long rank = rest % multisets;
+            rest /= multisets;
+            for (int j = count; j >= 1; j--) {
+                long value = largestBelow(rank, j, suitSize);
+                rank -= binomial(value + j - 1, j);
+                suitIndexes[start + count - j] = value;
+            }
+            end = start;
+        }
+        Arrays.fill(groups, CardSet.EMPTY);
+        for (int suit = 0; suit < SUITS; suit++) {
+            long suitIndex = suitIndexes[suit];
+            int used = 0;
+            for (int group = 0; group < groups.length; group++) {
+                int count = count(suits[suit], group);
+                int available = RANKS - Integer.bitCount(used);
+                long combinations = RANK_BINOMIAL[available][count];
+                int mask = unrankColex(suitIndex % combinations, count, ~used & (int) CardSet.SUIT_BITS);
+                suitIndex /= combinations;
+                used |= mask;
+                groups[group] |= (long) mask << RANKS * suit;
+            }
+        }
+    }
+
+    /**
+     * Computes the index of the class of a situation of up to four groups.
+     *
+     * @param g0 The first group.
+     * @param g1 The second group, empty if unused.
+     * @param g2 The third group, empty if unused.
+     * @param g3 The fourth group, empty if unused.
+     * @return The index of the class.
+     */
+    private long indexOf(long g0, long g1, long g2, long g3) {
+        int groups = groupSizes.length;
+        if ((g0 & g1) != 0 || ((g0 | g1) & g2) != 0 || ((g0 | g1 | g2) & g3) != 0) {
+            throw new IllegalArgumentException("The groups of cards overlap");
+        }
+        if (Long.bitCount(g0) != groupSizes[0]
+                || groups > 1 && Long.bitCount(g1) != groupSizes[1]
+                || groups > 2 && Long.bitCount(g2) != groupSizes[2]
+                || groups > 3 && Long.bitCount(g3) != groupSizes[3]) {
+            throw new IllegalArgumentException("The groups do not hold " + Arrays.toString(groupSizes) + " cards");
+        }
+        long k0 = suitKey(g0, g1, g2, g3, 0);
+        long k1 = suitKey(g0, g1, g2, g3, 1);
+        long k2 = suitKey(g0, g1, g2, g3, 2);
+        long k3 = suitKey(g0, g1, g2, g3, 3);
+        long t;
+        // Sorting network: k0 >= k1 >= k2 >= k3.
+        if (k0 < k1) { t = k0; k0 = k1; k1 = t; }
+        if (k2 < k3) { t = k2; k2 = k3; k3 = t; }
+        if (k0 < k2) { t = k0; k0 = k2; k2 = t; }
+        if (k1 < k3) { t = k1; k1 = k3; k3 = t; }
+        if (k1 < k2) { t = k1; k1 = k2; k2 = t; }
+        int c0 = (int) (k0 >>> SUIT_INDEX_BITS);
+        int c1 = (int) (k1 >>> SUIT_INDEX_BITS);
+        int c2 = (int) (k2 >>> SUIT_INDEX_BITS);
+        int c3 = (int) (k3 >>> SUIT_INDEX_BITS);
+        int configuration = Arrays.binarySearch(configurationKeys, key(c0, c1, c2, c3));
+        long index = 0;
+        // Runs of equal configurations, most significant first; within a run the suit indexes descend.
+        long i0 = k0 & 0xFFFFFFFFL;
+        long i1 = k1 & 0xFFFFFFFFL;
+        long i2 = k2 & 0xFFFFFFFFL;
+        long i3 = k3 & 0xFFFFFFFFL;
+        if (c0 == c3) {
+            index = binomial(i3, 1) + binomial(i2 + 1, 2) + binomial(i1 + 2, 3) + binomial(i0 + 3, 4);
+        } else if (c0 == c2) {
+            index = (binomial(i2, 1) + binomial(i1 + 1, 2) + binomial(i0 + 2, 3)) * suitSize(c3) + i3;
+        } else if (c1 == c3) {
+            index = i0 * multichoose(suitSize(c1), 3) + binomial(i3, 1) + binomial(i2 + 1, 2) + binomial(i1 + 2, 3);
+        } else {
+            index = c0 == c1 ? binomial(i1, 1) + binomial(i0 + 1, 2) : i0;
+            if (c0 != c1) {
+                index = c1 == c2 ? index * multichoose(suitSize(c1), 2) + binomial(i2, 1) + binomial(i1 + 1, 2)
+                        : index * suitSize(c1) + i1;
+            }
+            if (c1 != c2) {
+                index = c2 == c3 ? index * multichoose(suitSize(c2), 2) + binomial(i3, 1) + binomial(i2 + 1, 2)
+                        : index * suitSize(c2) + i2;
+            }
+            if (c2 != c3) {
+                index = index * suitSize(c3) + i3;
+            }
+        }
+        return offsets[configuration] + index;
+    }
+
+    /**
+     * Computes the key of one suit: its configuration in the upper bits and its index among suits
+     * of the same configuration in the lower {@link #SUIT_INDEX_BITS} bits.
+     *
+     * @param g0 The first group.
+     * @param g1 The second group.
+     * @param g2 The third group.
+     * @param g3 The fourth group.
+     * @param suit The suit.
+     * @return The key of the suit.
+     */
+    private long suitKey(long g0, long g1, long g2, long g3, int suit) {
+        int shift = RANKS * suit;
+        int configuration = 0;
+        long suitIndex = 0;
+        long multiplier = 1;
+        int used = 0;
+        for (int group = 0; group < groupSizes.length; group++) {
+            long cards = group == 0 ? g0 : group == 1 ? g1 : group == 2 ? g2 : g3;
+            int mask = (int) (cards >>> shift & CardSet.SUIT_BITS);
+            int count = Integer.bitCount(mask);
+            configuration |= count << COUNT_BITS * group;
+            suitIndex += rankColex(mask, used) * multiplier;
+            multiplier *= RANK_BINOMIAL[RANKS - Integer.bitCount(used)][count];
+            used |= mask;
+        }
+        return (long) configuration << SUIT_INDEX_BITS | suitIndex;
+    }
+
+    /**
+     * Ranks a set of ranks in colexicographic order among the sets of its size made of the ranks not yet used.
+     *
+     * @param mask The set of ranks.
+     * @param used The ranks taken by earlier groups, which are skipped.
+     * @return The rank of the set.
+     */
+    private static long rankColex(int mask, int used) {
+        long rank = 0;
+        int i = 1;
+        for (int rest = mask; rest != 0; rest &= rest - 1) {
+            int bit = Integer.numberOfTrailingZeros(rest);
+            int position = bit - Integer.bitCount(used & ((1 << bit) - 1));
+            rank += RANK_BINOMIAL[position][i++];
+        }
+        return rank;
+    }
+
+    /**
+     * Inverts {@link #rankColex}: returns the set of ranks with the given colexicographic rank.
+     *
+     * @param rank The rank of the set.
+     * @param count The number of ranks in the set.
+     * @param available The ranks the set is made of.
+     * @return The set of ranks.
+     */
+    private static int unrankColex(long rank, int count, int available) {
+        int mask = 0;
+        int position = Integer.bitCount(available) - 1;
+        for (int i = count; i >= 1; i--) {
+            while (RANK_BINOMIAL[position][i] > rank) {
+                position--;
+            }
+            rank -= RANK_BINOMIAL[position][i];
+            mask |= selectBit(available, position);
+            position--;
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the {@code position}-th lowest set bit of a mask.
+     *
+     * @param mask The mask.
+     * @param position The position, from 0.
+     * @return The bit.
+     */
+    private static int selectBit(int mask, int position) {
+        int rest = mask;
+        for (int i = 0; i < position; i++) {
+            rest &= rest - 1;
+        }
+        return Integer.lowestOneBit(rest);
+    }
+
+    /**
+     * Returns the number of cards of one group in a suit configuration.
+     *
+     * @param configuration The suit configuration.
+     * @param group The group.
+     * @return The number of cards.
+     */
+    private static int count(int configuration, int group) {
+        return configuration >>> COUNT_BITS * group & (1 << COUNT_BITS) - 1;
+    }
+
+    /**
+     * Returns the number of different suits of a configuration.
+     *
+     * @param configuration The suit configuration.
+     * @return The number of ways to pick the ranks of every group in one suit.
+     */
+    private long suitSize(int configuration) {
+        long result = 1;
+        int used = 0;
+        for (int group = 0; group < groupSizes.length; group++) {
+            int count = count(configuration, group);
+            result *= RANK_BINOMIAL[RANKS - used][count];
+            used += count;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of classes of a configuration of the four suits.
+     *
+     * @param suits The configurations of the suits, in descending order.
+     * @return The product of the numbers of multisets of every run of equal suits.
+     * @throws ArithmeticException if the number, or a step of computing it, does not fit in a {@code long}.
+     */
+    private long configurationSize(int[] suits) {
+        long result = 1;
+        for (int start = 0; start < SUITS; ) {
+            int end = start + 1;
+            while (end < SUITS && suits[end] == suits[start]) {
+                end++;
+            }
+            long n = suitSize(suits[start]) + end - start - 1;
+            long multisets = 1;
+            for (int i = 1; i <= end - start; i++) {
+                multisets = Math.multiplyExact(multisets, n - i + 1) / i;
+            }
+            result = Math.multiplyExact(result, multisets);
+            start = end;
+        }
+        return result;
+    }
+
+    /**
+     * Enumerates the configurations of the four suits whose suit configurations descend.
+     *
+     * @param suits The configurations chosen so far.
+     * @param suit The suit to choose next.
+     * @param remaining The cards of each group still to place.
+     * @param limit The largest configuration allowed for this suit.
+     * @param found The list receiving the complete configurations.
+     */
+    private void enumerateConfigurations(int[] suits, int suit, int[] remaining, int limit, List<int[]> found) {
+        if (suit == SUITS) {
+            for (int count : remaining) {
+                if (count != 0) {
+                    return;
+                }
+            }
+            found.add(suits.clone());
+            return;
+        }
+        List<Integer> candidates = new ArrayList<>();
+        enumerateSuit(0, 0, 0, remaining, candidates);
+        for (int configuration : candidates) {
+            if (configuration > limit) {
+                continue;
+            }
+            suits[suit] = configuration;
+            for (int group = 0; group < remaining.length; group++) {
+                remaining[group] -= count(configuration, group);
+            }
+            enumerateConfigurations(suits, suit + 1, remaining, configuration, found);
+            for (int group = 0; group < remaining.length; group++) {
+                remaining[group] += count(configuration, group);
+            }
+        }
+    }
+
+    /**
+     * Enumerates the configurations of one suit that fit in the remaining cards and the 13 ranks.
+     *
+     * @param group The group to choose the count of next.
+     * @param configuration The counts chosen so far.
+     * @param cards The number of cards chosen so far.
+     * @param remaining The cards of each group still to place.
+     * @param found The list receiving the configurations.
+     */
+    private static void enumerateSuit(int group, int configuration, int cards, int[] remaining, List<Integer> found) {
+        if (group == remaining.length) {
+            found.add(configuration);
+            return;
+        }
+        for (int count = 0; count <= remaining[group] && cards + count <= RANKS; count++) {
+            enumerateSuit(group + 1, configuration | count << COUNT_BITS * group, cards + count, remaining, found);
+        }
+    }
+
+    /**
+     * Throws if a number of groups does not match this indexer.
+     *
+     * @param groups The number of groups.
+     */
+    private void checkGroups(int groups) {
+        if (groups != groupSizes.length) {
+            throw new IllegalArgumentException("The indexer has " + groupSizes.length + " groups, got " + groups);
+        }
+    }
+
+    /**
+     * Packs the configurations of the four suits into a key.
+     *
+     * @param suits The configurations of the suits, in descending order.
+     * @return The key.
+     */
+    private static long key(int[] suits) {
+        return key(suits[0], suits[1], suits[2], suits[3]);
+    }
+
+    /**
+     * Packs the configurations of the four suits into a key.
+     *
+     * @param c0 The largest configuration.
+     * @param c1 The second configuration.
+     * @param c2 The third configuration.
+     * @param c3 The smallest configuration.
+     * @return The key.
+     */
+    private static long key(int c0, int c1, int c2, int c3) {
+        return (long) c0 << 48 | (long) c1 << 32 | (long) c2 << 16 | c3;
+    }
+
+    /**
+     * Returns the binomial coefficient {@code C(n, k)} for small k.
+     *
+     * @param n The number of elements.
+     * @param k The number chosen, from 1 to 4.
+     * @return The binomial coefficient, 0 if n is smaller than k.
+     */
+    private static long binomial(long n, int k) {
+        if (n < k) {
+            return 0;
+        }
+        long result = n;
+        for (int i = 2; i <= k; i++) {
+            result = result * (n - i + 1) / i;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of multisets of k elements drawn from n values.
+     *
+     * @param n The number of values.
+     * @param k The size of the multiset, from 1 to 4.
+     * @return {@code C(n + k - 1, k)}.
+     */
+    private static long multichoose(long n, int k) {
+        return binomial(n + k - 1, k);
+    }
+
+    /**
+     * Returns the largest value whose multiset term {@code C(value + j - 1, j)} does not exceed a rank.
+     *
+     * @param rank The remaining rank of the multiset.
+     * @param j The position in the multiset, from 1 to 4.
+     * @param limit The number of values.
+     * @return The value, from 0 to limit - 1.
+     */
+    private static long largestBelow(long rank, int j, long limit) {
+        long low = 0;
+        long high = limit - 1;
+        while (low < high) {
+            long middle = (low + high + 1) >>> 1;
+            if (binomial(middle + j - 1, j) <= rank) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,403 @@
+package pl.edu.agh.kis.pz1;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A weighted range of five-card draw holdings: the cards a player may keep, each with a relative weight.
+ * <p>
+ * A combination is a {@link CardSet} of the cards kept, from none (a random hand) to five (a pat hand);
+ * the missing cards are drawn when the range is evaluated by {@link RangeEquityCalculator}. Ranges are
+ * written as comma-separated terms, each optionally followed by {@code :weight} (1 by default):
+ * <ul>
+ *     <li>{@code KK}, {@code TT+}, {@code 55-99}, {@code any pair}: pairs kept to draw three cards,</li>
+ *     <li>{@code K-high flush draws}, {@code any flush draw}: four cards of one suit kept to draw one,</li>
+ *     <li>{@code top 20% of pat hands}: the strongest five-card hands, standing pat,</li>
+ *     <li>{@code AsKsQsJs}: exactly the given cards (ranks {@code 23456789TJQKA}, suits {@code shdc}),</li>
+ *     <li>{@code random}: no kept cards, i.e. five cards drawn at random.</li>
+ * </ul>
+ * For example {@code "any pair, K-high flush draws:0.5, top 20% of pat hands"}. A combination listed by several
+ * terms gets the weight of the last one.
+ * <p>
+ * Instances are immutable.
+ */
+public final class HandRange {
+
+    /** The characters of the ranks, from 2 to Ace. */
+    private static final String RANK_CODES = "23456789TJQKA";
+
+    /** The characters of the suits, in the order of {@link Suit}. */
+    private static final String SUIT_CODES = "SHDC";
+
+    /** The number of ranks. */
+    private static final int RANKS = 13;
+
+    /** The combinations, as sets of kept cards. */
+    private final long[] combos;
+
+    /** The weight of each combination. */
+    private final double[] weights;
+
+    /**
+     * Constructs a range from combinations and their weights.
+     *
+     * @param combos The combinations, as sets of kept cards.
+     * @param weights The positive weight of each combination.
+     */
+    private HandRange(long[] combos, double[] weights) {
+        this.combos = combos;
+        this.weights = weights;
+    }
+
+    /**
+     * Creates a range from combinations and their weights.
+     *
+     * @param combos The combinations, as sets of at most five kept cards, without repetitions.
+     * @param weights The positive weight of each combination.
+     * @return The range.
+     * @throws IllegalArgumentException if the arrays differ in length, a combination is invalid or repeated,
+     *                                  or a weight is not positive.
+     */
+    public static HandRange of(long[] combos, double[] weights) {
+        if (combos.length != weights.length) {
+            throw new IllegalArgumentException("Got " + combos.length + " combinations but " + weights.length + " weights");
+        }
+        long[] sorted = combos.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length; i++) {
+            if ((sorted[i] & ~CardSet.FULL_DECK) != 0 || CardSet.size(sorted[i]) > 5
+                    || i > 0 && sorted[i] == sorted[i - 1]) {
+                throw new IllegalArgumentException("Invalid or repeated combination: " + CardSet.toString(sorted[i]));
+            }
+        }
+        for (double weight : weights) {
+            if (!(weight > 0)) {
+                throw new IllegalArgumentException("Weights must be positive, got " + weight);
+            }
+        }
+        return new HandRange(combos.clone(), weights.clone());
+    }
+
+    /**
+     * Parses a range.
+     *
+     * @param text The range, as comma-separated terms described in the class documentation.
+     * @return The range.
+     * @throws IllegalArgumentException if a term cannot be parsed or the range is empty.
+     */
+    public static HandRange parse(String text) {
+        Builder builder = new Builder();
+        for (String term : text.split(",")) {
+            String body = term.trim();
+            double weight = 1;
+            int colon = body.lastIndexOf(':');
+            if (colon >= 0) {
+                try {
+                    weight = Double.parseDouble(body.substring(colon + 1).trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid weight in \"" + term.trim() + "\"", e);
+                }
+                if (!(weight > 0)) {
+                    throw new IllegalArgumentException("Weights must be positive in \"" + term.trim() + "\"");
+                }
+                body = body.substring(0, colon).trim();
+            }
+            builder.weight = weight;
+            parseTerm(body.toUpperCase(Locale.ROOT).replaceAll("\\s+", " "), builder);
+        }
+        if (builder.size == 0) {
+            throw new IllegalArgumentException("The range \"" + text + "\" is empty");
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the number of combinations.
+     *
+     * @return The number of combinations.
+     */
+    public int size() {
+        return combos.length;
+    }
+
+    /**
+     * Returns a combination.
+     *
+     * @param i The position of the combination.
+     * @return The {@link CardSet} of the kept cards.
+     */
+    public long getCombo(int i) {
+        return combos[i];
+    }
+
+    /**
+     * Returns the weight of a combination.
+     *
+     * @param i The position of the combination.
+     * @return The weight.
+     */
+    public double getWeight(int i) {
+        return weights[i];
+    }
+
+    /**
+     * Returns the sum of the weights of all combinations.
+     *
+     * @return The total weight.
+     */
+    public double getTotalWeight() {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the range without the combinations holding any of the given cards, e.g. cards known to be dead.
+     *
+     * @param cards The {@link CardSet} of the excluded cards.
+     * @return The remaining range, possibly empty.
+     */
+    public HandRange without(long cards) {
+        int kept = 0;
+        long[] remaining = new long[combos.length];
+        double[] remainingWeights = new double[combos.length];
+        for (int i = 0; i < combos.length; i++) {
+            if ((combos[i] & cards) == 0) {
+                remaining[kept] = combos[i];
+                remainingWeights[kept++] = weights[i];
+            }
+        }
+        return new HandRange(Arrays.copyOf(remaining, kept), Arrays.copyOf(remainingWeights, kept));
+    }
+
+    /**
+     * Returns a short description of the range.
+     *
+     * @return The number of combinations and their total weight.
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "HandRange[%d combinations, weight %.2f]", combos.length, getTotalWeight());
+    }
+
+    /**
+     * Adds the combinations of one term to the builder.
+     *
+     * @param term The term in upper case, without its weight.
+     * @param builder The builder receiving the combinations.
+     */
+    private static void parseTerm(String term, Builder builder) {
+        if (term.equals("RANDOM") || term.equals("ANY")) {
+            builder.add(CardSet.EMPTY);
+        } else if (term.equals("ANY PAIR") || term.equals("PAIRS")) {
+            addPairs(0, RANKS - 1, builder);
+        } else if (term.matches("ANY FLUSH DRAWS?|FLUSH DRAWS?")) {
+            for (int high = 3; high < RANKS; high++) {
+                addFlushDraws(high, builder);
+            }
+        } else if (term.matches(".-HIGH FLUSH DRAWS?")) {
+            addFlushDraws(rank(term.charAt(0), term), builder);
+        } else if (term.matches("TOP [0-9.]+% (OF )?PAT HANDS?|TOP [0-9.]+%")) {
+            addTopPatHands(Double.parseDouble(term.substring(4, term.indexOf('%'))), term, builder);
+        } else if (term.matches("(.)\\1\\+")) {
+            addPairs(rank(term.charAt(0), term), RANKS - 1, builder);
+        } else if (term.matches("(.)\\1-(.)\\2")) {
+            int from = rank(term.charAt(0), term);
+            int to = rank(term.charAt(3), term);
+            addPairs(Math.min(from, to), Math.max(from, to), builder);
+        } else if (term.matches("(.)\\1")) {
+            int rank = rank(term.charAt(0), term);
+            addPairs(rank, rank, builder);
+        } else if (term.matches("([2-9TJQKA][SHDC]){1,5}")) {
+            long cards = CardSet.EMPTY;
+            for (int i = 0; i < term.length(); i += 2) {
+                cards |= 1L << SUIT_CODES.indexOf(term.charAt(i + 1)) * RANKS + rank(term.charAt(i), term);
+            }
+            if (CardSet.size(cards) != term.length() / 2) {
+                throw new IllegalArgumentException("Repeated card in \"" + term + "\"");
+            }
+            builder.add(cards);
+        } else {
+            throw new IllegalArgumentException("Cannot parse the range term \"" + term + "\"");
+        }
+    }
+
+    /**
+     * Returns the rank of a rank character.
+     *
+     * @param code The character, one of {@code 23456789TJQKA}.
+     * @param term The term, for the error message.
+     * @return The rank from 0 (2) to 12 (Ace).
+     */
+    private static int rank(char code, String term) {
+        int rank = RANK_CODES.indexOf(code);
+        if (rank < 0) {
+            throw new IllegalArgumentException("Unknown rank '" + code + "' in \"" + term + "\"");
+        }
+        return rank;
+    }
+
+    /**
+     * Adds the six combinations of every pair in a span of ranks.
+     *
+     * @param from The lowest rank.
+     * @param to The highest rank.
+     * @param builder The builder receiving the combinations.
+     */
+    private static void addPairs(int from, int to, Builder builder) {
+        for (int rank = from; rank <= to; rank++) {
+            for (int s1 = 0; s1 < 4; s1++) {
+                for (int s2 = s1 + 1; s2 < 4; s2++) {
+                    builder.add(1L << s1 * RANKS + rank | 1L << s2 * RANKS + rank);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the four cards of one suit whose highest card has the given rank, in every suit.
+     *
+     * @param high The rank of the highest card; below a five no four cards fit and nothing is added.
+     * @param builder The builder receiving the combinations.
+     */
+    private static void addFlushDraws(int high, Builder builder) {
+        for (int below = 0; below < 1 << high; below++) {
+            if (Integer.bitCount(below) == 3) {
+                int ranks = below | 1 << high;
+                for (int suit = 0; suit < 4; suit++) {
+                    builder.add((long) ranks << suit * RANKS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the five-card hands scoring at least as high as the given share of all hands.
+     * Hands tied with the weakest included hand are included too.
+     *
+     * @param percent The share of the strongest hands, from 0 to 100.
+     * @param term The term, for the error message.
+     * @param builder The builder receiving the combinations.
+     */
+    private static void addTopPatHands(double percent, String term, Builder builder) {
+        if (!(percent > 0 && percent <= 100)) {
+            throw new IllegalArgumentException("The share must be above 0% and at most 100% in \"" + term + "\"");
+        }
+        int[] sorted = PatHands.SORTED_SCORES;
+        int count = (int) Math.ceil(sorted.length * percent / 100);
+        int threshold = sorted[sorted.length - count];
+        for (int a = 4; a < 52; a++) {
+            for (int b = 3; b < a; b++) {
+                for (int c = 2; c < b; c++) {
+                    for (int d = 1; d < c; d++) {
+                        for (int e = 0; e < d; e++) {
+                            if (FiveCardEvaluator.evaluate(a, b, c, d, e) >= threshold) {
+                                builder.add(1L << a | 1L << b | 1L << c | 1L << d | 1L << e);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The scores of all five-card hands in ascending order, computed when first needed.
+     */
+    private static final class PatHands {
+
+        /** The sorted scores of all 2,598,960 hands. */
+        static final int[] SORTED_SCORES;
+
+        static {
+            int[] scores = new int[2_598_960];
+            int i = 0;
+            for (int a = 4; a < 52; a++) {
+                for (int b = 3; b < a; b++) {
+                    for (int c = 2; c < b; c++) {
+                        for (int d = 1; d < c; d++) {
+                            for (int e = 0; e < d; e++) {
+                                scores[i++] = FiveCardEvaluator.evaluate(a, b, c, d, e);
+                            }
+                        }
+                    }
+                }
+            }
+            Arrays.sort(scores);
+            SORTED_SCORES = scores;
+        }
+
+        /**
+         * Private constructor to prevent instantiation of the holder class.
+         */
+        private PatHands() {
+            throw new IllegalStateException("Holder class");
+        }
+    }
+
+    /**
+     * Collects the combinations of a range while it is parsed.
+     */
+    private static final class Builder {
+
+        /** The combinations added so far. */
+        private long[] combos = new long[64];
+
+        /** The weight of each combination added so far. */
+        private double[] weights = new double[64];
+
+        /** The number of combinations added so far. */
+        private int size;
+
+        /** The weight of the term being parsed. */
+        private double weight = 1;
+
+        /**
+         * Adds a combination with the weight of the current term.
+         *
+         * @param combo The combination.
+         */
+        void add(long combo) {
+            if (size == combos.length) {
+                combos = Arrays.copyOf(combos, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            combos[size] = combo;
+            weights[size++] = weight;
+        }
+
+        /**
+         * Builds the range, keeping the last weight of combinations added more than once.
+         *
+         * @return The range.
+         */
+        HandRange build() {
+            long[] sorted = Arrays.copyOf(combos, size);
+            Arrays.sort(sorted);
+            boolean repeated = false;
+            for (int i = 1; i < size && !repeated; i++) {
+                repeated = sorted[i] == sorted[i - 1];
+            }
+            if (!repeated) {
+                return new HandRange(Arrays.copyOf(combos, size), Arrays.copyOf(weights, size));
+            }
+            Map<Long, Double> merged = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                merged.remove(combos[i]);
+                merged.put(combos[i], weights[i]);
+            }
+            long[] uniqueCombos = new long[merged.size()];
+            double[] uniqueWeights = new double[merged.size()];
+            int i = 0;
+            for (Map.Entry<Long, Double> entry : merged.entrySet()) {
+                uniqueCombos[i] = entry.getKey();
+                uniqueWeights[i++] = entry.getValue();
+            }
+            return new HandRange(uniqueCombos, uniqueWeights);
+        }
+    }
+}
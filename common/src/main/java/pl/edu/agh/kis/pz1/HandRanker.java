@@ -7,85 +7,44 @@ import java.util.*;
  * It evaluates a given list of cards and returns the corresponding hand rank, such as
  * "Royal Flush", "Full House", "Pair", etc.
  * It also identifies the distinguishing cards in the hand that are used to determine the winner.
+ * <p>
+ * The ranking itself is delegated to {@link FiveCardEvaluator}; the {@code checkFor*} methods
+ * are kept for callers that need a single hand type checked on a sorted hand.
  */
 public class HandRanker {
 
     /**
      * Evaluates the rank of a hand of cards.
-     * It checks various hand types in a specific order and returns the highest ranking hand found.
+     * The hand is scored once by {@link FiveCardEvaluator} and the category of the score is returned.
      *
-     * @param cards A list of 5 cards to evaluate.
+     * @param cards A list of 5 cards to evaluate. The list is not modified.
      * @return A string representing the rank of the hand (e.g., "Royal Flush", "Pair").
      */
     String rank(List<Card> cards) {
-        cards.sort(Comparator.comparingInt(Card::getRankValue));
-        if(!checkForRoyalFlush(cards).isEmpty()){
-            return "Royal Flush";
-        }
-        if(!checkForStraightFlush(cards).isEmpty()){
-            return "Straight Flush";
-        }
-        if (!checkForFourOfAKind(cards).isEmpty()) {
-            return "Four Of A Kind";
-        }
-        if (!checkForFullHouse(cards).isEmpty()) {
-            return "Full House";
-        }
-        if (!checkForFlush(cards).isEmpty()) {
-            return "Flush";
-        }
-        if (!checkForStraight(cards).isEmpty()) {
-            return "Straight";
-        }
-        if (!checkForThreeOfAKind(cards).isEmpty()) {
-            return "Three Of A Kind";
-        }
-        if (!checkForTwoPair(cards).isEmpty()) {
-            return "Two Pair";
-        }
-        if (!checkForPair(cards).isEmpty()) {
-            return "Pair";
-        }
-        return "High Card"; // If no hand is found, return "High Card"
+        return HandScore.category(score(cards)).getDisplayName();
+    }
+
+    /**
+     * Evaluates a hand of cards into a single comparable score.
+     * A higher score always means a better hand, and equal scores mean a draw.
+     *
+     * @param cards A list of 5 cards to evaluate. The list is not modified.
+     * @return The score of the hand in the {@link HandScore} format.
+     */
+    public int score(List<Card> cards) {
+        return FiveCardEvaluator.evaluate(cards);
     }
 
     /**
      * Determines the distinguishing cards of a hand, which are used to break ties or determine the winner.
-     * This method returns the most significant card(s) for each hand rank.
+     * This method returns the rank values that decide between two hands of the same rank,
+     * e.g. the pair followed by the three kickers.
      *
-     * @param cards A list of 5 cards to evaluate.
+     * @param cards A list of 5 cards to evaluate. The list is not modified.
      * @return A list of integers representing the rank value(s) of the distinguishing card(s).
      */
     public List<Integer> distinguishmentCards(List<Card> cards) {
-        cards.sort(Comparator.comparingInt(Card::getRankValue));
-        if(!checkForRoyalFlush(cards).isEmpty()){
-            return checkForRoyalFlush(cards);
-        }
-        if(!checkForStraightFlush(cards).isEmpty()){
-            return checkForStraightFlush(cards);
-        }
-        if (!checkForFourOfAKind(cards).isEmpty()) {
-            return checkForFourOfAKind(cards);
-        }
-        if (!checkForFullHouse(cards).isEmpty()) {
-            return checkForFullHouse(cards);
-        }
-        if (!checkForFlush(cards).isEmpty()) {
-            return checkForFlush(cards);
-        }
-        if (!checkForStraight(cards).isEmpty()) {
-            return checkForStraight(cards);
-        }
-        if (!checkForThreeOfAKind(cards).isEmpty()) {
-            return checkForThreeOfAKind(cards);
-        }
-        if (!checkForTwoPair(cards).isEmpty()) {
-            return checkForTwoPair(cards);
-        }
-        if (!checkForPair(cards).isEmpty()) {
-            return checkForPair(cards);
-        }
-        return checkForHighCard(cards);
+        return HandScore.kickers(score(cards));
     }
 
     /**
@@ -0,0 +1,82 @@
+package pl.edu.agh.kis.pz1;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code HandScore} class describes the layout of the {@code int} scores returned by the hand evaluators.
+ * <p>
+ * A score keeps the {@link HandCategory} value in bits 20 and above, followed by up to five
+ * rank values (2-14) stored in 4-bit fields, most significant first. For example, a pair of kings
+ * with A, 9, 4 kickers is stored as {@code 0x2_D_E_9_4_0}. Because of this layout comparing two scores
+ * with {@code Integer.compare} settles the hand, including every kicker.
+ * <p>
+ * This class cannot be instantiated, as it is a utility class containing only static methods.
+ */
+public final class HandScore {
+
+    /** The number of bits the category value is shifted by. */
+    static final int CATEGORY_SHIFT = 20;
+
+    /** The number of bits used by one rank value. */
+    static final int KICKER_BITS = 4;
+
+    /**
+     * Private constructor to prevent instantiation of the utility class.
+     */
+    private HandScore() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Builds a score from a category and its distinguishing rank values.
+     *
+     * @param category The category of the hand.
+     * @param kickers The rank values (2-14) in order of significance.
+     * @return The encoded score.
+     */
+    static int of(HandCategory category, int... kickers) {
+        int score = category.getValue() << CATEGORY_SHIFT;
+        for (int i = 0; i < kickers.length; i++) {
+            score |= kickers[i] << (CATEGORY_SHIFT - KICKER_BITS * (i + 1));
+        }
+        return score;
+    }
+
+    /**
+     * Returns the category encoded in a score.
+     *
+     * @param score A score returned by one of the evaluators.
+     * @return The category of the hand.
+     */
+    public static HandCategory category(int score) {
+        return HandCategory.fromValue(score >>> CATEGORY_SHIFT);
+    }
+
+    /**
+     * Returns a single rank value encoded in a score.
+     *
+     * @param score A score returned by one of the evaluators.
+     * @param index The position of the rank value, 0 being the most significant.
+     * @return The rank value (2-14), or 0 if the category has fewer distinguishing cards.
+     */
+    public static int kicker(int score, int index) {
+        return (score >>> (CATEGORY_SHIFT - KICKER_BITS * (index + 1))) & 0xF;
+    }
+
+    /**
+     * Decodes the distinguishing rank values of a score into a list,
+     * in the same format as {@link HandRanker#distinguishmentCards(List)}.
+     *
+     * @param score A score returned by one of the evaluators.
+     * @return A list of rank values in order of significance.
+     */
+    public static List<Integer> kickers(int score) {
+        int count = category(score).getKickerCount();
+        List<Integer> res = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            res.add(kicker(score, i));
+        }
+        return res;
+    }
+}
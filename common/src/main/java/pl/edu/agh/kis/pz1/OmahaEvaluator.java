@@ -0,0 +1,222 @@
+package pl.edu.agh.kis.pz1;
+
+import java.util.List;
+
+/**
+ * Evaluator of Omaha hands: the best five-card hand made of exactly two of the four hole cards
+ * and exactly three of the five board cards.
+ * <p>
+ * Trying all 60 combinations with a five-card evaluator repeats most of the work, so the search is split
+ * along the two lookup tables of {@link FiveCardEvaluator}:
+ * <ul>
+ *     <li>Flushes come from a single suit: the board must hold at least three cards of it and the hole at least two.
+ *     Only the combinations of that suit are looked up in the flush table, and most hands skip this step entirely.
+ *     A straight flush ends the search, and so does any flush when the board is unpaired, because a full house
+ *     or four of a kind needs a pair among the three board cards.</li>
+ *     <li>Every other hand is a rank pattern, whose key is the sum of the rank keys of the five cards. The keys of
+ *     the 6 hole pairs and the 10 board triples are summed once, and the best of the 60 combinations is one
+ *     table read and one comparison each, without touching the cards again.</li>
+ * </ul>
+ * Scores are in the {@link HandScore} format and are directly comparable with the other high-hand evaluators.
+ * <p>
+ * This class cannot be instantiated, as it is a utility class containing only static methods.
+ */
+public final class OmahaEvaluator {
+
+    /** The number of hole cards. */
+    public static final int HOLE_CARDS = 4;
+
+    /** The number of board cards. */
+    public static final int BOARD_CARDS = 5;
+
+    /** The lowest score of a straight flush. */
+    private static final int STRAIGHT_FLUSH = HandCategory.STRAIGHT_FLUSH.getValue() << HandScore.CATEGORY_SHIFT;
+
+    /**
+     * Private constructor to prevent instantiation of the utility class.
+     */
+    private OmahaEvaluator() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Evaluates an Omaha hand given by card indexes.
+     *
+     * @param h0 The index of the first hole card.
+     * @param h1 The index of the second hole card.
+     * @param h2 The index of the third hole card.
+     * @param h3 The index of the fourth hole card.
+     * @param b0 The index of the first board card.
+     * @param b1 The index of the second board card.
+     * @param b2 The index of the third board card.
+     * @param b3 The index of the fourth board card.
+     * @param b4 The index of the fifth board card.
+     * @return The score of the best hand using two hole cards and three board cards.
+     */
+    public static int evaluate(int h0, int h1, int h2, int h3, int b0, int b1, int b2, int b3, int b4) {
+        int best = flushScore(h0, h1, h2, h3, b0, b1, b2, b3, b4);
+        int[] rankBits = FiveCardEvaluator.CARD_RANK_BIT;
+        if (best >= STRAIGHT_FLUSH) {
+            return best;
+        }
+        if (best != 0) {
+            int boardRanks = rankBits[b0] | rankBits[b1] | rankBits[b2] | rankBits[b3] | rankBits[b4];
+            if (Integer.bitCount(boardRanks) == BOARD_CARDS) {
+                return best;
+            }
+        }
+
+        int[] keys = FiveCardEvaluator.CARD_KEY;
+        int k0 = keys[b0];
+        int k1 = keys[b1];
+        int k2 = keys[b2];
+        int k3 = keys[b3];
+        int k4 = keys[b4];
+        int t0 = k0 + k1 + k2;
+        int t1 = k0 + k1 + k3;
+        int t2 = k0 + k1 + k4;
+        int t3 = k0 + k2 + k3;
+        int t4 = k0 + k2 + k4;
+        int t5 = k0 + k3 + k4;
+        int t6 = k1 + k2 + k3;
+        int t7 = k1 + k2 + k4;
+        int t8 = k1 + k3 + k4;
+        int t9 = k2 + k3 + k4;
+        int q0 = keys[h0];
+        int q1 = keys[h1];
+        int q2 = keys[h2];
+        int q3 = keys[h3];
+        best = Math.max(best, bestPattern(q0 + q1, t0, t1, t2, t3, t4, t5, t6, t7, t8, t9));
+        best = Math.max(best, bestPattern(q0 + q2, t0, t1, t2, t3, t4, t5, t6, t7, t8, t9));
+        best = Math.max(best, bestPattern(q0 + q3, t0, t1, t2, t3, t4, t5, t6, t7, t8, t9));
+        best = Math.max(best, bestPattern(q1 + q2, t0, t1, t2, t3, t4, t5, t6, t7, t8, t9));
+        best = Math.max(best, bestPattern(q1 + q3, t0, t1, t2, t3, t4, t5, t6, t7, t8, t9));
+        best = Math.max(best, bestPattern(q2 + q3, t0, t1, t2, t3, t4, t5, t6, t7, t8, t9));
+        return best;
+    }
+
+    /**
+     * Evaluates an Omaha hand given as card sets.
+     *
+     * @param hole The {@link CardSet} of the four hole cards.
+     * @param board The {@link CardSet} of the five board cards, disjoint from the hole cards.
+     * @return The score of the best hand using two hole cards and three board cards.
+     */
+    public static int evaluate(long hole, long board) {
+        long h = hole;
+        int h0 = Long.numberOfTrailingZeros(h);
+        h &= h - 1;
+        int h1 = Long.numberOfTrailingZeros(h);
+        h &= h - 1;
+        int h2 = Long.numberOfTrailingZeros(h);
+        h &= h - 1;
+        int h3 = Long.numberOfTrailingZeros(h);
+        long b = board;
+        int b0 = Long.numberOfTrailingZeros(b);
+        b &= b - 1;
+        int b1 = Long.numberOfTrailingZeros(b);
+        b &= b - 1;
+        int b2 = Long.numberOfTrailingZeros(b);
+        b &= b - 1;
+        int b3 = Long.numberOfTrailingZeros(b);
+        b &= b - 1;
+        return evaluate(h0, h1, h2, h3, b0, b1, b2, b3, Long.numberOfTrailingZeros(b));
+    }
+
+    /**
+     * Evaluates an Omaha hand.
+     *
+     * @param hole The four hole cards. The list is not modified.
+     * @param board The five board cards. The list is not modified.
+     * @return The score of the best hand using two hole cards and three board cards.
+     */
+    public static int evaluate(List<Card> hole, List<Card> board) {
+        return evaluate(hole.get(0).getIndex(), hole.get(1).getIndex(), hole.get(2).getIndex(), hole.get(3).getIndex(),
+                board.get(0).getIndex(), board.get(1).getIndex(), board.get(2).getIndex(),
+                board.get(3).getIndex(), board.get(4).getIndex());
+    }
+
+    /**
+     * Returns the best rank pattern of one hole pair with any of the board triples.
+     *
+     * @param pair The sum of the rank keys of the hole pair.
+     * @param t0 The sum of the rank keys of the first board triple, and so on for the others.
+     * @return The best score of the ten combinations.
+     */
+    private static int bestPattern(int pair, int t0, int t1, int t2, int t3, int t4, int t5, int t6, int t7, int t8, int t9) {
+        int[] pattern = FiveCardEvaluator.PATTERN;
+        int best = Math.max(Math.max(pattern[pair + t0], pattern[pair + t1]), Math.max(pattern[pair + t2], pattern[pair + t3]));
+        best = Math.max(best, Math.max(Math.max(pattern[pair + t4], pattern[pair + t5]), Math.max(pattern[pair + t6], pattern[pair + t7])));
+        return Math.max(best, Math.max(pattern[pair + t8], pattern[pair + t9]));
+    }
+
+    /**
+     * Returns the best flush or straight flush of the hand, searching only the suit that can make one.
+     *
+     * @param h0 The index of the first hole card, and so on for the other hole cards.
+     * @param b0 The index of the first board card, and so on for the other board cards.
+     * @return The score of the best flush, or 0 if no two hole cards and three board cards share a suit.
+     */
+    private static int flushScore(int h0, int h1, int h2, int h3, int b0, int b1, int b2, int b3, int b4) {
+        int[] suitBits = FiveCardEvaluator.CARD_SUIT_BIT;
+        // four suits counted in 4-bit fields; at most one suit can hold three of the five board cards
+        int boardCounts = count(suitBits[b0]) + count(suitBits[b1]) + count(suitBits[b2])
+                + count(suitBits[b3]) + count(suitBits[b4]);
+        int suitBit = 0;
+        for (int suit = 0; suit < 4; suit++) {
+            if ((boardCounts >>> 4 * suit & 15) >= 3) {
+                suitBit = 1 << suit;
+            }
+        }
+        if (suitBit == 0) {
+            return 0;
+        }
+        int[] rankBits = FiveCardEvaluator.CARD_RANK_BIT;
+        int holeMask = rankIn(h0, suitBit, suitBits, rankBits) | rankIn(h1, suitBit, suitBits, rankBits)
+                | rankIn(h2, suitBit, suitBits, rankBits) | rankIn(h3, suitBit, suitBits, rankBits);
+        if (Integer.bitCount(holeMask) < 2) {
+            return 0;
+        }
+        int boardMask = rankIn(b0, suitBit, suitBits, rankBits) | rankIn(b1, suitBit, suitBits, rankBits)
+                | rankIn(b2, suitBit, suitBits, rankBits) | rankIn(b3, suitBit, suitBits, rankBits)
+                | rankIn(b4, suitBit, suitBits, rankBits);
+        int best = 0;
+        for (int first = holeMask; first != 0; first &= first - 1) {
+            for (int second = first & (first - 1); second != 0; second &= second - 1) {
+                int pair = (first & -first) | (second & -second);
+                for (int a = boardMask; a != 0; a &= a - 1) {
+                    for (int b = a & (a - 1); b != 0; b &= b - 1) {
+                        for (int c = b & (b - 1); c != 0; c &= c - 1) {
+                            int ranks = pair | (a & -a) | (b & -b) | (c & -c);
+                            best = Math.max(best, FiveCardEvaluator.flushScore(ranks));
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Turns the suit bit of a card into its counter of the 4-bit suit counts.
+     *
+     * @param suitBit The suit bit ({@code 1 << suit}) of the card.
+     * @return The counter ({@code 1 << 4 * suit}).
+     */
+    private static int count(int suitBit) {
+        return 1 << 4 * Integer.numberOfTrailingZeros(suitBit);
+    }
+
+    /**
+     * Returns the rank bit of a card if it has the given suit.
+     *
+     * @param card The index of the card.
+     * @param suitBit The suit bit of the flush suit.
+     * @param suitBits The suit bit of each card.
+     * @param rankBits The rank bit of each card.
+     * @return The rank bit of the card, or 0 if it has another suit.
+     */
+    private static int rankIn(int card, int suitBit, int[] suitBits, int[] rankBits) {
+        return (suitBits[card] & suitBit) != 0 ? rankBits[card] : 0;
+    }
+}
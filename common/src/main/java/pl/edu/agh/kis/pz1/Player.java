@@ -54,4 +54,22 @@ public class Player {
             this.cards.add(deck.getCard()); // Adds a card from the deck to the player's hand
         }
     }
+
+    /**
+     * Returns the player's hand as a set of cards.
+     *
+     * @return The {@link CardSet} of the cards the player holds.
+     */
+    public long getCardSet(){
+        return CardSet.of(cards);
+    }
+
+    /**
+     * Replaces the player's hand with the cards of a set, ordered by card index.
+     *
+     * @param cardSet The {@link CardSet} of the new hand.
+     */
+    public void setCardSet(long cardSet){
+        this.cards = CardSet.toList(cardSet);
+    }
 }
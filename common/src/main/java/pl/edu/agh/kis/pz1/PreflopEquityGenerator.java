@@ -0,0 +1,463 @@
+package pl.edu.agh.kis.pz1;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.CRC32;
+
+/**
+ * Offline step that computes the {@link PreflopEquityTable} resource by exact enumeration.
+ * <p>
+ * The equity of a class against another is summed over every hand of the opponent's class that does not
+ * overlap a representative hand of the first class, and over all 1,712,304 boards of each such matchup.
+ * Matchups that differ only by suits that the representative does not fix are enumerated once and weighted
+ * by their number. Boards are enumerated with nested loops that carry the rank keys and suit counts of the
+ * cards placed so far, so each board costs two {@link SevenCardEvaluator} table lookups.
+ * <p>
+ * Only the upper half of the matrix is computed, the rest being one minus its mirror. Rows are spread over
+ * a {@link ForkJoinPool}, and every finished row is appended with its exact win counts and a CRC-32 to a
+ * checkpoint file; a new run skips the rows found there and ignores a torn last record, so an interrupted
+ * generation resumes where it stopped. The table is written next to its target and then moved into place.
+ * <p>
+ * {@code --verify} checks a table instead: the header, the checksum, that mirrored entries sum to one, and
+ * a random sample of entries recomputed from scratch.
+ * <p>
+ * Run with {@code mvn -Ppreflop-equity process-classes} or directly with the output path and the checkpoint
+ * path as arguments, or {@code --verify <table> [entries]}.
+ */
+public class PreflopEquityGenerator {
+
+    /** The number of five-card boards left after two hands are dealt, C(48, 5). */
+    static final long BOARDS = 1_712_304;
+
+    /**
+     * Private constructor to prevent instantiation of the utility class.
+     */
+    private PreflopEquityGenerator() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Computes every missing row, then writes the table.
+     *
+     * @param output The path of the table to write.
+     * @param checkpoint The path of the checkpoint file, created if missing.
+     * @param pool The pool computing the rows.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static void generate(Path output, Path checkpoint, ForkJoinPool pool) throws IOException {
+        long[][] rows = readCheckpoint(checkpoint);
+        List<Integer> pending = new ArrayList<>();
+        for (int row = 0; row < PreflopEquityTable.CLASSES; row++) {
+            if (rows[row] == null) {
+                pending.add(row);
+            }
+        }
+        System.out.println(pending.size() + " of " + PreflopEquityTable.CLASSES + " rows left to compute");
+        try (FileChannel channel = FileChannel.open(checkpoint, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            pool.invoke(new RowTask(pending, 0, pending.size(), rows, channel));
+        }
+
+        char[] entries = new char[PreflopEquityTable.CLASSES * PreflopEquityTable.CLASSES];
+        for (int hand = 0; hand < PreflopEquityTable.CLASSES; hand++) {
+            for (int opponent = hand; opponent < PreflopEquityTable.CLASSES; opponent++) {
+                long points = rows[hand][2 * (opponent - hand)];
+                long deals = rows[hand][2 * (opponent - hand) + 1];
+                // the mirror first, so that a diagonal entry keeps the value of its own row
+                entries[opponent * PreflopEquityTable.CLASSES + hand] = scaled(deals - points, deals);
+                entries[hand * PreflopEquityTable.CLASSES + opponent] = scaled(points, deals);
+            }
+        }
+        write(output, entries);
+    }
+
+    /**
+     * Checks a table.
+     *
+     * @param table The path of the table.
+     * @param samples The number of randomly chosen entries to recompute.
+     * @param seed The seed choosing the entries.
+     * @return The number of entries that are not consistent with their mirror or differ from the recomputed value.
+     * @throws IOException if the table cannot be read, or has a wrong header or checksum.
+     */
+    public static int verify(Path table, int samples, long seed) throws IOException {
+        char[] entries;
+        try (InputStream in = Files.newInputStream(table)) {
+            entries = PreflopEquityTable.read(in);
+        }
+        int errors = 0;
+        for (int hand = 0; hand < PreflopEquityTable.CLASSES; hand++) {
+            for (int opponent = hand; opponent < PreflopEquityTable.CLASSES; opponent++) {
+                int sum = entries[hand * PreflopEquityTable.CLASSES + opponent]
+                        + entries[opponent * PreflopEquityTable.CLASSES + hand];
+                if (Math.abs(sum - PreflopEquityTable.SCALE) > 1) {
+                    System.out.println("Mirrored entries do not sum to one: " + PreflopEquityTable.className(hand)
+                            + " vs " + PreflopEquityTable.className(opponent));
+                    errors++;
+                }
+            }
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < samples; i++) {
+            int hand = random.nextInt(PreflopEquityTable.CLASSES);
+            int opponent = random.nextInt(PreflopEquityTable.CLASSES);
+            long[] exact = cell(hand, opponent);
+            char expected = scaled(exact[0], exact[1]);
+            char stored = entries[hand * PreflopEquityTable.CLASSES + opponent];
+            if (stored != expected) {
+                System.out.println("Wrong entry for " + PreflopEquityTable.className(hand) + " vs "
+                        + PreflopEquityTable.className(opponent) + ": " + (int) stored + " instead of " + (int) expected);
+                errors++;
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Generates or verifies the table.
+     *
+     * @param args The path of the table ({@code preflop-equity.bin} in the working directory by default) and of the
+     *             checkpoint (the table path with {@code .checkpoint} appended by default), or {@code --verify},
+     *             the path of the table and the number of entries to recompute (20 by default).
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--verify")) {
+            Path table = Paths.get(args.length > 1 ? args[1] : PreflopEquityTable.RESOURCE);
+            int errors = verify(table, args.length > 2 ? Integer.parseInt(args[2]) : 20, System.nanoTime());
+            System.out.println(errors == 0 ? "Preflop equity table " + table + " verified" : errors + " wrong entries");
+            if (errors != 0) {
+                System.exit(1);
+            }
+            return;
+        }
+        Path output = Paths.get(args.length > 0 ? args[0] : PreflopEquityTable.RESOURCE);
+        Path checkpoint = args.length > 1 ? Paths.get(args[1]) : Paths.get(output + ".checkpoint");
+        generate(output, checkpoint, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the exact counts of one row, against the opponent classes from the row's own class on.
+     *
+     * @param hand The class of the row.
+     * @return The points and deals of each opponent class, interleaved.
+     */
+    static long[] row(int hand) {
+        long[] row = new long[2 * (PreflopEquityTable.CLASSES - hand)];
+        for (int opponent = hand; opponent < PreflopEquityTable.CLASSES; opponent++) {
+            long[] cell = cell(hand, opponent);
+            row[2 * (opponent - hand)] = cell[0];
+            row[2 * (opponent - hand) + 1] = cell[1];
+        }
+        return row;
+    }
+
+    /**
+     * Computes the exact equity of a class against another.
+     *
+     * @param hand The class of the hand.
+     * @param opponent The class of the opponent.
+     * @return The points of the hand, 2 per won deal and 1 per tie, and twice the number of deals.
+     */
+    static long[] cell(int hand, int opponent) {
+        int row = hand / 13;
+        int column = hand % 13;
+        // a representative: both cards in spades if suited, else the higher rank in spades and the lower in hearts
+        int a = Math.max(row, column);
+        int b = row > column ? Math.min(row, column) : 13 + Math.min(row, column);
+        long representative = 1L << a | 1L << b;
+        List<Integer> stabilizer = new ArrayList<>();
+        for (int permutation = 0; permutation < SuitIsomorphism.PERMUTATIONS; permutation++) {
+            if (SuitIsomorphism.permute(representative, permutation) == representative) {
+                stabilizer.add(permutation);
+            }
+        }
+        Map<Long, Integer> matchups = new HashMap<>();
+        for (int c = 0; c < 52; c++) {
+            for (int d = c + 1; d < 52; d++) {
+                long other = 1L << c | 1L << d;
+                if ((other & representative) == 0 && PreflopEquityTable.classOf(c, d) == opponent) {
+                    long canonical = Long.MAX_VALUE;
+                    for (int permutation : stabilizer) {
+                        canonical = Math.min(canonical, SuitIsomorphism.permute(other, permutation));
+                    }
+                    matchups.merge(canonical, 1, Integer::sum);
+                }
+            }
+        }
+        long points = 0;
+        long deals = 0;
+        for (Map.Entry<Long, Integer> matchup : matchups.entrySet()) {
+            long other = matchup.getKey();
+            int c = Long.numberOfTrailingZeros(other);
+            int d = 63 - Long.numberOfLeadingZeros(other);
+            points += matchupPoints(a, b, c, d) * matchup.getValue();
+            deals += 2 * BOARDS * matchup.getValue();
+        }
+        return new long[]{points, deals};
+    }
+
+    /**
+     * Enumerates every board of a matchup.
+     *
+     * @param a The index of the first card of the hand.
+     * @param b The index of the second card of the hand.
+     * @param c The index of the first card of the opponent.
+     * @param d The index of the second card of the opponent.
+     * @return The points of the hand: 2 per won board and 1 per tie.
+     */
+    static long matchupPoints(int a, int b, int c, int d) {
+        int[] keys = SevenCardEvaluator.CARD_KEY;
+        int[] suits = SevenCardEvaluator.CARD_SUIT_COUNT;
+        long hole = 1L << a | 1L << b | 1L << c | 1L << d;
+        int[] rest = new int[48];
+        int n = 0;
+        for (int card = 0; card < 52; card++) {
+            if ((hole & 1L << card) == 0) {
+                rest[n++] = card;
+            }
+        }
+        long handCards = 1L << a | 1L << b;
+        int handKey = keys[a] + keys[b];
+        int handSuits = suits[a] + suits[b];
+        long otherCards = 1L << c | 1L << d;
+        int otherKey = keys[c] + keys[d];
+        int otherSuits = suits[c] + suits[d];
+        long points = 0;
+        for (int i0 = 0; i0 < 44; i0++) {
+            int c0 = rest[i0];
+            long m0 = 1L << c0;
+            int k0 = keys[c0];
+            int s0 = suits[c0];
+            for (int i1 = i0 + 1; i1 < 45; i1++) {
+                int c1 = rest[i1];
+                long m1 = m0 | 1L << c1;
+                int k1 = k0 + keys[c1];
+                int s1 = s0 + suits[c1];
+                for (int i2 = i1 + 1; i2 < 46; i2++) {
+                    int c2 = rest[i2];
+                    long m2 = m1 | 1L << c2;
+                    int k2 = k1 + keys[c2];
+                    int s2 = s1 + suits[c2];
+                    for (int i3 = i2 + 1; i3 < 47; i3++) {
+                        int c3 = rest[i3];
+                        long m3 = m2 | 1L << c3;
+                        int k3 = k2 + keys[c3];
+                        int s3 = s2 + suits[c3];
+                        for (int i4 = i3 + 1; i4 < 48; i4++) {
+                            int c4 = rest[i4];
+                            long board = m3 | 1L << c4;
+                            int key = k3 + keys[c4];
+                            int suit = s3 + suits[c4];
+                            int mine = SevenCardEvaluator.evaluate(handCards | board, handKey + key, handSuits + suit);
+                            int theirs = SevenCardEvaluator.evaluate(otherCards | board, otherKey + key, otherSuits + suit);
+                            points += Integer.compare(mine, theirs) + 1;
+                        }
+                    }
+                }
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Converts exact counts to a stored entry.
+     *
+     * @param points The points of the hand.
+     * @param deals Twice the number of deals.
+     * @return The equity times {@link PreflopEquityTable#SCALE}, rounded half up.
+     */
+    static char scaled(long points, long deals) {
+        return (char) ((2 * points * PreflopEquityTable.SCALE + deals) / (2 * deals));
+    }
+
+    /**
+     * Reads the finished rows of a checkpoint, dropping a torn or corrupted tail left by an interrupted run.
+     * <p>
+     * A record is the {@code int} class of the row, the points and deals of each opponent class from the row's
+     * own class on as {@code long}s, and an {@code int} CRC-32 of all that.
+     *
+     * @param checkpoint The checkpoint file, which may not exist.
+     * @return The rows indexed by class, {@code null} for the rows still to compute.
+     * @throws IOException if the file cannot be read or truncated.
+     */
+    static long[][] readCheckpoint(Path checkpoint) throws IOException {
+        long[][] rows = new long[PreflopEquityTable.CLASSES][];
+        if (!Files.exists(checkpoint)) {
+            return rows;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+        int valid = 0;
+        while (buffer.remaining() >= 4) {
+            int hand = buffer.getInt(buffer.position());
+            if (hand < 0 || hand >= PreflopEquityTable.CLASSES
+                    || buffer.remaining() < recordBytes(hand)) {
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), buffer.position(), recordBytes(hand) - 4);
+            buffer.getInt();
+            long[] row = new long[2 * (PreflopEquityTable.CLASSES - hand)];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = buffer.getLong();
+            }
+            if (buffer.getInt() != (int) crc.getValue()) {
+                break;
+            }
+            rows[hand] = row;
+            valid = buffer.position();
+        }
+        if (valid < buffer.limit()) {
+            System.out.println("Dropping " + (buffer.limit() - valid) + " bytes of an unfinished checkpoint record");
+            try (FileChannel channel = FileChannel.open(checkpoint, StandardOpenOption.WRITE)) {
+                channel.truncate(valid);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Appends a finished row to the checkpoint and flushes it to the disk.
+     *
+     * @param channel The checkpoint file opened for appending.
+     * @param hand The class of the row.
+     * @param row The counts of the row.
+     * @throws IOException if the record cannot be written.
+     */
+    static void appendRecord(FileChannel channel, int hand, long[] row) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(recordBytes(hand));
+        buffer.putInt(hand);
+        for (long value : row) {
+            buffer.putLong(value);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        synchronized (channel) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Returns the size of the checkpoint record of a row.
+     *
+     * @param hand The class of the row.
+     * @return The size in bytes.
+     */
+    private static int recordBytes(int hand) {
+        return 8 + 16 * (PreflopEquityTable.CLASSES - hand);
+    }
+
+    /**
+     * Writes the table atomically.
+     *
+     * @param output The path of the table.
+     * @param entries The entries in row-major order.
+     * @throws IOException if the file cannot be written.
+     */
+    private static void write(Path output, char[] entries) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(2 * entries.length);
+        for (char entry : entries) {
+            data.putChar(entry);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data.array(), 0, data.capacity());
+        ByteBuffer buffer = ByteBuffer.allocate(PreflopEquityTable.HEADER_BYTES + data.capacity());
+        buffer.putInt(PreflopEquityTable.MAGIC).putInt(PreflopEquityTable.VERSION)
+                .putInt(PreflopEquityTable.CLASSES).putInt((int) crc.getValue());
+        buffer.put(data.array());
+        buffer.flip();
+
+        Path absolute = output.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println("Preflop equity table written to " + absolute);
+    }
+
+    /**
+     * Fork/join task computing a range of pending rows, split in halves down to single rows.
+     */
+    private static final class RowTask extends RecursiveAction {
+
+        /** The classes of the pending rows. */
+        private final transient List<Integer> pending;
+
+        /** The first pending row of the range. */
+        private final int from;
+
+        /** The end of the range (exclusive). */
+        private final int to;
+
+        /** The rows indexed by class, receiving the computed ones. */
+        private final transient long[][] rows;
+
+        /** The checkpoint file opened for appending. */
+        private final transient FileChannel checkpoint;
+
+        /**
+         * Constructs a task for a range of pending rows.
+         *
+         * @param pending The classes of the pending rows.
+         * @param from The first pending row of the range.
+         * @param to The end of the range (exclusive).
+         * @param rows The rows indexed by class.
+         * @param checkpoint The checkpoint file opened for appending.
+         */
+        RowTask(List<Integer> pending, int from, int to, long[][] rows, FileChannel checkpoint) {
+            this.pending = pending;
+            this.from = from;
+            this.to = to;
+            this.rows = rows;
+            this.checkpoint = checkpoint;
+        }
+
+        /**
+         * Computes the rows of the range and records each one in the checkpoint.
+         */
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RowTask(pending, from, middle, rows, checkpoint),
+                        new RowTask(pending, middle, to, rows, checkpoint));
+            } else if (to > from) {
+                int hand = pending.get(from);
+                long[] row = row(hand);
+                try {
+                    appendRecord(checkpoint, hand, row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[hand] = row;
+                System.out.println("Row " + PreflopEquityTable.className(hand) + " done");
+            }
+        }
+    }
+}
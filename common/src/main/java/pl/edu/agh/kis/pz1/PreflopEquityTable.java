@@ -0,0 +1,183 @@
+package pl.edu.agh.kis.pz1;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.CRC32;
+
+/**
+ * Heads-up preflop equity of every hold'em starting hand against every other one, precomputed by
+ * {@link PreflopEquityGenerator} and shipped as the {@value #RESOURCE} resource.
+ * <p>
+ * The 1,326 starting hands fall into 169 classes: 13 pairs, 78 suited and 78 offsuit hands. Classes are
+ * numbered as the usual 13x13 grid, {@code high * 13 + low} for suited hands and {@code low * 13 + high} for
+ * offsuit hands and pairs, where ranks go from 0 (2) to 12 (Ace). The equity of a class against another is
+ * the share of the pot won on average, ties counted as halves, over every pair of non-overlapping hands of
+ * the two classes and every board, enumerated exactly.
+ * <p>
+ * The matrix is expanded into a {@code float} array on first use, so a lookup computes the two
+ * class numbers with integer arithmetic and reads one array element, without allocating.
+ * <p>
+ * Resource layout (big-endian):
+ * <ul>
+ *     <li>{@code int} magic number {@link #MAGIC} and {@code int} format {@link #VERSION},</li>
+ *     <li>{@code int} number of classes and {@code int} CRC-32 of the entries,</li>
+ *     <li>one {@code char} per (hand, opponent) pair of classes in row-major order, holding the equity
+ *     times {@link #SCALE}, rounded.</li>
+ * </ul>
+ * This class cannot be instantiated, as it is a utility class containing only static methods.
+ */
+public final class PreflopEquityTable {
+
+    /** The number of starting-hand classes. */
+    public static final int CLASSES = 169;
+
+    /** The class-path location of the table. */
+    static final String RESOURCE = "preflop-equity.bin";
+
+    /** The magic number at the start of the resource ("PKPE"). */
+    static final int MAGIC = 0x504B5045;
+
+    /** The version of the resource format. */
+    static final int VERSION = 1;
+
+    /** The size of the header in bytes. */
+    static final int HEADER_BYTES = 16;
+
+    /** The stored value of an equity of 1. */
+    static final int SCALE = 65535;
+
+    /** The characters of the ranks, from 2 to Ace. */
+    private static final String RANK_CODES = "23456789TJQKA";
+
+    /**
+     * Private constructor to prevent instantiation of the utility class.
+     */
+    private PreflopEquityTable() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Returns the heads-up preflop equity of a starting hand against another one.
+     *
+     * @param a The index of the first card of the hand.
+     * @param b The index of the second card of the hand.
+     * @param c The index of the first card of the opponent.
+     * @param d The index of the second card of the opponent.
+     * @return The equity of the hand's class against the opponent's class, from 0 to 1.
+     */
+    public static float equity(int a, int b, int c, int d) {
+        return Matrix.EQUITY[classOf(a, b) * CLASSES + classOf(c, d)];
+    }
+
+    /**
+     * Returns the heads-up preflop equity of a starting-hand class against another one.
+     *
+     * @param hand The class of the hand.
+     * @param opponent The class of the opponent.
+     * @return The equity, from 0 to 1.
+     */
+    public static float classEquity(int hand, int opponent) {
+        return Matrix.EQUITY[hand * CLASSES + opponent];
+    }
+
+    /**
+     * Returns the class of a starting hand.
+     *
+     * @param a The index of the first card.
+     * @param b The index of the second card.
+     * @return The class, from 0 to {@link #CLASSES} - 1.
+     */
+    public static int classOf(int a, int b) {
+        int first = a % 13;
+        int second = b % 13;
+        int high = Math.max(first, second);
+        int low = Math.min(first, second);
+        return a / 13 == b / 13 ? high * 13 + low : low * 13 + high;
+    }
+
+    /**
+     * Names a starting-hand class in the usual notation, e.g. "AKs", "T9o" or "77".
+     *
+     * @param handClass The class.
+     * @return The name of the class.
+     */
+    public static String className(int handClass) {
+        int row = handClass / 13;
+        int column = handClass % 13;
+        if (row == column) {
+            return "" + RANK_CODES.charAt(row) + RANK_CODES.charAt(row);
+        }
+        int high = Math.max(row, column);
+        int low = Math.min(row, column);
+        return "" + RANK_CODES.charAt(high) + RANK_CODES.charAt(low) + (row > column ? "s" : "o");
+    }
+
+    /**
+     * Reads the entries of a table and checks the header and the checksum.
+     *
+     * @param in The stream positioned at the start of the table.
+     * @return The stored entries, in row-major order.
+     * @throws IOException if the stream cannot be read or does not hold a valid table.
+     */
+    static char[] read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC || data.readInt() != VERSION || data.readInt() != CLASSES) {
+            throw new IOException("Not a preflop equity table");
+        }
+        int checksum = data.readInt();
+        byte[] bytes = new byte[2 * CLASSES * CLASSES];
+        data.readFully(bytes);
+        if (data.read() >= 0) {
+            throw new IOException("Trailing data after the preflop equity table");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Corrupted preflop equity table");
+        }
+        char[] entries = new char[CLASSES * CLASSES];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = (char) ((bytes[2 * i] & 0xFF) << 8 | bytes[2 * i + 1] & 0xFF);
+        }
+        return entries;
+    }
+
+    /**
+     * The equities, loaded when first needed so that the generator can use this class before the resource exists.
+     */
+    private static final class Matrix {
+
+        /** The equity of each pair of classes, indexed by {@code hand * CLASSES + opponent}. */
+        static final float[] EQUITY = load();
+
+        /**
+         * Private constructor to prevent instantiation of the holder class.
+         */
+        private Matrix() {
+            throw new IllegalStateException("Holder class");
+        }
+    }
+
+    /**
+     * Loads the table resource.
+     *
+     * @return The equities, in row-major order.
+     */
+    private static float[] load() {
+        try (InputStream in = PreflopEquityTable.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing resource " + RESOURCE);
+            }
+            char[] entries = read(in);
+            float[] equity = new float[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                equity[i] = entries[i] / (float) SCALE;
+            }
+            return equity;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package pl.edu.agh.kis.pz1;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Monte Carlo estimator of the equity of {@link HandRange ranges} against each other in five-card draw.
+ * <p>
+ * Every simulated deal picks one combination of each range at random, in proportion to the weights,
+ * and discards the deal if two combinations share a card. Conflicts are found with a single {@code AND}
+ * of two {@link CardSet}s, and combinations holding dead cards are removed from the ranges up front.
+ * The players then draw their missing cards from the rest of the deck and the best hand wins.
+ * <p>
+ * As in {@link EquityCalculator}, deals are simulated in batches on a {@link ForkJoinPool}, each batch with
+ * its own {@link SplittableRandom} split from the seed, so the result for a given seed does not depend on the
+ * number of threads; the simulation stops once every equity is known to the requested precision.
+ */
+public class RangeEquityCalculator {
+
+    /** The number of deals simulated by one task. */
+    static final int BATCH_SAMPLES = 1024;
+
+    /** The number of batches simulated between two checks of the confidence interval. */
+    static final int BATCHES_PER_ROUND = 64;
+
+    /** The number of conflicting picks in a row after which the ranges are considered incompatible. */
+    static final int MAX_CONFLICTS = 100_000;
+
+    /** The pool running the simulation. */
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a calculator running on the common fork/join pool.
+     */
+    public RangeEquityCalculator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a calculator running on the given pool.
+     *
+     * @param pool The pool running the simulation, e.g. one thread per core.
+     */
+    public RangeEquityCalculator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Estimates the equity of ranges against each other.
+     *
+     * @param ranges The range of each player.
+     * @param dead Cards that no player holds and nobody can draw.
+     * @param seed The seed of the simulation.
+     * @param maxSamples The maximum number of deals to simulate.
+     * @param halfWidth The target half-width of the 95% confidence interval of every equity, or 0 to run all deals.
+     * @return The estimated equities, one per range.
+     * @throws IllegalArgumentException if fewer than two ranges are given, a range is empty after removing
+     *                                  the dead cards, the ranges almost never fit together, or the deck runs out.
+     */
+    public EquityResult calculate(HandRange[] ranges, long dead, long seed, long maxSamples, double halfWidth) {
+        if (ranges.length < 2) {
+            throw new IllegalArgumentException("At least two ranges are needed, got " + ranges.length);
+        }
+        Sampler[] samplers = new Sampler[ranges.length];
+        for (int p = 0; p < ranges.length; p++) {
+            samplers[p] = new Sampler(ranges[p].without(dead), p);
+        }
+        // every player ends with five cards out of the deck, the kept ones and the drawn ones
+        if (5 * ranges.length + CardSet.size(dead) > 52) {
+            throw new IllegalArgumentException("Not enough cards for " + ranges.length + " players");
+        }
+        SplittableRandom root = new SplittableRandom(seed);
+        int players = ranges.length;
+        long[] wins = new long[players];
+        long[] ties = new long[players];
+        double[] shares = new double[players];
+        long samples = 0;
+        while (samples < maxSamples) {
+            int batches = (int) Math.min(BATCHES_PER_ROUND, (maxSamples - samples + BATCH_SAMPLES - 1) / BATCH_SAMPLES);
+            Batch[] results = new Batch[batches];
+            for (int i = 0; i < batches; i++) {
+                int size = (int) Math.min(BATCH_SAMPLES, maxSamples - samples - (long) i * BATCH_SAMPLES);
+                results[i] = new Batch(root.split(), size, players);
+            }
+            pool.invoke(new BatchTask(samplers, dead, results, 0, batches));
+            for (Batch result : results) {
+                if (result.incompatible) {
+                    throw new IllegalArgumentException("The ranges almost always share cards");
+                }
+                for (int p = 0; p < players; p++) {
+                    wins[p] += result.wins[p];
+                    ties[p] += result.ties[p];
+                    shares[p] += result.shares[p];
+                }
+                samples += result.samples;
+            }
+            if (halfWidth > 0 && withinHalfWidth(new EquityResult(wins, ties, shares, samples), halfWidth)) {
+                break;
+            }
+        }
+        return new EquityResult(wins, ties, shares, samples);
+    }
+
+    /**
+     * Estimates the equity of two ranges against each other, e.g. {@code calculate("any pair", "top 20% of pat hands")}.
+     *
+     * @param range The range of the first player.
+     * @param against The range of the second player.
+     * @param seed The seed of the simulation.
+     * @param halfWidth The target half-width of the 95% confidence interval of the equities, positive.
+     * @return The estimated equities.
+     * @throws IllegalArgumentException if the half-width is not positive, a range cannot be parsed, or as
+     *                                  {@link #calculate(HandRange[], long, long, long, double)}.
+     */
+    public EquityResult calculate(String range, String against, long seed, double halfWidth) {
+        // without a target the simulation has no sample cap to stop at
+        if (!(halfWidth > 0)) {
+            throw new IllegalArgumentException("The half-width must be positive, got " + halfWidth);
+        }
+        return calculate(new HandRange[]{HandRange.parse(range), HandRange.parse(against)}, CardSet.EMPTY,
+                seed, Long.MAX_VALUE, halfWidth);
+    }
+
+    /**
+     * Checks whether the confidence interval of every equity is narrow enough.
+     *
+     * @param result The result so far.
+     * @param halfWidth The target half-width.
+     * @return Whether no player's interval is wider than the target.
+     */
+    private static boolean withinHalfWidth(EquityResult result, double halfWidth) {
+        for (int p = 0; p < result.getPlayers(); p++) {
+            if (result.getHalfWidth(p) > halfWidth) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Picks combinations of a range in proportion to their weights, by a binary search over the cumulative weights.
+     */
+    private static final class Sampler {
+
+        /** The combinations. */
+        private final long[] combos;
+
+        /** The sum of the weights of the combinations up to and including each one. */
+        private final double[] cumulative;
+
+        /**
+         * Prepares the sampling of a range.
+         *
+         * @param range The range without dead cards.
+         * @param player The position of the player, for the error message.
+         */
+        Sampler(HandRange range, int player) {
+            if (range.size() == 0) {
+                throw new IllegalArgumentException("The range of player " + player + " is empty without the dead cards");
+            }
+            combos = new long[range.size()];
+            cumulative = new double[range.size()];
+            double total = 0;
+            for (int i = 0; i < combos.length; i++) {
+                combos[i] = range.getCombo(i);
+                total += range.getWeight(i);
+                cumulative[i] = total;
+            }
+        }
+
+        /**
+         * Picks a combination.
+         *
+         * @param random The random stream.
+         * @return The combination.
+         */
+        long pick(SplittableRandom random) {
+            double target = random.nextDouble() * cumulative[cumulative.length - 1];
+            int i = Arrays.binarySearch(cumulative, target);
+            i = i < 0 ? -i - 1 : i + 1;
+            return combos[Math.min(i, combos.length - 1)];
+        }
+    }
+
+    /**
+     * The random stream and the counts of one batch.
+     */
+    private static final class Batch {
+
+        /** The random stream of the batch. */
+        private final SplittableRandom random;
+
+        /** The number of deals to simulate. */
+        private final int samples;
+
+        /** The number of deals each player won alone. */
+        private final long[] wins;
+
+        /** The number of deals each player split. */
+        private final long[] ties;
+
+        /** The share of the pot won by each player. */
+        private final double[] shares;
+
+        /** Whether the batch gave up because the picks kept conflicting. */
+        private boolean incompatible;
+
+        /**
+         * Constructs an empty batch.
+         *
+         * @param random The random stream of the batch.
+         * @param samples The number of deals to simulate.
+         * @param players The number of players.
+         */
+        Batch(SplittableRandom random, int samples, int players) {
+            this.random = random;
+            this.samples = samples;
+            this.wins = new long[players];
+            this.ties = new long[players];
+            this.shares = new double[players];
+        }
+    }
+
+    /**
+     * Fork/join task simulating a range of batches, split in halves down to single batches.
+     */
+    private static final class BatchTask extends RecursiveAction {
+
+        /** The samplers of the ranges. */
+        private final transient Sampler[] samplers;
+
+        /** The dead cards. */
+        private final long dead;
+
+        /** The batches of the round. */
+        private final transient Batch[] results;
+
+        /** The first batch of the range. */
+        private final int from;
+
+        /** The end of the range (exclusive). */
+        private final int to;
+
+        /**
+         * Constructs a task for a range of batches.
+         *
+         * @param samplers The samplers of the ranges.
+         * @param dead The dead cards.
+         * @param results The batches of the round.
+         * @param from The first batch of the range.
+         * @param to The end of the range (exclusive).
+         */
+        BatchTask(Sampler[] samplers, long dead, Batch[] results, int from, int to) {
+            this.samplers = samplers;
+            this.dead = dead;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Simulates the batches of the range, splitting it while it holds more than one batch.
+         */
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BatchTask(samplers, dead, results, from, middle),
+                        new BatchTask(samplers, dead, results, middle, to));
+            } else {
+                simulate(samplers, dead, results[from]);
+            }
+        }
+    }
+
+    /**
+     * Simulates the deals of one batch.
+     *
+     * @param samplers The samplers of the ranges.
+     * @param dead The dead cards.
+     * @param batch The batch receiving the counts.
+     */
+    private static void simulate(Sampler[] samplers, long dead, Batch batch) {
+        int players = samplers.length;
+        long[] hands = new long[players];
+        int[] scores = new int[players];
+        SplittableRandom random = batch.random;
+        for (int s = 0; s < batch.samples; s++) {
+            long used = dead;
+            int conflicts = 0;
+            for (int p = 0; p < players; p++) {
+                long combo = samplers[p].pick(random);
+                if ((combo & used) != 0) {
+                    // the whole deal is picked again, so that every compatible deal keeps its probability
+                    if (++conflicts == MAX_CONFLICTS) {
+                        batch.incompatible = true;
+                        return;
+                    }
+                    used = dead;
+                    p = -1;
+                    continue;
+                }
+                hands[p] = combo;
+                used |= combo;
+            }
+            int best = 0;
+            int bestCount = 0;
+            for (int p = 0; p < players; p++) {
+                long hand = hands[p];
+                while (CardSet.size(hand) < 5) {
+                    int card = random.nextInt(52);
+                    if ((used & 1L << card) == 0) {
+                        used |= 1L << card;
+                        hand |= 1L << card;
+                    }
+                }
+                int score = FiveCardEvaluator.evaluate(hand);
+                scores[p] = score;
+                if (score > best) {
+                    best = score;
+                    bestCount = 1;
+                } else if (score == best) {
+                    bestCount++;
+                }
+            }
+            double share = 1.0 / bestCount;
+            for (int p = 0; p < players; p++) {
+                if (scores[p] == best) {
+                    if (bestCount == 1) {
+                        batch.wins[p]++;
+                    } else {
+                        batch.ties[p]++;
+                    }
+                    batch.shares[p] += share;
+                }
+            }
+        }
+    }
+}
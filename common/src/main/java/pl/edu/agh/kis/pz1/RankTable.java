@@ -0,0 +1,149 @@
+package pl.edu.agh.kis.pz1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A precomputed table with the score of every one of the 2,598,960 five-card hands,
+ * read from a file written by {@link RankTableGenerator} and memory-mapped into the process.
+ * <p>
+ * The file is mapped read-only through {@link FileChannel#map}, so every JVM on a host that opens
+ * the same file shares the same physical pages and nothing is rebuilt at startup.
+ * A lookup computes the combinatorial index of the hand and reads its score with a single load from the table.
+ * <p>
+ * File layout (big-endian):
+ * <ul>
+ *     <li>{@code int} magic number {@link #MAGIC} and {@code int} format {@link #VERSION},</li>
+ *     <li>{@code int} number of hands,</li>
+ *     <li>one {@code int} per hand, in combinatorial index order, holding its score.</li>
+ * </ul>
+ * Instances are immutable and can be shared by any number of threads.
+ */
+public final class RankTable {
+
+    /** The magic number at the start of the file ("PKRT"). */
+    static final int MAGIC = 0x504B5254;
+
+    /** The version of the file format. */
+    static final int VERSION = 2;
+
+    /** The number of five-card hands, C(52, 5). */
+    public static final int HANDS = 2_598_960;
+
+    /** The size of the header in bytes. */
+    static final int HEADER_BYTES = 12;
+
+    /** Binomial coefficients C(n, k), indexed by {@code k * 52 + n}, used by the combinatorial index. */
+    private static final int[] BINOMIAL = new int[6 * 52];
+
+    static {
+        for (int n = 0; n < 52; n++) {
+            long value = 1;
+            for (int k = 0; k <= 5; k++) {
+                BINOMIAL[k * 52 + n] = k > n ? 0 : (int) value;
+                value = value * (n - k) / (k + 1);
+            }
+        }
+    }
+
+    /** The mapped file. */
+    private final MappedByteBuffer table;
+
+    /**
+     * Constructs a table over an already mapped file.
+     *
+     * @param table The mapped file.
+     */
+    private RankTable(MappedByteBuffer table) {
+        this.table = table;
+    }
+
+    /**
+     * Maps a rank table file into memory.
+     *
+     * @param file The file written by {@link RankTableGenerator}.
+     * @return The table backed by the mapped file.
+     * @throws IOException if the file cannot be read or is not a valid rank table.
+     */
+    public static RankTable open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (channel.size() < HEADER_BYTES || table.getInt(0) != MAGIC || table.getInt(4) != VERSION
+                    || table.getInt(8) != HANDS) {
+                throw new IOException("Not a rank table: " + file);
+            }
+            if (channel.size() != HEADER_BYTES + 4L * HANDS) {
+                throw new IOException("Truncated rank table: " + file);
+            }
+            return new RankTable(table);
+        }
+    }
+
+    /**
+     * Returns the score of a hand of five distinct cards, in any order.
+     *
+     * @param c0 The index of the first card.
+     * @param c1 The index of the second card.
+     * @param c2 The index of the third card.
+     * @param c3 The index of the fourth card.
+     * @param c4 The index of the fifth card.
+     * @return The score of the hand, equal to {@link FiveCardEvaluator#evaluate(int, int, int, int, int)}.
+     */
+    public int score(int c0, int c1, int c2, int c3, int c4) {
+        return table.getInt(HEADER_BYTES + 4 * indexOf(c0, c1, c2, c3, c4));
+    }
+
+    /**
+     * Returns the score of a hand given as a set of exactly five cards.
+     *
+     * @param cardSet The {@link CardSet} of the hand.
+     * @return The score of the hand.
+     */
+    public int score(long cardSet) {
+        return table.getInt(HEADER_BYTES + 4 * indexOf(cardSet));
+    }
+
+    /**
+     * Returns the combinatorial index of a hand of five distinct cards, in any order.
+     * The index of the sorted hand {@code a < b < c < d < e} is C(a,1) + C(b,2) + C(c,3) + C(d,4) + C(e,5).
+     *
+     * @param c0 The index of the first card.
+     * @param c1 The index of the second card.
+     * @param c2 The index of the third card.
+     * @param c3 The index of the fourth card.
+     * @param c4 The index of the fifth card.
+     * @return A value from 0 to {@link #HANDS} - 1.
+     */
+    public static int indexOf(int c0, int c1, int c2, int c3, int c4) {
+        return indexOf(1L << c0 | 1L << c1 | 1L << c2 | 1L << c3 | 1L << c4);
+    }
+
+    /**
+     * Returns the combinatorial index of a hand given as a set of exactly five cards.
+     *
+     * @param cardSet The {@link CardSet} of the hand.
+     * @return A value from 0 to {@link #HANDS} - 1.
+     */
+    public static int indexOf(long cardSet) {
+        int index = 0;
+        long rest = cardSet;
+        for (int k = 1; k <= 5; k++) {
+            index += BINOMIAL[k * 52 + Long.numberOfTrailingZeros(rest)];
+            rest &= rest - 1;
+        }
+        return index;
+    }
+
+    /**
+     * Writes the header of a rank table into a buffer.
+     *
+     * @param buffer The buffer positioned at the start of the file.
+     */
+    static void writeHeader(ByteBuffer buffer) {
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(HANDS);
+    }
+}
@@ -0,0 +1,94 @@
+package pl.edu.agh.kis.pz1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Build step that writes the {@link RankTable} file.
+ * <p>
+ * It enumerates all 2,598,960 five-card hands once, scores each of them through {@link HandRanker}
+ * and stores the result in combinatorial index order. The file is first written next to the target
+ * and then moved into place, so processes that map the table never see a partially written file.
+ * <p>
+ * Run with {@code mvn -Prank-table process-classes} or directly with the output path as the only argument.
+ */
+public class RankTableGenerator {
+
+    /**
+     * Private constructor to prevent instantiation of the utility class.
+     */
+    private RankTableGenerator() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Scores every five-card hand and writes the rank table file.
+     *
+     * @param file The path of the file to write.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void generate(Path file) throws IOException {
+        HandRanker ranker = new HandRanker();
+        Card[] deck = new Card[52];
+        for (int i = 0; i < 52; i++) {
+            deck[i] = Card.of(i);
+        }
+        List<Card> hand = new ArrayList<>(Arrays.asList(deck[0], deck[1], deck[2], deck[3], deck[4]));
+
+        int[] handScores = new int[RankTable.HANDS];
+        for (int e = 4; e < 52; e++) {
+            hand.set(4, deck[e]);
+            for (int d = 3; d < e; d++) {
+                hand.set(3, deck[d]);
+                for (int c = 2; c < d; c++) {
+                    hand.set(2, deck[c]);
+                    for (int b = 1; b < c; b++) {
+                        hand.set(1, deck[b]);
+                        for (int a = 0; a < b; a++) {
+                            hand.set(0, deck[a]);
+                            handScores[RankTable.indexOf(a, b, c, d, e)] = ranker.score(hand);
+                        }
+                    }
+                }
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(RankTable.HEADER_BYTES + 4 * RankTable.HANDS);
+        RankTable.writeHeader(buffer);
+        buffer.asIntBuffer().put(handScores);
+        buffer.position(buffer.capacity());
+        buffer.flip();
+
+        Path absolute = file.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println("Rank table with " + RankTable.HANDS + " hands written to " + absolute);
+    }
+
+    /**
+     * Writes the rank table file.
+     *
+     * @param args The path of the file to write, {@code hand-ranks.bin} in the working directory by default.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        generate(Paths.get(args.length > 0 ? args[0] : "hand-ranks.bin"));
+    }
+}
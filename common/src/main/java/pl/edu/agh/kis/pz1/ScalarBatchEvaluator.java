@@ -0,0 +1,36 @@
+package pl.edu.agh.kis.pz1;
+
+/**
+ * Batch evaluator scoring one hand at a time with {@link FiveCardEvaluator}.
+ * It runs on any JVM and is the default of {@link BatchEvaluator#create()}.
+ */
+public final class ScalarBatchEvaluator implements BatchEvaluator {
+
+    /**
+     * Evaluates a batch of hands stored column by column.
+     *
+     * @param c0 The indexes of the first cards.
+     * @param c1 The indexes of the second cards.
+     * @param c2 The indexes of the third cards.
+     * @param c3 The indexes of the fourth cards.
+     * @param c4 The indexes of the fifth cards.
+     * @param scores The array receiving the score of each hand.
+     * @param count The number of hands to evaluate.
+     */
+    @Override
+    public void evaluate(int[] c0, int[] c1, int[] c2, int[] c3, int[] c4, int[] scores, int count) {
+        FiveCardEvaluator.evaluateBatch(c0, c1, c2, c3, c4, scores, count);
+    }
+
+    /**
+     * Evaluates a batch of hands, each given as a set of exactly five cards.
+     *
+     * @param cardSets The {@link CardSet} of each hand.
+     * @param scores The array receiving the score of each hand.
+     * @param count The number of hands to evaluate.
+     */
+    @Override
+    public void evaluate(long[] cardSets, int[] scores, int count) {
+        FiveCardEvaluator.evaluateBatch(cardSets, scores, count);
+    }
+}
@@ -0,0 +1,116 @@
+package pl.edu.agh.kis.pz1;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * Shuffle source for real-money tables, backed by a deterministic random bit generator (DRBG)
+ * seeded from the system's {@link SecureRandom}.
+ * <p>
+ * Random bytes are requested from the DRBG in batches of {@link #BATCH_BYTES} and consumed four at a time,
+ * so a shuffle does not pay for a call into the generator per card. The generator is reseeded with fresh
+ * entropy every {@link #RESEED_INTERVAL} batches; a fallback generator that cannot reseed is given
+ * {@link #SEED_BYTES} fresh seed bytes instead. Values are drawn by rejection sampling, so they are
+ * exactly uniform for every bound.
+ */
+public class SecureShuffleSource implements ShuffleSource {
+
+    /** The number of random bytes fetched from the generator at a time. */
+    static final int BATCH_BYTES = 4096;
+
+    /** The number of batches after which the generator is reseeded. */
+    static final int RESEED_INTERVAL = 256;
+
+    /** The number of seed bytes mixed into a generator that does not support reseeding. */
+    static final int SEED_BYTES = 32;
+
+    /** The generator. */
+    private final SecureRandom random;
+
+    /** The current batch of random bytes. */
+    private final byte[] batch = new byte[BATCH_BYTES];
+
+    /** The position of the next unused byte of the batch. */
+    private int position = BATCH_BYTES;
+
+    /** The number of batches fetched since the last reseed. */
+    private int batches;
+
+    /**
+     * Constructs a source with a new DRBG instance, falling back to the platform's strongest generator
+     * if DRBG is not available.
+     */
+    public SecureShuffleSource() {
+        this(newGenerator());
+    }
+
+    /**
+     * Constructs a source over an existing generator.
+     *
+     * @param random The generator, owned by this source from now on.
+     */
+    SecureShuffleSource(SecureRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Returns a uniformly distributed value from 0 (inclusive) to {@code bound} (exclusive).
+     *
+     * @param bound The upper bound, positive.
+     * @return The random value.
+     */
+    @Override
+    public int nextInt(int bound) {
+        int limit = Integer.MAX_VALUE - Integer.MAX_VALUE % bound;
+        int value;
+        do {
+            value = nextBits() >>> 1;
+        } while (value >= limit);
+        return value % bound;
+    }
+
+    /**
+     * Returns the next 32 random bits, fetching a new batch when the current one is used up.
+     *
+     * @return The random bits.
+     */
+    private int nextBits() {
+        if (position == BATCH_BYTES) {
+            if (++batches == RESEED_INTERVAL) {
+                reseed();
+                batches = 0;
+            }
+            random.nextBytes(batch);
+            position = 0;
+        }
+        int bits = (batch[position] & 0xFF) << 24 | (batch[position + 1] & 0xFF) << 16
+                | (batch[position + 2] & 0xFF) << 8 | (batch[position + 3] & 0xFF);
+        position += 4;
+        return bits;
+    }
+
+    /**
+     * Reseeds the generator with fresh entropy. Generators other than DRBG do not implement
+     * {@link SecureRandom#reseed()}, so they get new seed bytes mixed in instead.
+     */
+    private void reseed() {
+        try {
+            random.reseed();
+        } catch (UnsupportedOperationException e) {
+            random.setSeed(random.generateSeed(SEED_BYTES));
+        }
+    }
+
+    /**
+     * Creates the generator of a new source.
+     *
+     * @return A DRBG instance, or the strongest generator of the platform if DRBG is not available.
+     */
+    private static SecureRandom newGenerator() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package pl.edu.agh.kis.pz1;
+
+import lombok.Getter;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic shuffle source: the same seed always produces the same sequence of shuffles,
+ * so a hand can be replayed exactly and benchmarks see the same decks on every run.
+ * The generator ({@link SplittableRandom}, SplitMix64) is fully specified, so sequences do not depend on the JVM.
+ */
+public class SeededShuffleSource implements ShuffleSource {
+
+    /** The seed the stream was started from. */
+    @Getter
+    private final long seed;
+
+    /** The generator of this stream. */
+    private final SplittableRandom random;
+
+    /**
+     * Constructs a source replaying the stream of a seed.
+     *
+     * @param seed The seed, e.g. stored with a hand history.
+     */
+    public SeededShuffleSource(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Returns a uniformly distributed value from 0 (inclusive) to {@code bound} (exclusive).
+     *
+     * @param bound The upper bound, positive.
+     * @return The random value.
+     */
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+}
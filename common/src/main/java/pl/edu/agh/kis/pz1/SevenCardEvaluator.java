@@ -0,0 +1,293 @@
+package pl.edu.agh.kis.pz1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Table-driven evaluator of the best five-card hand out of seven cards, for hold'em-style variants.
+ * <p>
+ * The best hand is found without trying the 21 five-card subsets. Instead every evaluation is a handful
+ * of array reads into tables built once when the class is loaded:
+ * <ul>
+ *     <li>the number of cards of each suit is summed in 4-bit fields, which detects a flush without branching,</li>
+ *     <li>a flush is looked up by the 13-bit mask of ranks held in the flush suit,</li>
+ *     <li>any other hand is looked up by the sum of per-rank keys, unique for every multiset of seven ranks,
+ *     compressed into a small table by a displacement perfect hash.</li>
+ * </ul>
+ * Scores are in the {@link HandScore} format and are directly comparable with {@link FiveCardEvaluator} scores.
+ * <p>
+ * This class cannot be instantiated, as it is a utility class containing only static methods.
+ */
+public final class SevenCardEvaluator {
+
+    /**
+     * Per-rank keys, from 2 to Ace. Sums of seven keys, with every rank used at most four times, are unique.
+     */
+    static final int[] RANK_KEYS = {0, 1, 5, 22, 98, 453, 2031, 8698, 22854, 83661, 262349, 636345, 1479181};
+
+    /** The number of key bits that select a column of the displacement table. */
+    private static final int COLUMN_BITS = 9;
+
+    /** The mask of the column bits of a key. */
+    private static final int COLUMN_MASK = (1 << COLUMN_BITS) - 1;
+
+    /** The rank key of each card, indexed by card index. */
+    static final int[] CARD_KEY = new int[52];
+
+    /** The suit counter ({@code 1 << 4 * suit}) of each card, indexed by card index. */
+    static final int[] CARD_SUIT_COUNT = new int[52];
+
+    /** Scores of the best flush, indexed by the mask of ranks held in the flush suit. */
+    private static final int[] FLUSH = new int[1 << FiveCardEvaluator.RANKS];
+
+    /** The displacement of each row of keys in the {@link #PATTERN} table. */
+    private static final int[] OFFSETS;
+
+    /** Scores of the best hand that is not a flush, indexed by the displaced sum of rank keys. */
+    private static final int[] PATTERN;
+
+    static {
+        for (int card = 0; card < 52; card++) {
+            CARD_KEY[card] = RANK_KEYS[card % FiveCardEvaluator.RANKS];
+            CARD_SUIT_COUNT[card] = 1 << 4 * (card / FiveCardEvaluator.RANKS);
+        }
+        for (int mask = 0; mask < FLUSH.length; mask++) {
+            if (Integer.bitCount(mask) >= 5) {
+                for (int sub = mask; sub != 0; sub = (sub - 1) & mask) {
+                    FLUSH[mask] = Math.max(FLUSH[mask], FiveCardEvaluator.flushScore(sub));
+                }
+            }
+        }
+
+        List<int[]> patterns = new ArrayList<>();
+        collectPatterns(new int[FiveCardEvaluator.RANKS], 0, 7, patterns);
+        int maxKey = 4 * RANK_KEYS[12] + 3 * RANK_KEYS[11];
+        OFFSETS = new int[(maxKey >>> COLUMN_BITS) + 1];
+        int[] keysByRow = new int[patterns.size()];
+        int[] rowSizes = new int[OFFSETS.length];
+        for (int i = 0; i < patterns.size(); i++) {
+            keysByRow[i] = patterns.get(i)[0];
+            rowSizes[keysByRow[i] >>> COLUMN_BITS]++;
+        }
+        PATTERN = new int[placeRows(keysByRow, rowSizes)];
+        for (int[] pattern : patterns) {
+            PATTERN[slot(pattern[0])] = pattern[1];
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation of the utility class.
+     */
+    private SevenCardEvaluator() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Evaluates the best five-card hand out of seven cards given by their indexes.
+     *
+     * @param c0 The index of the first card.
+     * @param c1 The index of the second card.
+     * @param c2 The index of the third card.
+     * @param c3 The index of the fourth card.
+     * @param c4 The index of the fifth card.
+     * @param c5 The index of the sixth card.
+     * @param c6 The index of the seventh card.
+     * @return The score of the best hand.
+     */
+    public static int evaluate(int c0, int c1, int c2, int c3, int c4, int c5, int c6) {
+        int suits = CARD_SUIT_COUNT[c0] + CARD_SUIT_COUNT[c1] + CARD_SUIT_COUNT[c2] + CARD_SUIT_COUNT[c3]
+                + CARD_SUIT_COUNT[c4] + CARD_SUIT_COUNT[c5] + CARD_SUIT_COUNT[c6];
+        int flushSuits = (suits + 0x3333) & 0x8888; // the top bit of a counter is set when it holds 5 or more
+        if (flushSuits != 0) {
+            long cards = 1L << c0 | 1L << c1 | 1L << c2 | 1L << c3 | 1L << c4 | 1L << c5 | 1L << c6;
+            return FLUSH[flushRanks(cards, flushSuits)];
+        }
+        return PATTERN[slot(CARD_KEY[c0] + CARD_KEY[c1] + CARD_KEY[c2] + CARD_KEY[c3]
+                + CARD_KEY[c4] + CARD_KEY[c5] + CARD_KEY[c6])];
+    }
+
+    /**
+     * Evaluates the best five-card hand out of a set of exactly seven cards.
+     *
+     * @param cardSet The {@link CardSet} of the seven cards.
+     * @return The score of the best hand.
+     */
+    public static int evaluate(long cardSet) {
+        int suits = 0;
+        int key = 0;
+        for (long rest = cardSet; rest != 0; rest &= rest - 1) {
+            int card = Long.numberOfTrailingZeros(rest);
+            suits += CARD_SUIT_COUNT[card];
+            key += CARD_KEY[card];
+        }
+        return evaluate(cardSet, key, suits);
+    }
+
+    /**
+     * Evaluates seven cards whose rank keys and suit counters were already summed, e.g. incrementally
+     * while enumerating boards.
+     *
+     * @param cardSet The {@link CardSet} of the seven cards, only read when they hold a flush.
+     * @param key The sum of the {@link #CARD_KEY}s of the cards.
+     * @param suits The sum of the {@link #CARD_SUIT_COUNT}s of the cards.
+     * @return The score of the best hand.
+     */
+    static int evaluate(long cardSet, int key, int suits) {
+        int flushSuits = (suits + 0x3333) & 0x8888;
+        if (flushSuits != 0) {
+            return FLUSH[flushRanks(cardSet, flushSuits)];
+        }
+        return PATTERN[slot(key)];
+    }
+
+    /**
+     * Evaluates the best five-card hand out of seven cards.
+     *
+     * @param cards A list of 7 cards to evaluate. The list is not modified.
+     * @return The score of the best hand.
+     */
+    public static int evaluate(List<Card> cards) {
+        return evaluate(cards.get(0).getIndex(), cards.get(1).getIndex(), cards.get(2).getIndex(),
+                cards.get(3).getIndex(), cards.get(4).getIndex(), cards.get(5).getIndex(), cards.get(6).getIndex());
+    }
+
+    /**
+     * Returns the ranks held in the flush suit.
+     *
+     * @param cards The {@link CardSet} of the seven cards.
+     * @param flushSuits The suit counters with the top bit set for the flush suit.
+     * @return The 13-bit mask of ranks of that suit.
+     */
+    private static int flushRanks(long cards, int flushSuits) {
+        int suit = Integer.numberOfTrailingZeros(flushSuits) >>> 2;
+        return (int) (cards >>> (FiveCardEvaluator.RANKS * suit)) & 0x1FFF;
+    }
+
+    /**
+     * Returns the position of a key in the {@link #PATTERN} table.
+     *
+     * @param key The sum of the rank keys of seven cards.
+     * @return The displaced position.
+     */
+    private static int slot(int key) {
+        return OFFSETS[key >>> COLUMN_BITS] + (key & COLUMN_MASK);
+    }
+
+    /**
+     * Collects every multiset of seven ranks, each rank used at most four times,
+     * together with the score of the best non-flush hand it contains.
+     *
+     * @param counts The number of cards of each rank chosen so far.
+     * @param rank The lowest rank that can still be added.
+     * @param left The number of cards still to add.
+     * @param patterns The list receiving {key, score} pairs.
+     */
+    private static void collectPatterns(int[] counts, int rank, int left, List<int[]> patterns) {
+        if (left == 0) {
+            int key = 0;
+            for (int r = 0; r < FiveCardEvaluator.RANKS; r++) {
+                key += counts[r] * RANK_KEYS[r];
+            }
+            patterns.add(new int[]{key, bestOfSeven(counts)});
+            return;
+        }
+        for (int r = rank; r < FiveCardEvaluator.RANKS; r++) {
+            if (counts[r] < 4) {
+                counts[r]++;
+                collectPatterns(counts, r, left - 1, patterns);
+                counts[r]--;
+            }
+        }
+    }
+
+    /**
+     * Returns the best non-flush score among the five-card hands left after removing two cards.
+     *
+     * @param counts The number of cards of each rank, summing to 7.
+     * @return The best score.
+     */
+    private static int bestOfSeven(int[] counts) {
+        int key = 0;
+        for (int r = 0; r < FiveCardEvaluator.RANKS; r++) {
+            key += counts[r] * FiveCardEvaluator.RANK_KEYS[r];
+        }
+        int best = 0;
+        for (int i = 0; i < FiveCardEvaluator.RANKS; i++) {
+            for (int j = i; j < FiveCardEvaluator.RANKS; j++) {
+                if (counts[i] > 0 && counts[j] > (i == j ? 1 : 0)) {
+                    int removed = FiveCardEvaluator.RANK_KEYS[i] + FiveCardEvaluator.RANK_KEYS[j];
+                    best = Math.max(best, FiveCardEvaluator.patternScore(key - removed));
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Assigns a displacement to each row of keys so that no two keys share a slot,
+     * placing the fullest rows first.
+     *
+     * @param keys All keys.
+     * @param rowSizes The number of keys in each row.
+     * @return The size of the resulting table.
+     */
+    private static int placeRows(int[] keys, int[] rowSizes) {
+        int[][] rows = new int[rowSizes.length][];
+        for (int row = 0; row < rows.length; row++) {
+            rows[row] = new int[rowSizes[row]];
+        }
+        int[] filled = new int[rowSizes.length];
+        for (int key : keys) {
+            int row = key >>> COLUMN_BITS;
+            rows[row][filled[row]++] = key & COLUMN_MASK;
+        }
+        for (int[] row : rows) {
+            Arrays.sort(row);
+        }
+        Integer[] order = new Integer[rows.length];
+        for (int row = 0; row < rows.length; row++) {
+            order[row] = row;
+        }
+        Arrays.sort(order, (a, b) -> rowSizes[b] - rowSizes[a]);
+
+        boolean[] used = new boolean[keys.length * 4 + COLUMN_MASK + 1];
+        int size = 0;
+        int firstFree = 0;
+        for (int row : order) {
+            if (rows[row].length == 0) {
+                break;
+            }
+            while (used[firstFree]) {
+                firstFree++;
+            }
+            int offset = Math.max(0, firstFree - rows[row][0]);
+            while (!fits(used, rows[row], offset)) {
+                offset++;
+            }
+            for (int column : rows[row]) {
+                used[offset + column] = true;
+                size = Math.max(size, offset + column + 1);
+            }
+            OFFSETS[row] = offset;
+        }
+        return size;
+    }
+
+    /**
+     * Checks whether a row of keys can be placed at the given displacement.
+     *
+     * @param used The slots already taken.
+     * @param columns The columns of the keys in the row.
+     * @param offset The displacement to check.
+     * @return True if all slots are free, otherwise false.
+     */
+    private static boolean fits(boolean[] used, int[] columns, int offset) {
+        for (int column : columns) {
+            if (used[offset + column]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
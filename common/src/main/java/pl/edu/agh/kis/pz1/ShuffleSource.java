@@ -0,0 +1,25 @@
+package pl.edu.agh.kis.pz1;
+
+/**
+ * The source of randomness used by a {@link Deck} to shuffle its cards.
+ * <p>
+ * Every deck owns its own source, so tables never share random state and never contend on a common seed.
+ * Implementations:
+ * <ul>
+ *     <li>{@link SplittableShuffleSource} - a fast generator with an independent stream per instance, for simulations,</li>
+ *     <li>{@link SecureShuffleSource} - a DRBG seeded from {@link java.security.SecureRandom}, for real-money tables,</li>
+ *     <li>{@link SeededShuffleSource} - a fully deterministic stream for replays and benchmarks.</li>
+ * </ul>
+ * Sources are not thread-safe; a deck is used by one thread at a time.
+ */
+@FunctionalInterface
+public interface ShuffleSource {
+
+    /**
+     * Returns a uniformly distributed value from 0 (inclusive) to {@code bound} (exclusive).
+     *
+     * @param bound The upper bound, positive.
+     * @return The random value.
+     */
+    int nextInt(int bound);
+}
@@ -0,0 +1,50 @@
+package pl.edu.agh.kis.pz1;
+
+import java.util.SplittableRandom;
+
+/**
+ * Fast shuffle source for simulations, backed by {@link SplittableRandom}.
+ * Every instance created with the default constructor starts an independent stream,
+ * and {@link #split()} derives further independent streams without any shared state.
+ */
+public class SplittableShuffleSource implements ShuffleSource {
+
+    /** The generator of this stream. */
+    private final SplittableRandom random;
+
+    /**
+     * Constructs a source with a new independent stream.
+     */
+    public SplittableShuffleSource() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Constructs a source over an existing generator.
+     *
+     * @param random The generator, owned by this source from now on.
+     */
+    SplittableShuffleSource(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Returns a uniformly distributed value from 0 (inclusive) to {@code bound} (exclusive).
+     *
+     * @param bound The upper bound, positive.
+     * @return The random value.
+     */
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    /**
+     * Derives a new source whose stream is independent of this one, e.g. for another table.
+     *
+     * @return The new source.
+     */
+    public SplittableShuffleSource split() {
+        return new SplittableShuffleSource(random.split());
+    }
+}
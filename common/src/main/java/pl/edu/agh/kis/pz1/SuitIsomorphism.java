@@ -0,0 +1,97 @@
+package pl.edu.agh.kis.pz1;
+
+/**
+ * Operations on sets of cards that treat the four suits as interchangeable.
+ * <p>
+ * Suits carry no value in poker, so two sets that differ only by a renaming of suits have the same
+ * strength and the same equity. The canonical form of a {@link CardSet} is the smallest value
+ * reachable by one of the 24 suit permutations; it is used as the key of caches that should serve
+ * every isomorphic situation with a single entry. {@link HandIndexer} numbers the classes densely instead.
+ * <p>
+ * This class cannot be instantiated, as it is a utility class containing only static methods.
+ */
+public final class SuitIsomorphism {
+
+    /** The number of permutations of the four suits. */
+    public static final int PERMUTATIONS = 24;
+
+    /** The target suit of every suit, for each of the 24 permutations. */
+    private static final int[][] PERMUTATION = new int[PERMUTATIONS][];
+
+    static {
+        int next = 0;
+        for (int a = 0; a < 4; a++) {
+            for (int b = 0; b < 4; b++) {
+                for (int c = 0; c < 4; c++) {
+                    int d = 6 - a - b - c;
+                    if (a != b && a != c && b != c && d != a && d != b && d != c) {
+                        PERMUTATION[next++] = new int[]{a, b, c, d};
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation of the utility class.
+     */
+    private SuitIsomorphism() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Renames the suits of a set of cards.
+     *
+     * @param set The set of cards.
+     * @param permutation The number of the permutation, from 0 to {@link #PERMUTATIONS} - 1.
+     * @return The set with every card moved to the target suit of its suit.
+     */
+    public static long permute(long set, int permutation) {
+        int[] target = PERMUTATION[permutation];
+        long result = CardSet.EMPTY;
+        for (int suit = 0; suit < 4; suit++) {
+            result |= (set >>> 13 * suit & CardSet.SUIT_BITS) << 13 * target[suit];
+        }
+        return result;
+    }
+
+    /**
+     * Renames the suit of a single card.
+     *
+     * @param index The index of the card.
+     * @param permutation The number of the permutation, from 0 to {@link #PERMUTATIONS} - 1.
+     * @return The index of the card with the target suit.
+     */
+    public static int permute(int index, int permutation) {
+        return PERMUTATION[permutation][index / 13] * 13 + index % 13;
+    }
+
+    /**
+     * Returns the permutation that maps a set of cards to its canonical form.
+     *
+     * @param set The set of cards.
+     * @return The number of the permutation. Ties between permutations are resolved by the lowest number.
+     */
+    public static int canonicalPermutation(long set) {
+        int best = 0;
+        long bestSet = Long.MAX_VALUE;
+        for (int permutation = 0; permutation < PERMUTATIONS; permutation++) {
+            long candidate = permute(set, permutation);
+            if (candidate < bestSet) {
+                bestSet = candidate;
+                best = permutation;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the canonical form of a set of cards, equal for all sets that differ only by suits.
+     *
+     * @param set The set of cards.
+     * @return The canonical set.
+     */
+    public static long canonical(long set) {
+        return permute(set, canonicalPermutation(set));
+    }
+}
@@ -0,0 +1,54 @@
+package pl.edu.agh.kis.pz1;
+
+import junit.framework.TestCase;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+public class CardSetTest extends TestCase {
+
+    @Test
+    public void testIndexRoundTrip() {
+        for (int index = 0; index < 52; index++) {
+            assertEquals(index, Card.of(index).getIndex());
+        }
+    }
+
+    @Test
+    public void testUnionIntersectionAndSize() {
+        long a = CardSet.of(List.of(new Card(Rank.ACE, Suit.SPADES), new Card(Rank.KING, Suit.SPADES)));
+        long b = CardSet.of(List.of(new Card(Rank.KING, Suit.SPADES), new Card(Rank.TWO, Suit.CLUBS)));
+        assertEquals(3, CardSet.size(CardSet.union(a, b)));
+        assertEquals(CardSet.of(new Card(Rank.KING, Suit.SPADES)), CardSet.intersection(a, b));
+        assertEquals(CardSet.of(new Card(Rank.ACE, Suit.SPADES)), CardSet.difference(a, b));
+        assertFalse(CardSet.disjoint(a, b));
+        assertTrue(CardSet.contains(b, new Card(Rank.TWO, Suit.CLUBS)));
+        assertFalse(CardSet.contains(a, new Card(Rank.TWO, Suit.CLUBS)));
+    }
+
+    @Test
+    public void testSuitAndRankMasks() {
+        long set = CardSet.of(List.of(new Card(Rank.ACE, Suit.HEARTS), new Card(Rank.TWO, Suit.HEARTS),
+                new Card(Rank.ACE, Suit.CLUBS)));
+        assertEquals(2, CardSet.size(CardSet.suitMask(set, Suit.HEARTS)));
+        assertEquals(2, CardSet.size(CardSet.rankMask(set, Rank.ACE)));
+        assertEquals(1 << 12 | 1, CardSet.ranksOfSuit(set, Suit.HEARTS));
+        assertEquals(1 << 12, CardSet.ranksOfSuit(set, Suit.CLUBS));
+        assertEquals(1 << 12 | 1, CardSet.ranks(set));
+    }
+
+    @Test
+    public void testDeckAndPlayerConversions() {
+        Deck deck = new Deck();
+        assertEquals(CardSet.FULL_DECK, deck.toCardSet());
+        Card card = deck.getCard();
+        assertEquals(CardSet.remove(CardSet.FULL_DECK, card.getIndex()), deck.toCardSet());
+
+        long hand = CardSet.of(List.of(new Card(Rank.TEN, Suit.SPADES), new Card(Rank.JACK, Suit.SPADES)));
+        Player player = new Player(null, 0);
+        player.setCardSet(hand);
+        assertEquals(2, player.getCards().size());
+        assertEquals(hand, player.getCardSet());
+        assertEquals(hand, new Deck(hand).toCardSet());
+    }
+}
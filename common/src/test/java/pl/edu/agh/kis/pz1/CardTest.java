@@ -3,6 +3,12 @@ package pl.edu.agh.kis.pz1;
 import junit.framework.TestCase;
 import org.testng.annotations.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import static org.testng.Assert.assertNotEquals;
 
 public class CardTest extends TestCase {
@@ -41,4 +47,36 @@ public class CardTest extends TestCase {
         Card card2 = new Card(Rank.FIVE, Suit.CLUBS);
         assertNotEquals(card1.hashCode(), card2.hashCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSharedInstances() {
+        for (int index = 0; index < 52; index++) {
+            Card card = Card.of(index);
+            assertSame(card, Card.of(card.getRank(), card.getSuit()));
+            assertEquals(index, card.getIndex());
+            assertEquals(new Card(card.getRank(), card.getSuit()).toString(), card.toString());
+        }
+    }
+
+    @Test
+    public void testPrecomputedEncodings() {
+        List<Card> cards = Arrays.asList(Card.of(Rank.TEN, Suit.DIAMONDS), Card.of(Rank.ACE, Suit.SPADES),
+                new Card(Rank.KING, Suit.HEARTS));
+        ByteBuffer buffer = ByteBuffer.allocate(Card.utf8Length(cards));
+        Card.putUtf8(cards, buffer);
+        assertFalse(buffer.hasRemaining());
+        assertEquals(cards.toString(), new String(buffer.array(), StandardCharsets.UTF_8));
+        assertEquals("TEN of ♦".getBytes(StandardCharsets.UTF_8).length, cards.get(0).getUtf8Length());
+
+        ByteBuffer codes = ByteBuffer.allocate(2 * cards.size());
+        Card.putCodes(cards, codes);
+        assertEquals("TdAsKh", new String(codes.array(), StandardCharsets.US_ASCII));
+        assertEquals("[]", new String(encode(Collections.emptyList()), StandardCharsets.UTF_8));
+    }
+
+    private static byte[] encode(List<Card> cards) {
+        ByteBuffer buffer = ByteBuffer.allocate(Card.utf8Length(cards));
+        Card.putUtf8(cards, buffer);
+        return buffer.array();
+    }
+}
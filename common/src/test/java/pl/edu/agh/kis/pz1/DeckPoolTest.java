@@ -0,0 +1,85 @@
+package pl.edu.agh.kis.pz1;
+
+import junit.framework.TestCase;
+import org.testng.annotations.Test;
+
+public class DeckPoolTest extends TestCase {
+
+    @Test
+    public void testPooledDealsReplayTheTableStream() throws InterruptedException {
+        Deck table = new Deck(new SeededShuffleSource(9L));
+        Deck replay = new Deck(new SeededShuffleSource(9L));
+        try (DeckPool pool = new DeckPool(3)) {
+            pool.start();
+            DeckPool.Lane lane = pool.register(table);
+            for (int hand = 0; hand < 200; hand++) {
+                if (hand % 10 == 0) {
+                    Thread.sleep(1);
+                }
+                lane.shuffle(table);
+                replay.reset();
+                replay.shuffle();
+                assertEquals(replay.getGameDeck(), table.getGameDeck());
+            }
+            assertEquals(200, pool.getHits() + pool.getMisses());
+            assertTrue(lane.getShuffled() >= 200 && lane.getShuffled() <= 203);
+        }
+    }
+
+    @Test
+    public void testTakesFromPoolOnceFilled() {
+        // the producer is not started: the test runs the refills itself
+        try (DeckPool pool = new DeckPool(4)) {
+            Deck deck = new Deck();
+            DeckPool.Lane lane = pool.register(deck);
+            assertEquals(1, pool.refillPending());
+            assertEquals(4, lane.getAvailable());
+            for (int hand = 0; hand < 3; hand++) {
+                lane.shuffle(deck);
+            }
+            assertEquals(3, pool.getHits());
+            assertEquals(0, pool.getMisses());
+            assertEquals(1.0, pool.getHitRate());
+            assertEquals(52, deck.size());
+            assertEquals(CardSet.FULL_DECK, CardSet.of(deck.getGameDeck()));
+            assertEquals(1, pool.refillPending());
+            assertEquals(2, pool.getRefills());
+            assertEquals(4, lane.getAvailable());
+            assertTrue(pool.getMaxRefillLagNanos() >= pool.getAverageRefillLagNanos());
+            assertTrue(pool.getAverageRefillLagNanos() > 0);
+        }
+    }
+
+    @Test
+    public void testClosedLaneIsNotRefilled() {
+        DeckPool pool = new DeckPool(4);
+        Deck deck = new Deck();
+        DeckPool.Lane lane = pool.register(deck);
+        lane.close();
+        pool.refillPending();
+        assertEquals(0, lane.getAvailable());
+        lane.shuffle(deck);
+        assertEquals(1, pool.getMisses());
+    }
+
+    @Test
+    public void testShufflesInlineWhenEmpty() {
+        DeckPool pool = new DeckPool();
+        Deck deck = new Deck(CardSet.FULL_DECK & ~CardSet.of(Card.of(0)));
+        DeckPool.Lane lane = pool.register(deck);
+        for (int hand = 0; hand < 5; hand++) {
+            deck.dealIndex();
+            lane.shuffle(deck);
+            assertEquals(51, deck.size());
+        }
+        assertEquals(0, pool.getHits());
+        assertEquals(5, pool.getMisses());
+        assertEquals(0.0, pool.getHitRate());
+        assertEquals(0, lane.getAvailable());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsEmptyLanes() {
+        new DeckPool(0);
+    }
+}
@@ -1,8 +1,11 @@
 package pl.edu.agh.kis.pz1;
 import org.testng.annotations.Test;
 
+import java.util.List;
+
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertTrue;
 
 public class DeckTest {
 
@@ -29,5 +32,58 @@ public class DeckTest {
         assertNotNull(res);
     }
 
+    @Test
+    public void testDealsEveryCardOnceAndResets() {
+        Deck deck = new Deck();
+        deck.shuffle();
+        long dealt = CardSet.EMPTY;
+        for (int i = 0; i < 52; i++) {
+            dealt = CardSet.add(dealt, deck.dealIndex());
+            assertEquals(51 - i, deck.size());
+        }
+        assertEquals(CardSet.FULL_DECK, dealt);
+        deck.reset();
+        assertEquals(52, deck.size());
+        assertEquals(Card.of(0), deck.getCard());
+    }
+
+    @Test
+    public void testRemainingOrderIsFixedOnceListed() {
+        Deck deck = new Deck();
+        deck.getCard();
+        deck.shuffle();
+        List<Card> order = deck.getGameDeck();
+        assertEquals(51, order.size());
+        assertEquals(deck.toCardSet(), CardSet.of(order));
+        for (Card card : order) {
+            assertEquals(card, deck.getCard());
+        }
+    }
+
+    @Test
+    public void testLazyShuffleIsUniform() {
+        Deck deck = new Deck();
+        int[] firstCardCounts = new int[52];
+        for (int i = 0; i < 52_000; i++) {
+            deck.reset();
+            deck.shuffle();
+            firstCardCounts[deck.dealIndex()]++;
+        }
+        for (int count : firstCardCounts) {
+            assertTrue(count > 800 && count < 1200);
+        }
+    }
 
-}
\ No newline at end of file
+    @Test
+    public void testSeededDecksReplayTheSameDeal() {
+        Deck first = new Deck(new SeededShuffleSource(42L));
+        Deck second = new Deck(new SeededShuffleSource(42L));
+        for (int hand = 0; hand < 3; hand++) {
+            first.reset();
+            first.shuffle();
+            second.reset();
+            second.shuffle();
+            assertEquals(first.getGameDeck(), second.getGameDeck());
+        }
+    }
+}
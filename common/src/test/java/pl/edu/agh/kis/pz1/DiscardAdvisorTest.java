@@ -0,0 +1,85 @@
+package pl.edu.agh.kis.pz1;
+
+import junit.framework.TestCase;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class DiscardAdvisorTest extends TestCase {
+
+    @Test
+    public void testCanonicalFormIgnoresSuits() {
+        long set = CardSet.of(List.of(new Card(Rank.ACE, Suit.SPADES), new Card(Rank.KING, Suit.SPADES),
+                new Card(Rank.ACE, Suit.HEARTS), new Card(Rank.SEVEN, Suit.CLUBS), new Card(Rank.TWO, Suit.CLUBS),
+                new Card(Rank.NINE, Suit.DIAMONDS)));
+        Set<Long> permuted = new HashSet<>();
+        for (int permutation = 0; permutation < SuitIsomorphism.PERMUTATIONS; permutation++) {
+            long other = SuitIsomorphism.permute(set, permutation);
+            permuted.add(other);
+            assertEquals(SuitIsomorphism.canonical(set), SuitIsomorphism.canonical(other));
+        }
+        assertEquals(SuitIsomorphism.PERMUTATIONS, permuted.size());
+    }
+
+    @Test
+    public void testStandsPatWithRoyalFlush() {
+        List<Card> hand = List.of(new Card(Rank.ACE, Suit.HEARTS), new Card(Rank.KING, Suit.HEARTS),
+                new Card(Rank.QUEEN, Suit.HEARTS), new Card(Rank.JACK, Suit.HEARTS), new Card(Rank.TEN, Suit.HEARTS));
+        DiscardAdvice advice = new DiscardAdvisor().advise(hand, 1);
+        assertEquals(0, advice.getBestDiscard());
+        assertTrue(advice.getBestValue() > 0.999);
+        assertTrue(advice.getCardNumbers().isEmpty());
+    }
+
+    @Test
+    public void testDrawsToFlushAndKeepsPair() {
+        List<Card> flushDraw = List.of(new Card(Rank.ACE, Suit.SPADES), new Card(Rank.KING, Suit.SPADES),
+                new Card(Rank.THREE, Suit.DIAMONDS), new Card(Rank.QUEEN, Suit.SPADES), new Card(Rank.JACK, Suit.SPADES));
+        DiscardAdvice advice = new DiscardAdvisor().advise(flushDraw, 1);
+        assertEquals(List.of(3), advice.getCardNumbers());
+        assertEquals(List.of(new Card(Rank.THREE, Suit.DIAMONDS)), advice.getDiscards());
+
+        List<Card> pair = List.of(new Card(Rank.SEVEN, Suit.CLUBS), new Card(Rank.ACE, Suit.SPADES),
+                new Card(Rank.TWO, Suit.HEARTS), new Card(Rank.ACE, Suit.DIAMONDS), new Card(Rank.NINE, Suit.CLUBS));
+        advice = new DiscardAdvisor().advise(pair, 2);
+        assertEquals(List.of(1, 3, 5), advice.getCardNumbers());
+    }
+
+    @Test
+    public void testIsomorphicHandsShareCacheEntry() {
+        DiscardAdvisor advisor = new DiscardAdvisor();
+        List<Card> hand = List.of(new Card(Rank.QUEEN, Suit.SPADES), new Card(Rank.JACK, Suit.SPADES),
+                new Card(Rank.TEN, Suit.HEARTS), new Card(Rank.FOUR, Suit.CLUBS), new Card(Rank.FOUR, Suit.DIAMONDS));
+        List<Card> sameShape = List.of(new Card(Rank.FOUR, Suit.SPADES), new Card(Rank.JACK, Suit.CLUBS),
+                new Card(Rank.QUEEN, Suit.CLUBS), new Card(Rank.FOUR, Suit.HEARTS), new Card(Rank.TEN, Suit.DIAMONDS));
+        DiscardAdvice first = advisor.advise(hand, 1);
+        DiscardAdvice second = advisor.advise(sameShape, 1);
+        assertEquals(1, advisor.getCacheSize());
+        // sameShape holds the cards of hand at positions 4, 1, 0, 3, 2 (with suits renamed)
+        int[] moved = {2, 1, 4, 3, 0};
+        for (int discard = 0; discard < DiscardAdvisor.SUBSETS; discard++) {
+            int other = 0;
+            for (int i = 0; i < 5; i++) {
+                if ((discard >>> i & 1) != 0) {
+                    other |= 1 << moved[i];
+                }
+            }
+            assertEquals(first.getValue(discard), second.getValue(other));
+        }
+    }
+
+    @Test
+    public void testDeadCardsLowerDrawValue() {
+        List<Card> hand = List.of(new Card(Rank.TWO, Suit.HEARTS), new Card(Rank.SIX, Suit.HEARTS),
+                new Card(Rank.NINE, Suit.HEARTS), new Card(Rank.QUEEN, Suit.HEARTS), new Card(Rank.THREE, Suit.CLUBS));
+        DiscardAdvisor advisor = new DiscardAdvisor();
+        double live = advisor.advise(hand, 1).getValue(1 << 4);
+        long dead = CardSet.of(List.of(new Card(Rank.ACE, Suit.HEARTS), new Card(Rank.KING, Suit.HEARTS),
+                new Card(Rank.TEN, Suit.HEARTS), new Card(Rank.FOUR, Suit.HEARTS)));
+        double blocked = advisor.advise(hand, dead, 1).getValue(1 << 4);
+        assertTrue(blocked < live);
+        assertEquals(1, advisor.getCacheSize());
+    }
+}
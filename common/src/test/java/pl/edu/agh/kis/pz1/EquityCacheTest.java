@@ -0,0 +1,161 @@
+package pl.edu.agh.kis.pz1;
+
+import junit.framework.TestCase;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EquityCacheTest extends TestCase {
+
+    @Test
+    public void testStoresAndCountsLookups() {
+        EquityCache cache = new EquityCache(1 << 20, 3);
+        double[] values = new double[3];
+        long hand = CardSet.of(List.of(new Card(Rank.ACE, Suit.SPADES), new Card(Rank.KING, Suit.SPADES)));
+        long dead = CardSet.of(List.of(new Card(Rank.TWO, Suit.CLUBS)));
+        assertFalse(cache.get(hand, dead, 2, values));
+        cache.put(hand, dead, 2, new double[]{0.5, 0.25, 0.25});
+        assertTrue(cache.get(hand, dead, 2, values));
+        assertEquals(0.25, values[2]);
+        assertFalse(cache.get(hand, dead, 3, values));
+        assertFalse(cache.get(hand, CardSet.EMPTY, 2, values));
+        cache.put(hand, dead, 2, new double[]{0.75, 0.125, 0.125});
+        assertTrue(cache.get(hand, dead, 2, values));
+        assertEquals(0.75, values[0]);
+        assertEquals(1, cache.getSize());
+        assertEquals(2, cache.getHits());
+        assertEquals(3, cache.getMisses());
+        assertEquals(0.4, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void testStaysWithinBudget() {
+        long budget = 4L << 20;
+        EquityCache cache = new EquityCache(budget, 32);
+        assertTrue(cache.getMemoryBytes() <= budget);
+        assertTrue(cache.getCapacity() > budget / EquityCache.entryBytes(32) * 3 / 4);
+        double[] values = new double[32];
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 4 * cache.getCapacity(); i++) {
+            long hand = random.nextLong() & CardSet.FULL_DECK;
+            values[0] = hand;
+            cache.put(hand, CardSet.EMPTY, 1, values);
+        }
+        assertTrue(cache.getSize() <= cache.getCapacity());
+        assertTrue(cache.getSize() > cache.getCapacity() * 9 / 10);
+        assertEquals(3 * cache.getCapacity(), cache.getEvictions(), cache.getCapacity() / 10);
+    }
+
+    @Test
+    public void testFrequentSituationsSurviveAScan() {
+        EquityCache cache = new EquityCache(1 << 20, 1, 1);
+        int hot = (int) cache.getCapacity() / 2;
+        double[] values = new double[1];
+        for (int round = 0; round < 4; round++) {
+            for (long hand = 0; hand < hot; hand++) {
+                if (!cache.get(hand, CardSet.EMPTY, 1, values)) {
+                    cache.put(hand, CardSet.EMPTY, 1, values);
+                }
+            }
+        }
+        for (long hand = hot; hand < hot + 10 * cache.getCapacity(); hand++) {
+            if (!cache.get(hand, CardSet.EMPTY, 1, values)) {
+                cache.put(hand, CardSet.EMPTY, 1, values);
+            }
+        }
+        // the CLOCK hand meets every hot situation once per turn, and the sketch halves its counts once during
+        // the scan, so a few cold situations overestimated by the sketch win
+        assertTrue("rejections: " + cache.getRejections(), cache.getRejections() > 8 * cache.getCapacity());
+        int survivors = 0;
+        for (long hand = 0; hand < hot; hand++) {
+            if (cache.get(hand, CardSet.EMPTY, 1, values)) {
+                survivors++;
+            }
+        }
+        assertTrue("survivors: " + survivors, survivors > hot * 85 / 100);
+    }
+
+    @Test
+    public void testAdmittedSituationsSurviveTheNextAdmission() {
+        EquityCache cache = new EquityCache(4 << 10, 1, 1);
+        long capacity = cache.getCapacity();
+        double[] values = new double[1];
+        // situations never looked up fill the main region
+        for (long hand = 0; hand < 2 * capacity; hand++) {
+            cache.put(hand, CardSet.EMPTY, 1, values);
+        }
+        // each situation asked for a few times is admitted over a cold one as the next one enters the window
+        long hot = capacity / 2;
+        for (long hand = 2 * capacity; hand < 2 * capacity + hot; hand++) {
+            for (int i = 0; i < 3; i++) {
+                cache.get(hand, CardSet.EMPTY, 1, values);
+            }
+            cache.put(hand, CardSet.EMPTY, 1, values);
+        }
+        for (long hand = 3 * capacity; hand < 3 * capacity + capacity / 100 + 1; hand++) {
+            cache.put(hand, CardSet.EMPTY, 1, values);
+        }
+        for (long hand = 2 * capacity; hand < 2 * capacity + hot; hand++) {
+            assertTrue("evicted: " + hand, cache.get(hand, CardSet.EMPTY, 1, values));
+        }
+    }
+
+    @Test
+    public void testConcurrentReadersSeeWholeEntries() throws InterruptedException {
+        EquityCache cache = new EquityCache(256 << 10, 8, 4);
+        AtomicInteger torn = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            threads.add(new Thread(() -> {
+                double[] values = new double[8];
+                for (int i = 0; i < 200_000; i++) {
+                    long hand = random.nextInt(4 * (int) cache.getCapacity());
+                    if (cache.get(hand, hand, 1, values)) {
+                        for (double value : values) {
+                            if (value != hand) {
+                                torn.incrementAndGet();
+                            }
+                        }
+                    } else {
+                        java.util.Arrays.fill(values, hand);
+                        cache.put(hand, hand, 1, values);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, torn.get());
+        assertEquals(800_000, cache.getHits() + cache.getMisses());
+    }
+
+    @Test
+    public void testCacheWithRoomKeepsEveryEntry() {
+        EquityCache cache = new EquityCache(64L << 20, 32);
+        double[] values = new double[32];
+        for (long hand = 0; hand < 100_000; hand++) {
+            cache.put(hand << 5, CardSet.EMPTY, 1, values);
+        }
+        for (long hand = 0; hand < 100_000; hand++) {
+            assertTrue("evicted: " + hand, cache.get(hand << 5, CardSet.EMPTY, 1, values));
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsTooManyOpponents() {
+        new EquityCache(1 << 20, 1).get(0, 0, EquityCache.MAX_OPPONENTS + 1, new double[1]);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsTinyBudget() {
+        new EquityCache(1 << 10, 32);
+    }
+}
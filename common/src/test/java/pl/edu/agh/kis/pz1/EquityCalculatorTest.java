@@ -0,0 +1,87 @@
+package pl.edu.agh.kis.pz1;
+
+import junit.framework.TestCase;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class EquityCalculatorTest extends TestCase {
+
+    private static long hand(Card... cards) {
+        return CardSet.of(List.of(cards));
+    }
+
+    @Test
+    public void testSameSeedGivesSameResultForAnyParallelism() {
+        long[] hands = {
+                hand(new Card(Rank.ACE, Suit.SPADES), new Card(Rank.ACE, Suit.HEARTS)),
+                hand(new Card(Rank.KING, Suit.CLUBS), new Card(Rank.QUEEN, Suit.CLUBS), new Card(Rank.JACK, Suit.CLUBS)),
+                CardSet.EMPTY
+        };
+        long stub = CardSet.difference(CardSet.FULL_DECK, hands[0] | hands[1]);
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool many = new ForkJoinPool(4);
+        try {
+            EquityResult first = new EquityCalculator(single).calculate(hands, stub, 42L, 300_000, 0);
+            EquityResult second = new EquityCalculator(many).calculate(hands, stub, 42L, 300_000, 0);
+            assertEquals(300_000, first.getSamples());
+            assertEquals(first.toString(), second.toString());
+            for (int p = 0; p < hands.length; p++) {
+                assertEquals(first.getEquity(p), second.getEquity(p));
+            }
+        } finally {
+            single.shutdown();
+            many.shutdown();
+        }
+    }
+
+    @Test
+    public void testEquitiesSumToOne() {
+        long[] hands = {
+                hand(new Card(Rank.TWO, Suit.SPADES)),
+                hand(new Card(Rank.TWO, Suit.HEARTS)),
+                CardSet.EMPTY,
+                CardSet.EMPTY
+        };
+        EquityResult result = new EquityCalculator().calculate(hands, 0L, new Deck(), 7L, 50_000, 0);
+        double sum = 0;
+        for (int p = 0; p < result.getPlayers(); p++) {
+            sum += result.getEquity(p);
+        }
+        assertEquals(1.0, sum, 1e-9);
+        assertEquals(result.getEquity(0), result.getEquity(1), 0.02);
+    }
+
+    @Test
+    public void testPatHandsAreExact() {
+        long royal = hand(new Card(Rank.ACE, Suit.SPADES), new Card(Rank.KING, Suit.SPADES),
+                new Card(Rank.QUEEN, Suit.SPADES), new Card(Rank.JACK, Suit.SPADES), new Card(Rank.TEN, Suit.SPADES));
+        EquityResult result = new EquityCalculator().calculate(new long[]{royal, CardSet.EMPTY}, 0L, new Deck(), 1L, 10_000, 0);
+        assertEquals(1.0, result.getWin(0));
+        assertEquals(0.0, result.getEquity(1));
+
+        long straight = hand(new Card(Rank.TWO, Suit.SPADES), new Card(Rank.THREE, Suit.SPADES),
+                new Card(Rank.FOUR, Suit.HEARTS), new Card(Rank.FIVE, Suit.HEARTS), new Card(Rank.SIX, Suit.CLUBS));
+        long sameStraight = hand(new Card(Rank.TWO, Suit.HEARTS), new Card(Rank.THREE, Suit.HEARTS),
+                new Card(Rank.FOUR, Suit.SPADES), new Card(Rank.FIVE, Suit.SPADES), new Card(Rank.SIX, Suit.DIAMONDS));
+        result = new EquityCalculator().calculate(new long[]{straight, sameStraight}, 0L, new Deck(), 1L, 10_000, 0);
+        assertEquals(1.0, result.getTie(0));
+        assertEquals(0.5, result.getEquity(1));
+    }
+
+    @Test
+    public void testStopsAtTargetConfidence() {
+        long[] hands = {hand(new Card(Rank.ACE, Suit.SPADES)), CardSet.EMPTY};
+        EquityResult result = new EquityCalculator().calculate(hands, 0L, new Deck(), 3L, 100_000_000L, 0.01);
+        assertTrue(result.getSamples() < 100_000_000L);
+        assertTrue(result.getHalfWidth(0) <= 0.01);
+        assertEquals(0, result.getSamples() % EquityCalculator.BATCH_SAMPLES);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsOverlappingHands() {
+        long ace = hand(new Card(Rank.ACE, Suit.SPADES));
+        new EquityCalculator().calculate(new long[]{ace, ace}, 0L, new Deck(), 1L, 1_000, 0);
+    }
+}
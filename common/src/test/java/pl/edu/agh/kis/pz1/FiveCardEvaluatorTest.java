@@ -0,0 +1,100 @@
+package pl.edu.agh.kis.pz1;
+
+import junit.framework.TestCase;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class FiveCardEvaluatorTest extends TestCase {
+
+    private static List<Card> hand(Card... cards) {
+        List<Card> res = new ArrayList<>();
+        for (Card card : cards) {
+            res.add(card);
+        }
+        return res;
+    }
+
+    @Test
+    public void testAllHandsCategoryCounts() {
+        Map<HandCategory, Integer> counts = new EnumMap<>(HandCategory.class);
+        Set<Integer> distinctScores = new HashSet<>();
+        for (int a = 0; a < 52; a++)
+            for (int b = a + 1; b < 52; b++)
+                for (int c = b + 1; c < 52; c++)
+                    for (int d = c + 1; d < 52; d++)
+                        for (int e = d + 1; e < 52; e++) {
+                            int score = FiveCardEvaluator.evaluate(a, b, c, d, e);
+                            counts.merge(HandScore.category(score), 1, Integer::sum);
+                            distinctScores.add(score);
+                        }
+        assertEquals(4, (int) counts.get(HandCategory.ROYAL_FLUSH));
+        assertEquals(36, (int) counts.get(HandCategory.STRAIGHT_FLUSH));
+        assertEquals(624, (int) counts.get(HandCategory.FOUR_OF_A_KIND));
+        assertEquals(3744, (int) counts.get(HandCategory.FULL_HOUSE));
+        assertEquals(5108, (int) counts.get(HandCategory.FLUSH));
+        assertEquals(10200, (int) counts.get(HandCategory.STRAIGHT));
+        assertEquals(54912, (int) counts.get(HandCategory.THREE_OF_A_KIND));
+        assertEquals(123552, (int) counts.get(HandCategory.TWO_PAIR));
+        assertEquals(1098240, (int) counts.get(HandCategory.PAIR));
+        assertEquals(1302540, (int) counts.get(HandCategory.HIGH_CARD));
+        assertEquals(7462, distinctScores.size());
+    }
+
+    @Test
+    public void testKickersDecideBetweenPairs() {
+        List<Card> kingsWithAce = hand(new Card(Rank.KING, Suit.CLUBS), new Card(Rank.KING, Suit.HEARTS),
+                new Card(Rank.ACE, Suit.SPADES), new Card(Rank.NINE, Suit.CLUBS), new Card(Rank.FOUR, Suit.DIAMONDS));
+        List<Card> kingsWithQueen = hand(new Card(Rank.KING, Suit.SPADES), new Card(Rank.KING, Suit.DIAMONDS),
+                new Card(Rank.QUEEN, Suit.SPADES), new Card(Rank.JACK, Suit.CLUBS), new Card(Rank.TEN, Suit.DIAMONDS));
+        int first = FiveCardEvaluator.evaluate(kingsWithAce);
+        int second = FiveCardEvaluator.evaluate(kingsWithQueen);
+        assertTrue(first > second);
+        assertEquals(List.of(13, 14, 9, 4), HandScore.kickers(first));
+    }
+
+    @Test
+    public void testWheelIsTheLowestStraight() {
+        List<Card> wheel = hand(new Card(Rank.ACE, Suit.CLUBS), new Card(Rank.TWO, Suit.HEARTS),
+                new Card(Rank.THREE, Suit.SPADES), new Card(Rank.FOUR, Suit.CLUBS), new Card(Rank.FIVE, Suit.DIAMONDS));
+        List<Card> sixHigh = hand(new Card(Rank.SIX, Suit.CLUBS), new Card(Rank.TWO, Suit.HEARTS),
+                new Card(Rank.THREE, Suit.SPADES), new Card(Rank.FOUR, Suit.CLUBS), new Card(Rank.FIVE, Suit.DIAMONDS));
+        int wheelScore = FiveCardEvaluator.evaluate(wheel);
+        assertEquals(HandCategory.STRAIGHT, HandScore.category(wheelScore));
+        assertEquals(5, HandScore.kicker(wheelScore, 0));
+        assertTrue(FiveCardEvaluator.evaluate(sixHigh) > wheelScore);
+    }
+
+    @Test
+    public void testEvaluationDoesNotSortTheHand() {
+        List<Card> cards = hand(new Card(Rank.ACE, Suit.CLUBS), new Card(Rank.TWO, Suit.HEARTS),
+                new Card(Rank.KING, Suit.SPADES), new Card(Rank.FOUR, Suit.CLUBS), new Card(Rank.FIVE, Suit.DIAMONDS));
+        List<Card> copy = new ArrayList<>(cards);
+        new HandRanker().rank(cards);
+        assertEquals(copy, cards);
+    }
+
+    @Test
+    public void testBatchEvaluationFallsBackToScalar() {
+        BatchEvaluator evaluator = BatchEvaluator.create();
+        assertTrue(evaluator instanceof ScalarBatchEvaluator);
+        long[] hands = {CardSet.of(hand(new Card(Rank.ACE, Suit.CLUBS), new Card(Rank.KING, Suit.CLUBS),
+                new Card(Rank.QUEEN, Suit.CLUBS), new Card(Rank.JACK, Suit.CLUBS), new Card(Rank.TEN, Suit.CLUBS))),
+                CardSet.of(hand(new Card(Rank.TWO, Suit.CLUBS), new Card(Rank.TWO, Suit.HEARTS),
+                new Card(Rank.KING, Suit.SPADES), new Card(Rank.FOUR, Suit.CLUBS), new Card(Rank.FIVE, Suit.DIAMONDS)))};
+        int[] scores = new int[2];
+        evaluator.evaluate(hands, scores, 2);
+        assertEquals(HandCategory.ROYAL_FLUSH, HandScore.category(scores[0]));
+        assertEquals(FiveCardEvaluator.evaluate(hands[1]), scores[1]);
+
+        int[] columnScores = new int[3];
+        evaluator.evaluate(new int[]{0, 13, 26}, new int[]{1, 14, 27}, new int[]{2, 15, 28}, new int[]{3, 16, 29},
+                new int[]{5, 18, 30}, columnScores, 3);
+        assertEquals(FiveCardEvaluator.evaluate(26, 27, 28, 29, 30), columnScores[2]);
+    }
+}
@@ -0,0 +1,117 @@
+package pl.edu.agh.kis.pz1;
+
+import junit.framework.TestCase;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+public class HandEvaluatorTest extends TestCase {
+
+    @Test
+    public void testHighMatchesFiveCardEvaluator() {
+        forEachHand((a, b, c, d, e) ->
+                assertEquals(FiveCardEvaluator.evaluate(a, b, c, d, e), HandEvaluator.HIGH.evaluate(a, b, c, d, e)));
+    }
+
+    @Test
+    public void testDeuceToSevenReversesHighHandsWithoutTheWheel() {
+        Set<Integer> distinct = new HashSet<>();
+        int[] best = {0};
+        forEachHand((a, b, c, d, e) -> {
+            int score = HandEvaluator.DEUCE_TO_SEVEN.evaluate(a, b, c, d, e);
+            distinct.add(score);
+            best[0] = Math.max(best[0], score);
+            int mask = 1 << a % 13 | 1 << b % 13 | 1 << c % 13 | 1 << d % 13 | 1 << e % 13;
+            if (mask != 0x100F) {
+                assertEquals(HandEvaluator.LOW_BASE - FiveCardEvaluator.evaluate(a, b, c, d, e), score);
+            } else {
+                HandCategory category = HandScore.category(HandEvaluator.LOW_BASE - score);
+                boolean suited = a / 13 == b / 13 && b / 13 == c / 13 && c / 13 == d / 13 && d / 13 == e / 13;
+                assertEquals(suited ? HandCategory.FLUSH : HandCategory.HIGH_CARD, category);
+                assertEquals(14, HandScore.kicker(HandEvaluator.LOW_BASE - score, 0));
+            }
+        });
+        assertEquals(7462, distinct.size());
+        List<Card> sevenFive = List.of(new Card(Rank.SEVEN, Suit.CLUBS), new Card(Rank.FIVE, Suit.HEARTS),
+                new Card(Rank.FOUR, Suit.CLUBS), new Card(Rank.THREE, Suit.SPADES), new Card(Rank.TWO, Suit.DIAMONDS));
+        assertEquals(best[0], HandEvaluator.DEUCE_TO_SEVEN.evaluate(sevenFive));
+        assertEquals("Seven-Five Low", HandEvaluator.DEUCE_TO_SEVEN.describe(best[0]));
+        List<Card> wheel = List.of(new Card(Rank.ACE, Suit.CLUBS), new Card(Rank.FIVE, Suit.HEARTS),
+                new Card(Rank.FOUR, Suit.CLUBS), new Card(Rank.THREE, Suit.SPADES), new Card(Rank.TWO, Suit.DIAMONDS));
+        List<Card> kingHigh = List.of(new Card(Rank.KING, Suit.CLUBS), new Card(Rank.FIVE, Suit.HEARTS),
+                new Card(Rank.FOUR, Suit.CLUBS), new Card(Rank.THREE, Suit.SPADES), new Card(Rank.TWO, Suit.DIAMONDS));
+        assertTrue(HandEvaluator.DEUCE_TO_SEVEN.evaluate(kingHigh) > HandEvaluator.DEUCE_TO_SEVEN.evaluate(wheel));
+    }
+
+    @Test
+    public void testAceToFiveMatchesReferenceOrder() {
+        // the reference ranks a hand by its pattern, then by its ranks with aces as 1, the most repeated first
+        Map<Long, Integer> scoreByKey = new TreeMap<>();
+        int[] best = {0};
+        forEachHand((a, b, c, d, e) -> {
+            int score = HandEvaluator.ACE_TO_FIVE.evaluate(a, b, c, d, e);
+            best[0] = Math.max(best[0], score);
+            Integer previous = scoreByKey.putIfAbsent(aceToFiveKey(a, b, c, d, e), score);
+            assertTrue(previous == null || previous == score);
+        });
+        assertEquals(6175, scoreByKey.size());
+        int previous = Integer.MAX_VALUE;
+        for (int score : scoreByKey.values()) {
+            assertTrue(score < previous);
+            previous = score;
+        }
+        List<Card> steelWheel = List.of(new Card(Rank.FIVE, Suit.CLUBS), new Card(Rank.FOUR, Suit.CLUBS),
+                new Card(Rank.THREE, Suit.CLUBS), new Card(Rank.TWO, Suit.CLUBS), new Card(Rank.ACE, Suit.CLUBS));
+        assertEquals(best[0], HandEvaluator.ACE_TO_FIVE.evaluate(steelWheel));
+        assertEquals("Five-Four Low", HandEvaluator.ACE_TO_FIVE.describe(best[0]));
+        List<Card> acesUp = List.of(new Card(Rank.ACE, Suit.CLUBS), new Card(Rank.ACE, Suit.HEARTS),
+                new Card(Rank.TWO, Suit.CLUBS), new Card(Rank.TWO, Suit.SPADES), new Card(Rank.THREE, Suit.DIAMONDS));
+        assertEquals("Two Pair", HandEvaluator.ACE_TO_FIVE.describe(HandEvaluator.ACE_TO_FIVE.evaluate(acesUp)));
+    }
+
+    /**
+     * Builds a key that is smaller for better ace-to-five hands.
+     */
+    private static long aceToFiveKey(int... cards) {
+        int[] counts = new int[14];
+        for (int card : cards) {
+            int rank = card % 13;
+            counts[rank == 12 ? 1 : rank + 2]++;
+        }
+        int top = 0;
+        int second = 0;
+        long ranks = 0;
+        for (int count = 4; count >= 1; count--) {
+            for (int value = 13; value >= 1; value--) {
+                if (counts[value] == count) {
+                    ranks = ranks << 4 | value;
+                    if (top == 0) {
+                        top = count;
+                    } else if (second == 0) {
+                        second = count;
+                    }
+                }
+            }
+        }
+        int pattern = top * 10 + second;
+        return (long) pattern << 24 | ranks;
+    }
+
+    private interface HandConsumer {
+        void accept(int a, int b, int c, int d, int e);
+    }
+
+    private static void forEachHand(HandConsumer consumer) {
+        for (int a = 0; a < 52; a++)
+            for (int b = a + 1; b < 52; b++)
+                for (int c = b + 1; c < 52; c++)
+                    for (int d = c + 1; d < 52; d++)
+                        for (int e = d + 1; e < 52; e++) {
+                            consumer.accept(a, b, c, d, e);
+                        }
+    }
+}
@@ -0,0 +1,106 @@
+package pl.edu.agh.kis.pz1;
+
+import junit.framework.TestCase;
+import org.testng.annotations.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+public class HandIndexerTest extends TestCase {
+
+    @Test
+    public void testKnownClassCounts() {
+        assertEquals(169, new HandIndexer(2).getSize());
+        assertEquals(134_459, new HandIndexer(5).getSize());
+        assertEquals(1_286_792, new HandIndexer(2, 3).getSize());
+        assertEquals(13_960_050, new HandIndexer(2, 4).getSize());
+        assertEquals(123_156_254, new HandIndexer(2, 5).getSize());
+        assertEquals(55_190_538, new HandIndexer(2, 3, 1).getSize());
+        assertEquals(2_428_287_420L, new HandIndexer(2, 3, 1, 1).getSize());
+    }
+
+    @Test
+    public void testEveryFiveCardHandRoundTrips() {
+        HandIndexer indexer = new HandIndexer(5);
+        BitSet seen = new BitSet();
+        long[] groups = new long[1];
+        for (int e = 4; e < 52; e++) {
+            for (int d = 3; d < e; d++) {
+                for (int c = 2; c < d; c++) {
+                    for (int b = 1; b < c; b++) {
+                        for (int a = 0; a < b; a++) {
+                            long hand = 1L << a | 1L << b | 1L << c | 1L << d | 1L << e;
+                            long index = indexer.index(hand);
+                            assertTrue(index >= 0 && index < indexer.getSize());
+                            seen.set((int) index);
+                            indexer.unindex(index, groups);
+                            assertEquals(SuitIsomorphism.canonical(hand), SuitIsomorphism.canonical(groups[0]));
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(134_459, seen.cardinality());
+    }
+
+    @Test
+    public void testIndexIsInvariantUnderSuitPermutations() {
+        Random random = new Random(3);
+        HandIndexer indexer = new HandIndexer(5, 4);
+        long[] groups = new long[2];
+        for (int i = 0; i < 2_000; i++) {
+            long hand = randomCards(random, 5, CardSet.EMPTY);
+            long dead = randomCards(random, 4, hand);
+            long index = indexer.index(hand, dead);
+            for (int permutation = 0; permutation < SuitIsomorphism.PERMUTATIONS; permutation++) {
+                assertEquals(index, indexer.index(SuitIsomorphism.permute(hand, permutation),
+                        SuitIsomorphism.permute(dead, permutation)));
+            }
+            indexer.unindex(index, groups);
+            assertEquals(index, indexer.index(groups));
+            assertEquals(5, CardSet.size(groups[0]));
+            assertEquals(0, groups[0] & groups[1]);
+        }
+    }
+
+    @Test
+    public void testDeadCardsSeparateClasses() {
+        HandIndexer indexer = new HandIndexer(5, 1);
+        long hand = CardSet.of(Card.of(Rank.ACE, Suit.SPADES)) | CardSet.of(Card.of(Rank.KING, Suit.SPADES))
+                | CardSet.of(Card.of(Rank.QUEEN, Suit.SPADES)) | CardSet.of(Card.of(Rank.JACK, Suit.SPADES))
+                | CardSet.of(Card.of(Rank.TWO, Suit.HEARTS));
+        long deadSpade = CardSet.of(Card.of(Rank.TEN, Suit.SPADES));
+        long deadClub = CardSet.of(Card.of(Rank.TEN, Suit.CLUBS));
+        long deadDiamond = CardSet.of(Card.of(Rank.TEN, Suit.DIAMONDS));
+        assertFalse(indexer.index(hand, deadSpade) == indexer.index(hand, deadClub));
+        assertEquals(indexer.index(hand, deadClub), indexer.index(hand, deadDiamond));
+    }
+
+    @Test
+    public void testRejectsMismatchedGroups() {
+        HandIndexer indexer = new HandIndexer(5);
+        try {
+            indexer.index(CardSet.FULL_DECK);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("5"));
+        }
+        try {
+            new HandIndexer(2, 2).index(3L, 6L);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("overlap"));
+        }
+    }
+
+    private static long randomCards(Random random, int count, long excluded) {
+        long cards = CardSet.EMPTY;
+        while (CardSet.size(cards) < count) {
+            int card = random.nextInt(52);
+            if ((excluded & 1L << card) == 0) {
+                cards |= 1L << card;
+            }
+        }
+        return cards;
+    }
+}
@@ -0,0 +1,100 @@
+package pl.edu.agh.kis.pz1;
+
+import junit.framework.TestCase;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class HandRangeTest extends TestCase {
+
+    @Test
+    public void testParsesPairsAndFlushDraws() {
+        assertEquals(78, HandRange.parse("any pair").size());
+        assertEquals(6, HandRange.parse("KK").size());
+        assertEquals(18, HandRange.parse("QQ+").size());
+        assertEquals(30, HandRange.parse("99-55").size());
+        assertEquals(4 * 165, HandRange.parse("K-high flush draws").size());
+        HandRange draws = HandRange.parse("any flush draw");
+        int expected = 0;
+        for (int high = 3; high < 13; high++) {
+            expected += 4 * binomial(high, 3);
+        }
+        assertEquals(expected, draws.size());
+        for (int i = 0; i < draws.size(); i++) {
+            long combo = draws.getCombo(i);
+            assertEquals(4, CardSet.size(combo));
+            assertEquals(combo, combo & CardSet.SUIT_BITS << 13 * (Long.numberOfTrailingZeros(combo) / 13));
+        }
+        assertEquals(1, HandRange.parse("random").size());
+        assertEquals(CardSet.EMPTY, HandRange.parse(" Random ").getCombo(0));
+    }
+
+    @Test
+    public void testParsesExplicitCardsAndPatHands() {
+        HandRange range = HandRange.parse("AsKs");
+        assertEquals(1, range.size());
+        assertEquals(CardSet.of(List.of(new Card(Rank.ACE, Suit.SPADES), new Card(Rank.KING, Suit.SPADES))), range.getCombo(0));
+        HandRange top = HandRange.parse("top 20% of pat hands");
+        assertTrue(top.size() >= 519_792);
+        int weakest = Integer.MAX_VALUE;
+        Set<Long> combos = new HashSet<>();
+        for (int i = 0; i < top.size(); i++) {
+            assertEquals(5, CardSet.size(top.getCombo(i)));
+            assertTrue(combos.add(top.getCombo(i)));
+            weakest = Math.min(weakest, FiveCardEvaluator.evaluate(top.getCombo(i)));
+        }
+        // every hand at least as strong as the weakest one is in the range
+        int stronger = 0;
+        for (int a = 4; a < 52; a++)
+            for (int b = 3; b < a; b++)
+                for (int c = 2; c < b; c++)
+                    for (int d = 1; d < c; d++)
+                        for (int e = 0; e < d; e++) {
+                            if (FiveCardEvaluator.evaluate(a, b, c, d, e) >= weakest) {
+                                stronger++;
+                            }
+                        }
+        assertEquals(stronger, top.size());
+    }
+
+    @Test
+    public void testWeightsAndDeadCards() {
+        HandRange range = HandRange.parse("AA:0.5, any pair, KK:2");
+        assertEquals(78, range.size());
+        assertEquals(6 * 2 + 72 * 1.0, range.getTotalWeight(), 1e-9);
+        long aceOfSpades = 1L << new Card(Rank.ACE, Suit.SPADES).getIndex();
+        HandRange without = range.without(aceOfSpades);
+        assertEquals(75, without.size());
+        for (int i = 0; i < without.size(); i++) {
+            assertEquals(0, without.getCombo(i) & aceOfSpades);
+        }
+        HandRange weighted = HandRange.of(new long[]{aceOfSpades, CardSet.EMPTY}, new double[]{3, 1});
+        assertEquals(4.0, weighted.getTotalWeight(), 1e-9);
+        assertEquals(3.0, weighted.getWeight(0), 1e-9);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsUnknownTerms() {
+        HandRange.parse("AA, suited connectors");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsNonPositiveWeights() {
+        HandRange.parse("AA:0");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsRepeatedCombinations() {
+        HandRange.of(new long[]{1L, 1L}, new double[]{1, 1});
+    }
+
+    private static int binomial(int n, int k) {
+        int result = 1;
+        for (int i = 0; i < k; i++) {
+            result = result * (n - i) / (i + 1);
+        }
+        return result;
+    }
+}
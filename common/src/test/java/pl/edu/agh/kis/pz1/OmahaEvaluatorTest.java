@@ -0,0 +1,70 @@
+package pl.edu.agh.kis.pz1;
+
+import junit.framework.TestCase;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+public class OmahaEvaluatorTest extends TestCase {
+
+    @Test
+    public void testMatchesAllSixtyCombinations() {
+        Deck deck = new Deck(new SeededShuffleSource(17L));
+        for (int deal = 0; deal < 200_000; deal++) {
+            deck.shuffle();
+            List<Card> cards = deck.getGameDeck();
+            List<Card> hole = cards.subList(0, 4);
+            List<Card> board = cards.subList(4, 9);
+            assertEquals(hole + " " + board, bruteForce(hole, board), OmahaEvaluator.evaluate(hole, board));
+        }
+    }
+
+    @Test
+    public void testSuitedBoardNeedsTwoSuitedHoleCards() {
+        List<Card> board = List.of(new Card(Rank.TWO, Suit.HEARTS), new Card(Rank.SEVEN, Suit.HEARTS),
+                new Card(Rank.NINE, Suit.HEARTS), new Card(Rank.JACK, Suit.HEARTS), new Card(Rank.KING, Suit.CLUBS));
+        List<Card> oneHeart = List.of(new Card(Rank.ACE, Suit.HEARTS), new Card(Rank.ACE, Suit.CLUBS),
+                new Card(Rank.THREE, Suit.SPADES), new Card(Rank.FOUR, Suit.DIAMONDS));
+        assertEquals(HandCategory.PAIR, HandScore.category(OmahaEvaluator.evaluate(oneHeart, board)));
+        List<Card> twoHearts = List.of(new Card(Rank.ACE, Suit.HEARTS), new Card(Rank.THREE, Suit.HEARTS),
+                new Card(Rank.THREE, Suit.SPADES), new Card(Rank.FOUR, Suit.DIAMONDS));
+        int flush = OmahaEvaluator.evaluate(twoHearts, board);
+        assertEquals(HandCategory.FLUSH, HandScore.category(flush));
+        assertEquals(List.of(14, 11, 9, 7, 3), HandScore.kickers(flush));
+    }
+
+    @Test
+    public void testUsesExactlyTwoHoleCards() {
+        List<Card> board = List.of(new Card(Rank.ACE, Suit.HEARTS), new Card(Rank.ACE, Suit.CLUBS),
+                new Card(Rank.ACE, Suit.SPADES), new Card(Rank.KING, Suit.HEARTS), new Card(Rank.QUEEN, Suit.DIAMONDS));
+        List<Card> hole = List.of(new Card(Rank.ACE, Suit.DIAMONDS), new Card(Rank.TWO, Suit.CLUBS),
+                new Card(Rank.THREE, Suit.SPADES), new Card(Rank.FOUR, Suit.DIAMONDS));
+        assertEquals(HandCategory.FOUR_OF_A_KIND, HandScore.category(OmahaEvaluator.evaluate(hole, board)));
+        List<Card> straightHole = List.of(new Card(Rank.TEN, Suit.DIAMONDS), new Card(Rank.JACK, Suit.CLUBS),
+                new Card(Rank.TEN, Suit.SPADES), new Card(Rank.JACK, Suit.DIAMONDS));
+        int score = OmahaEvaluator.evaluate(CardSet.of(straightHole), CardSet.of(board));
+        assertEquals(HandCategory.FULL_HOUSE, HandScore.category(score));
+        assertEquals(List.of(14, 11), HandScore.kickers(score));
+    }
+
+    /**
+     * Evaluates the 60 five-card hands with the list-based ranker.
+     */
+    private static int bruteForce(List<Card> hole, List<Card> board) {
+        HandRanker ranker = new HandRanker();
+        int best = 0;
+        for (int a = 0; a < 4; a++) {
+            for (int b = a + 1; b < 4; b++) {
+                for (int c = 0; c < 5; c++) {
+                    for (int d = c + 1; d < 5; d++) {
+                        for (int e = d + 1; e < 5; e++) {
+                            best = Math.max(best, ranker.score(List.of(hole.get(a), hole.get(b),
+                                    board.get(c), board.get(d), board.get(e))));
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+}
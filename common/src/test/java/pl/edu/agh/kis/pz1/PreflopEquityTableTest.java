@@ -0,0 +1,98 @@
+package pl.edu.agh.kis.pz1;
+
+import junit.framework.TestCase;
+import org.testng.annotations.Test;
+
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+public class PreflopEquityTableTest extends TestCase {
+
+    @Test
+    public void testClassesCoverAllStartingHands() {
+        int[] hands = new int[PreflopEquityTable.CLASSES];
+        for (int a = 0; a < 52; a++) {
+            for (int b = a + 1; b < 52; b++) {
+                int handClass = PreflopEquityTable.classOf(a, b);
+                assertEquals(handClass, PreflopEquityTable.classOf(b, a));
+                hands[handClass]++;
+            }
+        }
+        for (int handClass = 0; handClass < PreflopEquityTable.CLASSES; handClass++) {
+            String name = PreflopEquityTable.className(handClass);
+            assertEquals(name.length() == 2 ? 6 : name.endsWith("s") ? 4 : 12, hands[handClass]);
+        }
+        assertEquals("AA", PreflopEquityTable.className(PreflopEquityTable.classOf(12, 25)));
+        assertEquals("AKs", PreflopEquityTable.className(PreflopEquityTable.classOf(12, 11)));
+        assertEquals("72o", PreflopEquityTable.className(PreflopEquityTable.classOf(5, 13)));
+    }
+
+    @Test
+    public void testKnownEquities() {
+        Card aceOfSpades = new Card(Rank.ACE, Suit.SPADES);
+        Card aceOfHearts = new Card(Rank.ACE, Suit.HEARTS);
+        Card kingOfClubs = new Card(Rank.KING, Suit.CLUBS);
+        Card kingOfDiamonds = new Card(Rank.KING, Suit.DIAMONDS);
+        float acesVersusKings = PreflopEquityTable.equity(aceOfSpades.getIndex(), aceOfHearts.getIndex(),
+                kingOfClubs.getIndex(), kingOfDiamonds.getIndex());
+        assertEquals(0.8195, acesVersusKings, 0.001);
+        assertEquals(1 - acesVersusKings, PreflopEquityTable.equity(kingOfClubs.getIndex(), kingOfDiamonds.getIndex(),
+                aceOfSpades.getIndex(), aceOfHearts.getIndex()), 2e-5);
+        for (int hand = 0; hand < PreflopEquityTable.CLASSES; hand++) {
+            assertEquals(0.5, PreflopEquityTable.classEquity(hand, hand), 1e-4);
+            for (int opponent = 0; opponent < PreflopEquityTable.CLASSES; opponent++) {
+                assertEquals(1.0, PreflopEquityTable.classEquity(hand, opponent)
+                        + PreflopEquityTable.classEquity(opponent, hand), 2e-5);
+            }
+        }
+    }
+
+    @Test
+    public void testTableMatchesExactEnumeration() throws Exception {
+        assertEquals(0, PreflopEquityGenerator.verify(resource(), 3, 19L));
+    }
+
+    @Test
+    public void testGenerationResumesFromCheckpoint() throws Exception {
+        Path directory = Files.createTempDirectory("preflop");
+        Path checkpoint = directory.resolve("table.checkpoint");
+        Path output = directory.resolve("table.bin");
+        char[] shipped;
+        try (InputStream in = Files.newInputStream(resource())) {
+            shipped = PreflopEquityTable.read(in);
+        }
+        // every row but the last two is taken from the shipped table, as points out of SCALE
+        int done = PreflopEquityTable.CLASSES - 2;
+        try (FileChannel channel = FileChannel.open(checkpoint, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            for (int hand = 0; hand < done; hand++) {
+                long[] row = new long[2 * (PreflopEquityTable.CLASSES - hand)];
+                for (int opponent = hand; opponent < PreflopEquityTable.CLASSES; opponent++) {
+                    row[2 * (opponent - hand)] = shipped[hand * PreflopEquityTable.CLASSES + opponent];
+                    row[2 * (opponent - hand) + 1] = PreflopEquityTable.SCALE;
+                }
+                PreflopEquityGenerator.appendRecord(channel, hand, row);
+            }
+        }
+        long complete = Files.size(checkpoint);
+        // a record torn by an interrupted run
+        Files.write(checkpoint, new byte[]{0, 0, 0, (byte) done, 1, 2, 3}, StandardOpenOption.APPEND);
+        PreflopEquityGenerator.generate(output, checkpoint, new ForkJoinPool(2));
+        assertEquals(complete + 8 + 16 * 2 + 8 + 16, Files.size(checkpoint));
+        assertTrue(Arrays.equals(Files.readAllBytes(resource()), Files.readAllBytes(output)));
+        assertTrue(PreflopEquityGenerator.readCheckpoint(checkpoint)[done] != null);
+        Files.delete(checkpoint);
+        Files.delete(output);
+        Files.delete(directory);
+    }
+
+    private static Path resource() throws Exception {
+        return Paths.get(PreflopEquityTable.class.getResource(PreflopEquityTable.RESOURCE).toURI());
+    }
+}
@@ -0,0 +1,87 @@
+package pl.edu.agh.kis.pz1;
+
+import junit.framework.TestCase;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+public class RangeEquityCalculatorTest extends TestCase {
+
+    @Test
+    public void testSameSeedGivesSameResultForAnyParallelism() {
+        HandRange[] ranges = {HandRange.parse("any pair"), HandRange.parse("any flush draw"), HandRange.parse("random")};
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool many = new ForkJoinPool(4);
+        try {
+            EquityResult first = new RangeEquityCalculator(single).calculate(ranges, CardSet.EMPTY, 42L, 200_000, 0);
+            EquityResult second = new RangeEquityCalculator(many).calculate(ranges, CardSet.EMPTY, 42L, 200_000, 0);
+            assertEquals(200_000, first.getSamples());
+            assertEquals(first.toString(), second.toString());
+            double sum = 0;
+            for (int p = 0; p < ranges.length; p++) {
+                sum += first.getEquity(p);
+            }
+            assertEquals(1.0, sum, 1e-9);
+        } finally {
+            single.shutdown();
+            many.shutdown();
+        }
+    }
+
+    @Test
+    public void testMatchesEquityCalculatorForSingleCombinations() {
+        long aces = HandRange.parse("AsAh").getCombo(0);
+        long draw = HandRange.parse("KcQcJcTc").getCombo(0);
+        EquityResult ranges = new RangeEquityCalculator().calculate(
+                new HandRange[]{HandRange.parse("AsAh"), HandRange.parse("KcQcJcTc")}, CardSet.EMPTY, 3L, 200_000, 0);
+        long stub = CardSet.difference(CardSet.FULL_DECK, aces | draw);
+        EquityResult hands = new EquityCalculator().calculate(new long[]{aces, draw}, stub, 3L, 200_000, 0);
+        assertEquals(hands.getEquity(0), ranges.getEquity(0), 0.01);
+    }
+
+    @Test(timeOut = 60_000)
+    public void testSymmetricRangesSplitEvenly() {
+        EquityResult result = new RangeEquityCalculator().calculate("any pair", "any pair", 9L, 0.005);
+        assertEquals(0.5, result.getEquity(0), 0.015);
+        assertTrue(result.getHalfWidth(0) <= 0.005);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, timeOut = 10_000)
+    public void testConvenienceOverloadNeedsATarget() {
+        // with no target and no sample cap the simulation would never stop
+        new RangeEquityCalculator().calculate("any pair", "any pair", 9L, 0);
+    }
+
+    @Test
+    public void testDeadCardsAndConflictsAreRemoved() {
+        // with three aces dead the first player holds exactly the last ace, so the second never holds it
+        long dead = HandRange.parse("AsAhAd").getCombo(0);
+        HandRange aces = HandRange.parse("As, Ah, Ad, Ac");
+        HandRange other = HandRange.parse("Ac:100, Kc");
+        EquityResult result = new RangeEquityCalculator().calculate(new HandRange[]{aces, other}, dead, 5L, 20_000, 0);
+        assertEquals(20_000, result.getSamples());
+        assertTrue(result.getEquity(0) > result.getEquity(1));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsRangeEmptiedByDeadCards() {
+        long dead = HandRange.parse("AsAh").getCombo(0);
+        new RangeEquityCalculator().calculate(new HandRange[]{HandRange.parse("AsAh"), HandRange.parse("random")},
+                dead, 1L, 1000, 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, timeOut = 10_000)
+    public void testRejectsMorePlayersThanTheDeckServes() {
+        // 11 players keeping a pair each draw only 33 cards, but hold 55 in the end
+        HandRange[] ranges = new HandRange[11];
+        Arrays.fill(ranges, HandRange.parse("any pair"));
+        new RangeEquityCalculator().calculate(ranges, CardSet.EMPTY, 1L, 1000, 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsIncompatibleRanges() {
+        new RangeEquityCalculator().calculate(new HandRange[]{HandRange.parse("As"), HandRange.parse("As")},
+                CardSet.EMPTY, 1L, 1000, 0);
+    }
+}
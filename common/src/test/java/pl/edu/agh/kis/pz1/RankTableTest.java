@@ -0,0 +1,54 @@
+package pl.edu.agh.kis.pz1;
+
+import junit.framework.TestCase;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class RankTableTest extends TestCase {
+
+    @Test
+    public void testIndexCoversAllHands() {
+        assertEquals(0, RankTable.indexOf(0, 1, 2, 3, 4));
+        assertEquals(RankTable.HANDS - 1, RankTable.indexOf(47, 48, 49, 50, 51));
+        assertEquals(RankTable.indexOf(7, 3, 51, 12, 30), RankTable.indexOf(3, 7, 12, 30, 51));
+    }
+
+    @Test
+    public void testMappedTableMatchesEvaluator() throws IOException {
+        Path dir = Files.createTempDirectory("rank-table");
+        Path file = dir.resolve("hand-ranks.bin");
+        try {
+            RankTableGenerator.generate(file);
+            RankTable table = RankTable.open(file);
+            Random random = new Random(3);
+            for (int i = 0; i < 100_000; i++) {
+                long hand = 0;
+                while (CardSet.size(hand) < 5) {
+                    hand = CardSet.add(hand, random.nextInt(52));
+                }
+                assertEquals(FiveCardEvaluator.evaluate(hand), table.score(hand));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    public void testRejectsOtherFiles() throws IOException {
+        Path file = Files.createTempFile("not-a-rank-table", ".bin");
+        try {
+            Files.write(file, new byte[64]);
+            RankTable.open(file);
+            fail("Expected an IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Not a rank table"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package pl.edu.agh.kis.pz1;
+
+import junit.framework.TestCase;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class SevenCardEvaluatorTest extends TestCase {
+
+    private static final HandRanker RANKER = new HandRanker();
+
+    /** Reference evaluation: the best of the 21 five-card subsets, each scored through HandRanker. */
+    private static int bruteForce(List<Card> seven) {
+        int best = 0;
+        List<Card> hand = new ArrayList<>(5);
+        for (int skip1 = 0; skip1 < 7; skip1++) {
+            for (int skip2 = skip1 + 1; skip2 < 7; skip2++) {
+                hand.clear();
+                for (int i = 0; i < 7; i++) {
+                    if (i != skip1 && i != skip2) {
+                        hand.add(seven.get(i));
+                    }
+                }
+                best = Math.max(best, RANKER.score(hand));
+            }
+        }
+        return best;
+    }
+
+    private static List<List<Card>> randomHands(int count, long seed) {
+        Random random = new Random(seed);
+        List<List<Card>> hands = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long set = 0;
+            List<Card> hand = new ArrayList<>(7);
+            while (hand.size() < 7) {
+                int index = random.nextInt(52);
+                if (!CardSet.contains(set, index)) {
+                    set = CardSet.add(set, index);
+                    hand.add(Card.of(index));
+                }
+            }
+            hands.add(hand);
+        }
+        return hands;
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        for (List<Card> hand : randomHands(200_000, 7)) {
+            int expected = bruteForce(hand);
+            assertEquals(expected, SevenCardEvaluator.evaluate(hand));
+            assertEquals(expected, SevenCardEvaluator.evaluate(CardSet.of(hand)));
+        }
+    }
+
+    @Test
+    public void testAllHandsCategoryCounts() {
+        long[] counts = new long[HandCategory.values().length + 1];
+        for (int a = 0; a < 52; a++)
+            for (int b = a + 1; b < 52; b++)
+                for (int c = b + 1; c < 52; c++)
+                    for (int d = c + 1; d < 52; d++)
+                        for (int e = d + 1; e < 52; e++)
+                            for (int f = e + 1; f < 52; f++)
+                                for (int g = f + 1; g < 52; g++) {
+                                    counts[SevenCardEvaluator.evaluate(a, b, c, d, e, f, g) >>> HandScore.CATEGORY_SHIFT]++;
+                                }
+        assertEquals(4324, counts[HandCategory.ROYAL_FLUSH.getValue()]);
+        assertEquals(37260, counts[HandCategory.STRAIGHT_FLUSH.getValue()]);
+        assertEquals(224848, counts[HandCategory.FOUR_OF_A_KIND.getValue()]);
+        assertEquals(3473184, counts[HandCategory.FULL_HOUSE.getValue()]);
+        assertEquals(4047644, counts[HandCategory.FLUSH.getValue()]);
+        assertEquals(6180020, counts[HandCategory.STRAIGHT.getValue()]);
+        assertEquals(6461620, counts[HandCategory.THREE_OF_A_KIND.getValue()]);
+        assertEquals(31433400, counts[HandCategory.TWO_PAIR.getValue()]);
+        assertEquals(58627800, counts[HandCategory.PAIR.getValue()]);
+        assertEquals(23294460, counts[HandCategory.HIGH_CARD.getValue()]);
+    }
+}
@@ -0,0 +1,83 @@
+package pl.edu.agh.kis.pz1;
+
+import junit.framework.TestCase;
+import org.testng.annotations.Test;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+public class ShuffleSourceTest extends TestCase {
+
+    @Test
+    public void testSourcesStayInBoundsAndAreUniform() {
+        ShuffleSource[] sources = {new SplittableShuffleSource(), new SecureShuffleSource(), new SeededShuffleSource(7L)};
+        for (ShuffleSource source : sources) {
+            int[] counts = new int[52];
+            for (int i = 0; i < 52_000; i++) {
+                counts[source.nextInt(52)]++;
+            }
+            for (int count : counts) {
+                assertTrue(count > 800 && count < 1200);
+            }
+            for (int bound = 1; bound <= 52; bound++) {
+                int value = source.nextInt(bound);
+                assertTrue(value >= 0 && value < bound);
+            }
+        }
+    }
+
+    @Test
+    public void testSeededSourceIsDeterministic() {
+        SeededShuffleSource first = new SeededShuffleSource(123L);
+        SeededShuffleSource second = new SeededShuffleSource(123L);
+        assertEquals(123L, first.getSeed());
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(first.nextInt(52), second.nextInt(52));
+        }
+    }
+
+    @Test
+    public void testTableStreamsAreIndependent() {
+        ShuffleSource[] tables = {new SplittableShuffleSource(), new SplittableShuffleSource().split(),
+                new SecureShuffleSource(), new SecureShuffleSource()};
+        for (int a = 0; a < tables.length; a++) {
+            for (int b = a + 1; b < tables.length; b++) {
+                assertFalse(sameStream(tables[a], tables[b]));
+            }
+        }
+    }
+
+    @Test
+    public void testSecureSourceRefillsItsBatch() {
+        SecureShuffleSource source = new SecureShuffleSource();
+        int draws = SecureShuffleSource.BATCH_BYTES / 4 * (SecureShuffleSource.RESEED_INTERVAL + 1);
+        long sum = 0;
+        for (int i = 0; i < draws; i++) {
+            sum += source.nextInt(52);
+        }
+        double mean = (double) sum / draws;
+        assertTrue(mean > 25 && mean < 26);
+    }
+
+    @Test
+    public void testSourceWithoutReseedSupportKeepsDrawing() throws NoSuchAlgorithmException {
+        SecureShuffleSource source = new SecureShuffleSource(SecureRandom.getInstance("SHA1PRNG"));
+        int draws = SecureShuffleSource.BATCH_BYTES / 4 * (SecureShuffleSource.RESEED_INTERVAL + 1);
+        for (int i = 0; i < draws; i++) {
+            int value = source.nextInt(52);
+            assertTrue(value >= 0 && value < 52);
+        }
+    }
+
+    /**
+     * Checks whether two sources produce the same 64 values.
+     */
+    private static boolean sameStream(ShuffleSource first, ShuffleSource second) {
+        for (int i = 0; i < 64; i++) {
+            if (first.nextInt(1 << 30) != second.nextInt(1 << 30)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -31,6 +31,11 @@ public abstract class Game {
      */
     private boolean gameStarted;
 
+    /**
+     * The timer running the delayed steps of the game, or {@code null} to run them at once.
+     */
+    private GameTimer timer;
+
     /**
      * Starts the game.
      * This method is intended to be overridden in subclasses to implement specific game start logic.
@@ -40,6 +45,24 @@ public abstract class Game {
      */
     void startGame() throws IOException, InterruptedException {}
 
+    /**
+     * Runs a step of the game after a delay, on the {@link #timer} if the table has one, or at once otherwise.
+     * The calling thread is never blocked.
+     *
+     * @param delayMillis The delay in milliseconds.
+     * @param continuation The step.
+     * @throws IOException if the step runs at once and an I/O error occurs.
+     * @throws PlayerDisconnectedException if the step runs at once and a player cannot be disconnected.
+     */
+    protected void schedule(long delayMillis, GameTimer.Continuation continuation)
+            throws IOException, PlayerDisconnectedException {
+        if (timer == null) {
+            continuation.run();
+        } else {
+            timer.schedule(this, delayMillis, continuation);
+        }
+    }
+
     /**
      * Adds a player to the game using the given selection key.
      * This method should be implemented in subclasses to define how a player is added.
@@ -56,6 +79,33 @@ public abstract class Game {
      */
     public void getNewGameInfo(Scanner sc) {}
 
+    /**
+     * Sets this table up with the settings of another table of the same game, as if {@link #getNewGameInfo}
+     * had read them, so that tables created on demand need no console input.
+     * This method should be implemented in subclasses that can be hosted on several tables at once.
+     *
+     * @param template The table whose settings are copied.
+     */
+    public void setUpLike(Game template) {}
+
+    /**
+     * Gives this table a lane in a pool of decks shuffled in advance, used until the game is reset.
+     * This method should be implemented in subclasses that shuffle a deck at the start of every hand.
+     *
+     * @param pool The pool shared by the tables of the server.
+     */
+    public void useDeckPool(DeckPool pool) {}
+
+    /**
+     * Returns the number of players a table of this game seats.
+     * Subclasses limiting the number of players override this method.
+     *
+     * @return The maximum number of players, unlimited by default.
+     */
+    public int getMaxPlayers() {
+        return Integer.MAX_VALUE;
+    }
+
     /**
      * Resets the game to its initial state.
      * This method should be implemented in subclasses to clear all game-related variables and prepare for a new game.
@@ -83,4 +133,12 @@ public abstract class Game {
      * @throws PlayerDisconnectedException if the player disconnects unexpectedly.
      */
     public void handleClientRequest(SocketChannel clientChannel, ByteBuffer buffer, SelectionKey key) throws PlayerDisconnectedException {}
+
+    /**
+     * Handles a client connection that has become writable, i.e. that had output pending and can take more.
+     * This method should be implemented in subclasses that queue their output to the clients.
+     *
+     * @param key The selection key associated with the client.
+     */
+    public void handleClientWritable(SelectionKey key) {}
 }
@@ -2,8 +2,10 @@ package pl.edu.agh.kis.pz1;
 
 import org.reflections.Reflections;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * The {@code GameDictionary} class is a utility class that dynamically discovers and creates instances
@@ -60,6 +62,24 @@ public class GameDictionary {
         return gameMap;
     }
 
+    /**
+     * Returns a factory creating new instances of a {@code Game} subclass, e.g. one table per group of players.
+     *
+     * @param gameClass the class of the game, as found in {@link #getGameDictionary()}.
+     * @return a {@code Supplier} creating a new game with the no-argument constructor of the class on every call.
+     * @throws NoSuchMethodException if the class has no no-argument constructor.
+     */
+    public static Supplier<Game> getGameFactory(Class<? extends Game> gameClass) throws NoSuchMethodException {
+        Constructor<? extends Game> constructor = gameClass.getDeclaredConstructor();
+        return () -> {
+            try {
+                return constructor.newInstance();
+            } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Cannot create a new " + gameClass.getSimpleName(), e);
+            }
+        };
+    }
+
     /**
      * Main method that demonstrates how to retrieve the game dictionary and print it.
      *
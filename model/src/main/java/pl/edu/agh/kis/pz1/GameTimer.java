@@ -0,0 +1,39 @@
+package pl.edu.agh.kis.pz1;
+
+import pl.edu.agh.kis.pz1.exceptions.PlayerDisconnectedException;
+
+import java.io.IOException;
+
+/**
+ * Runs the delayed steps of a game, e.g. the pause between dealing the cards and opening the bets, without blocking
+ * the thread serving the table.
+ * <p>
+ * The server attaches its timer to each table with {@link Game#setTimer}; a continuation then runs later on the same
+ * thread as the rest of the table's logic. A table without a timer runs its continuations at once.
+ */
+public interface GameTimer {
+
+    /**
+     * A delayed step of a game.
+     */
+    @FunctionalInterface
+    interface Continuation {
+
+        /**
+         * Runs the step.
+         *
+         * @throws IOException if an I/O error occurs while messaging the players.
+         * @throws PlayerDisconnectedException if a player cannot be disconnected.
+         */
+        void run() throws IOException, PlayerDisconnectedException;
+    }
+
+    /**
+     * Schedules a step of a table.
+     *
+     * @param table The table.
+     * @param delayMillis The delay in milliseconds.
+     * @param continuation The step.
+     */
+    void schedule(Game table, long delayMillis, Continuation continuation);
+}
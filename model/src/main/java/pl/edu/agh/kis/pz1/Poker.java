@@ -25,27 +25,23 @@ import java.util.*;
 public class Poker extends Game {
 
     /**
-     * A map that defines the hierarchy of poker hands, from highest to lowest.
-     * Key is the hand type (e.g., "Royal Flush"), value is the corresponding rank.
-     */
-    private final Map<String, Integer> hierarchy = Map.of(
-            "High Card", 1,
-            "Pair", 2,
-            "Two Pair", 3,
-            "Three Of A Kind", 4,
-            "Straight", 5,
-            "Flush", 6,
-            "Full House", 7,
-            "Four Of A Kind", 8,
-            "Straight Flush", 9,
-            "Royal Flush", 10
-    );
+     * The score given by {@link #scoreHands()} to the hand of a player who folded, lower than any real score.
+     */
+    public static final int FOLDED_SCORE = -1;
 
     /**
      * A deck of cards used in the poker game.
+     * It has its own {@link ShuffleSource}, so tables never share random state;
+     * replace it with {@link Deck#setShuffleSource} to e.g. replay a seeded game.
      */
     private final Deck deck = new Deck();
 
+    /**
+     * The lane of this table in a shared {@link DeckPool}, or {@code null} to shuffle inline.
+     * With a lane, hands start from an order shuffled in advance by the pool's producer thread.
+     */
+    private DeckPool.Lane deckLane;
+
     /**
      * The total amount of money in the pot.
      */
@@ -132,15 +128,41 @@ public class Poker extends Game {
     private PokerMessenger gameMessenger = new PokerMessenger();
 
     /**
-     * An object responsible for evaluating poker hands and determining the winner.
+     * The evaluator of the variant played at the table, high hands unless a lowball variant is set.
      */
-    private HandRanker ranker = new HandRanker();
+    private HandEvaluator evaluator = HandEvaluator.HIGH;
 
     /**
      * The index of the first player who has not folded.
      */
     private int firstNonFoldedPlayer = 0;
 
+    /**
+     * The pause between dealing the cards and announcing the bets, in milliseconds.
+     */
+    private long dealPauseMillis = 2000;
+
+    /**
+     * The pause between announcing the bets and asking the first player, in milliseconds.
+     */
+    private long betsPauseMillis = 1500;
+
+    /**
+     * The pause after a valid action before the next player is asked, in milliseconds.
+     */
+    private long actionPauseMillis = 500;
+
+    /**
+     * Flag indicating whether the table is pausing before its next step, during which actions are not taken.
+     */
+    private boolean paused = false;
+
+    /**
+     * The number of the current hand, increased by {@link #resetGame()} so that steps scheduled for an earlier hand
+     * are dropped.
+     */
+    private int handNumber = 0;
+
 
     /**
      * Sets up a new game with player limits and ante value.
@@ -160,6 +182,24 @@ public class Poker extends Game {
         if(getPhase() == 1 && !isGameStarted()) System.out.println("Looking for players...");
     }
 
+    /**
+     * Sets up a new game with the player limit, ante and variant of another poker table.
+     *
+     * @param template The table whose settings are copied.
+     */
+    @Override
+    public void setUpLike(Game template) {
+        Poker poker = (Poker) template;
+        setMaxPlayers(poker.getMaxPlayers());
+        setAnte(poker.getAnte());
+        setPot(getMaxPlayers() * getAnte());
+        setEvaluator(poker.getEvaluator());
+        setDealPauseMillis(poker.getDealPauseMillis());
+        setBetsPauseMillis(poker.getBetsPauseMillis());
+        setActionPauseMillis(poker.getActionPauseMillis());
+        setPhase(1);
+    }
+
     /**
      * Adds a new player to the game.
      *
@@ -173,6 +213,8 @@ public class Poker extends Game {
 
     /**
      * Starts the game by dealing cards and notifying players about the start of betting.
+     * The announcement and the first turn follow after the {@link #dealPauseMillis} and {@link #betsPauseMillis}
+     * pauses, scheduled on the table's timer so that the thread is not blocked meanwhile.
      *
      * @throws IOException if an I/O error occurs during card dealing.
      * @throws InterruptedException if the thread is interrupted during the game setup.
@@ -181,20 +223,58 @@ public class Poker extends Game {
     public void startGame() throws IOException, InterruptedException {
         dealCards();
         notifyPlayersAboutTheirCards();
-        Thread.sleep(2000);
-        gameMessenger.sendMessageToAll(getPlayers(), "Gentlemen, we are starting our bets!");
-        Thread.sleep(1500);
+        setPaused(true);
+        try {
+            later(getDealPauseMillis(), () -> {
+                gameMessenger.sendMessageToAll(getPlayers(), "Gentlemen, we are starting our bets!");
+                later(getBetsPauseMillis(), this::openBetting);
+            });
+        } catch (PlayerDisconnectedException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Ends the pause at the start of the game and asks the first player for an action.
+     *
+     * @throws IOException if an I/O error occurs while sending responses to players.
+     */
+    private void openBetting() throws IOException {
         setPhase(2);
+        setPaused(false);
         performBetting();
         setGameStarted(true);
     }
 
+    /**
+     * Schedules a step of the current hand, which is dropped if the game is reset before it runs.
+     *
+     * @param delayMillis The delay in milliseconds.
+     * @param continuation The step.
+     * @throws IOException if the step runs at once and an I/O error occurs.
+     * @throws PlayerDisconnectedException if the step runs at once and a player cannot be disconnected.
+     */
+    private void later(long delayMillis, GameTimer.Continuation continuation) throws IOException, PlayerDisconnectedException {
+        int hand = getHandNumber();
+        schedule(delayMillis, () -> {
+            if (hand == getHandNumber()) {
+                continuation.run();
+            }
+        });
+    }
+
 
     /**
-     * Deals 5 cards to each player from the deck.
+     * Collects the cards of the previous hand back into the deck, shuffles it (or takes a pre-shuffled order
+     * from the {@link DeckPool}) and deals 5 cards to each player.
      */
     public void dealCards(){
-        deck.shuffle();
+        if (deckLane != null) {
+            deckLane.shuffle(deck);
+        } else {
+            deck.reset();
+            deck.shuffle();
+        }
         System.out.println("Dealing Cards!");
         for(Player player : players){
             player.receiveCards(deck, 5);
@@ -209,7 +289,7 @@ public class Poker extends Game {
     public void notifyPlayersAboutTheirCards() throws IOException {
         for(Player player : players){
             SocketChannel clientChannel = (SocketChannel) player.getKey().channel();
-            gameMessenger.sendResponse(clientChannel, "Your cards: " + player.getCards().toString());
+            gameMessenger.sendCards(clientChannel, "Your cards: ", player.getCards(), "");
         }
     }
 
@@ -313,16 +393,38 @@ public class Poker extends Game {
 
     }
 
+    /**
+     * Scores the hand of every player exactly once.
+     * The showdown works on these scores: finding the winners and naming the hands never evaluates a hand again.
+     *
+     * @return The score of the hand of each player under the table's {@link #evaluator}, indexed like {@link #players},
+     *         or {@link #FOLDED_SCORE} for players who folded.
+     */
+    public int[] scoreHands(){
+        int[] scores = new int[players.size()];
+        for(int i = 0; i < scores.length; i++){
+            scores[i] = foldedPlayers.contains(i) ? FOLDED_SCORE : evaluator.evaluate(players.get(i).getCards());
+        }
+        return scores;
+    }
+
     /**
      * Determines the winner based on the best hand among remaining players.
      *
      * @return A string describing the winner(s) and the amount won.
      */
     public String decideWinner() {
-        IntAndString result = getBestHandIndexAndBestHand();
-        int bestHandIndex = result.number();
-        String currentBestHand = result.text();
-        List<Integer> winners = getWinners(bestHandIndex, currentBestHand);
+        return decideWinner(scoreHands());
+    }
+
+    /**
+     * Determines the winner based on hands already scored, so that no hand is evaluated again.
+     *
+     * @param scores The scores of the hands, as returned by {@link #scoreHands()}.
+     * @return A string describing the winner(s) and the amount won.
+     */
+    public String decideWinner(int[] scores) {
+        List<Integer> winners = getWinners(scores);
         StringBuilder res = new StringBuilder("The winner ");
         if(winners.size() == 1){
             res.append("is:\n" + "-Player ").append(winners.get(0));
@@ -344,51 +446,39 @@ public class Poker extends Game {
      * @return an IntAndString object containing the index of the player with the best hand and the description of that hand.
      */
     public IntAndString getBestHandIndexAndBestHand(){
+        int[] scores = scoreHands();
         int bestHandIndex = -1;
-        String currentBestHand = "";
-        for(int i = 0; i < players.size(); i++){
-            if(!foldedPlayers.contains(i)){
-                if(bestHandIndex == -1){
-                    bestHandIndex = i;
-                    currentBestHand = ranker.rank(players.get(i).getCards());
-                }
-                else{
-                    if(hierarchy.get(ranker.rank(players.get(i).getCards())).compareTo(hierarchy.get(currentBestHand)) > 0){
-                        bestHandIndex = i;
-                        currentBestHand = ranker.rank(players.get(i).getCards());
-                    }
-                }
+        for(int i = 0; i < scores.length; i++){
+            if(scores[i] != FOLDED_SCORE && (bestHandIndex == -1
+                    || PokerJudge.decideWinnerBetweenTwoPlayers(scores[i], scores[bestHandIndex]) > 0)){
+                bestHandIndex = i;
             }
         }
-        return new IntAndString(bestHandIndex, currentBestHand);
+        return new IntAndString(bestHandIndex, bestHandIndex == -1 ? "" : evaluator.describe(scores[bestHandIndex]));
     }
 
 
     /**
-     * Determines the list of winners among players with the best hand.
+     * Determines the players with the best hand in a single scan over the scores.
      *
-     * @param bestHandIndex   The index of the player with the best hand.
-     * @param currentBestHand The description of the current best hand.
+     * @param scores The scores of the hands, as returned by {@link #scoreHands()}.
      * @return a list of player indices who are winners.
      */
-    private List<Integer> getWinners(int bestHandIndex, String currentBestHand) {
+    private List<Integer> getWinners(int[] scores) {
         List<Integer> winners = new ArrayList<>();
-        winners.add(bestHandIndex);
-        for(int i = 0; i < players.size(); i++){
-            if(!winners.contains(i) && !foldedPlayers.contains(i) && hierarchy.get(ranker.rank(players.get(i).getCards())).
-                    compareTo(hierarchy.get(currentBestHand)) == 0) {
-                List<Integer> cards1 = ranker.distinguishmentCards(players.get(winners.get(0)).getCards());
-                List<Integer> cards2 = ranker.distinguishmentCards(players.get(i).getCards());
-                int flag = PokerJudge.decideWinnerBetweenTwoPlayers(cards1, cards2); // 0 - draw, 1 - cards1 won, -1 - cards2 won
-                if(flag == 0){
-                    winners.add(i);
-                }
-                else if(flag == -1){
-                    winners.clear();
-                    winners.add(i);
-                }
+        int bestScore = FOLDED_SCORE;
+        for(int i = 0; i < scores.length; i++){
+            if(scores[i] == FOLDED_SCORE){
+                continue;
+            }
+            int flag = PokerJudge.decideWinnerBetweenTwoPlayers(scores[i], bestScore); // 0 - draw, 1 - new best hand
+            if(flag > 0){
+                winners.clear();
+                bestScore = scores[i];
+            }
+            if(flag >= 0){
+                winners.add(i);
             }
-
         }
         return winners;
     }
@@ -530,20 +620,26 @@ public class Poker extends Game {
 
     /**
      * Disconnects all players and resets the game state.
+     * A connection still writing its last messages is cut off if the table's timer finds it open after
+     * {@link PokerMessenger#CLOSE_TIMEOUT_MILLIS}.
      *
      * @throws PlayerDisconnectedException if an error occurs during player disconnection.
      */
     public void disconnectAllPlayersAndResetGame() throws PlayerDisconnectedException {
+        List<SelectionKey> closing = new ArrayList<>();
         for (Player p : players) {
-            SelectionKey key = p.getKey();
             try {
-                SocketChannel channel = (SocketChannel) key.channel();
-                channel.close();
-                key.cancel();
+                gameMessenger.close(p.getKey());
+                closing.add(p.getKey());
             } catch (IOException e) {
                 throw new PlayerDisconnectedException("Error disconnecting player: " + e.getMessage());
             }
         }
+        if (getTimer() != null && !closing.isEmpty()) {
+            PokerMessenger messenger = gameMessenger;
+            getTimer().schedule(this, PokerMessenger.CLOSE_TIMEOUT_MILLIS,
+                    () -> closing.forEach(messenger::abortClose));
+        }
         System.out.println("All players have been disconnected.");
         resetGame();
     }
@@ -576,6 +672,7 @@ public class Poker extends Game {
      * @param key The selection key of the player to be removed.
      */
     public void remove(SelectionKey key) {
+        gameMessenger.unregister(key);
         for(int i = 0; i < players.size(); i++) {
             if(players.get(i).getKey() == key){
                 players.remove(i);
@@ -585,11 +682,29 @@ public class Poker extends Game {
     }
 
 
+    /**
+     * Registers the deck of this table with a pool, closing the lane it had before, if any.
+     *
+     * @param pool The pool shared by the tables of the server.
+     */
+    @Override
+    public void useDeckPool(DeckPool pool) {
+        if (deckLane != null) {
+            deckLane.close();
+        }
+        deckLane = pool.register(deck);
+    }
+
     /**
      * Resets the game state, clearing players, bets, and other game variables.
+     * The lane of the table in its {@link DeckPool} is closed, so the pool stops refilling it.
      */
     @Override
     public void resetGame() {
+        if (deckLane != null) {
+            deckLane.close();
+            deckLane = null;
+        }
         setPot(0);
         players.clear();
         setCurrentBet(0);
@@ -602,6 +717,8 @@ public class Poker extends Game {
         setPId(0);
         setGameServerRunning(false);
         setGameStarted(false);
+        setPaused(false);
+        setHandNumber(getHandNumber() + 1);
     }
 
 
@@ -616,9 +733,9 @@ public class Poker extends Game {
             if(foldedPlayers.contains(p.getId())) {
                 gameMessenger.sendResponse(playerChannel, FOLD_PLAYER_LITERAL);
             } else if (p.getId() == currentPlayerIndex) {
-                gameMessenger.sendResponse(playerChannel, "What cards do you want to exchange?" +
+                gameMessenger.sendCards(playerChannel, "What cards do you want to exchange?" +
                         "\nProvide your input in a way like: #number #number #number eg. 1 2 3" +
-                        "\nJust to remind you, your cards are: " + players.get(currentPlayerIndex).getCards());
+                        "\nJust to remind you, your cards are: ", players.get(currentPlayerIndex).getCards(), "");
             } else {
                 gameMessenger.sendResponse(playerChannel, WAITING_PLAYER_LITERAL);
             }
@@ -632,22 +749,25 @@ public class Poker extends Game {
      * @throws PlayerDisconnectedException if a player is disconnected during the showdown.
      */
     public void performShowDown() throws IOException, PlayerDisconnectedException {
+        int[] scores = scoreHands();
         for(Player p : players) {
-            if(foldedPlayers.contains(p.getId())) {
+            if(scores[p.getId()] == FOLDED_SCORE) {
                 gameMessenger.sendMessageToAll(getPlayers(),PLAYER_LITERAL + p.getId() + " is already folded");
             } else {
-                gameMessenger.sendMessageToAll(getPlayers(),PLAYER_LITERAL + p.getId() + " cards are: " + players.get(p.getId()).getCards() +
-                        "\nWhich gives them: " + ranker.rank(players.get(p.getId()).getCards()));
+                gameMessenger.sendCardsToAll(getPlayers(),PLAYER_LITERAL + p.getId() + " cards are: ", players.get(p.getId()).getCards(),
+                        "\nWhich gives them: " + evaluator.describe(scores[p.getId()]));
 
             }
         }
-        gameMessenger.sendMessageToAll(getPlayers(),decideWinner());
+        gameMessenger.sendMessageToAll(getPlayers(),decideWinner(scores));
         disconnectAllPlayersAndResetGame();
     }
 
 
     /**
      * Processes a client's turn based on the current phase of the game.
+     * After a valid action the game moves on once the {@link #actionPauseMillis} pause has passed;
+     * actions sent during a pause are not taken.
      *
      * @param key          The selection key of the current client.
      * @param request      The request received from the client.
@@ -657,7 +777,9 @@ public class Poker extends Game {
      * @throws PlayerDisconnectedException if a player is disconnected during their turn.
      */
     public void handleClientTurn(SelectionKey key, String request, SocketChannel clientChannel) throws IOException, InterruptedException, PlayerDisconnectedException {
-        if (key == players.get(getCurrentPlayerIndex()).getKey()) {
+        if (isPaused()) {
+            gameMessenger.sendResponse(clientChannel, WAITING_PLAYER_LITERAL);
+        } else if (key == players.get(getCurrentPlayerIndex()).getKey()) {
             System.out.println("Received from player: " + request);
             int validAction = -1;
             if (getPhase() == 2 || getPhase() == 4) {
@@ -667,9 +789,12 @@ public class Poker extends Game {
             } else if (getPhase() == 3){
                 validAction = manageCardExchange(clientChannel, request, getCurrentPlayerIndex());
             }
-            Thread.sleep(500);
             if(validAction == -1) {
-                performValidAction();
+                setPaused(true);
+                later(getActionPauseMillis(), () -> {
+                    setPaused(false);
+                    performValidAction();
+                });
             }
         } else {
             gameMessenger.sendResponse(clientChannel, "It's not your turn.");
@@ -807,6 +932,9 @@ public class Poker extends Game {
         if (sc != null) {
             sc.configureBlocking(false);
             SelectionKey key = sc.register(selector, SelectionKey.OP_READ);
+            if (key != null) {
+                gameMessenger.register(key);
+            }
             setCurrentPlayers(getCurrentPlayers() + 1);
             System.out.println("Client " + (getCurrentPlayers()) + " connected: " + sc.getRemoteAddress());
             System.out.println(getCurrentPlayers() + " " + getMaxPlayers());
@@ -819,6 +947,16 @@ public class Poker extends Game {
         }
     }
 
+    /**
+     * Writes the messages queued for a client whose connection has become writable.
+     *
+     * @param key The selection key of the client.
+     */
+    @Override
+    public void handleClientWritable(SelectionKey key) {
+        gameMessenger.flush(key);
+    }
+
     /**
      * Processes a request from a connected client.
      *
@@ -55,6 +55,27 @@ class PokerTest {
         assertEquals(5, game.getPlayers().get(1).getCards().size());
     }
 
+    @Test
+    void testDealCardsFromDeckPool() {
+        DeckPool pool = new DeckPool();
+        game.setDeckLane(pool.register(game.getDeck()));
+        game.dealCards();
+        assertEquals(1, pool.getMisses());
+        assertEquals(42, game.getDeck().size());
+    }
+
+    @Test
+    void testResetClosesDeckLane() {
+        DeckPool pool = new DeckPool();
+        game.useDeckPool(pool);
+        game.dealCards();
+        assertEquals(1, pool.getMisses());
+        game.resetGame();
+        assertNull(game.getDeckLane());
+        game.dealCards();
+        assertEquals(1, pool.getMisses());
+    }
+
     @Test
     void testExchangeCards() throws CardsParsingException {
         List<Card> copiedCards = new ArrayList<>();
@@ -98,6 +119,22 @@ class PokerTest {
         assertEquals("The winner is:\n-Player 1\nHe won: 0", game.decideWinner());
     }
 
+    @Test
+    void testLowballTableAwardsTheLowestHand(){
+        game.dealCards();
+        game.setEvaluator(HandEvaluator.DEUCE_TO_SEVEN);
+        game.getPlayers().get(0).setCards(new ArrayList<>(List.of(new Card(Rank.SEVEN, Suit.CLUBS),
+                new Card(Rank.FIVE, Suit.DIAMONDS), new Card(Rank.FOUR, Suit.HEARTS),
+                new Card(Rank.THREE, Suit.SPADES), new Card(Rank.TWO, Suit.CLUBS))));
+        game.getPlayers().get(1).setCards(new ArrayList<>(List.of(new Card(Rank.ACE, Suit.CLUBS),
+                new Card(Rank.ACE, Suit.DIAMONDS), new Card(Rank.KING, Suit.HEARTS),
+                new Card(Rank.KING, Suit.SPADES), new Card(Rank.KING, Suit.CLUBS))));
+        assertEquals("The winner is:\n-Player 0\nHe won: 0", game.decideWinner());
+        IntAndString best = game.getBestHandIndexAndBestHand();
+        assertEquals(0, best.number());
+        assertEquals("Seven-Five Low", best.text());
+    }
+
     @Test
     void testNotifyPlayersAboutFirstBetting() throws IOException {
         game.dealCards();
@@ -222,6 +259,20 @@ class PokerTest {
         assertEquals(0, game.getCurrentPlayers());
     }
 
+    @Test
+    void disconnectAllPlayersCutsOffLingeringConnectionsOnTimeout() throws Exception {
+        when(mockSelectionKey1.isValid()).thenReturn(true);
+        game.getGameMessenger().register(mockSelectionKey1);
+        game.getGameMessenger().sendResponse(mockSocketChannel1, "The winner is: 0");
+        List<GameTimer.Continuation> scheduled = new ArrayList<>();
+        game.setTimer((table, delayMillis, continuation) -> scheduled.add(continuation));
+        game.disconnectAllPlayersAndResetGame();
+        verify(mockSocketChannel1, never()).close();
+        assertEquals(1, scheduled.size());
+        scheduled.get(0).run();
+        verify(mockSocketChannel1).close();
+    }
+
     @Test
     void handleBettingFold() throws IOException, PlayerDisconnectedException {
         assertEquals(1, game.handleBetting("fold", mockSocketChannel1, 0));
@@ -235,6 +286,16 @@ class PokerTest {
         assertEquals(0, game.getPlayers().size());
     }
 
+    @Test
+    void testScoreHandsSkipsFoldedPlayers() {
+        game.getFoldedPlayers().add(0);
+        int[] scores = game.scoreHands();
+        assertEquals(Poker.FOLDED_SCORE, scores[0]);
+        assertEquals(new HandRanker().score(game.getPlayers().get(1).getCards()), scores[1]);
+        assertEquals("The winner is:\n-Player 1\nHe won: 0", game.decideWinner(scores));
+        assertEquals(1, game.getBestHandIndexAndBestHand().number());
+    }
+
     @Test
     void performShowdownTest() throws IOException, PlayerDisconnectedException {
         game.getFoldedPlayers().add(0);
@@ -0,0 +1,204 @@
+package pl.edu.agh.kis.pz1;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A hashed timing wheel running delayed tasks on the thread that drives it, e.g. a {@link Reactor}.
+ * <p>
+ * Time is cut into ticks and the wheel into a power-of-two number of buckets; a task goes into the bucket of the tick
+ * it is due at, so scheduling is constant-time whatever the number of pending tasks, and every tick only looks at
+ * one bucket. Tasks due more than one turn of the wheel ahead stay in their bucket until their turn comes. A task runs
+ * at the first tick at or after its deadline, so it is late by at most one tick plus the time the thread takes to get
+ * back to the wheel.
+ * <p>
+ * The wheel never blocks: the owning thread asks for {@link #getMillisToNextTick()} to bound its wait, e.g. a
+ * selection, and calls {@link #advance()} afterwards. Instances are not thread-safe and must only be used by that
+ * thread.
+ */
+public final class HashedWheelTimer {
+
+    /**
+     * The default length of a tick, in milliseconds.
+     */
+    static final long DEFAULT_TICK_MILLIS = 10;
+
+    /**
+     * The default number of buckets, covering a bit more than 5 seconds with the default tick.
+     */
+    static final int DEFAULT_BUCKETS = 512;
+
+    /**
+     * A pending task, linked into its bucket.
+     */
+    private static final class Timeout {
+
+        /**
+         * The tick the task is due at.
+         */
+        private final long deadline;
+
+        /**
+         * The task.
+         */
+        private final Runnable task;
+
+        /**
+         * The next task of the bucket.
+         */
+        private Timeout next;
+
+        /**
+         * Constructs a pending task.
+         *
+         * @param deadline The tick the task is due at.
+         * @param task The task.
+         * @param next The next task of the bucket.
+         */
+        Timeout(long deadline, Runnable task, Timeout next) {
+            this.deadline = deadline;
+            this.task = task;
+            this.next = next;
+        }
+    }
+
+    /**
+     * The clock, in milliseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * The length of a tick, in milliseconds.
+     */
+    private final long tickMillis;
+
+    /**
+     * The buckets, each a list of pending tasks.
+     */
+    private final Timeout[] buckets;
+
+    /**
+     * The mask giving the bucket of a tick.
+     */
+    private final int mask;
+
+    /**
+     * The time of tick 0, in milliseconds of the clock.
+     */
+    private final long start;
+
+    /**
+     * The last tick processed.
+     */
+    private long tick;
+
+    /**
+     * The number of pending tasks.
+     */
+    private int size;
+
+    /**
+     * Constructs a wheel with the default tick and number of buckets on the system clock.
+     */
+    public HashedWheelTimer() {
+        this(DEFAULT_TICK_MILLIS, DEFAULT_BUCKETS, () -> System.nanoTime() / 1_000_000);
+    }
+
+    /**
+     * Constructs a wheel.
+     *
+     * @param tickMillis The length of a tick in milliseconds, at least 1.
+     * @param buckets The number of buckets, a power of two.
+     * @param clock The clock, in milliseconds.
+     */
+    public HashedWheelTimer(long tickMillis, int buckets, LongSupplier clock) {
+        if (tickMillis < 1 || buckets < 1 || Integer.bitCount(buckets) != 1) {
+            throw new IllegalArgumentException("Invalid wheel of " + buckets + " buckets of " + tickMillis + " ms");
+        }
+        this.clock = clock;
+        this.tickMillis = tickMillis;
+        this.buckets = new Timeout[buckets];
+        this.mask = buckets - 1;
+        this.start = clock.getAsLong();
+    }
+
+    /**
+     * Schedules a task.
+     *
+     * @param delayMillis The delay in milliseconds; a task without delay runs at the next tick.
+     * @param task The task.
+     */
+    public void schedule(long delayMillis, Runnable task) {
+        long now = clock.getAsLong() - start;
+        if (size == 0) {
+            // nothing to run in the ticks skipped while the wheel was idle
+            tick = Math.max(tick, now / tickMillis);
+        }
+        long due = now + Math.max(delayMillis, 0);
+        // the first tick at or after the deadline, and never the tick already processed
+        long deadline = Math.max((due + tickMillis - 1) / tickMillis, tick + 1);
+        int bucket = (int) (deadline & mask);
+        buckets[bucket] = new Timeout(deadline, task, buckets[bucket]);
+        size++;
+    }
+
+    /**
+     * Runs the tasks due up to the current time, in the order of their ticks.
+     * Tasks scheduled by the tasks run at a later tick, in this call only if that tick has already passed.
+     *
+     * @return The number of tasks run.
+     */
+    public int advance() {
+        long now = (clock.getAsLong() - start) / tickMillis;
+        int run = 0;
+        while (tick < now && size > 0) {
+            tick++;
+            int bucket = (int) (tick & mask);
+            Timeout due = null;
+            Timeout kept = null;
+            for (Timeout timeout = buckets[bucket]; timeout != null; ) {
+                Timeout next = timeout.next;
+                if (timeout.deadline <= tick) {
+                    timeout.next = due;
+                    due = timeout;
+                } else {
+                    timeout.next = kept;
+                    kept = timeout;
+                }
+                timeout = next;
+            }
+            buckets[bucket] = kept;
+            for (; due != null; due = due.next) {
+                run++;
+                try {
+                    due.task.run();
+                } finally {
+                    // counted until it has run, so that tasks it schedules do not skip the ticks being processed
+                    size--;
+                }
+            }
+        }
+        return run;
+    }
+
+    /**
+     * Returns how long the owning thread may wait before calling {@link #advance()}.
+     * While tasks are pending the thread wakes up at every tick, which costs one bucket scan.
+     *
+     * @return The milliseconds to the next tick, 0 if it has passed, or -1 if no task is pending.
+     */
+    public long getMillisToNextTick() {
+        if (size == 0) {
+            return -1;
+        }
+        return Math.max(start + (tick + 1) * tickMillis - clock.getAsLong(), 0);
+    }
+
+    /**
+     * Returns the number of pending tasks.
+     *
+     * @return The number of tasks scheduled and not run yet.
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -9,6 +9,7 @@ import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import org.slf4j.LoggerFactory;
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
@@ -28,7 +29,13 @@ import pl.edu.agh.kis.pz1.exceptions.PlayerDisconnectedException;
  *     <li>Shutting down the server</li>
  * </ul>
  *
- * <p>Server state is managed using the {@link Selector} and {@link ServerSocketChannel} APIs.</p>
+ * <p>The thread calling {@link #start()} is the acceptor: its {@link Selector} only watches the
+ * {@link ServerSocketChannel}. Accepted connections are handed to one of several {@link Reactor} threads, one per
+ * core by default, each with its own selector. A table is pinned to the least loaded reactor when its first player
+ * connects, and every later connection and request of the table is handled on that reactor's thread.</p>
+ *
+ * <p>The game chosen by the administrator is a template: connections are seated at tables of the same game created
+ * on demand by a {@link TableManager}, so one server hosts many tables at once.</p>
  */
 @Getter
 @Setter
@@ -40,7 +47,17 @@ public class NonBlockingServer {
     private static final int PORT = 8080;
 
     /**
-     * The {@link Selector} instance used for managing channels.
+     * The default maximum number of tables with players.
+     */
+    private static final int DEFAULT_MAX_TABLES = 50_000;
+
+    /**
+     * The maximum number of finished tables kept for reuse.
+     */
+    private static final int MAX_IDLE_TABLES = 1024;
+
+    /**
+     * The {@link Selector} of the acceptor, watching the server socket channel only.
      */
     private final Selector selector;
 
@@ -50,22 +67,121 @@ public class NonBlockingServer {
     private final ServerSocketChannel serverSocketChannel;
 
     /**
-     * The current {@link Game} being played on the server.
+     * The I/O threads serving the connections of the tables.
+     */
+    private final List<Reactor> reactors = new ArrayList<>();
+
+    /**
+     * The reactor each table is pinned to, for as long as the table is live or kept for reuse, so that all of its
+     * state stays on one thread. Only used by the acceptor thread.
+     */
+    private final Map<Game, Reactor> pinnedTables = new HashMap<>();
+
+    /**
+     * The decks shuffled in advance for the tables, each of which gets a lane when it is opened and closes it when
+     * it is reset.
+     */
+    private final DeckPool deckPool = new DeckPool();
+
+    /**
+     * The events reported by the reactors, run by the acceptor thread.
+     */
+    private final Queue<Runnable> events = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The maximum number of tables with players.
+     */
+    private final int maxTables;
+
+    /**
+     * The current {@link Game} being played on the server, the template of its tables.
      */
     private Game game;
 
+    /**
+     * The tables of the current game, whose counts and memory estimate are read through {@link #getTables()}.
+     */
+    private TableManager tables;
+
     /**
      * Flag indicating whether the server is running.
      */
-    private boolean running = true;
+    private volatile boolean running = true;
+
+    /**
+     * Flag indicating whether the current game is open to players, cleared when its last table finishes.
+     */
+    private boolean gameOpen;
 
     /**
-     * Constructs a new NonBlockingServer instance, initializing the selector
-     * and server socket channel.
+     * The failure of a table to disconnect a player, rethrown by the acceptor.
+     */
+    private volatile PlayerDisconnectedException failure;
+
+    /**
+     * Constructs a new NonBlockingServer instance with one reactor per available processor.
      *
      * @throws IOException if an I/O error occurs during initialization.
      */
     public NonBlockingServer() throws IOException {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a new NonBlockingServer instance with the default maximum number of tables.
+     *
+     * @param reactorCount The number of reactor threads, at least 1.
+     * @throws IOException if an I/O error occurs during initialization.
+     */
+    public NonBlockingServer(int reactorCount) throws IOException {
+        this(reactorCount, DEFAULT_MAX_TABLES);
+    }
+
+    /**
+     * Constructs a new NonBlockingServer instance, initializing the selector,
+     * the server socket channel and the reactors.
+     *
+     * @param reactorCount The number of reactor threads, at least 1.
+     * @param maxTables The maximum number of tables with players; further connections are turned away.
+     * @throws IOException if an I/O error occurs during initialization.
+     */
+    public NonBlockingServer(int reactorCount, int maxTables) throws IOException {
+        if (reactorCount < 1 || maxTables < 1) {
+            throw new IllegalArgumentException("The server needs at least 1 reactor and 1 table, got "
+                    + reactorCount + " and " + maxTables);
+        }
+        this.maxTables = maxTables;
+        Reactor.Listener listener = new Reactor.Listener() {
+            @Override
+            public void tableFinished(Game table) {
+                report(() -> {
+                    if (tables.finish(table)) {
+                        retire(table);
+                    }
+                    if (tables.getLiveTables() == 0) {
+                        gameOpen = false;
+                    }
+                });
+            }
+
+            @Override
+            public void playerLeft(Game table) {
+                report(() -> {
+                    if (tables.leave(table)) {
+                        retire(table);
+                    }
+                });
+            }
+
+            @Override
+            public void tableFailed(Game table, PlayerDisconnectedException e) {
+                failure = e;
+                selector.wakeup();
+            }
+        };
+        for (int i = 0; i < reactorCount; i++) {
+            reactors.add(new Reactor("reactor-" + i, listener, deckPool));
+        }
         selector = Selector.open();
         serverSocketChannel = ServerSocketChannel.open();
         serverSocketChannel.bind(new InetSocketAddress(PORT));
@@ -73,6 +189,33 @@ public class NonBlockingServer {
         serverSocketChannel.register(selector, SelectionKey.OP_ACCEPT);
     }
 
+    /**
+     * Hands an event of a reactor to the acceptor thread.
+     *
+     * @param event The event, run by the acceptor.
+     */
+    private void report(Runnable event) {
+        events.add(event);
+        selector.wakeup();
+    }
+
+    /**
+     * Resets a table retired by the {@link TableManager} on the reactor it is pinned to, then hands it back to the
+     * manager for reuse; a table the manager does not keep is unpinned.
+     *
+     * @param table The table.
+     */
+    private void retire(Game table) {
+        pinnedTables.get(table).execute(() -> {
+            table.resetGame();
+            report(() -> {
+                if (!tables.release(table)) {
+                    pinnedTables.remove(table);
+                }
+            });
+        });
+    }
+
     /**
      * Resets the current game state to allow for a new game to start.
      */
@@ -84,6 +227,7 @@ public class NonBlockingServer {
     /**
      * Starts the server, allowing clients to connect and play the selected game.
      * The server prompts the administrator to choose a game and handles game state transitions.
+     * The reactors are stopped when the administrator declines a new game or the server fails.
      *
      * @throws IOException if an I/O error occurs.
      * @throws InterruptedException if interrupted while waiting.
@@ -111,29 +255,39 @@ public class NonBlockingServer {
         System.out.println("Enter game name: ");
         String gameName = sc.nextLine();
         game = games.get(gameName);
-        while (running) {
-            if (!game.isGameServerRunning()) {
-                resetGameState();
-                System.out.println("Do you want to start a game? (y/n)");
-                response = sc.nextLine();
-                if (response.equals("n")) {
-                    break;
+        tables = new TableManager(GameDictionary.getGameFactory(game.getClass()), game, maxTables,
+                Math.min(maxTables, MAX_IDLE_TABLES));
+        deckPool.start();
+        for (Reactor reactor : reactors) {
+            reactor.start();
+        }
+        try {
+            while (running) {
+                if (!gameOpen) {
+                    resetGameState();
+                    System.out.println("Do you want to start a game? (y/n)");
+                    response = sc.nextLine();
+                    if (response.equals("n")) {
+                        break;
+                    }
+                    game.getNewGameInfo(sc);
+                    gameOpen = true;
                 }
-                game.getNewGameInfo(sc);
+                listenToClients();
             }
-            listenToClients();
+        } finally {
+            stop();
         }
     }
 
     /**
-     * Listens for incoming client connections and requests, dispatching them
-     * to the appropriate handlers.
+     * Waits for incoming client connections and hands them to the reactors,
+     * or for the reactors to report that tables have finished or players have left.
      *
      * @throws IOException if an I/O error occurs.
-     * @throws InterruptedException if interrupted while listening.
-     * @throws PlayerDisconnectedException if a client disconnects unexpectedly.
+     * @throws PlayerDisconnectedException if a table failed to disconnect a client.
      */
-    private void listenToClients() throws IOException, InterruptedException, PlayerDisconnectedException {
+    private void listenToClients() throws IOException, PlayerDisconnectedException {
         try {
             selector.select();
             Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
@@ -144,43 +298,68 @@ public class NonBlockingServer {
 
                 if (key.isValid() && key.isAcceptable()) {
                     acceptConnection();
-                } else if (key.isValid() && key.isReadable()) {
-                    handleClientRequest(key);
                 }
             }
         } catch (ClosedSelectorException e) {
             System.out.println("Selector has been closed. Server shutting down gracefully.");
         }
+        Runnable event;
+        while ((event = events.poll()) != null) {
+            event.run();
+        }
+        PlayerDisconnectedException e = failure;
+        if (e != null) {
+            failure = null;
+            throw e;
+        }
     }
 
     /**
-     * Accepts a new client connection, registering the client channel with the selector.
+     * Accepts a new client connection, seats it at a table and hands it to the reactor of the table.
+     * The connection is turned away when every table is full.
      *
      * @throws IOException if an I/O error occurs.
-     * @throws InterruptedException if interrupted while accepting connections.
      */
-    private void acceptConnection() throws IOException, InterruptedException {
+    private void acceptConnection() throws IOException {
         System.out.println("accepting connection");
         SocketChannel sc = serverSocketChannel.accept();
-        game.handleClientConnection(sc, selector);
+        if (sc == null) {
+            return;
+        }
+        Game table = tables.seat();
+        if (table != null) {
+            reactorOf(table).connect(table, sc, tables.isTableOpened() ? game : null);
+        } else {
+            String errorMessage = "All tables are full. Try again later.";
+            sc.write(ByteBuffer.wrap(errorMessage.getBytes()));
+            sc.shutdownOutput();
+            sc.close();
+        }
     }
 
     /**
-     * Handles a client request by reading data from the client channel and
-     * delegating the request to the game logic.
+     * Returns the reactor a table is pinned to, pinning it to the least loaded reactor on its first connection.
+     * Ties go to the reactor after the one chosen last, so idle reactors are used in turn.
      *
-     * @param key the {@link SelectionKey} representing the client channel.
-     * @throws PlayerDisconnectedException if the client disconnects unexpectedly.
-     */
-    private void handleClientRequest(SelectionKey key) throws PlayerDisconnectedException {
-        System.out.println("handling request");
-        SocketChannel clientChannel = (SocketChannel) key.channel();
-        ByteBuffer buffer = ByteBuffer.allocate(1024);
-        game.handleClientRequest(clientChannel, buffer, key);
+     * @param table The table.
+     * @return The reactor serving every connection of the table.
+     */
+    private Reactor reactorOf(Game table) {
+        return pinnedTables.computeIfAbsent(table, t -> {
+            int start = pinnedTables.size() % reactors.size();
+            Reactor best = reactors.get(start);
+            for (int i = 1; i < reactors.size(); i++) {
+                Reactor reactor = reactors.get((start + i) % reactors.size());
+                if (reactor.getLoad() < best.getLoad()) {
+                    best = reactor;
+                }
+            }
+            return best;
+        });
     }
 
     /**
-     * Stops the server by closing the selector and server socket channel.
+     * Stops the server by closing the selector, the server socket channel and the reactors.
      */
     public void stop() {
         setRunning(false);
@@ -190,6 +369,10 @@ public class NonBlockingServer {
         } catch (IOException e) {
             System.err.println("Error during server shutdown: " + e.getMessage());
         }
+        for (Reactor reactor : reactors) {
+            reactor.stop();
+        }
+        deckPool.close();
     }
 
     /**
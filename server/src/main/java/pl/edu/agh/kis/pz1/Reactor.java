@@ -0,0 +1,371 @@
+package pl.edu.agh.kis.pz1;
+
+import pl.edu.agh.kis.pz1.exceptions.PlayerDisconnectedException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * An I/O thread of the {@link NonBlockingServer} with its own {@link Selector}.
+ * <p>
+ * Every table is pinned to one reactor: the connections of its players are registered with the reactor's selector,
+ * and all of its game logic runs on the reactor's thread, so the state of a table is only ever touched by one thread
+ * and needs no locks. Other threads hand work to a reactor through {@link #execute(Runnable)}, which queues the task
+ * and wakes the selector up.
+ * <p>
+ * A reactor is also the {@link GameTimer} of its tables: their delayed steps go into a {@link HashedWheelTimer} whose
+ * next tick bounds every selection, so a table pausing between two steps never holds up the other tables.
+ * <p>
+ * A connection with output the socket did not take watches {@link SelectionKey#OP_WRITE}; the reactor hands it back to
+ * its table when it is writable, before reading it, so a slow client never blocks the thread.
+ * <p>
+ * A table failing unexpectedly, i.e. throwing a {@link RuntimeException}, is dropped: its connections are closed and
+ * it is reported as finished, while the reactor keeps serving its other tables.
+ */
+final class Reactor implements Runnable, GameTimer {
+
+    /**
+     * Receives the events of the tables of a reactor, on the reactor's thread.
+     */
+    interface Listener {
+
+        /**
+         * Called when a table has finished its game, i.e. its game server is no longer running.
+         *
+         * @param table The table.
+         */
+        void tableFinished(Game table);
+
+        /**
+         * Called when a connection of a table is closed, or when the table turned a new connection away.
+         *
+         * @param table The table.
+         */
+        void playerLeft(Game table);
+
+        /**
+         * Called when a table fails to disconnect a player.
+         *
+         * @param table The table.
+         * @param e The failure.
+         */
+        void tableFailed(Game table, PlayerDisconnectedException e);
+    }
+
+    /**
+     * The size of the buffer receiving client requests.
+     */
+    private static final int BUFFER_BYTES = 1024;
+
+    /**
+     * The selector of the connections of the tables pinned to this reactor.
+     */
+    private final Selector selector;
+
+    /**
+     * The tasks handed over by other threads, run by the reactor's thread between two selections.
+     */
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The buffer receiving client requests, reused for every read since reads never overlap on one thread.
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+
+    /**
+     * The wheel of the delayed steps of the tables.
+     */
+    private final HashedWheelTimer timer = new HashedWheelTimer();
+
+    /**
+     * The listener of the tables.
+     */
+    private final Listener listener;
+
+    /**
+     * The pool of decks shuffled in advance that opened tables get a lane in, or {@code null} to shuffle inline.
+     */
+    private final DeckPool deckPool;
+
+    /**
+     * The thread running the reactor.
+     */
+    private final Thread thread;
+
+    /**
+     * The number of connections registered with the selector at the last selection.
+     */
+    private volatile int load;
+
+    /**
+     * Flag indicating whether the reactor is running.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Constructs a reactor, without starting its thread.
+     *
+     * @param name The name of the thread.
+     * @param listener The listener of the tables.
+     * @throws IOException if the selector cannot be opened.
+     */
+    Reactor(String name, Listener listener) throws IOException {
+        this(name, listener, null);
+    }
+
+    /**
+     * Constructs a reactor giving the tables it opens a lane in a pool of decks, without starting its thread.
+     *
+     * @param name The name of the thread.
+     * @param listener The listener of the tables.
+     * @param deckPool The pool of decks shuffled in advance, or {@code null} to shuffle inline.
+     * @throws IOException if the selector cannot be opened.
+     */
+    Reactor(String name, Listener listener, DeckPool deckPool) throws IOException {
+        this.selector = Selector.open();
+        this.listener = listener;
+        this.deckPool = deckPool;
+        this.thread = new Thread(this, name);
+    }
+
+    /**
+     * Starts the reactor's thread.
+     */
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Runs a task on the reactor's thread.
+     *
+     * @param task The task.
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Schedules a delayed step of a table pinned to this reactor. Only called on the reactor's thread.
+     *
+     * @param table The table.
+     * @param delayMillis The delay in milliseconds.
+     * @param continuation The step.
+     */
+    @Override
+    public void schedule(Game table, long delayMillis, Continuation continuation) {
+        timer.schedule(delayMillis, () -> runStep(table, null, continuation));
+    }
+
+    /**
+     * Hands a new connection to a table pinned to this reactor; the table registers it with the reactor's selector.
+     * A table just opened is set up like the template and given a lane in the deck pool first.
+     *
+     * @param table The table.
+     * @param channel The accepted connection.
+     * @param template The table to set the table up like before the connection joins it, if it has just been opened,
+     *                 or {@code null}.
+     */
+    void connect(Game table, SocketChannel channel, Game template) {
+        execute(() -> {
+            table.setTimer(this);
+            try {
+                if (template != null) {
+                    table.setUpLike(template);
+                    if (deckPool != null) {
+                        table.useDeckPool(deckPool);
+                    }
+                }
+                table.handleClientConnection(channel, selector);
+            } catch (IOException e) {
+                System.err.println("Error connecting client: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                close(channel);
+                dropTable(table, e);
+                return;
+            }
+            SelectionKey key = channel.keyFor(selector);
+            if (key != null && key.isValid()) {
+                key.attach(table);
+            } else {
+                listener.playerLeft(table);
+            }
+        });
+    }
+
+    /**
+     * Returns the load of the reactor.
+     *
+     * @return The number of connections registered with its selector at the last selection.
+     */
+    int getLoad() {
+        return load;
+    }
+
+    /**
+     * Returns the thread running the reactor.
+     *
+     * @return The thread.
+     */
+    Thread getThread() {
+        return thread;
+    }
+
+    /**
+     * Selects and dispatches the ready connections and the due steps until the reactor is stopped.
+     */
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                // a table may have set the flag, e.g. after a failed read; it would make every selection return at once
+                Thread.interrupted();
+                long wait = timer.getMillisToNextTick();
+                if (wait < 0) {
+                    selector.select();
+                } else if (wait == 0) {
+                    selector.selectNow();
+                } else {
+                    selector.select(wait);
+                }
+                runTasks();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isWritable()) {
+                        handleClientWritable(key);
+                    }
+                    if (key.isValid() && key.isReadable()) {
+                        handleClientRequest(key);
+                    }
+                }
+                // every step on the wheel is run through runStep, which contains the failures of its table
+                timer.advance();
+                load = selector.keys().size();
+            }
+        } catch (ClosedSelectorException e) {
+            System.out.println(thread.getName() + " has been closed.");
+        } catch (IOException e) {
+            System.err.println(thread.getName() + " failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs the tasks handed over since the last selection.
+     */
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println(thread.getName() + " task failed: " + e);
+            }
+        }
+    }
+
+    /**
+     * Hands a connection that has become writable to its table, to write the output it has pending.
+     *
+     * @param key the {@link SelectionKey} representing the client channel.
+     */
+    private void handleClientWritable(SelectionKey key) {
+        Game table = (Game) key.attachment();
+        try {
+            table.handleClientWritable(key);
+        } catch (RuntimeException e) {
+            dropTable(table, e);
+        }
+    }
+
+    /**
+     * Passes a client request to the table of the connection, and reports the table when it finishes its game
+     * or the connection is closed.
+     *
+     * @param key the {@link SelectionKey} representing the client channel.
+     */
+    private void handleClientRequest(SelectionKey key) {
+        Game table = (Game) key.attachment();
+        buffer.clear();
+        runStep(table, key, () -> table.handleClientRequest((SocketChannel) key.channel(), buffer, key));
+    }
+
+    /**
+     * Runs a step of a table, and reports the table when the step finishes its game or closes the connection.
+     *
+     * @param table The table.
+     * @param key The connection the step serves, or {@code null} for a delayed step.
+     * @param step The step.
+     */
+    private void runStep(Game table, SelectionKey key, Continuation step) {
+        boolean wasRunning = table.isGameServerRunning();
+        try {
+            step.run();
+        } catch (IOException e) {
+            System.err.println("Error messaging players: " + e.getMessage());
+        } catch (PlayerDisconnectedException e) {
+            listener.tableFailed(table, e);
+        } catch (RuntimeException e) {
+            dropTable(table, e);
+            return;
+        }
+        if (wasRunning && !table.isGameServerRunning()) {
+            listener.tableFinished(table);
+        } else if (key != null && !key.isValid()) {
+            listener.playerLeft(table);
+        }
+    }
+
+    /**
+     * Drops a table that failed unexpectedly: closes its connections and reports it as finished, so that it is
+     * recycled. Delayed steps it still has on the wheel belong to the hand that failed and are ignored by the table.
+     *
+     * @param table The table.
+     * @param e The failure.
+     */
+    private void dropTable(Game table, RuntimeException e) {
+        System.err.println("Dropping a table after an unexpected error: " + e);
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() == table) {
+                close(key.channel());
+            }
+        }
+        listener.tableFinished(table);
+    }
+
+    /**
+     * Closes a connection, which also cancels its keys.
+     *
+     * @param channel The connection.
+     */
+    private static void close(Channel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing client channel: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the reactor by closing its selector, which also deregisters its connections.
+     */
+    void stop() {
+        running = false;
+        try {
+            selector.close();
+        } catch (IOException e) {
+            System.err.println("Error closing " + thread.getName() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package pl.edu.agh.kis.pz1;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Hosts any number of tables of one game in a {@link NonBlockingServer}.
+ * <p>
+ * New connections are seated at the open table until it is full, as many as the template table configured by the
+ * administrator has players; the next connection then opens another table, taken from the idle tables or created by
+ * the factory. A full table has started its game and is never seated at again, even when players leave it. A table
+ * whose game has finished, or whose players have all left, is retired, and once
+ * {@linkplain #release released} it is kept idle for reuse, up to a bound, so a busy server does not keep allocating
+ * tables.
+ * <p>
+ * The manager never touches the state of a table, which belongs to the thread serving it: the server resets a retired
+ * table and sets up an opened one like the template on that thread ({@link Game#resetGame()},
+ * {@link Game#setUpLike(Game)}), and releases a retired table only once it has been reset.
+ * <p>
+ * Memory is bounded by the maximum numbers of live and idle tables, and measured: the bytes allocated to create each
+ * table are sampled, so the manager reports the footprint of its tables. The manager is only used by the acceptor
+ * thread and is not thread-safe.
+ */
+public class TableManager {
+
+    /**
+     * The factory creating new tables.
+     */
+    private final Supplier<? extends Game> factory;
+
+    /**
+     * The table configured by the administrator, whose settings every table copies.
+     */
+    private final Game template;
+
+    /**
+     * The maximum number of tables with players.
+     */
+    private final int maxTables;
+
+    /**
+     * The maximum number of idle tables kept for reuse.
+     */
+    private final int maxIdleTables;
+
+    /**
+     * The number of connections seated at each table with players.
+     */
+    private final Map<Game, Integer> seated = new IdentityHashMap<>();
+
+    /**
+     * The reset tables waiting to be reused.
+     */
+    private final Deque<Game> idle = new ArrayDeque<>();
+
+    /**
+     * The table new connections are seated at, or {@code null} if none has free seats.
+     */
+    private Game open;
+
+    /**
+     * Flag indicating whether the last {@link #seat()} opened a table, which needs to be set up like the template.
+     */
+    private boolean tableOpened;
+
+    /**
+     * The number of tables created by the factory.
+     */
+    private long created;
+
+    /**
+     * The number of tables taken from the idle tables.
+     */
+    private long reused;
+
+    /**
+     * The number of connections turned away because every table was full.
+     */
+    private long rejected;
+
+    /**
+     * The bytes allocated to create the tables, for the tables whose allocation could be measured.
+     */
+    private long allocatedBytes;
+
+    /**
+     * The number of tables whose allocation was measured.
+     */
+    private long measured;
+
+    /**
+     * Constructs a manager.
+     *
+     * @param factory The factory creating new tables of the game.
+     * @param template The table configured by the administrator, whose settings every table copies.
+     * @param maxTables The maximum number of tables with players, at least 1.
+     * @param maxIdleTables The maximum number of idle tables kept for reuse.
+     */
+    public TableManager(Supplier<? extends Game> factory, Game template, int maxTables, int maxIdleTables) {
+        if (maxTables < 1 || maxIdleTables < 0) {
+            throw new IllegalArgumentException("Invalid limits of " + maxTables + " tables and "
+                    + maxIdleTables + " idle tables");
+        }
+        this.factory = factory;
+        this.template = template;
+        this.maxTables = maxTables;
+        this.maxIdleTables = maxIdleTables;
+    }
+
+    /**
+     * Chooses the table of a new connection and counts the connection as seated there.
+     *
+     * @return The table, or {@code null} if every table is full and no other table can be opened.
+     */
+    public Game seat() {
+        tableOpened = false;
+        if (open == null) {
+            if (seated.size() >= maxTables) {
+                rejected++;
+                return null;
+            }
+            open = idle.isEmpty() ? create() : reuse();
+            seated.put(open, 0);
+            tableOpened = true;
+        }
+        Game table = open;
+        int count = seated.merge(table, 1, Integer::sum);
+        if (count >= template.getMaxPlayers()) {
+            // the game starts once the table is full, so nobody else may join it
+            open = null;
+        }
+        return table;
+    }
+
+    /**
+     * Checks whether the last {@link #seat()} opened the table it returned, which must then be set up like the template
+     * before the connection joins it.
+     *
+     * @return Whether the table was opened.
+     */
+    public boolean isTableOpened() {
+        return tableOpened;
+    }
+
+    /**
+     * Frees the seat of a connection that left its table, or was turned away by the table itself.
+     * A table all of whose players have left is retired; a full one is not seated at again before that.
+     *
+     * @param table The table.
+     * @return Whether the table was retired, and must be reset and {@linkplain #release released}.
+     */
+    public boolean leave(Game table) {
+        Integer count = seated.get(table);
+        if (count == null) {
+            return false;
+        }
+        if (count > 1) {
+            seated.put(table, count - 1);
+            return false;
+        }
+        retire(table);
+        return true;
+    }
+
+    /**
+     * Retires a table whose game has finished.
+     *
+     * @param table The table.
+     * @return Whether the table was retired, and must be reset and {@linkplain #release released}.
+     */
+    public boolean finish(Game table) {
+        if (!seated.containsKey(table)) {
+            return false;
+        }
+        retire(table);
+        return true;
+    }
+
+    /**
+     * Removes a table from the tables with players.
+     *
+     * @param table The table.
+     */
+    private void retire(Game table) {
+        seated.remove(table);
+        if (table == open) {
+            open = null;
+        }
+    }
+
+    /**
+     * Keeps a retired table for reuse if there is room, once it has been reset.
+     *
+     * @param table The table.
+     * @return Whether the table is kept.
+     */
+    public boolean release(Game table) {
+        if (idle.size() >= maxIdleTables) {
+            return false;
+        }
+        idle.push(table);
+        return true;
+    }
+
+    /**
+     * Creates a new table and measures the bytes allocated for it.
+     *
+     * @return The table.
+     */
+    private Game create() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long before = allocatedBytes(threads);
+        Game table = factory.get();
+        long after = allocatedBytes(threads);
+        if (before >= 0 && after >= before) {
+            allocatedBytes += after - before;
+            measured++;
+        }
+        created++;
+        return table;
+    }
+
+    /**
+     * Takes an idle table.
+     *
+     * @return The table, reset.
+     */
+    private Game reuse() {
+        Game table = idle.pop();
+        reused++;
+        return table;
+    }
+
+    /**
+     * Returns the bytes allocated so far by the current thread, if the JVM can measure it.
+     *
+     * @param threads The thread management bean.
+     * @return The allocated bytes, or -1 if they cannot be measured.
+     */
+    private static long allocatedBytes(ThreadMXBean threads) {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threads;
+            if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                return bean.getCurrentThreadAllocatedBytes();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether a table has players, i.e. has been seated at and not retired since.
+     *
+     * @param table The table.
+     * @return Whether the table is live.
+     */
+    public boolean isLive(Game table) {
+        return seated.containsKey(table);
+    }
+
+    /**
+     * Returns the template table.
+     *
+     * @return The table configured by the administrator.
+     */
+    public Game getTemplate() {
+        return template;
+    }
+
+    /**
+     * Returns the number of tables with players, including the open one.
+     *
+     * @return The number of live tables.
+     */
+    public int getLiveTables() {
+        return seated.size();
+    }
+
+    /**
+     * Returns the number of idle tables kept for reuse.
+     *
+     * @return The number of idle tables.
+     */
+    public int getIdleTables() {
+        return idle.size();
+    }
+
+    /**
+     * Returns the number of tables created by the factory.
+     *
+     * @return The number of created tables.
+     */
+    public long getCreatedTables() {
+        return created;
+    }
+
+    /**
+     * Returns the number of times an idle table was reused instead of creating one.
+     *
+     * @return The number of reused tables.
+     */
+    public long getReusedTables() {
+        return reused;
+    }
+
+    /**
+     * Returns the number of connections turned away because every table was full.
+     *
+     * @return The number of rejected connections.
+     */
+    public long getRejectedConnections() {
+        return rejected;
+    }
+
+    /**
+     * Returns the average number of bytes allocated to create a table.
+     *
+     * @return The bytes per table, or -1 if the JVM cannot measure allocations or no table has been created.
+     */
+    public long getBytesPerTable() {
+        return measured == 0 ? -1 : allocatedBytes / measured;
+    }
+
+    /**
+     * Estimates the memory held by the tables of the manager, live and idle, before any players join.
+     *
+     * @return The estimated bytes, or -1 if they cannot be measured.
+     */
+    public long getEstimatedBytes() {
+        long perTable = getBytesPerTable();
+        return perTable < 0 ? -1 : perTable * (seated.size() + idle.size());
+    }
+
+    /**
+     * Describes the tables for a log line.
+     *
+     * @return The numbers of tables, connections turned away and the memory estimate.
+     */
+    @Override
+    public String toString() {
+        return "Tables: " + seated.size() + " live (max " + maxTables + "), " + idle.size() + " idle (max "
+                + maxIdleTables + "), " + created + " created, " + reused + " reused, " + rejected
+                + " connections rejected, about " + getBytesPerTable() + " bytes per table, "
+                + getEstimatedBytes() + " bytes in total";
+    }
+}
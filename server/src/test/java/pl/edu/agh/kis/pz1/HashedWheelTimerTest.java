@@ -0,0 +1,112 @@
+package pl.edu.agh.kis.pz1;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedWheelTimerTest {
+    private long now = 1_000;
+    private final HashedWheelTimer timer = new HashedWheelTimer(10, 8, () -> now);
+
+    @Test
+    void testTasksRunAtTheirTick() {
+        List<String> runs = new ArrayList<>();
+        timer.schedule(25, () -> runs.add("25"));
+        timer.schedule(10, () -> runs.add("10"));
+        assertEquals(2, timer.size());
+        assertEquals(10, timer.getMillisToNextTick());
+        now += 9;
+        assertEquals(0, timer.advance());
+        now += 1;
+        assertEquals(1, timer.advance());
+        assertEquals(List.of("10"), runs);
+        now += 10;
+        assertEquals(0, timer.advance());
+        now += 10;
+        assertEquals(1, timer.advance());
+        assertEquals(List.of("10", "25"), runs);
+        assertEquals(-1, timer.getMillisToNextTick());
+    }
+
+    @Test
+    void testTasksBeyondOneTurnWaitForTheirRound() {
+        List<Long> runs = new ArrayList<>();
+        // 8 buckets of 10 ms: 250 ms is three turns ahead, in the same bucket as 10 ms
+        timer.schedule(250, () -> runs.add(now));
+        timer.schedule(10, () -> runs.add(now));
+        for (int i = 0; i < 30; i++) {
+            now += 10;
+            timer.advance();
+        }
+        assertEquals(List.of(1_010L, 1_250L), runs);
+    }
+
+    @Test
+    void testTaskWithoutDelayRunsAtNextTick() {
+        List<String> runs = new ArrayList<>();
+        timer.schedule(0, () -> runs.add("now"));
+        assertEquals(0, timer.advance());
+        now += 10;
+        assertEquals(1, timer.advance());
+        assertEquals(List.of("now"), runs);
+    }
+
+    @Test
+    void testIdleWheelSkipsTicks() {
+        now += 1_000_000;
+        List<Long> runs = new ArrayList<>();
+        timer.schedule(20, () -> runs.add(now));
+        now += 20;
+        assertEquals(1, timer.advance());
+        assertEquals(List.of(1_001_020L), runs);
+    }
+
+    @Test
+    void testLateAdvanceRunsChainedTasks() {
+        List<String> runs = new ArrayList<>();
+        timer.schedule(10, () -> {
+            runs.add("first");
+            timer.schedule(0, () -> runs.add("second"));
+            timer.schedule(10, () -> runs.add("third"));
+        });
+        now += 100;
+        assertEquals(2, timer.advance());
+        assertEquals(List.of("first", "second"), runs);
+        now += 10;
+        assertEquals(1, timer.advance());
+        assertEquals(List.of("first", "second", "third"), runs);
+    }
+
+    @Test
+    void testOneThreadPacesThousandsOfTables() {
+        HashedWheelTimer wheel = new HashedWheelTimer(HashedWheelTimer.DEFAULT_TICK_MILLIS,
+                HashedWheelTimer.DEFAULT_BUCKETS, () -> now);
+        int tables = 10_000;
+        int[] steps = new int[tables];
+        for (int t = 0; t < tables; t++) {
+            int table = t;
+            // the pauses of a poker hand: deal, bets, then one action, started 1 ms apart
+            now++;
+            wheel.schedule(2000, () -> {
+                steps[table]++;
+                wheel.schedule(1500, () -> {
+                    steps[table]++;
+                    wheel.schedule(500, () -> steps[table]++);
+                });
+            });
+        }
+        int run = 0;
+        for (int i = 0; i < 2_000 && wheel.size() > 0; i++) {
+            now += HashedWheelTimer.DEFAULT_TICK_MILLIS;
+            run += wheel.advance();
+        }
+        assertEquals(3 * tables, run);
+        for (int step : steps) {
+            assertEquals(3, step);
+        }
+        assertEquals(0, wheel.size());
+    }
+}
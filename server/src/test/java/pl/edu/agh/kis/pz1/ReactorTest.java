@@ -0,0 +1,284 @@
+package pl.edu.agh.kis.pz1;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.edu.agh.kis.pz1.exceptions.PlayerDisconnectedException;
+import pl.edu.agh.kis.pz1.util.PokerMessenger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactorTest {
+    private Reactor reactor;
+    private ServerSocketChannel server;
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private final CountDownLatch left = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        reactor = new Reactor("reactor-test", new Reactor.Listener() {
+            @Override
+            public void tableFinished(Game table) {
+                finished.countDown();
+            }
+
+            @Override
+            public void playerLeft(Game table) {
+                left.countDown();
+            }
+
+            @Override
+            public void tableFailed(Game table, PlayerDisconnectedException e) {
+                fail(e);
+            }
+        }, new DeckPool());
+        reactor.start();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress("localhost", 0));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        reactor.stop();
+        server.close();
+    }
+
+    /**
+     * A table recording the threads it runs on, which finishes its game on the request "quit".
+     */
+    static final class RecordingTable extends Game {
+        private final List<Thread> threads = new CopyOnWriteArrayList<>();
+        private final CountDownLatch requests = new CountDownLatch(1);
+
+        @Override
+        public void setUpLike(Game template) {
+            threads.add(Thread.currentThread());
+        }
+
+        @Override
+        public void useDeckPool(DeckPool pool) {
+            threads.add(Thread.currentThread());
+        }
+
+        @Override
+        public void handleClientConnection(SocketChannel sc, Selector selector) throws IOException {
+            threads.add(Thread.currentThread());
+            sc.configureBlocking(false);
+            sc.register(selector, SelectionKey.OP_READ);
+            setGameServerRunning(true);
+        }
+
+        @Override
+        public void handleClientRequest(SocketChannel clientChannel, ByteBuffer buffer, SelectionKey key) {
+            threads.add(Thread.currentThread());
+            try {
+                if (clientChannel.read(buffer) == -1) {
+                    clientChannel.close();
+                    return;
+                }
+            } catch (IOException e) {
+                fail(e);
+            }
+            if (new String(buffer.array(), 0, buffer.position()).equals("quit")) {
+                setGameServerRunning(false);
+            }
+            requests.countDown();
+        }
+    }
+
+    /**
+     * A table sending a large message, then a short one, to each client as it connects.
+     */
+    static final class MessagingTable extends Game {
+        private final PokerMessenger messenger;
+        private final String message;
+
+        MessagingTable() {
+            this(new PokerMessenger(), "");
+        }
+
+        MessagingTable(PokerMessenger messenger, String message) {
+            this.messenger = messenger;
+            this.message = message;
+        }
+
+        @Override
+        public void handleClientConnection(SocketChannel sc, Selector selector) throws IOException {
+            sc.configureBlocking(false);
+            SelectionKey key = sc.register(selector, SelectionKey.OP_READ);
+            messenger.register(key);
+            messenger.sendResponse(sc, message);
+            messenger.sendResponse(sc, "end");
+        }
+
+        @Override
+        public void handleClientRequest(SocketChannel clientChannel, ByteBuffer buffer, SelectionKey key) {
+            try {
+                if (clientChannel.read(buffer) == -1) {
+                    messenger.unregister(key);
+                    clientChannel.close();
+                }
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        @Override
+        public void handleClientWritable(SelectionKey key) {
+            messenger.flush(key);
+        }
+    }
+
+    @Test
+    void testLargeOutputIsWrittenWhenClientReads() throws Exception {
+        char[] chars = new char[4 * 1024 * 1024];
+        Arrays.fill(chars, 'x');
+        String message = new String(chars);
+        MessagingTable table = new MessagingTable(
+                new PokerMessenger(2 * message.length(), PokerMessenger.SlowClientPolicy.DISCONNECT), message);
+        try (SocketChannel client = SocketChannel.open(server.getLocalAddress())) {
+            reactor.connect(table, server.accept(), null);
+            // the reactor keeps serving other connections while this one is behind
+            RecordingTable other = new RecordingTable();
+            try (SocketChannel second = SocketChannel.open(server.getLocalAddress())) {
+                reactor.connect(other, server.accept(), null);
+                second.write(ByteBuffer.wrap("hello".getBytes()));
+                assertTrue(other.requests.await(5, TimeUnit.SECONDS));
+            }
+            ByteBuffer received = ByteBuffer.allocate(message.length() + 3);
+            while (received.hasRemaining() && client.read(received) >= 0) {
+                // reads until the whole output has arrived
+            }
+            assertFalse(received.hasRemaining());
+            assertEquals(message + "end", new String(received.array()));
+        }
+    }
+
+    @Test
+    void testSlowClientIsDisconnected() throws Exception {
+        char[] chars = new char[4 * 1024 * 1024];
+        Arrays.fill(chars, 'x');
+        MessagingTable table = new MessagingTable(new PokerMessenger(2, PokerMessenger.SlowClientPolicy.DISCONNECT),
+                new String(chars));
+        try (SocketChannel client = SocketChannel.open(server.getLocalAddress())) {
+            reactor.connect(table, server.accept(), null);
+            assertTrue(left.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * A table failing on every request, after setting the interrupt flag of its thread as a failed read of
+     * {@link Poker} does.
+     */
+    static final class FailingTable extends Game {
+        @Override
+        public void handleClientConnection(SocketChannel sc, Selector selector) throws IOException {
+            sc.configureBlocking(false);
+            sc.register(selector, SelectionKey.OP_READ);
+            setGameServerRunning(true);
+        }
+
+        @Override
+        public void handleClientRequest(SocketChannel clientChannel, ByteBuffer buffer, SelectionKey key) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("broken table");
+        }
+    }
+
+    @Test
+    void testFailingTableIsDroppedAndOthersAreServed() throws Exception {
+        FailingTable failing = new FailingTable();
+        RecordingTable other = new RecordingTable();
+        try (SocketChannel first = SocketChannel.open(server.getLocalAddress());
+             SocketChannel second = SocketChannel.open(server.getLocalAddress())) {
+            reactor.connect(failing, server.accept(), null);
+            reactor.connect(other, server.accept(), null);
+            first.write(ByteBuffer.wrap("boom".getBytes()));
+            assertTrue(finished.await(5, TimeUnit.SECONDS));
+            assertEquals(-1, first.read(ByteBuffer.allocate(16)));
+            second.write(ByteBuffer.wrap("hello".getBytes()));
+            assertTrue(other.requests.await(5, TimeUnit.SECONDS));
+            assertTrue(reactor.getThread().isAlive());
+            assertFalse(reactor.getThread().isInterrupted());
+        }
+    }
+
+    @Test
+    void testTableRunsOnReactorThread() throws Exception {
+        RecordingTable table = new RecordingTable();
+        try (SocketChannel client = SocketChannel.open(server.getLocalAddress())) {
+            reactor.connect(table, server.accept(), new RecordingTable());
+            client.write(ByteBuffer.wrap("quit".getBytes()));
+            assertTrue(table.requests.await(5, TimeUnit.SECONDS));
+            assertTrue(finished.await(5, TimeUnit.SECONDS));
+            assertEquals(4, table.threads.size());
+        }
+        for (Thread thread : table.threads) {
+            assertSame(reactor.getThread(), thread);
+        }
+    }
+
+    @Test
+    void testLoadCountsConnections() throws Exception {
+        RecordingTable table = new RecordingTable();
+        try (SocketChannel first = SocketChannel.open(server.getLocalAddress());
+             SocketChannel second = SocketChannel.open(server.getLocalAddress())) {
+            reactor.connect(table, server.accept(), null);
+            reactor.connect(table, server.accept(), null);
+            // the load is taken at the end of the selection running the tasks
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (reactor.getLoad() != 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(2, reactor.getLoad());
+            assertTrue(first.isConnected() && second.isConnected());
+        }
+    }
+
+    @Test
+    void testClosedConnectionIsReported() throws Exception {
+        RecordingTable table = new RecordingTable();
+        try (SocketChannel client = SocketChannel.open(server.getLocalAddress())) {
+            reactor.connect(table, server.accept(), null);
+        }
+        assertTrue(left.await(5, TimeUnit.SECONDS));
+        assertEquals(1, finished.getCount());
+    }
+
+    @Test
+    void testDelayedStepDoesNotBlockOtherTables() throws Exception {
+        RecordingTable paced = new RecordingTable();
+        RecordingTable other = new RecordingTable();
+        CountDownLatch stepped = new CountDownLatch(1);
+        try (SocketChannel first = SocketChannel.open(server.getLocalAddress());
+             SocketChannel second = SocketChannel.open(server.getLocalAddress())) {
+            reactor.connect(paced, server.accept(), null);
+            reactor.connect(other, server.accept(), null);
+            long start = System.nanoTime();
+            reactor.execute(() -> reactor.schedule(paced, 300, () -> {
+                paced.threads.add(Thread.currentThread());
+                stepped.countDown();
+            }));
+            second.write(ByteBuffer.wrap("hello".getBytes()));
+            assertTrue(other.requests.await(5, TimeUnit.SECONDS));
+            assertEquals(1, stepped.getCount());
+            assertTrue(stepped.await(5, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(300));
+            assertSame(reactor, paced.getTimer());
+            assertSame(reactor.getThread(), paced.threads.get(1));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package pl.edu.agh.kis.pz1;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableManagerTest {
+    private Poker template;
+
+    @BeforeEach
+    void setUp() {
+        template = new Poker();
+        template.setMaxPlayers(2);
+        template.setAnte(10);
+    }
+
+    @Test
+    void testSeatsFillTablesInTurn() {
+        TableManager tables = new TableManager(Poker::new, template, 10, 10);
+        Game first = tables.seat();
+        assertTrue(tables.isTableOpened());
+        assertSame(first, tables.seat());
+        assertFalse(tables.isTableOpened());
+        Game second = tables.seat();
+        assertTrue(tables.isTableOpened());
+        assertNotSame(first, second);
+        assertEquals(2, tables.getLiveTables());
+        // the table is set up like the template by the thread serving it, not by the manager
+        assertEquals(0, second.getMaxPlayers());
+    }
+
+    @Test
+    void testFinishedTableIsReusedOnceReleased() {
+        TableManager tables = new TableManager(Poker::new, template, 10, 10);
+        Poker first = (Poker) tables.seat();
+        tables.seat();
+        assertTrue(tables.finish(first));
+        assertFalse(tables.finish(first));
+        assertFalse(tables.isLive(first));
+        assertEquals(0, tables.getIdleTables());
+        assertNotSame(first, tables.seat());
+        assertTrue(tables.release(first));
+        assertEquals(1, tables.getIdleTables());
+        tables.seat();
+        assertSame(first, tables.seat());
+        assertTrue(tables.isTableOpened());
+        assertEquals(2, tables.getCreatedTables());
+        assertEquals(1, tables.getReusedTables());
+    }
+
+    @Test
+    void testAbandonedTableIsRetired() {
+        TableManager tables = new TableManager(Poker::new, template, 10, 0);
+        Game full = tables.seat();
+        tables.seat();
+        Game open = tables.seat();
+        assertFalse(tables.leave(full));
+        assertTrue(tables.isLive(full));
+        assertTrue(tables.leave(full));
+        assertFalse(tables.isLive(full));
+        assertFalse(tables.release(full));
+        assertTrue(tables.leave(open));
+        assertFalse(tables.isLive(open));
+        assertNotSame(open, tables.seat());
+        assertEquals(0, tables.getIdleTables());
+    }
+
+    @Test
+    void testFullTableIsNotSeatedAtAfterAPlayerLeaves() {
+        TableManager tables = new TableManager(Poker::new, template, 10, 10);
+        Game full = tables.seat();
+        tables.seat();
+        assertFalse(tables.leave(full));
+        Game next = tables.seat();
+        assertNotSame(full, next);
+        assertTrue(tables.isTableOpened());
+        assertTrue(tables.isLive(full));
+        assertTrue(tables.leave(full));
+        assertFalse(tables.isLive(full));
+        assertSame(next, tables.seat());
+    }
+
+    @Test
+    void testConnectionsBeyondMaxTablesAreRejected() {
+        TableManager tables = new TableManager(Poker::new, template, 1, 1);
+        assertNotNull(tables.seat());
+        assertNotNull(tables.seat());
+        assertNull(tables.seat());
+        assertEquals(1, tables.getRejectedConnections());
+    }
+
+    @Test
+    void testTensOfThousandsOfTables() {
+        int count = 20_000;
+        TableManager tables = new TableManager(Poker::new, template, count, 1024);
+        for (int i = 0; i < 2 * count; i++) {
+            assertNotNull(tables.seat());
+        }
+        assertNull(tables.seat());
+        assertEquals(count, tables.getLiveTables());
+        long perTable = tables.getBytesPerTable();
+        if (perTable >= 0) {
+            assertTrue(perTable > 0 && perTable < 64 * 1024, "bytes per table: " + perTable);
+            assertEquals(perTable * count, tables.getEstimatedBytes());
+        }
+    }
+}
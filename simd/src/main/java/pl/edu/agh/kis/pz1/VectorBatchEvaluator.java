@@ -0,0 +1,160 @@
+package pl.edu.agh.kis.pz1;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Batch evaluator scoring as many hands per step as fit in a SIMD register, using {@code jdk.incubator.vector}.
+ * <p>
+ * Each step performs the lookups of {@link FiveCardEvaluator} for a whole vector of hands at once:
+ * the per-card rank keys are gathered from the card columns and summed, the rank and suit bits are
+ * computed lane-wise, then the flush and rank-pattern tables are gathered with the combined values
+ * as indexes and blended by the flush mask. Hands left over after the last full vector are scored one by one,
+ * so the scores are exactly those of the scalar evaluator.
+ * <p>
+ * The JVM must run with {@code --add-modules jdk.incubator.vector}. {@link BatchEvaluator#create()} returns it only
+ * when {@link BatchEvaluator#VECTOR_PROPERTY} is {@code true}, and falls back to {@link ScalarBatchEvaluator} otherwise.
+ */
+public final class VectorBatchEvaluator implements BatchEvaluator {
+
+    /** The vector shape used for all lanes, the widest one supported by the CPU. */
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    /** The vector with 1 in every lane. */
+    private static final IntVector ONE = IntVector.broadcast(SPECIES, 1);
+
+    /** The number of {@link CardSet} hands unpacked into columns at a time. */
+    private static final int CHUNK = 1024;
+
+    /** Per-thread buffers: five card columns and the scores of {@link #CHUNK} hands, and two vectors of table indexes. */
+    private static final ThreadLocal<int[][]> SCRATCH = ThreadLocal.withInitial(() -> new int[][]{
+            new int[CHUNK], new int[CHUNK], new int[CHUNK], new int[CHUNK], new int[CHUNK], new int[CHUNK],
+            new int[SPECIES.length()], new int[SPECIES.length()]});
+
+    /**
+     * Returns the number of hands evaluated by one vector step.
+     *
+     * @return The number of lanes.
+     */
+    public int getLanes() {
+        return SPECIES.length();
+    }
+
+    /**
+     * Evaluates a batch of hands stored column by column.
+     *
+     * @param c0 The indexes of the first cards.
+     * @param c1 The indexes of the second cards.
+     * @param c2 The indexes of the third cards.
+     * @param c3 The indexes of the fourth cards.
+     * @param c4 The indexes of the fifth cards.
+     * @param scores The array receiving the score of each hand.
+     * @param count The number of hands to evaluate.
+     */
+    @Override
+    public void evaluate(int[] c0, int[] c1, int[] c2, int[] c3, int[] c4, int[] scores, int count) {
+        int[][] scratch = SCRATCH.get();
+        int[] keys = scratch[6];
+        int[] ranks = scratch[7];
+        int bound = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            IntVector key = gather(FiveCardEvaluator.CARD_KEY, c0, i)
+                    .add(gather(FiveCardEvaluator.CARD_KEY, c1, i))
+                    .add(gather(FiveCardEvaluator.CARD_KEY, c2, i))
+                    .add(gather(FiveCardEvaluator.CARD_KEY, c3, i))
+                    .add(gather(FiveCardEvaluator.CARD_KEY, c4, i));
+            IntVector v0 = IntVector.fromArray(SPECIES, c0, i);
+            IntVector v1 = IntVector.fromArray(SPECIES, c1, i);
+            IntVector v2 = IntVector.fromArray(SPECIES, c2, i);
+            IntVector v3 = IntVector.fromArray(SPECIES, c3, i);
+            IntVector v4 = IntVector.fromArray(SPECIES, c4, i);
+            IntVector rank = rankBit(v0).or(rankBit(v1)).or(rankBit(v2)).or(rankBit(v3)).or(rankBit(v4));
+            IntVector suit = suitBit(v0).and(suitBit(v1)).and(suitBit(v2)).and(suitBit(v3)).and(suitBit(v4));
+
+            key.intoArray(keys, 0);
+            IntVector score = IntVector.fromArray(SPECIES, FiveCardEvaluator.PATTERN, 0, keys, 0);
+            VectorMask<Integer> suited = suit.compare(VectorOperators.NE, 0);
+            if (suited.anyTrue()) {
+                rank.intoArray(ranks, 0);
+                IntVector flush = IntVector.fromArray(SPECIES, FiveCardEvaluator.FLUSH, 0, ranks, 0);
+                score = score.blend(flush, suited.and(flush.compare(VectorOperators.NE, 0)));
+            }
+            score.intoArray(scores, i);
+        }
+        for (; i < count; i++) {
+            scores[i] = FiveCardEvaluator.evaluate(c0[i], c1[i], c2[i], c3[i], c4[i]);
+        }
+    }
+
+    /**
+     * Evaluates a batch of hands, each given as a set of exactly five cards.
+     * The sets are unpacked into card columns in chunks and evaluated column by column.
+     *
+     * @param cardSets The {@link CardSet} of each hand.
+     * @param scores The array receiving the score of each hand.
+     * @param count The number of hands to evaluate.
+     */
+    @Override
+    public void evaluate(long[] cardSets, int[] scores, int count) {
+        int[][] columns = SCRATCH.get();
+        int[] chunkScores = columns[5];
+        for (int from = 0; from < count; from += CHUNK) {
+            int size = Math.min(CHUNK, count - from);
+            for (int i = 0; i < size; i++) {
+                long rest = cardSets[from + i];
+                for (int column = 0; column < 5; column++) {
+                    columns[column][i] = Long.numberOfTrailingZeros(rest);
+                    rest &= rest - 1;
+                }
+            }
+            evaluate(columns[0], columns[1], columns[2], columns[3], columns[4], chunkScores, size);
+            System.arraycopy(chunkScores, 0, scores, from, size);
+        }
+    }
+
+    /**
+     * Computes the suit of every lane without division: {@code card * 79 >> 10} equals {@code card / 13} for cards 0-51.
+     *
+     * @param cards The vector of card indexes.
+     * @return The vector of suits.
+     */
+    private static IntVector suit(IntVector cards) {
+        return cards.mul(79).lanewise(VectorOperators.ASHR, 10);
+    }
+
+    /**
+     * Computes the rank bit ({@code 1 << rank}) of every lane.
+     *
+     * @param cards The vector of card indexes.
+     * @return The vector of rank bits.
+     */
+    private static IntVector rankBit(IntVector cards) {
+        IntVector rank = cards.sub(suit(cards).mul(FiveCardEvaluator.RANKS));
+        return ONE.lanewise(VectorOperators.LSHL, rank);
+    }
+
+    /**
+     * Computes the suit bit ({@code 1 << suit}) of every lane.
+     *
+     * @param cards The vector of card indexes.
+     * @return The vector of suit bits.
+     */
+    private static IntVector suitBit(IntVector cards) {
+        return ONE.lanewise(VectorOperators.LSHL, suit(cards));
+    }
+
+    /**
+     * Reads one table entry per lane, using a column of card indexes as the positions.
+     *
+     * @param table The per-card table.
+     * @param cards The column of card indexes.
+     * @param offset The position of the first hand of the vector in the column.
+     * @return The vector of table entries.
+     */
+    private static IntVector gather(int[] table, int[] cards, int offset) {
+        return IntVector.fromArray(SPECIES, table, 0, cards, offset);
+    }
+}
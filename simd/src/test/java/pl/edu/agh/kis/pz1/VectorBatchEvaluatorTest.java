@@ -0,0 +1,65 @@
+package pl.edu.agh.kis.pz1;
+
+import junit.framework.TestCase;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+public class VectorBatchEvaluatorTest extends TestCase {
+
+    @Test
+    public void testCreatePicksVectorImplementationOnlyWhenOptedIn() {
+        assertTrue(BatchEvaluator.create() instanceof ScalarBatchEvaluator);
+        System.setProperty(BatchEvaluator.VECTOR_PROPERTY, "true");
+        try {
+            assertTrue(BatchEvaluator.create() instanceof VectorBatchEvaluator);
+        } finally {
+            System.clearProperty(BatchEvaluator.VECTOR_PROPERTY);
+        }
+    }
+
+    @Test
+    public void testAllHandsMatchScalarEvaluator() {
+        int[][] columns = new int[5][RankTable.HANDS];
+        int n = 0;
+        for (int e = 4; e < 52; e++) {
+            for (int d = 3; d < e; d++) {
+                for (int c = 2; c < d; c++) {
+                    for (int b = 1; b < c; b++) {
+                        for (int a = 0; a < b; a++) {
+                            columns[0][n] = e;
+                            columns[1][n] = a;
+                            columns[2][n] = c;
+                            columns[3][n] = b;
+                            columns[4][n++] = d;
+                        }
+                    }
+                }
+            }
+        }
+        int[] vector = new int[n];
+        int[] scalar = new int[n];
+        new VectorBatchEvaluator().evaluate(columns[0], columns[1], columns[2], columns[3], columns[4], vector, n);
+        new ScalarBatchEvaluator().evaluate(columns[0], columns[1], columns[2], columns[3], columns[4], scalar, n);
+        for (int i = 0; i < n; i++) {
+            assertEquals(scalar[i], vector[i]);
+        }
+    }
+
+    @Test
+    public void testCardSetsAndPartialVectors() {
+        Random random = new Random(5);
+        int count = 10_007;
+        long[] hands = new long[count];
+        for (int i = 0; i < count; i++) {
+            while (Long.bitCount(hands[i]) < 5) {
+                hands[i] |= 1L << random.nextInt(52);
+            }
+        }
+        int[] scores = new int[count];
+        new VectorBatchEvaluator().evaluate(hands, scores, count);
+        for (int i = 0; i < count; i++) {
+            assertEquals(FiveCardEvaluator.evaluate(hands[i]), scores[i]);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package pl.edu.agh.kis.pz1;
+
+/**
+ * A long computation split into independent chunks of {@code float} results, run by {@link BatchRunner}.
+ * <p>
+ * Every chunk produces the same number of values. Chunks may be computed in any order and on any thread,
+ * so {@link #compute(int, float[])} must be thread-safe and give the same values for the same chunk.
+ */
+public interface BatchJob {
+
+    /**
+     * Returns a value identifying the job and its parameters. A result file is only resumed by a job with the
+     * same fingerprint, so that a run with other parameters never mixes its chunks with older ones.
+     *
+     * @return The fingerprint of the job.
+     */
+    long getFingerprint();
+
+    /**
+     * Returns the number of chunks.
+     *
+     * @return The number of chunks, at least 1.
+     */
+    int getChunks();
+
+    /**
+     * Returns the number of values produced by every chunk.
+     *
+     * @return The number of values per chunk, at least 1.
+     */
+    int getChunkValues();
+
+    /**
+     * Computes one chunk.
+     *
+     * @param chunk The number of the chunk, from 0 to {@link #getChunks()} - 1.
+     * @param values The array receiving the {@link #getChunkValues()} values of the chunk.
+     */
+    void compute(int chunk, float[] values);
+}
@@ -0,0 +1,149 @@
+package pl.edu.agh.kis.pz1;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * A snapshot of the progress of a {@link BatchRunner} run.
+ * <p>
+ * Instances are immutable.
+ */
+public final class BatchProgress {
+
+    /** The number of chunks of the job. */
+    private final int chunks;
+
+    /** The number of chunks finished, including those found in the file when the run started. */
+    private final int completed;
+
+    /** The number of chunks found in the file when the run started. */
+    private final int resumed;
+
+    /** The number of values per chunk. */
+    private final int chunkValues;
+
+    /** The time since the run started, in nanoseconds. */
+    private final long elapsedNanos;
+
+    /** The number of bytes of unfinished records cut off the file when the run started. */
+    private final long droppedBytes;
+
+    /**
+     * Constructs a snapshot.
+     *
+     * @param chunks The number of chunks of the job.
+     * @param completed The number of chunks finished.
+     * @param resumed The number of chunks found in the file when the run started.
+     * @param chunkValues The number of values per chunk.
+     * @param elapsedNanos The time since the run started, in nanoseconds.
+     * @param droppedBytes The number of bytes of unfinished records cut off the file when the run started.
+     */
+    BatchProgress(int chunks, int completed, int resumed, int chunkValues, long elapsedNanos, long droppedBytes) {
+        this.chunks = chunks;
+        this.completed = completed;
+        this.resumed = resumed;
+        this.chunkValues = chunkValues;
+        this.elapsedNanos = elapsedNanos;
+        this.droppedBytes = droppedBytes;
+    }
+
+    /**
+     * Returns the number of chunks of the job.
+     *
+     * @return The number of chunks.
+     */
+    public int getChunks() {
+        return chunks;
+    }
+
+    /**
+     * Returns the number of chunks finished so far, including those found in the file when the run started.
+     *
+     * @return The number of finished chunks.
+     */
+    public int getCompleted() {
+        return completed;
+    }
+
+    /**
+     * Returns the number of chunks that were already in the file when the run started.
+     *
+     * @return The number of resumed chunks.
+     */
+    public int getResumed() {
+        return resumed;
+    }
+
+    /**
+     * Returns the number of bytes of unfinished records, left by a crash, that were cut off the file when the run
+     * started.
+     *
+     * @return The number of dropped bytes.
+     */
+    public long getDroppedBytes() {
+        return droppedBytes;
+    }
+
+    /**
+     * Returns the time since the run started.
+     *
+     * @return The elapsed time.
+     */
+    public Duration getElapsed() {
+        return Duration.ofNanos(elapsedNanos);
+    }
+
+    /**
+     * Returns the number of chunks computed per second by this run.
+     *
+     * @return The throughput in chunks per second, 0 before the first chunk.
+     */
+    public double getChunksPerSecond() {
+        return elapsedNanos == 0 ? 0 : (completed - resumed) * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns the estimated time left at the current throughput.
+     *
+     * @return The estimated time left, or {@code null} while no chunk has been computed by this run.
+     */
+    public Duration getRemaining() {
+        double rate = getChunksPerSecond();
+        return rate == 0 ? null : Duration.ofNanos((long) ((chunks - completed) / rate * 1e9));
+    }
+
+    /**
+     * Checks whether every chunk has been computed.
+     *
+     * @return Whether the job is finished.
+     */
+    public boolean isFinished() {
+        return completed == chunks;
+    }
+
+    /**
+     * Describes the progress for a log line.
+     *
+     * @return The progress, the throughput, the estimated time left and the bytes dropped, if any.
+     */
+    @Override
+    public String toString() {
+        Duration remaining = getRemaining();
+        String progress = String.format(Locale.ROOT,
+                "%d/%d chunks (%.1f%%, %d resumed), %.2f chunks/s, %.0f values/s, elapsed %s, left %s",
+                completed, chunks, 100.0 * completed / chunks, resumed, getChunksPerSecond(),
+                getChunksPerSecond() * chunkValues, format(getElapsed()), remaining == null ? "?" : format(remaining));
+        return droppedBytes == 0 ? progress : progress + ", dropped " + droppedBytes + " bytes of unfinished records";
+    }
+
+    /**
+     * Formats a duration as hours, minutes and seconds.
+     *
+     * @param duration The duration.
+     * @return The duration, e.g. "2h 05m 07s".
+     */
+    private static String format(Duration duration) {
+        long seconds = duration.getSeconds();
+        return String.format(Locale.ROOT, "%dh %02dm %02ds", seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+}
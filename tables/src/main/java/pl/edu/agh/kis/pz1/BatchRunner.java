@@ -0,0 +1,315 @@
+package pl.edu.agh.kis.pz1;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Runs a {@link BatchJob} on a {@link ForkJoinPool} and appends every finished chunk to a {@link ChunkFile}.
+ * <p>
+ * A run first reads the file left by earlier runs: chunks already there are skipped, and a torn or corrupted tail
+ * left by a crash is cut off, so a crashed or stopped job resumes without redoing any finished chunk. A file written
+ * by a job with another fingerprint is never touched.
+ * <p>
+ * Every {@code checkpointChunks} chunks the file is flushed to the disk and a small checkpoint file next to it
+ * ({@code <output>.checkpoint}, a properties file) records the flushed length and the number of chunks, for
+ * operators and monitoring. Progress and throughput are reported to a listener at a fixed interval and at the end,
+ * and once when the run starts if a torn tail had to be cut off.
+ */
+public class BatchRunner {
+
+    /** The suffix of the checkpoint file. */
+    static final String CHECKPOINT_SUFFIX = ".checkpoint";
+
+    /** The default number of chunks between two checkpoints. */
+    static final int DEFAULT_CHECKPOINT_CHUNKS = 16;
+
+    /** The default interval between two progress reports. */
+    static final Duration DEFAULT_REPORT_INTERVAL = Duration.ofSeconds(30);
+
+    /** The pool computing the chunks. */
+    private final ForkJoinPool pool;
+
+    /** The number of chunks between two checkpoints. */
+    private final int checkpointChunks;
+
+    /** The interval between two progress reports, in nanoseconds. */
+    private final long reportNanos;
+
+    /** The listener receiving the progress reports. */
+    private final Consumer<BatchProgress> listener;
+
+    /**
+     * Constructs a runner on the common fork/join pool, printing its progress to the standard output.
+     */
+    public BatchRunner() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHECKPOINT_CHUNKS, DEFAULT_REPORT_INTERVAL, System.out::println);
+    }
+
+    /**
+     * Constructs a runner.
+     *
+     * @param pool The pool computing the chunks.
+     * @param checkpointChunks The number of chunks between two checkpoints, at least 1.
+     * @param reportInterval The interval between two progress reports.
+     * @param listener The listener receiving the progress reports.
+     */
+    public BatchRunner(ForkJoinPool pool, int checkpointChunks, Duration reportInterval, Consumer<BatchProgress> listener) {
+        if (checkpointChunks < 1) {
+            throw new IllegalArgumentException("Checkpoints must be at least 1 chunk apart, got " + checkpointChunks);
+        }
+        this.pool = pool;
+        this.checkpointChunks = checkpointChunks;
+        this.reportNanos = reportInterval.toNanos();
+        this.listener = listener;
+    }
+
+    /**
+     * Computes every chunk of a job that is not in the output file yet.
+     *
+     * @param job The job.
+     * @param output The result file, created if missing.
+     * @return The progress at the end of the run.
+     * @throws IOException if a file cannot be read or written, or the output file belongs to another job.
+     */
+    public BatchProgress run(BatchJob job, Path output) throws IOException {
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long[] offsets = new long[job.getChunks()];
+            long dropped = 0;
+            if (channel.size() < ChunkFile.HEADER_BYTES) {
+                // a new file, or one whose header was torn before any chunk was written
+                channel.truncate(0);
+                write(channel, ChunkFile.header(job.getFingerprint(), job.getChunks(), job.getChunkValues()), 0);
+                channel.force(true);
+                Arrays.fill(offsets, -1);
+            } else {
+                ByteBuffer header = ChunkFile.readHeader(channel);
+                if (header.getLong(8) != job.getFingerprint() || header.getInt(16) != job.getChunks()
+                        || header.getInt(20) != job.getChunkValues()) {
+                    throw new IOException(output + " holds the results of another job");
+                }
+                long end = ChunkFile.scan(channel, job.getChunkValues(), offsets);
+                if (end < channel.size()) {
+                    dropped = channel.size() - end;
+                    channel.truncate(end);
+                }
+            }
+            List<Integer> pending = new ArrayList<>();
+            for (int chunk = 0; chunk < offsets.length; chunk++) {
+                if (offsets[chunk] < 0) {
+                    pending.add(chunk);
+                }
+            }
+            Appender appender = new Appender(job, channel, output.resolveSibling(output.getFileName() + CHECKPOINT_SUFFIX),
+                    offsets.length - pending.size(), dropped);
+            if (dropped > 0) {
+                listener.accept(appender.progress());
+            }
+            try {
+                pool.invoke(new ChunkTask(job, pending, 0, pending.size(), appender));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                appender.checkpoint();
+            }
+            BatchProgress progress = appender.progress();
+            listener.accept(progress);
+            return progress;
+        }
+    }
+
+    /**
+     * Writes a buffer completely at a position.
+     *
+     * @param channel The file.
+     * @param buffer The bytes to write.
+     * @param position The position in the file.
+     * @throws IOException if the file cannot be written.
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long at = position;
+        while (buffer.hasRemaining()) {
+            at += channel.write(buffer, at);
+        }
+    }
+
+    /**
+     * Appends finished chunks to the output file, one at a time, and takes the checkpoints and progress reports.
+     */
+    private final class Appender {
+
+        /** The job. */
+        private final BatchJob job;
+
+        /** The output file. */
+        private final FileChannel channel;
+
+        /** The checkpoint file. */
+        private final Path checkpoint;
+
+        /** The number of chunks in the file when the run started. */
+        private final int resumed;
+
+        /** The number of bytes of unfinished records cut off the file when the run started. */
+        private final long dropped;
+
+        /** The time the run started, from {@link System#nanoTime()}. */
+        private final long start = System.nanoTime();
+
+        /** The length of the file. */
+        private long end;
+
+        /** The number of chunks in the file. */
+        private int completed;
+
+        /** The time of the last progress report. */
+        private long lastReport = start;
+
+        /**
+         * Constructs an appender at the end of the file.
+         *
+         * @param job The job.
+         * @param channel The output file.
+         * @param checkpoint The checkpoint file.
+         * @param resumed The number of chunks already in the file.
+         * @param dropped The number of bytes of unfinished records cut off the file.
+         * @throws IOException if the size of the file cannot be read.
+         */
+        Appender(BatchJob job, FileChannel channel, Path checkpoint, int resumed, long dropped) throws IOException {
+            this.job = job;
+            this.channel = channel;
+            this.checkpoint = checkpoint;
+            this.resumed = resumed;
+            this.dropped = dropped;
+            this.completed = resumed;
+            this.end = channel.size();
+        }
+
+        /**
+         * Appends a finished chunk, then takes a checkpoint or reports the progress when they are due.
+         *
+         * @param chunk The number of the chunk.
+         * @param values The values of the chunk.
+         * @throws IOException if a file cannot be written.
+         */
+        synchronized void append(int chunk, float[] values) throws IOException {
+            ByteBuffer record = ChunkFile.record(chunk, values);
+            int length = record.remaining();
+            write(channel, record, end);
+            end += length;
+            completed++;
+            if ((completed - resumed) % checkpointChunks == 0) {
+                checkpoint();
+            }
+            long now = System.nanoTime();
+            if (now - lastReport >= reportNanos) {
+                lastReport = now;
+                listener.accept(progress());
+            }
+        }
+
+        /**
+         * Flushes the output file and records its length in the checkpoint file, replaced atomically.
+         *
+         * @throws IOException if a file cannot be written.
+         */
+        synchronized void checkpoint() throws IOException {
+            channel.force(false);
+            Properties properties = new Properties();
+            properties.setProperty("fingerprint", Long.toHexString(job.getFingerprint()));
+            properties.setProperty("bytes", Long.toString(end));
+            properties.setProperty("chunks", Integer.toString(job.getChunks()));
+            properties.setProperty("completed", Integer.toString(completed));
+            Path temp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                properties.store(writer, "Batch job checkpoint");
+            }
+            Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        /**
+         * Takes a snapshot of the progress.
+         *
+         * @return The progress so far.
+         */
+        synchronized BatchProgress progress() {
+            return new BatchProgress(job.getChunks(), completed, resumed, job.getChunkValues(), System.nanoTime() - start,
+                    dropped);
+        }
+    }
+
+    /**
+     * Fork/join task computing a range of pending chunks, split in halves down to single chunks.
+     */
+    private static final class ChunkTask extends RecursiveAction {
+
+        /** The job. */
+        private final transient BatchJob job;
+
+        /** The numbers of the pending chunks. */
+        private final transient List<Integer> pending;
+
+        /** The first pending chunk of the range. */
+        private final int from;
+
+        /** The end of the range (exclusive). */
+        private final int to;
+
+        /** The appender receiving the finished chunks. */
+        private final transient Appender appender;
+
+        /**
+         * Constructs a task for a range of pending chunks.
+         *
+         * @param job The job.
+         * @param pending The numbers of the pending chunks.
+         * @param from The first pending chunk of the range.
+         * @param to The end of the range (exclusive).
+         * @param appender The appender receiving the finished chunks.
+         */
+        ChunkTask(BatchJob job, List<Integer> pending, int from, int to, Appender appender) {
+            this.job = job;
+            this.pending = pending;
+            this.from = from;
+            this.to = to;
+            this.appender = appender;
+        }
+
+        /**
+         * Computes the chunks of the range and appends each one as soon as it is finished.
+         */
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkTask(job, pending, from, middle, appender),
+                        new ChunkTask(job, pending, middle, to, appender));
+            } else if (to > from) {
+                int chunk = pending.get(from);
+                float[] values = new float[job.getChunkValues()];
+                job.compute(chunk, values);
+                try {
+                    appender.append(chunk, values);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+}
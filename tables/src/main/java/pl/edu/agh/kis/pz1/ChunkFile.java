@@ -0,0 +1,271 @@
+package pl.edu.agh.kis.pz1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * The append-only result file of a {@link BatchJob}, written by {@link BatchRunner} and memory-mapped read-only here.
+ * <p>
+ * Chunks are appended in the order they finish, each as a self-contained record with its own checksum, so a crash
+ * can only leave a torn last record, which the runner drops when it resumes. Opening a file scans the records once
+ * to find where each chunk starts; a lookup is then one read from the mapped file, whose pages are shared by every
+ * process on the host that maps it.
+ * <p>
+ * File layout (big-endian):
+ * <ul>
+ *     <li>{@code int} magic number {@link #MAGIC} and {@code int} format {@link #VERSION},</li>
+ *     <li>{@code long} fingerprint of the job, {@code int} number of chunks and {@code int} number of values per chunk,</li>
+ *     <li>one record per finished chunk: the {@code int} number of the chunk, its values as {@code float}s
+ *     and an {@code int} CRC-32 of both.</li>
+ * </ul>
+ * Instances are immutable and can be shared by any number of threads.
+ */
+public final class ChunkFile {
+
+    /** The magic number at the start of the file ("PKCF"). */
+    static final int MAGIC = 0x504B4346;
+
+    /** The version of the file format. */
+    static final int VERSION = 1;
+
+    /** The size of the header in bytes. */
+    static final int HEADER_BYTES = 24;
+
+    /** The mapped file. */
+    private final MappedByteBuffer data;
+
+    /** The fingerprint of the job that wrote the file. */
+    private final long fingerprint;
+
+    /** The number of values per chunk. */
+    private final int chunkValues;
+
+    /** The offset of the first value of each chunk in the file, or -1 for the chunks not computed yet. */
+    private final int[] offsets;
+
+    /** The number of chunks found in the file. */
+    private final int completed;
+
+    /**
+     * Constructs a view of a mapped file.
+     *
+     * @param data The mapped file.
+     * @param fingerprint The fingerprint of the job.
+     * @param chunkValues The number of values per chunk.
+     * @param offsets The offset of the values of each chunk, or -1.
+     * @param completed The number of chunks found.
+     */
+    private ChunkFile(MappedByteBuffer data, long fingerprint, int chunkValues, int[] offsets, int completed) {
+        this.data = data;
+        this.fingerprint = fingerprint;
+        this.chunkValues = chunkValues;
+        this.offsets = offsets;
+        this.completed = completed;
+    }
+
+    /**
+     * Maps a result file into memory. Chunks after a torn or corrupted record are ignored.
+     *
+     * @param file The file written by {@link BatchRunner}, possibly still being computed.
+     * @return The view of the mapped file.
+     * @throws IOException if the file cannot be read, is not a result file or is too large to map at once.
+     */
+    public static ChunkFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readHeader(channel);
+            long fingerprint = header.getLong(8);
+            int chunks = header.getInt(16);
+            int chunkValues = header.getInt(20);
+            long[] found = new long[chunks];
+            long end = scan(channel, chunkValues, found);
+            if (end > Integer.MAX_VALUE) {
+                throw new IOException("Result file too large to map: " + file);
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, end);
+            int[] offsets = new int[chunks];
+            int completed = 0;
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                offsets[chunk] = (int) found[chunk];
+                completed += found[chunk] >= 0 ? 1 : 0;
+            }
+            return new ChunkFile(data, fingerprint, chunkValues, offsets, completed);
+        }
+    }
+
+    /**
+     * Returns a value of a chunk.
+     *
+     * @param chunk The number of the chunk.
+     * @param value The position of the value in the chunk.
+     * @return The value.
+     * @throws IllegalArgumentException if the chunk is not in the file.
+     */
+    public float get(int chunk, int value) {
+        int offset = offsets[chunk];
+        if (offset < 0) {
+            throw new IllegalArgumentException("Chunk " + chunk + " has not been computed");
+        }
+        return data.getFloat(offset + 4 * value);
+    }
+
+    /**
+     * Checks whether a chunk is in the file.
+     *
+     * @param chunk The number of the chunk.
+     * @return Whether its values can be read.
+     */
+    public boolean hasChunk(int chunk) {
+        return offsets[chunk] >= 0;
+    }
+
+    /**
+     * Returns the fingerprint of the job that wrote the file.
+     *
+     * @return The fingerprint.
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Returns the number of chunks of the job.
+     *
+     * @return The number of chunks.
+     */
+    public int getChunks() {
+        return offsets.length;
+    }
+
+    /**
+     * Returns the number of values per chunk.
+     *
+     * @return The number of values per chunk.
+     */
+    public int getChunkValues() {
+        return chunkValues;
+    }
+
+    /**
+     * Returns the number of chunks found in the file.
+     *
+     * @return The number of computed chunks.
+     */
+    public int getCompletedChunks() {
+        return completed;
+    }
+
+    /**
+     * Checks whether every chunk has been computed.
+     *
+     * @return Whether the file is complete.
+     */
+    public boolean isComplete() {
+        return completed == offsets.length;
+    }
+
+    /**
+     * Builds the header of a result file.
+     *
+     * @param fingerprint The fingerprint of the job.
+     * @param chunks The number of chunks.
+     * @param chunkValues The number of values per chunk.
+     * @return The header, ready to be written.
+     */
+    static ByteBuffer header(long fingerprint, int chunks, int chunkValues) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putLong(fingerprint).putInt(chunks).putInt(chunkValues);
+        header.flip();
+        return header;
+    }
+
+    /**
+     * Reads and checks the header of a result file.
+     *
+     * @param channel The file.
+     * @return The header.
+     * @throws IOException if the file cannot be read or is not a result file.
+     */
+    static ByteBuffer readHeader(FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_BYTES) {
+            throw new IOException("Not a batch result file");
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining()) {
+            channel.read(header, header.position());
+        }
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION
+                || header.getInt(16) < 1 || header.getInt(20) < 1) {
+            throw new IOException("Not a batch result file");
+        }
+        return header;
+    }
+
+    /**
+     * Builds the record of a chunk.
+     *
+     * @param chunk The number of the chunk.
+     * @param values The values of the chunk.
+     * @return The record, ready to be appended.
+     */
+    static ByteBuffer record(int chunk, float[] values) {
+        ByteBuffer record = ByteBuffer.allocate(recordBytes(values.length));
+        record.putInt(chunk);
+        for (float value : values) {
+            record.putFloat(value);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, record.position());
+        record.putInt((int) crc.getValue());
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Finds the valid records of a file, stopping at the first torn, corrupted or repeated one.
+     *
+     * @param channel The file, whose header has been checked.
+     * @param chunkValues The number of values per chunk.
+     * @param offsets The array receiving the offset of the values of each chunk, or -1 for the missing ones.
+     * @return The length of the valid part of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    static long scan(FileChannel channel, int chunkValues, long[] offsets) throws IOException {
+        Arrays.fill(offsets, -1);
+        ByteBuffer record = ByteBuffer.allocate(recordBytes(chunkValues));
+        CRC32 crc = new CRC32();
+        long position = HEADER_BYTES;
+        long size = channel.size();
+        while (size - position >= record.capacity()) {
+            record.clear();
+            while (record.hasRemaining()) {
+                channel.read(record, position + record.position());
+            }
+            int chunk = record.getInt(0);
+            crc.reset();
+            crc.update(record.array(), 0, record.capacity() - 4);
+            if (chunk < 0 || chunk >= offsets.length || offsets[chunk] >= 0
+                    || record.getInt(record.capacity() - 4) != (int) crc.getValue()) {
+                break;
+            }
+            offsets[chunk] = position + 4;
+            position += record.capacity();
+        }
+        return position;
+    }
+
+    /**
+     * Returns the size of the record of a chunk.
+     *
+     * @param chunkValues The number of values per chunk.
+     * @return The size in bytes.
+     */
+    static int recordBytes(int chunkValues) {
+        return 8 + 4 * chunkValues;
+    }
+}
@@ -0,0 +1,153 @@
+package pl.edu.agh.kis.pz1;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The {@link BatchJob} computing the five-card-draw strategy table read by {@link DrawEquityTable}: the value of
+ * every discard of every hand against every number of opponents, as given by {@link DiscardAdvisor}.
+ * <p>
+ * Hands are taken one per suit-isomorphism class, numbered by a five-card {@link HandIndexer}, so the 2,598,960 hands
+ * become 134,459 representatives. A chunk covers a run of consecutive classes; its values are ordered by class, then
+ * by number of opponents, then by discard, with bit {@code i} of a discard standing for the {@code i}-th lowest card
+ * of the representative. Values of the classes past the last one in the final chunk are 0.
+ * <p>
+ * Run with {@code mvn -pl common,tables -Pdraw-tables process-classes} or directly with the output path, the largest
+ * number of opponents and the number of draws per discard as arguments; a stopped run resumes where it stopped.
+ */
+public class DrawEquityJob implements BatchJob {
+
+    /** The number of hand classes per chunk. */
+    static final int HANDS_PER_CHUNK = 64;
+
+    /** The indexer of the hand classes. */
+    private static final HandIndexer INDEXER = new HandIndexer(5);
+
+    /** The largest number of opponents. */
+    private final int opponents;
+
+    /** The number of draws per discard above which draws are sampled. */
+    private final int samples;
+
+    /** The number of hand classes covered, from the first one. */
+    private final int hands;
+
+    /** The advisor computing the values. */
+    private final DiscardAdvisor advisor;
+
+    /**
+     * Constructs a job covering every hand class.
+     *
+     * @param opponents The largest number of opponents, at least 1.
+     * @param samples The number of draws per discard above which draws are sampled instead of enumerated.
+     * @param pool The pool evaluating the discards of a hand, usually the one running the job.
+     */
+    public DrawEquityJob(int opponents, int samples, ForkJoinPool pool) {
+        this(opponents, samples, pool, (int) INDEXER.getSize());
+    }
+
+    /**
+     * Constructs a job covering the first hand classes only, e.g. for a partial table.
+     *
+     * @param opponents The largest number of opponents, at least 1.
+     * @param samples The number of draws per discard above which draws are sampled instead of enumerated.
+     * @param pool The pool evaluating the discards of a hand, usually the one running the job.
+     * @param hands The number of hand classes covered.
+     */
+    public DrawEquityJob(int opponents, int samples, ForkJoinPool pool, int hands) {
+        if (opponents < 1 || samples < 1 || hands < 1 || hands > INDEXER.getSize()) {
+            throw new IllegalArgumentException("Invalid draw table of " + hands + " hands, " + opponents
+                    + " opponents and " + samples + " samples");
+        }
+        this.opponents = opponents;
+        this.samples = samples;
+        this.hands = hands;
+        this.advisor = new DiscardAdvisor(pool, samples);
+    }
+
+    /**
+     * Returns a fingerprint made of the parameters of the table, so that a file is only resumed with the same ones.
+     *
+     * @return The fingerprint.
+     */
+    @Override
+    public long getFingerprint() {
+        return fingerprint(opponents, samples, hands);
+    }
+
+    /**
+     * Returns the number of chunks.
+     *
+     * @return The number of runs of {@link #HANDS_PER_CHUNK} classes needed to cover the hands.
+     */
+    @Override
+    public int getChunks() {
+        return (hands + HANDS_PER_CHUNK - 1) / HANDS_PER_CHUNK;
+    }
+
+    /**
+     * Returns the number of values per chunk.
+     *
+     * @return One value per class, number of opponents and discard.
+     */
+    @Override
+    public int getChunkValues() {
+        return HANDS_PER_CHUNK * opponents * DiscardAdvisor.SUBSETS;
+    }
+
+    /**
+     * Computes the values of the discards of a run of classes.
+     *
+     * @param chunk The number of the chunk.
+     * @param values The array receiving the values.
+     */
+    @Override
+    public void compute(int chunk, float[] values) {
+        long[] groups = new long[1];
+        int first = chunk * HANDS_PER_CHUNK;
+        for (int hand = first; hand < Math.min(first + HANDS_PER_CHUNK, hands); hand++) {
+            INDEXER.unindex(hand, groups);
+            // the cards in ascending order, so that bit i of a discard is the i-th lowest card
+            List<Card> cards = CardSet.toList(groups[0]);
+            for (int opponent = 1; opponent <= opponents; opponent++) {
+                DiscardAdvice advice = advisor.advise(cards, opponent);
+                int base = ((hand - first) * opponents + opponent - 1) * DiscardAdvisor.SUBSETS;
+                for (int discard = 0; discard < DiscardAdvisor.SUBSETS; discard++) {
+                    values[base + discard] = (float) advice.getValue(discard);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the fingerprint of a table.
+     *
+     * @param opponents The largest number of opponents.
+     * @param samples The number of draws per discard above which draws are sampled.
+     * @param hands The number of hand classes covered.
+     * @return The fingerprint.
+     */
+    static long fingerprint(int opponents, int samples, int hands) {
+        return (long) hands << 32 | (long) samples << 8 | opponents;
+    }
+
+    /**
+     * Computes or resumes the table.
+     *
+     * @param args The path of the table ({@code draw-equity.bin} by default), the largest number of opponents
+     *             (4 by default) and the number of draws per discard (2048 by default).
+     * @throws IOException if the table cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        Path output = Paths.get(args.length > 0 ? args[0] : "draw-equity.bin");
+        int opponents = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int samples = args.length > 2 ? Integer.parseInt(args[2]) : 2048;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        BatchProgress progress = new BatchRunner().run(new DrawEquityJob(opponents, samples, pool), output);
+        System.out.println(progress.isFinished() ? "Draw equity table written to " + output.toAbsolutePath()
+                : "Draw equity table incomplete, run again to resume");
+    }
+}
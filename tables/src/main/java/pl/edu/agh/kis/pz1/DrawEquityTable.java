@@ -0,0 +1,201 @@
+package pl.edu.agh.kis.pz1;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Runtime view of the five-card-draw strategy table computed by {@link DrawEquityJob}, memory-mapped from its
+ * {@link ChunkFile}.
+ * <p>
+ * A hand is looked up through its suit-isomorphism class: the value of a discard is read at the class, the number of
+ * opponents and the same discard expressed on the cards of the class representative, so any hand gets the values
+ * {@link DiscardAdvisor} computes for it, without simulating anything. A table still being computed can be opened;
+ * hands of chunks not computed yet are reported as missing.
+ * <p>
+ * Instances are immutable and can be shared by any number of threads.
+ */
+public final class DrawEquityTable {
+
+    /** The indexer of the hand classes. */
+    private static final HandIndexer INDEXER = new HandIndexer(5);
+
+    /** The mapped result file. */
+    private final ChunkFile file;
+
+    /** The largest number of opponents. */
+    private final int opponents;
+
+    /** The number of hand classes covered. */
+    private final int hands;
+
+    /**
+     * Constructs a view of a result file.
+     *
+     * @param file The mapped result file.
+     * @param opponents The largest number of opponents.
+     * @param hands The number of hand classes covered.
+     */
+    private DrawEquityTable(ChunkFile file, int opponents, int hands) {
+        this.file = file;
+        this.opponents = opponents;
+        this.hands = hands;
+    }
+
+    /**
+     * Maps a table into memory.
+     *
+     * @param path The file written by {@link DrawEquityJob}.
+     * @return The table.
+     * @throws IOException if the file cannot be read or is not a draw equity table.
+     */
+    public static DrawEquityTable open(Path path) throws IOException {
+        ChunkFile file = ChunkFile.open(path);
+        int opponents = (int) (file.getFingerprint() & 0xFF);
+        int hands = (int) (file.getFingerprint() >>> 32);
+        if (opponents < 1 || hands < 1 || hands > INDEXER.getSize()
+                || file.getChunkValues() != DrawEquityJob.HANDS_PER_CHUNK * opponents * DiscardAdvisor.SUBSETS) {
+            throw new IOException("Not a draw equity table: " + path);
+        }
+        return new DrawEquityTable(file, opponents, hands);
+    }
+
+    /**
+     * Returns the largest number of opponents in the table.
+     *
+     * @return The largest number of opponents.
+     */
+    public int getOpponents() {
+        return opponents;
+    }
+
+    /**
+     * Checks whether the values of a hand are in the table.
+     *
+     * @param hand The {@link CardSet} of the five cards.
+     * @return Whether the class of the hand is covered and its chunk has been computed.
+     */
+    public boolean contains(long hand) {
+        long index = INDEXER.index(hand);
+        return index < hands && file.hasChunk((int) index / DrawEquityJob.HANDS_PER_CHUNK);
+    }
+
+    /**
+     * Returns the value of a discard.
+     *
+     * @param hand The {@link CardSet} of the five cards.
+     * @param opponents The number of opponents, from 1 to {@link #getOpponents()}.
+     * @param discard The discarded cards, with bit {@code i} standing for the {@code i}-th lowest card of the hand.
+     * @return The value of the discard, as {@link DiscardAdvisor} computes it.
+     * @throws IllegalArgumentException if the hand is not in the table or the number of opponents is out of range.
+     */
+    public double getValue(long hand, int opponents, int discard) {
+        long[] representative = new long[1];
+        int index = locate(hand, opponents, representative);
+        int permutation = permutationTo(hand, representative[0]);
+        int canonicalDiscard = 0;
+        int i = 0;
+        for (long rest = hand; rest != 0; rest &= rest - 1, i++) {
+            if ((discard >>> i & 1) != 0) {
+                canonicalDiscard |= 1 << position(representative[0], Long.numberOfTrailingZeros(rest), permutation);
+            }
+        }
+        return read(index, opponents, canonicalDiscard);
+    }
+
+    /**
+     * Looks up the value of every discard of a hand.
+     *
+     * @param hand The five cards of the player.
+     * @param opponents The number of opponents, from 1 to {@link #getOpponents()}.
+     * @return The advice for the hand, with the discards numbered by the positions of the cards in the list.
+     * @throws IllegalArgumentException if the hand is not in the table or the number of opponents is out of range.
+     */
+    public DiscardAdvice advise(List<Card> hand, int opponents) {
+        long set = CardSet.of(hand);
+        if (hand.size() != 5 || CardSet.size(set) != 5) {
+            throw new IllegalArgumentException("Cannot advise on hand " + hand);
+        }
+        long[] representative = new long[1];
+        int index = locate(set, opponents, representative);
+        int permutation = permutationTo(set, representative[0]);
+        int[] position = new int[5];
+        for (int i = 0; i < 5; i++) {
+            position[i] = position(representative[0], hand.get(i).getIndex(), permutation);
+        }
+        double[] values = new double[DiscardAdvisor.SUBSETS];
+        for (int discard = 0; discard < DiscardAdvisor.SUBSETS; discard++) {
+            int canonicalDiscard = 0;
+            for (int i = 0; i < 5; i++) {
+                if ((discard >>> i & 1) != 0) {
+                    canonicalDiscard |= 1 << position[i];
+                }
+            }
+            values[discard] = read(index, opponents, canonicalDiscard);
+        }
+        return new DiscardAdvice(hand, values);
+    }
+
+    /**
+     * Finds the class of a hand and its representative.
+     *
+     * @param hand The {@link CardSet} of the five cards.
+     * @param opponents The number of opponents.
+     * @param representative The array receiving the representative of the class.
+     * @return The index of the class.
+     * @throws IllegalArgumentException if the hand is not in the table or the number of opponents is out of range.
+     */
+    private int locate(long hand, int opponents, long[] representative) {
+        if (opponents < 1 || opponents > this.opponents) {
+            throw new IllegalArgumentException("The table covers 1 to " + this.opponents + " opponents, not " + opponents);
+        }
+        if (!contains(hand)) {
+            throw new IllegalArgumentException("The table does not hold " + CardSet.toString(hand) + " yet");
+        }
+        long index = INDEXER.index(hand);
+        INDEXER.unindex(index, representative);
+        return (int) index;
+    }
+
+    /**
+     * Reads a value from the mapped file.
+     *
+     * @param index The index of the class.
+     * @param opponents The number of opponents.
+     * @param discard The discard on the cards of the representative.
+     * @return The value.
+     */
+    private double read(int index, int opponents, int discard) {
+        int chunk = index / DrawEquityJob.HANDS_PER_CHUNK;
+        int offset = ((index - chunk * DrawEquityJob.HANDS_PER_CHUNK) * this.opponents + opponents - 1)
+                * DiscardAdvisor.SUBSETS + discard;
+        return file.get(chunk, offset);
+    }
+
+    /**
+     * Finds a renaming of the suits that turns a hand into its representative.
+     *
+     * @param hand The {@link CardSet} of the hand.
+     * @param representative The representative of its class.
+     * @return The number of the {@link SuitIsomorphism} permutation.
+     */
+    private static int permutationTo(long hand, long representative) {
+        int permutation = 0;
+        while (SuitIsomorphism.permute(hand, permutation) != representative) {
+            permutation++;
+        }
+        return permutation;
+    }
+
+    /**
+     * Returns the position of the image of a card among the cards of the representative.
+     *
+     * @param representative The representative.
+     * @param card The index of the card of the hand.
+     * @param permutation The permutation turning the hand into the representative.
+     * @return The position from the lowest card, from 0 to 4.
+     */
+    private static int position(long representative, int card, int permutation) {
+        return Long.bitCount(representative & ((1L << SuitIsomorphism.permute(card, permutation)) - 1));
+    }
+}
@@ -0,0 +1,135 @@
+package pl.edu.agh.kis.pz1;
+
+import junit.framework.TestCase;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchRunnerTest extends TestCase {
+
+    private static final int CHUNKS = 50;
+
+    private static final int VALUES = 8;
+
+    /**
+     * A job whose values are derived from their position, failing after a given number of chunks.
+     */
+    private static final class CountingJob implements BatchJob {
+
+        private final AtomicInteger computed = new AtomicInteger();
+
+        private final int failAfter;
+
+        private final long fingerprint;
+
+        CountingJob(int failAfter, long fingerprint) {
+            this.failAfter = failAfter;
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public long getFingerprint() {
+            return fingerprint;
+        }
+
+        @Override
+        public int getChunks() {
+            return CHUNKS;
+        }
+
+        @Override
+        public int getChunkValues() {
+            return VALUES;
+        }
+
+        @Override
+        public void compute(int chunk, float[] values) {
+            if (computed.incrementAndGet() > failAfter) {
+                throw new IllegalStateException("Simulated crash");
+            }
+            for (int i = 0; i < values.length; i++) {
+                values[i] = chunk * 1000 + i;
+            }
+        }
+    }
+
+    private static void assertValues(ChunkFile file) {
+        assertTrue(file.isComplete());
+        for (int chunk = 0; chunk < CHUNKS; chunk++) {
+            for (int i = 0; i < VALUES; i++) {
+                assertEquals(chunk * 1000f + i, file.get(chunk, i));
+            }
+        }
+    }
+
+    private static BatchRunner runner(ForkJoinPool pool, List<BatchProgress> reports) {
+        return new BatchRunner(pool, 4, Duration.ZERO, reports::add);
+    }
+
+    @Test
+    public void testComputesEveryChunkOnce() throws IOException {
+        Path output = Files.createTempDirectory("batch").resolve("result.bin");
+        CountingJob job = new CountingJob(Integer.MAX_VALUE, 7L);
+        List<BatchProgress> reports = new ArrayList<>();
+        BatchProgress progress = runner(new ForkJoinPool(3), reports).run(job, output);
+        assertTrue(progress.isFinished());
+        assertEquals(CHUNKS, job.computed.get());
+        assertValues(ChunkFile.open(output));
+        assertEquals(CHUNKS + 1, reports.size());
+        assertTrue(reports.get(reports.size() - 1).getChunksPerSecond() > 0);
+
+        Properties checkpoint = new Properties();
+        try (var reader = Files.newBufferedReader(output.resolveSibling("result.bin" + BatchRunner.CHECKPOINT_SUFFIX))) {
+            checkpoint.load(reader);
+        }
+        assertEquals(String.valueOf(CHUNKS), checkpoint.getProperty("completed"));
+        assertEquals(String.valueOf(Files.size(output)), checkpoint.getProperty("bytes"));
+
+        CountingJob again = new CountingJob(Integer.MAX_VALUE, 7L);
+        assertTrue(runner(new ForkJoinPool(1), new ArrayList<>()).run(again, output).isFinished());
+        assertEquals(0, again.computed.get());
+    }
+
+    @Test
+    public void testResumesAfterCrashWithoutRedoingChunks() throws IOException {
+        Path output = Files.createTempDirectory("batch").resolve("result.bin");
+        try {
+            runner(new ForkJoinPool(2), new ArrayList<>()).run(new CountingJob(20, 7L), output);
+            fail("The crash was not reported");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("Simulated crash"));
+        }
+        int finished = ChunkFile.open(output).getCompletedChunks();
+        assertTrue(finished > 0 && finished <= 20);
+        // a record torn in the middle of a write
+        Files.write(output, new byte[]{0, 0, 0, 1, 2, 3, 4}, StandardOpenOption.APPEND);
+
+        CountingJob resumed = new CountingJob(Integer.MAX_VALUE, 7L);
+        List<BatchProgress> reports = new ArrayList<>();
+        BatchProgress progress = runner(new ForkJoinPool(2), reports).run(resumed, output);
+        assertEquals(CHUNKS - finished, resumed.computed.get());
+        assertEquals(finished, progress.getResumed());
+        assertTrue(progress.isFinished());
+        assertEquals(7, reports.get(0).getDroppedBytes());
+        assertEquals(finished, reports.get(0).getCompleted());
+        assertTrue(reports.get(0).toString().contains("dropped 7 bytes"));
+        assertValues(ChunkFile.open(output));
+        assertEquals(ChunkFile.HEADER_BYTES + CHUNKS * ChunkFile.recordBytes(VALUES), Files.size(output));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testRefusesFileOfAnotherJob() throws IOException {
+        Path output = Files.createTempDirectory("batch").resolve("result.bin");
+        runner(new ForkJoinPool(1), new ArrayList<>()).run(new CountingJob(Integer.MAX_VALUE, 7L), output);
+        runner(new ForkJoinPool(1), new ArrayList<>()).run(new CountingJob(Integer.MAX_VALUE, 8L), output);
+    }
+}
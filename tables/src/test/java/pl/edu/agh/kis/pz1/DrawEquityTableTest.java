@@ -0,0 +1,75 @@
+package pl.edu.agh.kis.pz1;
+
+import junit.framework.TestCase;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class DrawEquityTableTest extends TestCase {
+
+    private static final int SAMPLES = 64;
+
+    @Test
+    public void testMatchesDiscardAdvisor() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        Path output = Files.createTempDirectory("draw").resolve("draw-equity.bin");
+        int hands = 3 * DrawEquityJob.HANDS_PER_CHUNK - 5;
+        BatchProgress progress = new BatchRunner(pool, 1, Duration.ofMinutes(1), report -> { })
+                .run(new DrawEquityJob(2, SAMPLES, pool, hands), output);
+        assertTrue(progress.isFinished());
+
+        DrawEquityTable table = DrawEquityTable.open(output);
+        assertEquals(2, table.getOpponents());
+        DiscardAdvisor advisor = new DiscardAdvisor(pool, SAMPLES);
+        HandIndexer indexer = new HandIndexer(5);
+        Random random = new Random(3);
+        long[] groups = new long[1];
+        for (int index = 0; index < hands; index += 7) {
+            indexer.unindex(index, groups);
+            long hand = SuitIsomorphism.permute(groups[0], random.nextInt(SuitIsomorphism.PERMUTATIONS));
+            List<Card> cards = new ArrayList<>(CardSet.toList(hand));
+            Collections.shuffle(cards, random);
+            int opponents = 1 + index % 2;
+            DiscardAdvice expected = advisor.advise(cards, opponents);
+            DiscardAdvice actual = table.advise(cards, opponents);
+            assertEquals(expected.getBestDiscard(), actual.getBestDiscard());
+            for (int discard = 0; discard < DiscardAdvisor.SUBSETS; discard++) {
+                assertEquals(expected.getValue(discard), actual.getValue(discard), 1e-6);
+            }
+            List<Card> sorted = CardSet.toList(hand);
+            DiscardAdvice inOrder = advisor.advise(sorted, opponents);
+            for (int discard = 0; discard < DiscardAdvisor.SUBSETS; discard++) {
+                assertEquals(inOrder.getValue(discard), table.getValue(hand, opponents, discard), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void testPartialTableReportsMissingHands() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        Path output = Files.createTempDirectory("draw").resolve("draw-equity.bin");
+        new BatchRunner(pool, 1, Duration.ofMinutes(1), report -> { })
+                .run(new DrawEquityJob(1, SAMPLES, pool, DrawEquityJob.HANDS_PER_CHUNK), output);
+        DrawEquityTable table = DrawEquityTable.open(output);
+        HandIndexer indexer = new HandIndexer(5);
+        long[] groups = new long[1];
+        indexer.unindex(0, groups);
+        assertTrue(table.contains(groups[0]));
+        indexer.unindex(DrawEquityJob.HANDS_PER_CHUNK, groups);
+        assertFalse(table.contains(groups[0]));
+        try {
+            table.getValue(groups[0], 1, 0);
+            fail("A missing hand was looked up");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("does not hold"));
+        }
+    }
+}
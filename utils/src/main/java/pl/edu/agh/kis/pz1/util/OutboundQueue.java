@@ -0,0 +1,260 @@
+package pl.edu.agh.kis.pz1.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The output of one non-blocking connection that the socket has not taken yet.
+ * <p>
+ * A message is written at once while nothing is queued; what the socket does not take is queued, in order, and the
+ * connection gets {@link SelectionKey#OP_WRITE} interest until {@link #flush()} has written it all. Messages are
+ * admitted while the bytes pending stay within a budget, so a client that stops reading cannot make the server buffer
+ * without bound; a message started is always queued in full, so the stream never loses part of a message.
+ * A queued view of a {@link SharedBuffer} holds a reference to it until it is written or discarded.
+ * </p>
+ * <p>
+ * Instances are not thread-safe and must only be used by the thread serving the connection.
+ * </p>
+ */
+final class OutboundQueue {
+
+    /**
+     * A message not fully written yet.
+     */
+    private static final class Pending {
+
+        /**
+         * The rest of the message.
+         */
+        private final ByteBuffer data;
+
+        /**
+         * The buffer the message is a view of, or {@code null} if it is the message's own.
+         */
+        private final SharedBuffer shared;
+
+        /**
+         * Constructs a pending message, retaining its shared buffer.
+         *
+         * @param data the rest of the message
+         * @param shared the buffer the message is a view of, or {@code null}
+         */
+        Pending(ByteBuffer data, SharedBuffer shared) {
+            this.data = data;
+            this.shared = shared;
+            if (shared != null) {
+                shared.retain();
+            }
+        }
+
+        /**
+         * Releases the shared buffer of the message, if any.
+         */
+        void release() {
+            if (shared != null) {
+                shared.release();
+            }
+        }
+    }
+
+    /**
+     * The connection.
+     */
+    private final SelectionKey key;
+
+    /**
+     * The most bytes that may be pending before a new message is refused.
+     */
+    private final int budgetBytes;
+
+    /**
+     * The messages not fully written yet, the first one possibly in part.
+     */
+    private final Deque<Pending> messages = new ArrayDeque<>();
+
+    /**
+     * The number of bytes queued and not written yet.
+     */
+    private int pendingBytes;
+
+    /**
+     * The number of messages dropped because the budget was exceeded.
+     */
+    private int droppedMessages;
+
+    /**
+     * Flag indicating whether the connection is closed once its queue is written.
+     */
+    private boolean closing;
+
+    /**
+     * Flag indicating whether the connection has been closed by the queue.
+     */
+    private boolean closed;
+
+    /**
+     * Flag indicating whether the connection was cut off, after which output is discarded.
+     */
+    private boolean disconnected;
+
+    /**
+     * Constructs the queue of a connection.
+     *
+     * @param key the {@link SelectionKey} of the connection
+     * @param budgetBytes the most bytes that may be pending before a new message is refused
+     */
+    OutboundQueue(SelectionKey key, int budgetBytes) {
+        this.key = key;
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Writes a message, or queues what the socket does not take.
+     *
+     * @param message the message, written from its position to its limit
+     * @param shared the buffer the message is a view of, retained while the message is queued, or {@code null}
+     * @return {@code false} if the message would exceed the budget and was not sent, {@code true} otherwise
+     * @throws IOException if the connection fails
+     */
+    boolean offer(ByteBuffer message, SharedBuffer shared) throws IOException {
+        if (disconnected || closing) {
+            return true;
+        }
+        boolean idle = messages.isEmpty();
+        if (idle) {
+            channel().write(message);
+            if (!message.hasRemaining()) {
+                return true;
+            }
+        } else if (pendingBytes + message.remaining() > budgetBytes) {
+            droppedMessages++;
+            return false;
+        }
+        messages.add(new Pending(message, shared));
+        pendingBytes += message.remaining();
+        if (idle) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+        }
+        return true;
+    }
+
+    /**
+     * Writes as much of the queue as the socket takes, and stops watching {@link SelectionKey#OP_WRITE} once it is
+     * empty. A connection closing is closed then.
+     *
+     * @throws IOException if the connection fails
+     */
+    void flush() throws IOException {
+        SocketChannel channel = channel();
+        while (!messages.isEmpty()) {
+            Pending message = messages.peek();
+            pendingBytes -= channel.write(message.data);
+            if (message.data.hasRemaining()) {
+                return;
+            }
+            messages.poll().release();
+        }
+        if (closing) {
+            closed = true;
+            channel.close();
+        } else if (key.isValid()) {
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * Closes the connection once the queue is written, reading nothing more from it meanwhile.
+     *
+     * @throws IOException if the connection fails
+     */
+    void close() throws IOException {
+        closing = true;
+        if (messages.isEmpty()) {
+            closed = true;
+            channel().close();
+        } else {
+            key.interestOps(SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * Cuts the connection off: the queue is discarded and both directions of the socket are shut down, so the next
+     * read of the connection sees the end of the stream and the game removes the player as if it had left.
+     * A connection already closing is closed at once.
+     */
+    void disconnect() {
+        disconnected = true;
+        discard();
+        try {
+            if (closing) {
+                closed = true;
+                channel().close();
+                return;
+            }
+            channel().shutdownInput();
+            channel().shutdownOutput();
+        } catch (IOException e) {
+            System.err.println("Error disconnecting slow client: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drops the messages not written yet, releasing their shared buffers.
+     */
+    void discard() {
+        for (Pending message : messages) {
+            message.release();
+        }
+        messages.clear();
+        pendingBytes = 0;
+    }
+
+    /**
+     * Returns the number of bytes queued and not written yet.
+     *
+     * @return the bytes pending
+     */
+    int getPendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * Returns the number of messages dropped because the budget was exceeded.
+     *
+     * @return the messages dropped
+     */
+    int getDroppedMessages() {
+        return droppedMessages;
+    }
+
+    /**
+     * Returns whether the connection is waiting to write its queue before it closes, after {@link #close()}.
+     *
+     * @return {@code true} if the connection is closing and not closed yet
+     */
+    boolean isClosing() {
+        return closing && !closed;
+    }
+
+    /**
+     * Returns whether the queue has closed the connection, having written everything after {@link #close()}.
+     *
+     * @return {@code true} if the connection is closed
+     */
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns the channel of the connection.
+     *
+     * @return the channel
+     */
+    private SocketChannel channel() {
+        return (SocketChannel) key.channel();
+    }
+}
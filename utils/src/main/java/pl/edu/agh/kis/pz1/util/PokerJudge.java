@@ -49,6 +49,25 @@ public class PokerJudge {
         return 0;
     }
 
+    /**
+     * Decides the winner between two players based on the scores of their hands,
+     * as computed once per hand by {@code HandRanker.score}. A higher score is a better hand,
+     * so no lists of card ranks have to be built or compared.
+     *
+     * @param score1 the score of the hand of player 1
+     * @param score2 the score of the hand of player 2
+     * @return 1 if player 1 wins, -1 if player 2 wins, 0 if it's a tie
+     */
+    public static int decideWinnerBetweenTwoPlayers(int score1, int score2) {
+        if(score1 > score2){
+            return 1;
+        }
+        if(score1 < score2){
+            return -1;
+        }
+        return 0;
+    }
+
     /**
      * Verifies whether the betting round has ended for all players.
      * The round is considered over if all non-folded players have placed the same bet.
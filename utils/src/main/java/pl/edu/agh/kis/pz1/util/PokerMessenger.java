@@ -1,11 +1,21 @@
 package pl.edu.agh.kis.pz1.util;
 
+import pl.edu.agh.kis.pz1.Card;
 import pl.edu.agh.kis.pz1.Player;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The {@code PokerMessenger} class provides utility methods for sending messages
@@ -14,34 +24,371 @@ import java.util.List;
  * <p>
  * This class handles communication between the server and the players via sockets.
  * </p>
+ * <p>
+ * Messages showing cards are assembled directly in a {@link ByteBuffer} from the precomputed
+ * UTF-8 forms of the cards, so no strings are built for the card lists.
+ * </p>
+ * <p>
+ * Connections {@linkplain #register registered} with a messenger get an outbound queue: what a non-blocking socket
+ * does not take at once is kept in order and written when the connection is writable again ({@link #flush}), so no
+ * message is cut short and the thread never waits for a client. Each connection may have a limited number of bytes
+ * pending; when a slow client exceeds it, the messenger applies its {@link SlowClientPolicy}. Other channels are
+ * written to directly.
+ * </p>
+ * <p>
+ * A message sent to all players is encoded once, in UTF-8, into a reference-counted buffer, and every player gets a
+ * read-only view of it; a broadcast costs one encoding whatever the number of recipients. Buffers no queue holds any
+ * more are reused by the next broadcasts.
+ * </p>
  */
 public class PokerMessenger {
 
+    /**
+     * What a messenger does with a client whose pending output would exceed its budget.
+     */
+    public enum SlowClientPolicy {
+
+        /**
+         * The client is disconnected.
+         */
+        DISCONNECT,
+
+        /**
+         * Updates sent to all players are dropped for the client until it catches up; it is disconnected only when a
+         * message meant for it alone does not fit.
+         */
+        DROP_UPDATES
+    }
+
+    /**
+     * The default number of bytes a connection may have pending.
+     */
+    public static final int DEFAULT_BUDGET_BYTES = 64 * 1024;
+
+    /**
+     * The longest a connection may take to read its pending output after {@link #close} before it is cut off.
+     */
+    public static final long CLOSE_TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * The smallest buffer allocated for a broadcast, so that one buffer fits most of them.
+     */
+    private static final int MIN_BROADCAST_BYTES = 256;
+
+    /**
+     * The most broadcast buffers kept for reuse.
+     */
+    private static final int SPARE_BROADCAST_BUFFERS = 4;
+
+    /**
+     * The outbound queues of the registered connections, by channel.
+     */
+    private final Map<SocketChannel, OutboundQueue> queues = new HashMap<>();
+
+    /**
+     * The number of bytes a connection may have pending.
+     */
+    private final int budgetBytes;
+
+    /**
+     * The policy applied to clients exceeding their budget.
+     */
+    private final SlowClientPolicy policy;
+
+    /**
+     * The broadcast buffers no queue holds any more.
+     */
+    private final Deque<SharedBuffer> spareBuffers = new ArrayDeque<>();
+
+    /**
+     * The encoder of broadcasts, replacing malformed text as {@link String#getBytes} does.
+     */
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    /**
+     * Constructs a messenger disconnecting clients with more than {@link #DEFAULT_BUDGET_BYTES} pending.
+     */
+    public PokerMessenger() {
+        this(DEFAULT_BUDGET_BYTES, SlowClientPolicy.DISCONNECT);
+    }
+
+    /**
+     * Constructs a messenger.
+     *
+     * @param budgetBytes the number of bytes a connection may have pending
+     * @param policy the policy applied to clients exceeding their budget
+     */
+    public PokerMessenger(int budgetBytes, SlowClientPolicy policy) {
+        this.budgetBytes = budgetBytes;
+        this.policy = policy;
+    }
+
+    /**
+     * Gives a non-blocking connection an outbound queue. The connection must be served by the thread using this
+     * messenger, which calls {@link #flush} when the connection is writable.
+     *
+     * @param key the {@link SelectionKey} of the connection
+     */
+    public void register(SelectionKey key) {
+        queues.put((SocketChannel) key.channel(), new OutboundQueue(key, budgetBytes));
+    }
+
+    /**
+     * Drops the outbound queue of a connection, e.g. when the client has left.
+     *
+     * @param key the {@link SelectionKey} of the connection
+     */
+    public void unregister(SelectionKey key) {
+        OutboundQueue queue = queues.remove(key.channel());
+        if (queue != null) {
+            queue.discard();
+        }
+    }
+
+    /**
+     * Writes the pending output of a connection that has become writable.
+     *
+     * @param key the {@link SelectionKey} of the connection
+     */
+    public void flush(SelectionKey key) {
+        OutboundQueue queue = queues.get(key.channel());
+        if (queue == null) {
+            if (key.isValid()) {
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            }
+            return;
+        }
+        try {
+            queue.flush();
+        } catch (IOException e) {
+            fail(queue, e);
+        }
+        if (queue.isClosed()) {
+            queues.remove(key.channel());
+        }
+    }
+
+    /**
+     * Cuts off a connection still writing its pending output since {@link #close}, e.g. a client that stopped reading
+     * before its close timeout expired. A connection closed meanwhile is left alone.
+     *
+     * @param key the {@link SelectionKey} of the connection
+     */
+    public void abortClose(SelectionKey key) {
+        OutboundQueue queue = queues.get(key.channel());
+        if (queue != null && queue.isClosing()) {
+            System.err.println("Closing slow client with " + queue.getPendingBytes() + " bytes pending");
+            queue.disconnect();
+            queues.remove(key.channel());
+        }
+    }
+
+    /**
+     * Closes a connection once its pending output is written; a channel without a queue is closed at once.
+     * The caller bounds the wait with {@link #abortClose} after {@link #CLOSE_TIMEOUT_MILLIS}.
+     *
+     * @param key the {@link SelectionKey} of the connection
+     * @throws IOException if an I/O error occurs while closing the channel
+     */
+    public void close(SelectionKey key) throws IOException {
+        OutboundQueue queue = queues.get(key.channel());
+        if (queue == null) {
+            key.channel().close();
+            return;
+        }
+        try {
+            queue.close();
+        } catch (IOException e) {
+            queues.remove(key.channel());
+            throw e;
+        }
+        if (queue.isClosed()) {
+            queues.remove(key.channel());
+        }
+    }
+
+    /**
+     * Returns the number of bytes a connection has pending.
+     *
+     * @param clientChannel the {@code SocketChannel} of the connection
+     * @return the bytes queued and not written yet, 0 for a channel without a queue
+     */
+    public int getPendingBytes(SocketChannel clientChannel) {
+        OutboundQueue queue = queues.get(clientChannel);
+        return queue == null ? 0 : queue.getPendingBytes();
+    }
+
+    /**
+     * Returns the number of messages dropped for a connection because it exceeded its budget.
+     *
+     * @param clientChannel the {@code SocketChannel} of the connection
+     * @return the messages dropped, 0 for a channel without a queue
+     */
+    public int getDroppedMessages(SocketChannel clientChannel) {
+        OutboundQueue queue = queues.get(clientChannel);
+        return queue == null ? 0 : queue.getDroppedMessages();
+    }
+
     /**
      * Sends a message to all players in the game.
-     * The message is sent to each player's {@code SocketChannel}.
+     * The message and a new line are encoded once and sent to each player's {@code SocketChannel}, as an update that
+     * a slow client may miss under {@link SlowClientPolicy#DROP_UPDATES}.
      *
      * @param players the list of players to send the message to
      * @param message the message to be sent
      * @throws IOException if an I/O error occurs while sending the message
      */
     public void sendMessageToAll(List<Player> players, String message) throws IOException {
-        for(Player player : players){
-            SocketChannel clientChannel = (SocketChannel) player.getKey().channel();
-            sendResponse(clientChannel, message + '\n');
-        }
+        SharedBuffer shared = acquire((int) (message.length() * encoder.maxBytesPerChar()) + 1);
+        ByteBuffer buffer = shared.open();
+        encoder.reset();
+        encoder.encode(CharBuffer.wrap(message), buffer, true);
+        encoder.flush(buffer);
+        buffer.put((byte) '\n');
+        shared.seal();
+        broadcast(players, shared);
     }
 
     /**
      * Sends a message to a specific player through their {@code SocketChannel}.
-     * The message is wrapped in a {@code ByteBuffer} and written to the channel.
+     * The message is wrapped in a {@code ByteBuffer} and written to the channel, or to its outbound queue.
      *
      * @param clientChannel the {@code SocketChannel} of the player
      * @param message the message to be sent
      * @throws IOException if an I/O error occurs while sending the message
      */
     public void sendResponse(SocketChannel clientChannel, String message) throws IOException {
-        ByteBuffer buffer = ByteBuffer.wrap(message.getBytes());
-        clientChannel.write(buffer);
+        send(clientChannel, ByteBuffer.wrap(message.getBytes()), false, null);
+    }
+
+    /**
+     * Sends a message showing a list of cards to a specific player, e.g. {@code Your cards: [TWO of ♣, ...]}.
+     * The text is the same as {@code before + cards + after}, written from a single buffer to the channel.
+     *
+     * @param clientChannel the {@code SocketChannel} of the player
+     * @param before the text preceding the cards
+     * @param cards the cards to show
+     * @param after the text following the cards
+     * @throws IOException if an I/O error occurs while sending the message
+     */
+    public void sendCards(SocketChannel clientChannel, String before, List<Card> cards, String after) throws IOException {
+        byte[] head = before.getBytes(StandardCharsets.UTF_8);
+        byte[] tail = after.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(head.length + Card.utf8Length(cards) + tail.length);
+        putCards(buffer, head, cards, tail);
+        buffer.flip();
+        send(clientChannel, buffer, false, null);
+    }
+
+    /**
+     * Sends a message showing a list of cards to all players in the game.
+     * The message is encoded once and written to each player's {@code SocketChannel}.
+     *
+     * @param players the list of players to send the message to
+     * @param before the text preceding the cards
+     * @param cards the cards to show
+     * @param after the text following the cards
+     * @throws IOException if an I/O error occurs while sending the message
+     */
+    public void sendCardsToAll(List<Player> players, String before, List<Card> cards, String after) throws IOException {
+        byte[] head = before.getBytes(StandardCharsets.UTF_8);
+        byte[] tail = after.getBytes(StandardCharsets.UTF_8);
+        SharedBuffer shared = acquire(head.length + Card.utf8Length(cards) + tail.length + 1);
+        ByteBuffer buffer = shared.open();
+        putCards(buffer, head, cards, tail);
+        buffer.put((byte) '\n');
+        shared.seal();
+        broadcast(players, shared);
+    }
+
+    /**
+     * Sends an encoded message to all players, each getting its own view of the shared buffer.
+     * The buffer is released once every player has been served; queues still holding a view keep it until written.
+     *
+     * @param players the list of players to send the message to
+     * @param shared the encoded message, held by the caller
+     * @throws IOException if an I/O error occurs while writing to a channel without a queue
+     */
+    private void broadcast(List<Player> players, SharedBuffer shared) throws IOException {
+        try {
+            for(Player player : players){
+                SocketChannel clientChannel = (SocketChannel) player.getKey().channel();
+                send(clientChannel, shared.view(), true, shared);
+            }
+        } finally {
+            shared.release();
+        }
+    }
+
+    /**
+     * Returns a broadcast buffer no queue holds, reusing a spare one if it is large enough.
+     *
+     * @param bytes the most bytes the message may take
+     * @return the buffer
+     */
+    private SharedBuffer acquire(int bytes) {
+        SharedBuffer shared = spareBuffers.poll();
+        if (shared == null || shared.capacity() < bytes) {
+            shared = new SharedBuffer(Math.max(bytes, MIN_BROADCAST_BYTES), spareBuffers, SPARE_BROADCAST_BUFFERS);
+        }
+        return shared;
+    }
+
+    /**
+     * Sends a message through the outbound queue of a connection, applying the {@link SlowClientPolicy} if it does not
+     * fit; a channel without a queue is written to directly, for as long as it takes bytes.
+     * A registered connection failing is disconnected rather than failing the send, so the other players of a
+     * broadcast still get the message.
+     *
+     * @param clientChannel the {@code SocketChannel} of the player
+     * @param message the message
+     * @param update whether the message is an update sent to all players
+     * @param shared the buffer the message is a view of, or {@code null} if it is the message's own
+     * @throws IOException if an I/O error occurs while writing to a channel without a queue
+     */
+    private void send(SocketChannel clientChannel, ByteBuffer message, boolean update, SharedBuffer shared)
+            throws IOException {
+        OutboundQueue queue = queues.get(clientChannel);
+        if (queue == null) {
+            while (clientChannel.write(message) > 0 && message.hasRemaining()) {
+                // a non-blocking channel may take the message in several writes
+            }
+            return;
+        }
+        try {
+            if (!queue.offer(message, shared) && !(update && policy == SlowClientPolicy.DROP_UPDATES)) {
+                System.err.println("Disconnecting slow client with " + queue.getPendingBytes() + " bytes pending");
+                queue.disconnect();
+            }
+        } catch (IOException e) {
+            fail(queue, e);
+        }
+    }
+
+    /**
+     * Disconnects a registered connection that failed.
+     *
+     * @param queue the outbound queue of the connection
+     * @param e the failure
+     */
+    private static void fail(OutboundQueue queue, IOException e) {
+        System.err.println("Error writing to client: " + e.getMessage());
+        queue.disconnect();
+    }
+
+    /**
+     * Encodes a message showing a list of cards.
+     *
+     * @param buffer the buffer receiving the message
+     * @param head the UTF-8 text preceding the cards
+     * @param cards the cards to show
+     * @param tail the UTF-8 text following the cards
+     */
+    private static void putCards(ByteBuffer buffer, byte[] head, List<Card> cards, byte[] tail) {
+        buffer.put(head);
+        Card.putUtf8(cards, buffer);
+        buffer.put(tail);
     }
 }
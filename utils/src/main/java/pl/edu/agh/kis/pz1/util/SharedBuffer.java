@@ -0,0 +1,120 @@
+package pl.edu.agh.kis.pz1.util;
+
+import java.nio.ByteBuffer;
+import java.util.Deque;
+
+/**
+ * A message encoded once and sent to several connections, e.g. a broadcast of a {@link PokerMessenger}.
+ * <p>
+ * Every recipient gets its own {@link #view()}, a read-only duplicate with its own position, so one copy of the bytes
+ * serves all of them whatever part each socket has taken. The buffer counts its references: the sender holds one while
+ * it hands the views out, and each outbound queue holding a view it has not written yet holds another. When the last
+ * one is released the buffer goes back to its pool and the next broadcast is encoded into it.
+ * </p>
+ * <p>
+ * Instances are not thread-safe and must only be used by the thread of their messenger.
+ * </p>
+ */
+final class SharedBuffer {
+
+    /**
+     * The buffer the message is encoded into.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The pool the buffer returns to when it is released.
+     */
+    private final Deque<SharedBuffer> pool;
+
+    /**
+     * The most buffers the pool keeps.
+     */
+    private final int poolSize;
+
+    /**
+     * The encoded message, read-only.
+     */
+    private ByteBuffer content;
+
+    /**
+     * The number of holders of the buffer.
+     */
+    private int references;
+
+    /**
+     * Constructs a buffer.
+     *
+     * @param capacity the most bytes a message may take
+     * @param pool the pool the buffer returns to when it is released
+     * @param poolSize the most buffers the pool keeps
+     */
+    SharedBuffer(int capacity, Deque<SharedBuffer> pool, int poolSize) {
+        this.buffer = ByteBuffer.allocate(capacity);
+        this.pool = pool;
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Starts a new message, held by the caller until it calls {@link #release()}.
+     *
+     * @return the empty buffer to encode the message into
+     */
+    ByteBuffer open() {
+        references = 1;
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Ends the message encoded since {@link #open()}; views can be handed out from then on.
+     */
+    void seal() {
+        buffer.flip();
+        content = buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns a view of the message for one recipient. The view is not a reference: a holder keeping it beyond the
+     * current call must {@link #retain()} the buffer.
+     *
+     * @return a read-only buffer positioned at the start of the message
+     */
+    ByteBuffer view() {
+        return content.duplicate();
+    }
+
+    /**
+     * Adds a holder of the buffer.
+     */
+    void retain() {
+        references++;
+    }
+
+    /**
+     * Removes a holder of the buffer, returning it to its pool once nobody holds it.
+     */
+    void release() {
+        if (--references == 0 && pool.size() < poolSize) {
+            pool.push(this);
+        }
+    }
+
+    /**
+     * Returns the most bytes a message may take.
+     *
+     * @return the capacity of the buffer
+     */
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Returns the number of holders of the buffer.
+     *
+     * @return the references
+     */
+    int references() {
+        return references;
+    }
+}
@@ -119,6 +119,20 @@ class PokerJudgeTest {
                 r.distinguishmentCards(cards2)));
     }
 
+    @Test
+    void decideWinnerByScoresTest() {
+        HandRanker r = new HandRanker();
+        int pairOfTwos = r.score(List.of(Card.of(Rank.TWO, Suit.CLUBS), Card.of(Rank.TWO, Suit.DIAMONDS),
+                Card.of(Rank.NINE, Suit.HEARTS), Card.of(Rank.TEN, Suit.SPADES), Card.of(Rank.KING, Suit.CLUBS)));
+        int samePairOtherSuits = r.score(List.of(Card.of(Rank.TWO, Suit.HEARTS), Card.of(Rank.TWO, Suit.SPADES),
+                Card.of(Rank.NINE, Suit.CLUBS), Card.of(Rank.TEN, Suit.HEARTS), Card.of(Rank.KING, Suit.DIAMONDS)));
+        int pairOfThrees = r.score(List.of(Card.of(Rank.THREE, Suit.CLUBS), Card.of(Rank.THREE, Suit.DIAMONDS),
+                Card.of(Rank.FOUR, Suit.HEARTS), Card.of(Rank.FIVE, Suit.SPADES), Card.of(Rank.SEVEN, Suit.CLUBS)));
+        assertEquals(-1, PokerJudge.decideWinnerBetweenTwoPlayers(pairOfTwos, pairOfThrees));
+        assertEquals(1, PokerJudge.decideWinnerBetweenTwoPlayers(pairOfThrees, pairOfTwos));
+        assertEquals(0, PokerJudge.decideWinnerBetweenTwoPlayers(pairOfTwos, samePairOtherSuits));
+    }
+
     @Test
     void bettingEndedTest1() {
         Player p1 = new Player(mockSelectionKey1, 0);
@@ -0,0 +1,225 @@
+package pl.edu.agh.kis.pz1.util;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import pl.edu.agh.kis.pz1.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PokerMessengerTest {
+
+    private final List<Card> cards = List.of(Card.of(Rank.TWO, Suit.CLUBS), Card.of(Rank.KING, Suit.SPADES));
+
+    @Test
+    void testSendCardsWritesSameTextAsStringConcatenation() throws IOException {
+        SocketChannel channel = mock(SocketChannel.class);
+        new PokerMessenger().sendCards(channel, "Your cards: ", cards, "!");
+        assertEquals("Your cards: " + cards + "!", written(channel, 1).get(0));
+    }
+
+    @Test
+    void testSendCardsToAllWritesEveryPlayerOnce() throws IOException {
+        List<Player> players = new ArrayList<>();
+        List<SocketChannel> channels = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            SelectionKey key = mock(SelectionKey.class);
+            SocketChannel channel = mock(SocketChannel.class);
+            when(key.channel()).thenReturn(channel);
+            players.add(new Player(key, i));
+            channels.add(channel);
+        }
+        new PokerMessenger().sendCardsToAll(players, "Player 0 cards are: ", cards, "");
+        for (SocketChannel channel : channels) {
+            assertEquals("Player 0 cards are: " + cards + "\n", written(channel, 1).get(0));
+        }
+    }
+
+    @Test
+    void testPartialWriteIsQueuedAndFlushedInOrder() throws IOException {
+        StringBuilder received = new StringBuilder();
+        int[] capacity = {5};
+        SelectionKey key = registeredKey(received, capacity);
+        SocketChannel channel = (SocketChannel) key.channel();
+        PokerMessenger messenger = new PokerMessenger();
+        messenger.register(key);
+        messenger.sendResponse(channel, "Your turn!");
+        messenger.sendResponse(channel, " Choice: ");
+        assertEquals("Your ", received.toString());
+        assertEquals(14, messenger.getPendingBytes(channel));
+        verify(key).interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        capacity[0] = 100;
+        messenger.flush(key);
+        assertEquals("Your turn! Choice: ", received.toString());
+        assertEquals(0, messenger.getPendingBytes(channel));
+        verify(key).interestOps(SelectionKey.OP_READ);
+    }
+
+    @Test
+    void testSlowClientIsDisconnectedBeyondBudget() throws IOException {
+        int[] capacity = {0};
+        SelectionKey key = registeredKey(new StringBuilder(), capacity);
+        SocketChannel channel = (SocketChannel) key.channel();
+        PokerMessenger messenger = new PokerMessenger(16, PokerMessenger.SlowClientPolicy.DISCONNECT);
+        messenger.register(key);
+        messenger.sendResponse(channel, "0123456789");
+        messenger.sendResponse(channel, "0123456789");
+        verify(channel).shutdownInput();
+        assertEquals(0, messenger.getPendingBytes(channel));
+        messenger.sendResponse(channel, "more");
+        verify(channel, times(1)).write(any(ByteBuffer.class));
+    }
+
+    @Test
+    void testSlowClientMissesUpdatesWithinBudget() throws IOException {
+        StringBuilder received = new StringBuilder();
+        int[] capacity = {0};
+        SelectionKey key = registeredKey(received, capacity);
+        SocketChannel channel = (SocketChannel) key.channel();
+        List<Player> players = List.of(new Player(key, 0));
+        PokerMessenger messenger = new PokerMessenger(16, PokerMessenger.SlowClientPolicy.DROP_UPDATES);
+        messenger.register(key);
+        messenger.sendMessageToAll(players, "Player 1 checks");
+        messenger.sendMessageToAll(players, "Player 2 checks");
+        messenger.sendCardsToAll(players, "Player 1 cards are: ", cards, "");
+        assertEquals(2, messenger.getDroppedMessages(channel));
+        verify(channel, never()).shutdownInput();
+        capacity[0] = 100;
+        messenger.flush(key);
+        assertEquals("Player 1 checks\n", received.toString());
+        messenger.sendResponse(channel, "Your turn!");
+        assertEquals("Player 1 checks\nYour turn!", received.toString());
+    }
+
+    @Test
+    void testCloseWaitsForPendingOutput() throws IOException {
+        StringBuilder received = new StringBuilder();
+        int[] capacity = {3};
+        SelectionKey key = registeredKey(received, capacity);
+        SocketChannel channel = (SocketChannel) key.channel();
+        PokerMessenger messenger = new PokerMessenger();
+        messenger.register(key);
+        messenger.sendResponse(channel, "The winner is: 0");
+        messenger.close(key);
+        verify(channel, never()).close();
+        verify(key).interestOps(SelectionKey.OP_WRITE);
+        capacity[0] = 100;
+        messenger.flush(key);
+        assertEquals("The winner is: 0", received.toString());
+        verify(channel).close();
+    }
+
+    @Test
+    void testAbortCloseCutsOffLingeringConnection() throws IOException {
+        StringBuilder received = new StringBuilder();
+        int[] capacity = {3};
+        SelectionKey key = registeredKey(received, capacity);
+        SocketChannel channel = (SocketChannel) key.channel();
+        PokerMessenger messenger = new PokerMessenger();
+        messenger.register(key);
+        messenger.sendResponse(channel, "The winner is: 0");
+        messenger.close(key);
+        messenger.abortClose(key);
+        verify(channel).close();
+        assertEquals(0, messenger.getPendingBytes(channel));
+        capacity[0] = 100;
+        messenger.flush(key);
+        assertEquals("The", received.toString());
+    }
+
+    @Test
+    void testAbortCloseLeavesOpenConnections() throws IOException {
+        SelectionKey key = registeredKey(new StringBuilder(), new int[]{100});
+        PokerMessenger messenger = new PokerMessenger();
+        messenger.register(key);
+        messenger.abortClose(key);
+        verify(key.channel(), never()).close();
+    }
+
+    @Test
+    void testBroadcastHeldBySlowClientStaysIntact() throws IOException {
+        StringBuilder slowReceived = new StringBuilder();
+        StringBuilder fastReceived = new StringBuilder();
+        int[] slowCapacity = {0};
+        SelectionKey slow = registeredKey(slowReceived, slowCapacity);
+        SelectionKey fast = registeredKey(fastReceived, new int[]{100});
+        List<Player> players = List.of(new Player(slow, 0), new Player(fast, 1));
+        PokerMessenger messenger = new PokerMessenger();
+        messenger.register(slow);
+        messenger.register(fast);
+        messenger.sendMessageToAll(players, "Player 0 checks");
+        messenger.sendCardsToAll(players, "Player 0 cards are: ", cards, "");
+        for (int i = 1; i <= 3; i++) {
+            messenger.sendMessageToAll(List.of(players.get(1)), "Player " + i + " bets " + i);
+        }
+        String expected = "Player 0 checks\nPlayer 0 cards are: " + cards + "\n";
+        assertEquals(expected + "Player 1 bets 1\nPlayer 2 bets 2\nPlayer 3 bets 3\n", fastReceived.toString());
+        SocketChannel slowChannel = (SocketChannel) slow.channel();
+        assertEquals(expected.getBytes(StandardCharsets.UTF_8).length, messenger.getPendingBytes(slowChannel));
+        slowCapacity[0] = 100;
+        messenger.flush(slow);
+        assertEquals(expected, slowReceived.toString());
+    }
+
+    @Test
+    void testSharedBufferReturnsToPoolWhenReleased() {
+        Deque<SharedBuffer> pool = new ArrayDeque<>();
+        SharedBuffer shared = new SharedBuffer(16, pool, 1);
+        shared.open().put("hand".getBytes(StandardCharsets.UTF_8));
+        shared.seal();
+        ByteBuffer first = shared.view();
+        ByteBuffer second = shared.view();
+        assertTrue(first.isReadOnly());
+        first.get();
+        assertEquals(3, first.remaining());
+        assertEquals(4, second.remaining());
+        shared.retain();
+        shared.release();
+        assertTrue(pool.isEmpty());
+        shared.release();
+        assertEquals(0, shared.references());
+        assertSame(shared, pool.peek());
+    }
+
+    /**
+     * Mocks the key of a registered non-blocking connection whose socket takes at most {@code capacity[0]} bytes per
+     * write.
+     */
+    private static SelectionKey registeredKey(StringBuilder received, int[] capacity) throws IOException {
+        SelectionKey key = mock(SelectionKey.class);
+        SocketChannel channel = mock(SocketChannel.class);
+        when(key.channel()).thenReturn(channel);
+        when(key.isValid()).thenReturn(true);
+        when(key.interestOps()).thenReturn(SelectionKey.OP_READ);
+        when(channel.write(any(ByteBuffer.class))).thenAnswer(invocation -> {
+            ByteBuffer buffer = invocation.getArgument(0);
+            byte[] bytes = new byte[Math.min(capacity[0], buffer.remaining())];
+            buffer.get(bytes);
+            received.append(new String(bytes, StandardCharsets.UTF_8));
+            return bytes.length;
+        });
+        return key;
+    }
+
+    private static List<String> written(SocketChannel channel, int writes) throws IOException {
+        ArgumentCaptor<ByteBuffer> captor = ArgumentCaptor.forClass(ByteBuffer.class);
+        verify(channel, times(writes)).write(captor.capture());
+        List<String> messages = new ArrayList<>();
+        for (ByteBuffer buffer : captor.getAllValues()) {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            messages.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return messages;
+    }
+}